@@ -0,0 +1,35 @@
+package com.diosoft.calendar.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs benchmarks of calendar with usual options of JMH (e.g. -p eventCount=1000,100000 DataStoreBenchmark)
+ * and writes JSON report to reports/jmh-<version>.json unless -rff is given,
+ * so reports of releases can be compared one with another.
+ */
+public class BenchmarkRunner {
+    private final static String REPORTS_DIRECTORY = "reports";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLineOptions.getIncludes().isEmpty()) builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        if (!commandLineOptions.getResult().hasValue()) {
+            new File(REPORTS_DIRECTORY).mkdirs();
+            builder.resultFormat(ResultFormatType.JSON).result(REPORTS_DIRECTORY + File.separator + "jmh-" + version() + ".json");
+        }
+        Options options = builder.parent(commandLineOptions).build();
+        new Runner(options).run();
+    }
+
+    private static String version() {
+        String version = BenchmarkRunner.class.getPackage().getImplementationVersion();
+        return System.getProperty("calendar.version", version == null ? "dev" : version);
+    }
+}
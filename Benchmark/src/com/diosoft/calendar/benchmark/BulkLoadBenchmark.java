@@ -0,0 +1,78 @@
+package com.diosoft.calendar.benchmark;
+
+import com.diosoft.calendar.benchmark.workload.EventGenerator;
+import com.diosoft.calendar.benchmark.workload.WorkloadProfile;
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.datastore.ConcurrentDataStore;
+import com.diosoft.calendar.server.datastore.DataStore;
+import com.diosoft.calendar.server.datastore.DataStoreImpl;
+import com.diosoft.calendar.server.util.DateParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk load as done at start of server: dates of events are parsed from strings of XML by DateParser
+ * (see JAXBHelperImpl) and events are published into empty store. All events are yearly and last
+ * from an hour to three days, so every their day goes through index of yearly events.
+ * Run with -prof gc to see bytes allocated per load (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BulkLoadBenchmark {
+    private final static WorkloadProfile YEARLY = new WorkloadProfile.WorkloadProfileBuilder()
+            .periods("EVERY_YEAR=1")
+            .durations("60=2,1440=1,4320=1")
+            .build();
+
+    @Param({"10000"})
+    int eventCount;
+
+    @Param({"ConcurrentDataStore", "DataStoreImpl"})
+    String store;
+
+    private List<Event> events;
+    private List<String> dates;
+    private DataStore dataStore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EventGenerator generator = new EventGenerator(YEARLY, eventCount);
+        Random random = new Random(42);
+        events = new ArrayList<>(eventCount);
+        dates = new ArrayList<>(2 * eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            Event event = generator.newEvent(random);
+            events.add(event);
+            dates.add(DateParser.dateToString(event.getStartDate()));
+            dates.add(DateParser.dateToString(event.getEndDate()));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newStore() {
+        dataStore = "DataStoreImpl".equals(store) ? new DataStoreImpl(new NullFileSystem()) : new ConcurrentDataStore(new NullFileSystem());
+    }
+
+    @Benchmark
+    public DataStore load() throws Exception {
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            dataStore.publish(new Event.EventBuilder()
+                    .id(event.getId()).title(event.getTitle())
+                    .description(event.getDescription())
+                    .startDate(DateParser.stringToDate(dates.get(2 * i)))
+                    .endDate(DateParser.stringToDate(dates.get(2 * i + 1)))
+                    .attendersSet(event.getAttenders())
+                    .periodSet(event.getPeriod()).build());
+        }
+        return dataStore;
+    }
+}
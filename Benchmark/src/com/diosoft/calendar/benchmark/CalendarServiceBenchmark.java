@@ -0,0 +1,99 @@
+package com.diosoft.calendar.benchmark;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.Person;
+import com.diosoft.calendar.server.datastore.ConcurrentDataStore;
+import com.diosoft.calendar.server.datastore.DataStore;
+import com.diosoft.calendar.server.service.CalendarService;
+import com.diosoft.calendar.server.service.CalendarServiceImpl;
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches of CalendarServiceImpl over ConcurrentDataStore with synthetic calendar (see SyntheticCalendar),
+ * as they are called by server. Logging of service is turned down to warnings.
+ * Calendars of 10M events need heap of about 16 GB, smaller sizes can be chosen by -p eventCount=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class CalendarServiceBenchmark {
+    private final static int WEEK = 7;
+    private final static int ATTENDERS_OF_EVENT = 3;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int eventCount;
+
+    private SyntheticCalendar calendar;
+    private CalendarService calendarService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Logger.getRootLogger().setLevel(org.apache.log4j.Level.WARN);
+        calendar = new SyntheticCalendar(eventCount, 42);
+        DataStore dataStore = new ConcurrentDataStore(new NullFileSystem());
+        for (Event event : calendar.getEvents()) dataStore.publish(event);
+        calendarService = new CalendarServiceImpl(dataStore);
+    }
+
+    @Benchmark
+    public Set<Event> searchIntoPeriod() throws Exception {
+        LocalDate startDay = randomDay();
+        return calendarService.searchIntoPeriod(startDay, startDay.plusDays(WEEK - 1));
+    }
+
+    @Benchmark
+    public List<List<LocalDateTime>> searchFreeTime() throws Exception {
+        LocalDateTime startDate = randomDay().atTime(8, 0);
+        return calendarService.searchFreeTime(startDate, startDate.plusHours(11));
+    }
+
+    @Benchmark
+    public List<List<LocalDateTime>> searchFreeTime2() throws Exception {
+        LocalDateTime startDate = randomDay().atTime(8, 0);
+        return calendarService.searchFreeTime2(startDate, startDate.plusHours(11));
+    }
+
+    @Benchmark
+    public List<List<LocalDateTime>> searchFreeTimeForEvent() throws Exception {
+        LocalDateTime startDate = randomDay().atTime(8, 0);
+        return calendarService.searchFreeTimeForEvent(randomEvent(), startDate, startDate.plusHours(11));
+    }
+
+    @Benchmark
+    public List<List<LocalDateTime>> searchFreeTimeForEventWithAttenders() throws Exception {
+        LocalDateTime startDate = randomDay().atTime(8, 0);
+        return calendarService.searchFreeTimeForEventWithAttenders(randomEvent(), startDate, startDate.plusDays(WEEK));
+    }
+
+    private static LocalDate randomDay() {
+        return SyntheticCalendar.FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(SyntheticCalendar.DAYS));
+    }
+
+    /**
+     * Event of one hour with attenders of calendar, searched free time is checked against their events
+     */
+    private Event randomEvent() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Person> persons = calendar.getPersons();
+        Set<Person> attenders = new HashSet<>();
+        while (attenders.size() < ATTENDERS_OF_EVENT) attenders.add(persons.get(random.nextInt(persons.size())));
+        LocalDateTime startDate = SyntheticCalendar.FIRST_DAY.atTime(10, 0);
+        return new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Meeting")
+                .description("Meeting of attenders")
+                .startDate(startDate)
+                .endDate(startDate.plusHours(1))
+                .attendersSet(attenders)
+                .periodSet(new HashSet<>()).build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.diosoft.calendar.benchmark;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.datastore.ConcurrentDataStore;
+import com.diosoft.calendar.server.datastore.DataStore;
+import com.diosoft.calendar.server.datastore.DataStoreImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of data stores over synthetic calendar (see SyntheticCalendar) without file system.
+ * Calendars of 10M events need heap of about 16 GB, smaller sizes can be chosen by -p eventCount=...
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx16g")
+public class DataStoreBenchmark {
+    private final static int WEEK = 7;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    int eventCount;
+
+    @Param({"ConcurrentDataStore", "DataStoreImpl"})
+    String store;
+
+    SyntheticCalendar calendar;
+    DataStore dataStore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        calendar = new SyntheticCalendar(eventCount, 42);
+        dataStore = "DataStoreImpl".equals(store) ? new DataStoreImpl(new NullFileSystem()) : new ConcurrentDataStore(new NullFileSystem());
+        for (Event event : calendar.getEvents()) dataStore.publish(event);
+    }
+
+    @Benchmark
+    public void publish(NewEvent newEvent) throws Exception {
+        dataStore.publish(newEvent.event);
+    }
+
+    @Benchmark
+    public Event remove(PublishedEvent publishedEvent) throws Exception {
+        return dataStore.remove(publishedEvent.event.getId());
+    }
+
+    @Benchmark
+    public List<Event> getEventByDay() {
+        return dataStore.getEventByDay(randomDay());
+    }
+
+    @Benchmark
+    public List<Event> getEventIntoPeriod() {
+        LocalDate startDay = randomDay();
+        return dataStore.getEventIntoPeriod(startDay, startDay.plusDays(WEEK - 1));
+    }
+
+    @Benchmark
+    public List<Event> searchEventByTitleStartWith() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return dataStore.searchEventByTitleStartWith(SyntheticCalendar.TITLES[random.nextInt(SyntheticCalendar.TITLES.length)] + " " + (1 + random.nextInt(9)));
+    }
+
+    private static LocalDate randomDay() {
+        return SyntheticCalendar.FIRST_DAY.plusDays(ThreadLocalRandom.current().nextInt(SyntheticCalendar.DAYS));
+    }
+
+    /**
+     * New event for publish, it is removed after every call to keep size of calendar
+     */
+    @State(Scope.Thread)
+    public static class NewEvent {
+        private final Random random = new Random();
+        private DataStore dataStore;
+        Event event;
+
+        @Setup(Level.Invocation)
+        public void setUp(DataStoreBenchmark benchmark) {
+            dataStore = benchmark.dataStore;
+            event = benchmark.calendar.newEvent(random);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() throws Exception {
+            dataStore.remove(event.getId());
+        }
+    }
+
+    /**
+     * Event published before every call of remove
+     */
+    @State(Scope.Thread)
+    public static class PublishedEvent {
+        private final Random random = new Random();
+        Event event;
+
+        @Setup(Level.Invocation)
+        public void setUp(DataStoreBenchmark benchmark) throws Exception {
+            event = benchmark.calendar.newEvent(random);
+            benchmark.dataStore.publish(event);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.diosoft.calendar.benchmark;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.common.Person;
+import com.diosoft.calendar.server.datastore.ConcurrentDataStore;
+import com.diosoft.calendar.server.datastore.DataStore;
+import com.diosoft.calendar.server.datastore.DataStoreImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getEventByDay while count of EVERY_DAY events grows: only few daily events are active on the searched day,
+ * the rest start later, so latency should stay nearly the same for any count
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DayPeriodIndexBenchmark {
+    private final static LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    private final static int ACTIVE_EVENTS = 10;
+
+    @Param({"1000", "10000", "100000"})
+    int eventCount;
+
+    @Param({"ConcurrentDataStore", "DataStoreImpl"})
+    String store;
+
+    DataStore dataStore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataStore = "DataStoreImpl".equals(store) ? new DataStoreImpl(new NullFileSystem()) : new ConcurrentDataStore(new NullFileSystem());
+        Person person = new Person.PersonBuilder().name("Denis").lastName("Milyaev").email("denis@ukr.net").build();
+        for (int i = 0; i < eventCount; i++) {
+            LocalDate day = FIRST_DAY.plusDays(i);
+            dataStore.publish(new Event.EventBuilder()
+                    .id(UUID.randomUUID()).title("Daily " + i)
+                    .description("Daily event " + i)
+                    .startDate(day.atTime(9, 0))
+                    .endDate(day.atTime(10, 0))
+                    .periodSet(Collections.singleton(PeriodOfEvent.EVERY_DAY))
+                    .attendersSet(Collections.singleton(person)).build());
+        }
+    }
+
+    @Benchmark
+    public List<Event> getEventByDay() {
+        return dataStore.getEventByDay(FIRST_DAY.plusDays(ACTIVE_EVENTS - 1));
+    }
+}
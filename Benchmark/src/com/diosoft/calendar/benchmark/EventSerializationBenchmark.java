@@ -0,0 +1,152 @@
+package com.diosoft.calendar.benchmark;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.common.Person;
+import com.diosoft.calendar.server.datastore.ConcurrentDataStore;
+import com.diosoft.calendar.server.datastore.DataStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Java serialization (RMI) of result of search: list of events of synthetic calendar in compact form of EventProxy
+ * and PersonProxy against default serialization of the same fields (previous form of Event and Person).
+ * Attenders of result are shared instances of pool of persons, own instances of every event (as after separate calls
+ * of add) or own instances which passed through data store. Size of result per event is printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    int resultSize;
+
+    @Param({"shared", "own", "published"})
+    String attenders;
+
+    List<Event> result;
+    List<DefaultEvent> defaultResult;
+    byte[] bytes;
+    byte[] defaultBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        result = new ArrayList<>();
+        for (Event event : new SyntheticCalendar(resultSize, 42).getEvents())
+            result.add("shared".equals(attenders) ? event : withOwnAttenders(event));
+        if ("published".equals(attenders)) {
+            DataStore dataStore = new ConcurrentDataStore(new NullFileSystem());
+            dataStore.publishAll(result);
+            result.replaceAll(event -> dataStore.getEventById(event.getId()));
+            result.removeIf(Objects::isNull);
+        }
+//  default form shares instances of persons as much as compact form does
+        Map<Person, DefaultPerson> defaultPersons = new IdentityHashMap<>();
+        defaultResult = new ArrayList<>();
+        for (Event event : result) defaultResult.add(new DefaultEvent(event, defaultPersons));
+
+        bytes = serialize(result);
+        defaultBytes = serialize(defaultResult);
+        System.out.println("Serialized result: " + bytes.length / result.size() + " bytes/event, default form: "
+                + defaultBytes.length / result.size() + " bytes/event");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return serialize(result);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        return deserialize(bytes);
+    }
+
+    @Benchmark
+    public byte[] serializeDefault() throws IOException {
+        return serialize(defaultResult);
+    }
+
+    @Benchmark
+    public Object deserializeDefault() throws IOException, ClassNotFoundException {
+        return deserialize(defaultBytes);
+    }
+
+    private static Event withOwnAttenders(Event event) {
+        Set<Person> attenders = new HashSet<>();
+        for (Person attender : event.getAttenders()) attenders.add(new Person.PersonBuilder(attender).build());
+        return new Event.EventBuilder(event).attendersSet(attenders).build();
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    /**
+     * Fields of Event serialized by default
+     */
+    private static class DefaultEvent implements Serializable {
+        private final static long serialVersionUID = 1L;
+
+        private final UUID id;
+        private final String title;
+        private final String description;
+        private final LocalDateTime startDate;
+        private final LocalDateTime endDate;
+        private final Set<DefaultPerson> attenders = new HashSet<>();
+        private final Set<PeriodOfEvent> period;
+
+        private DefaultEvent(Event event, Map<Person, DefaultPerson> defaultPersons) {
+            this.id = event.getId();
+            this.title = event.getTitle();
+            this.description = event.getDescription();
+            this.startDate = event.getStartDate();
+            this.endDate = event.getEndDate();
+            for (Person attender : event.getAttenders()) attenders.add(defaultPersons.computeIfAbsent(attender, DefaultPerson::new));
+            this.period = new HashSet<>(event.getPeriod());
+        }
+    }
+
+    private static class DefaultPerson implements Serializable {
+        private final static long serialVersionUID = 1L;
+
+        private final String name;
+        private final String lastName;
+        private final String email;
+
+        private DefaultPerson(Person person) {
+            this.name = person.getName();
+            this.lastName = person.getLastName();
+            this.email = person.getEmail();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof DefaultPerson)) return false;
+            DefaultPerson person = (DefaultPerson) obj;
+            return Objects.equals(name, person.name) && Objects.equals(lastName, person.lastName) && Objects.equals(email, person.email);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, lastName, email);
+        }
+    }
+}
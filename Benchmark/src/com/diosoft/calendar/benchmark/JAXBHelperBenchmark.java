@@ -0,0 +1,66 @@
+package com.diosoft.calendar.benchmark;
+
+import com.diosoft.calendar.server.adapter.EventAdapter;
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.filesystem.JAXBHelper;
+import com.diosoft.calendar.server.filesystem.JAXBHelperImpl;
+import org.openjdk.jmh.annotations.*;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write and read of one event of synthetic calendar by JAXBHelperImpl, as FileSystemXml does for every event,
+ * against creation of JAXBContext on every call (previous behaviour of JAXBHelperImpl)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JAXBHelperBenchmark {
+    private final JAXBHelper jaxbHelper = new JAXBHelperImpl();
+    private Event event;
+    private String xml;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        event = new SyntheticCalendar(0, 42).newEvent(new Random(42));
+        xml = write();
+    }
+
+    @Benchmark
+    public String write() throws Exception {
+        StringWriter stringWriter = new StringWriter();
+        BufferedWriter writer = new BufferedWriter(stringWriter);
+        jaxbHelper.write(event, writer);
+        writer.flush();
+        return stringWriter.toString();
+    }
+
+    @Benchmark
+    public Event read() throws Exception {
+        return jaxbHelper.read(new BufferedReader(new StringReader(xml)));
+    }
+
+    @Benchmark
+    public String writeNewContext() throws Exception {
+        Marshaller marshaller = JAXBContext.newInstance(EventAdapter.class).createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        StringWriter writer = new StringWriter();
+        marshaller.marshal(new EventAdapter(event), writer);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public Object readNewContext() throws Exception {
+        return JAXBContext.newInstance(EventAdapter.class).createUnmarshaller().unmarshal(new StringReader(xml));
+    }
+}
@@ -0,0 +1,54 @@
+package com.diosoft.calendar.benchmark;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.datastore.ConcurrentDataStore;
+import com.diosoft.calendar.server.datastore.DataStore;
+import com.diosoft.calendar.server.metrics.MeteredProxy;
+import com.diosoft.calendar.server.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of metrics per call: the cheapest lookup of data store directly and through MeteredProxy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    private final static int EVENT_COUNT = 10_000;
+
+    private List<Event> events;
+    private DataStore dataStore;
+    private DataStore meteredDataStore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        events = new SyntheticCalendar(EVENT_COUNT, 42).getEvents();
+        dataStore = new ConcurrentDataStore(new NullFileSystem());
+        for (Event event : events) dataStore.publish(event);
+        meteredDataStore = MeteredProxy.wrap(DataStore.class, dataStore, new MetricsRegistry());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Event getEventById() {
+        return dataStore.getEventById(randomId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Event getEventByIdMetered() {
+        return meteredDataStore.getEventById(randomId());
+    }
+
+    private UUID randomId() {
+        return events.get(ThreadLocalRandom.current().nextInt(EVENT_COUNT)).getId();
+    }
+}
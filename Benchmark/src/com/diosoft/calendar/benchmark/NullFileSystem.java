@@ -0,0 +1,44 @@
+package com.diosoft.calendar.benchmark;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.filesystem.FileSystem;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * File system which keeps nothing, so benchmarks of data store measure only its indexes
+ */
+class NullFileSystem implements FileSystem {
+
+    @Override
+    public void write(Event event) {
+    }
+
+    @Override
+    public Event read(UUID id) {
+        return null;
+    }
+
+    @Override
+    public Event read(Path pathToFile) {
+        return null;
+    }
+
+    @Override
+    public boolean delete(UUID id) {
+        return true;
+    }
+
+    @Override
+    public List<Event> readAllEvents() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void readAllEvents(Consumer<Event> consumer) {
+    }
+}
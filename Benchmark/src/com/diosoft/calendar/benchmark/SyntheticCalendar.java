@@ -0,0 +1,51 @@
+package com.diosoft.calendar.benchmark;
+
+import com.diosoft.calendar.benchmark.workload.EventGenerator;
+import com.diosoft.calendar.benchmark.workload.WorkloadProfile;
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.Person;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible calendar of given size for benchmarks, generated by EventGenerator with default WorkloadProfile:
+ * events of one year in working hours, 15 minutes to 2 hours long, 1 to 6 attenders of pool of one person per 50 events.
+ * Mix of periods: 85% ONCE, 9% one day of week, 1% EVERY_DAY, 3% EVERY_MONTH, 2% EVERY_YEAR.
+ */
+public class SyntheticCalendar {
+    public final static LocalDate FIRST_DAY = WorkloadProfile.DEFAULT.getFirstDay();
+    public final static int DAYS = WorkloadProfile.DEFAULT.getDays();
+    public final static String[] TITLES = EventGenerator.TITLES;
+
+    private final EventGenerator generator;
+    private final List<Event> events;
+
+    /**
+     * @param eventCount count of events
+     * @param seed of random, the same seed gives the same calendar
+     */
+    public SyntheticCalendar(int eventCount, long seed) {
+        generator = new EventGenerator(WorkloadProfile.DEFAULT, eventCount);
+        Random random = new Random(seed);
+        events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) events.add(generator.newEvent(random));
+    }
+
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    public List<Person> getPersons() {
+        return generator.getPersons();
+    }
+
+    /**
+     * Create one more event by rules of calendar, it is not added to events of calendar
+     */
+    public Event newEvent(Random random) {
+        return generator.newEvent(random);
+    }
+}
@@ -0,0 +1,71 @@
+package com.diosoft.calendar.benchmark.workload;
+
+import com.diosoft.calendar.server.service.CalendarService;
+import com.diosoft.calendar.server.transport.BinaryCalendarClient;
+import org.springframework.remoting.rmi.RmiProxyFactoryBean;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Arguments of command line in form --name=value, common options of profile and connection to service
+ */
+class Arguments {
+    private final Map<String, String> values = new HashMap<>();
+
+    Arguments(String[] args) {
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) throw new IllegalArgumentException("Argument must be --name=value: " + arg);
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    long getLong(String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    /**
+     * Profile by --firstDay=2020-01-01 --days=365 --attenders=1-6 --eventsPerPerson=50 --periods=ONCE=85,... --durations=30=5,...
+     */
+    WorkloadProfile getProfile() {
+        WorkloadProfile.WorkloadProfileBuilder builder = new WorkloadProfile.WorkloadProfileBuilder();
+        if (values.containsKey("firstDay")) builder.firstDay(LocalDate.parse(values.get("firstDay")));
+        if (values.containsKey("days")) builder.days(getInt("days", 0));
+        if (values.containsKey("attenders")) {
+            String[] range = values.get("attenders").split("-");
+            builder.attenders(Integer.parseInt(range[0]), Integer.parseInt(range[range.length - 1]));
+        }
+        if (values.containsKey("eventsPerPerson")) builder.eventsPerPerson(getInt("eventsPerPerson", 0));
+        if (values.containsKey("periods")) builder.periods(values.get("periods"));
+        if (values.containsKey("durations")) builder.durations(values.get("durations"));
+        return builder.build();
+    }
+
+    /**
+     * Connect to service by url: rmi://host:port/CalendarService or binary://host:port
+     */
+    static CalendarService connect(String url) throws Exception {
+        if (url.startsWith("rmi://")) {
+            RmiProxyFactoryBean factory = new RmiProxyFactoryBean();
+            factory.setServiceUrl(url);
+            factory.setServiceInterface(CalendarService.class);
+            factory.afterPropertiesSet();
+            return (CalendarService) factory.getObject();
+        }
+        if (url.startsWith("binary://")) {
+            String[] hostAndPort = url.substring("binary://".length()).split(":");
+            return new BinaryCalendarClient(hostAndPort[0], Integer.parseInt(hostAndPort[1])).getService();
+        }
+        throw new IllegalArgumentException("Unknown url of service: " + url);
+    }
+}
@@ -0,0 +1,71 @@
+package com.diosoft.calendar.benchmark.workload;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.Person;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Events of synthetic calendar by profile: start in working hours (8:00 - 18:45 by 15 minutes) of random day,
+ * attenders of fixed pool of persons. Persons are numbered, so generators of the same count of events
+ * (e.g. of WorkloadGenerator and of LoadReplay) have the same persons.
+ * Titles are one of few words and number, so search by prefix of word finds about 1/8 of events.
+ */
+public class EventGenerator {
+    public final static String[] TITLES = {"Meeting", "Stand-up", "Review", "Planning", "Call", "Interview", "Lunch", "Retrospective"};
+    private final static int DAY_START_HOUR = 8;
+    private final static int START_SLOTS = 44;
+    private final static int SLOT_MINUTES = 15;
+
+    private final WorkloadProfile profile;
+    private final List<Person> persons;
+    private final AtomicInteger nextNumber = new AtomicInteger();
+
+    /**
+     * @param eventCount count of events of calendar, defines count of persons
+     */
+    public EventGenerator(WorkloadProfile profile, int eventCount) {
+        if (profile == null || eventCount < 0) throw new IllegalArgumentException();
+        this.profile = profile;
+        int personCount = profile.getPersonCount(eventCount);
+        List<Person> persons = new ArrayList<>(personCount);
+        for (int i = 0; i < personCount; i++)
+            persons.add(new Person.PersonBuilder().name("Name" + i).lastName("LastName" + i).email("person" + i + "@ukr.net").build());
+        this.persons = Collections.unmodifiableList(persons);
+    }
+
+    public WorkloadProfile getProfile() {
+        return profile;
+    }
+
+    public List<Person> getPersons() {
+        return persons;
+    }
+
+    public Event newEvent(Random random) {
+        LocalDateTime startDate = randomDay(random).atTime(DAY_START_HOUR, 0).plusMinutes(SLOT_MINUTES * random.nextInt(START_SLOTS));
+        Set<Person> attenders = new HashSet<>();
+        int attenderCount = Math.min(profile.randomAttenderCount(random), persons.size());
+        while (attenders.size() < attenderCount) attenders.add(randomPerson(random));
+        int number = nextNumber.getAndIncrement();
+        return new Event.EventBuilder()
+                .id(new UUID(random.nextLong(), random.nextLong()))
+                .title(TITLES[random.nextInt(TITLES.length)] + " " + number)
+                .description("Discussion of task " + number)
+                .startDate(startDate)
+                .endDate(startDate.plusMinutes(profile.randomDuration(random)))
+                .attendersSet(attenders)
+                .periodSet(new HashSet<>(Collections.singleton(profile.randomPeriod(random)))).build();
+    }
+
+    public Person randomPerson(Random random) {
+        return persons.get(random.nextInt(persons.size()));
+    }
+
+    public LocalDate randomDay(Random random) {
+        return profile.getFirstDay().plusDays(random.nextInt(profile.getDays()));
+    }
+}
@@ -0,0 +1,210 @@
+package com.diosoft.calendar.benchmark.workload;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.metrics.Histogram;
+import com.diosoft.calendar.server.service.CalendarService;
+
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends mix of reads and writes to CalendarService at fixed rate and records latency histogram of every operation.
+ * Calls are scheduled by time (open loop): latency is counted from planned start of call, so slow responses
+ * which delay next calls are counted too. Persons and days of calls are taken by the same profile and count of events
+ * as of WorkloadGenerator, so they hit generated calendar.
+ * Run: java LoadReplay --service=binary://localhost:1200 --events=1000000 [--qps=1000] [--seconds=60] [--threads=64]
+ *      [--mix=ADD=10,REMOVE=5,...] [--histogram=file] [profile options]
+ */
+public class LoadReplay {
+    private final static int PAGE_SIZE = 50;
+    private final static double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private final static int WEEK = 7;
+    private final static String DEFAULT_MIX = "ADD=10,REMOVE=5,SEARCH_BY_DAY=25,SEARCH_INTO_PERIOD=15,SEARCH_BY_ATTENDER=20," +
+            "SEARCH_BY_TITLE_PREFIX=10,SEARCH_FREE_TIME=10,SEARCH_FREE_TIME_WITH_ATTENDERS=5";
+
+    enum Operation {
+        ADD {
+            @Override
+            void call(LoadReplay replay, Random random) throws Exception {
+                Event event = replay.generator.newEvent(random);
+                replay.calendarService.add(event);
+                replay.addedIds.add(event.getId());
+            }
+        },
+        REMOVE {
+            @Override
+            void call(LoadReplay replay, Random random) throws Exception {
+                UUID id = replay.addedIds.poll();
+                replay.calendarService.remove(id == null ? new UUID(random.nextLong(), random.nextLong()) : id);
+            }
+        },
+        SEARCH_BY_DAY {
+            @Override
+            void call(LoadReplay replay, Random random) throws Exception {
+                replay.calendarService.searchByDay(replay.generator.randomDay(random));
+            }
+        },
+        SEARCH_INTO_PERIOD {
+            @Override
+            void call(LoadReplay replay, Random random) throws Exception {
+                LocalDate startDay = replay.generator.randomDay(random);
+                replay.calendarService.searchIntoPeriod(startDay, startDay.plusDays(WEEK - 1), null, PAGE_SIZE);
+            }
+        },
+        SEARCH_BY_ATTENDER {
+            @Override
+            void call(LoadReplay replay, Random random) throws Exception {
+                replay.calendarService.searchByAttender(replay.generator.randomPerson(random), null, PAGE_SIZE);
+            }
+        },
+        SEARCH_BY_TITLE_PREFIX {
+            @Override
+            void call(LoadReplay replay, Random random) throws Exception {
+                String prefix = EventGenerator.TITLES[random.nextInt(EventGenerator.TITLES.length)] + " " + (1 + random.nextInt(9));
+                replay.calendarService.searchEventByTitleStartWith(prefix, null, PAGE_SIZE);
+            }
+        },
+        SEARCH_FREE_TIME {
+            @Override
+            void call(LoadReplay replay, Random random) throws Exception {
+                LocalDateTime startDate = replay.generator.randomDay(random).atTime(8, 0);
+                replay.calendarService.searchFreeTime2(startDate, startDate.plusHours(11));
+            }
+        },
+        SEARCH_FREE_TIME_WITH_ATTENDERS {
+            @Override
+            void call(LoadReplay replay, Random random) throws Exception {
+                Event event = replay.generator.newEvent(random);
+                LocalDateTime startDate = replay.generator.randomDay(random).atTime(8, 0);
+                replay.calendarService.searchFreeTimeForEventWithAttenders(event, startDate, startDate.plusDays(WEEK));
+            }
+        };
+
+        abstract void call(LoadReplay replay, Random random) throws Exception;
+    }
+
+    private final CalendarService calendarService;
+    private final EventGenerator generator;
+    private final Queue<UUID> addedIds = new ConcurrentLinkedQueue<>();
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LoadReplay(CalendarService calendarService, EventGenerator generator) {
+        this.calendarService = calendarService;
+        this.generator = generator;
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new Histogram());
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments(args);
+        CalendarService calendarService = Arguments.connect(arguments.get("service", "rmi://localhost:1199/CalendarService"));
+        LoadReplay replay = new LoadReplay(calendarService, new EventGenerator(arguments.getProfile(), arguments.getInt("events", 100_000)));
+        Map<Operation, Integer> mix = parseMix(arguments.get("mix", DEFAULT_MIX));
+        int qps = arguments.getInt("qps", 1_000);
+        int seconds = arguments.getInt("seconds", 60);
+        System.out.println("Replaying " + mix + " at " + qps + " calls per second for " + seconds + " s");
+
+        replay.run(mix, qps, TimeUnit.SECONDS.toNanos(seconds), arguments.getInt("threads", 64), arguments.getLong("seed", 42));
+        replay.printSummary(System.out);
+        String histogramFile = arguments.get("histogram", null);
+        if (histogramFile != null) {
+            try (PrintStream out = new PrintStream(histogramFile, "UTF-8")) {
+                replay.printDistribution(out);
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Start calls at fixed rate during given time and wait for all of them
+     */
+    void run(Map<Operation, Integer> mix, int qps, long durationNanos, int threads, long seed) throws InterruptedException {
+        if (qps < 1 || durationNanos < 0 || threads < 1) throw new IllegalArgumentException();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Random random = new Random(seed);
+        int weightSum = mix.values().stream().mapToInt(Integer::intValue).sum();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / qps;
+        long start = System.nanoTime();
+        for (long call = 0; call * intervalNanos < durationNanos; call++) {
+            long plannedStart = start + call * intervalNanos;
+            for (long delay; (delay = plannedStart - System.nanoTime()) > 0; ) LockSupport.parkNanos(delay);
+            Operation operation = pick(mix, random.nextInt(weightSum));
+            executor.execute(() -> call(operation, plannedStart));
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    private void call(Operation operation, long plannedStart) {
+        try {
+            operation.call(this, ThreadLocalRandom.current());
+        } catch (Exception e) {
+            errors.get(operation).increment();
+        } finally {
+            histograms.get(operation).record(System.nanoTime() - plannedStart);
+        }
+    }
+
+    /**
+     * Print count, mean, percentiles and max of latency in microseconds as table of operations
+     */
+    void printSummary(PrintStream out) {
+        StringBuilder header = new StringBuilder(String.format("%-40s %10s %10s", "operation (us)", "count", "mean"));
+        for (double percentile : PERCENTILES) header.append(String.format(" %10s", "p" + percentile));
+        out.println(header.append(String.format(" %10s", "max")));
+
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getCount() == 0) continue;
+            StringBuilder sb = new StringBuilder(String.format("%-40s %10d %10.1f", operation, histogram.getCount(), histogram.getMean() / 1000));
+            for (double percentile : PERCENTILES) sb.append(String.format(" %10.1f", histogram.getValueAtPercentile(percentile) / 1000.0));
+            out.println(sb.append(String.format(" %10.1f", histogram.getMax() / 1000.0)));
+            long errorCount = errors.get(operation).sum();
+            if (errorCount > 0) out.println("    errors: " + errorCount);
+        }
+    }
+
+    /**
+     * Print not empty buckets of every operation as lines of highest latency in microseconds, count and cumulative percent
+     */
+    void printDistribution(PrintStream out) {
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getCount() == 0) continue;
+            out.println("# " + operation);
+            long[] seen = {0};
+            histogram.forEachBucket((highestValue, count) -> {
+                seen[0] += count;
+                out.println(String.format("%.3f %d %.4f", highestValue / 1000.0, count, 100.0 * seen[0] / histogram.getCount()));
+            });
+        }
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String pair : mix.split(",")) {
+            String[] operationAndWeight = pair.trim().split("=");
+            if (operationAndWeight.length != 2) throw new IllegalArgumentException("Weight must be OPERATION=weight: " + pair);
+            int weight = Integer.parseInt(operationAndWeight[1].trim());
+            if (weight > 0) weights.put(Operation.valueOf(operationAndWeight[0].trim()), weight);
+        }
+        if (weights.isEmpty()) throw new IllegalArgumentException("No operation in mix: " + mix);
+        return weights;
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, int value) {
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) return entry.getKey();
+        }
+        throw new IllegalStateException();
+    }
+}
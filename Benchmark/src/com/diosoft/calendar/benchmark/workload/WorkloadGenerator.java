@@ -0,0 +1,74 @@
+package com.diosoft.calendar.benchmark.workload;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.filesystem.JAXBHelper;
+import com.diosoft.calendar.server.filesystem.JAXBHelperImpl;
+import com.diosoft.calendar.server.service.CalendarService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates synthetic calendar by profile (see Arguments.getProfile) and writes it in layout of FileSystemXml
+ * (one file <id>.xml per event) or adds it through CalendarService by batches.
+ * Run: java WorkloadGenerator --events=1000000 [--seed=42] [profile options]
+ *      --target=xml:Service/resources/events/ | --target=rmi://localhost:1199/CalendarService | --target=binary://localhost:1200
+ */
+public class WorkloadGenerator {
+    private final static int BATCH_SIZE = 1_000;
+    private final static int PROGRESS_INTERVAL = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        Arguments arguments = new Arguments(args);
+        int eventCount = arguments.getInt("events", 100_000);
+        String target = arguments.get("target", "xml:Service/resources/events/");
+        EventGenerator generator = new EventGenerator(arguments.getProfile(), eventCount);
+        Random random = new Random(arguments.getLong("seed", 42));
+        System.out.println("Generating " + eventCount + " events of " + generator.getPersons().size() + " persons by " + generator.getProfile());
+
+        BatchWriter writer = target.startsWith("xml:") ? xmlWriter(Paths.get(target.substring("xml:".length()))) : serviceWriter(Arguments.connect(target));
+        long start = System.nanoTime();
+        List<Event> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= eventCount; i++) {
+            batch.add(generator.newEvent(random));
+            if (batch.size() == BATCH_SIZE || i == eventCount) {
+                writer.write(batch);
+                batch.clear();
+            }
+            if (i % PROGRESS_INTERVAL == 0) System.out.println(i + " events written");
+        }
+        System.out.println(eventCount + " events written to " + target + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        System.exit(0);
+    }
+
+    private static BatchWriter xmlWriter(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        JAXBHelper jaxbHelper = new JAXBHelperImpl();
+        return events -> events.parallelStream().forEach(event -> {
+            try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(event.getId() + ".xml"), StandardCharsets.UTF_8)) {
+                jaxbHelper.write(event, writer);
+            } catch (Exception e) {
+                throw new UncheckedIOException(new IOException("Event " + event.getId() + " can't be written", e));
+            }
+        });
+    }
+
+    private static BatchWriter serviceWriter(CalendarService calendarService) {
+        return events -> {
+            List<Boolean> added = calendarService.addAll(events);
+            if (added.contains(Boolean.FALSE)) System.out.println("Some events of batch were not added");
+        };
+    }
+
+    private interface BatchWriter {
+        void write(List<Event> events) throws Exception;
+    }
+}
@@ -0,0 +1,180 @@
+package com.diosoft.calendar.benchmark.workload;
+
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Shape of synthetic calendar: days covered by events, count of attenders per event and of persons,
+ * weights of periods and of durations. Weights are relative, e.g. ONCE=850,MONDAY=150 gives 85% of single events.
+ */
+public class WorkloadProfile {
+    public final static WorkloadProfile DEFAULT = new WorkloadProfileBuilder().build();
+
+    private final LocalDate firstDay;
+    private final int days;
+    private final int minAttenders;
+    private final int maxAttenders;
+    private final int eventsPerPerson;
+    private final Map<PeriodOfEvent, Integer> periodWeights;
+    private final NavigableMap<Integer, Integer> durationWeights;
+    private final int periodWeightSum;
+    private final int durationWeightSum;
+
+    private WorkloadProfile(WorkloadProfileBuilder builder) {
+        this.firstDay = builder.firstDay;
+        this.days = builder.days;
+        this.minAttenders = builder.minAttenders;
+        this.maxAttenders = builder.maxAttenders;
+        this.eventsPerPerson = builder.eventsPerPerson;
+        this.periodWeights = Collections.unmodifiableMap(new EnumMap<>(builder.periodWeights));
+        this.durationWeights = Collections.unmodifiableNavigableMap(new TreeMap<>(builder.durationWeights));
+        this.periodWeightSum = periodWeights.values().stream().mapToInt(Integer::intValue).sum();
+        this.durationWeightSum = durationWeights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public int getMinAttenders() {
+        return minAttenders;
+    }
+
+    public int getMaxAttenders() {
+        return maxAttenders;
+    }
+
+    public Map<PeriodOfEvent, Integer> getPeriodWeights() {
+        return periodWeights;
+    }
+
+    public NavigableMap<Integer, Integer> getDurationWeights() {
+        return durationWeights;
+    }
+
+    /**
+     * @return count of persons for calendar of given count of events, not less than max count of attenders
+     */
+    public int getPersonCount(int eventCount) {
+        return Math.max(maxAttenders, eventCount / eventsPerPerson);
+    }
+
+    public PeriodOfEvent randomPeriod(Random random) {
+        return pick(periodWeights, random.nextInt(periodWeightSum));
+    }
+
+    /**
+     * @return duration of event in minutes
+     */
+    public int randomDuration(Random random) {
+        return pick(durationWeights, random.nextInt(durationWeightSum));
+    }
+
+    public int randomAttenderCount(Random random) {
+        return minAttenders + random.nextInt(maxAttenders - minAttenders + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadProfile{firstDay=" + firstDay + ", days=" + days + ", attenders=" + minAttenders + "-" + maxAttenders +
+                ", eventsPerPerson=" + eventsPerPerson + ", periods=" + periodWeights + ", durations=" + durationWeights + '}';
+    }
+
+    private static <K> K pick(Map<K, Integer> weights, int value) {
+        for (Map.Entry<K, Integer> entry : weights.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) return entry.getKey();
+        }
+        throw new IllegalStateException();
+    }
+
+    public static class WorkloadProfileBuilder {
+        private LocalDate firstDay = LocalDate.of(2020, 1, 1);
+        private int days = 365;
+        private int minAttenders = 1;
+        private int maxAttenders = 6;
+        private int eventsPerPerson = 50;
+        private Map<PeriodOfEvent, Integer> periodWeights = parsePeriodWeights(
+                "ONCE=850,MONDAY=18,TUESDAY=18,WEDNESDAY=18,THURSDAY=18,FRIDAY=18,EVERY_DAY=10,EVERY_MONTH=30,EVERY_YEAR=20");
+        private Map<Integer, Integer> durationWeights = parseDurationWeights("15=1,30=1,45=1,60=1,75=1,90=1,105=1,120=1");
+
+        public WorkloadProfileBuilder firstDay(LocalDate firstDay) {
+            this.firstDay = firstDay;
+            return this;
+        }
+
+        public WorkloadProfileBuilder days(int days) {
+            this.days = days;
+            return this;
+        }
+
+        public WorkloadProfileBuilder attenders(int minAttenders, int maxAttenders) {
+            this.minAttenders = minAttenders;
+            this.maxAttenders = maxAttenders;
+            return this;
+        }
+
+        public WorkloadProfileBuilder eventsPerPerson(int eventsPerPerson) {
+            this.eventsPerPerson = eventsPerPerson;
+            return this;
+        }
+
+        /**
+         * @param weights e.g. ONCE=80,EVERY_DAY=5,MONDAY=15, missing periods have weight 0
+         */
+        public WorkloadProfileBuilder periods(String weights) {
+            this.periodWeights = parsePeriodWeights(weights);
+            return this;
+        }
+
+        /**
+         * @param weights minutes and weight of duration, e.g. 30=5,60=3,120=1
+         */
+        public WorkloadProfileBuilder durations(String weights) {
+            this.durationWeights = parseDurationWeights(weights);
+            return this;
+        }
+
+        public WorkloadProfile build() {
+            if (firstDay == null || days < 1 || minAttenders < 1 || maxAttenders < minAttenders || eventsPerPerson < 1)
+                throw new IllegalArgumentException();
+            return new WorkloadProfile(this);
+        }
+
+        private static Map<PeriodOfEvent, Integer> parsePeriodWeights(String weights) {
+            Map<PeriodOfEvent, Integer> result = new EnumMap<>(PeriodOfEvent.class);
+            parseWeights(weights).forEach((key, weight) -> result.put(PeriodOfEvent.valueOf(key), weight));
+            return result;
+        }
+
+        private static Map<Integer, Integer> parseDurationWeights(String weights) {
+            Map<Integer, Integer> result = new TreeMap<>();
+            parseWeights(weights).forEach((key, weight) -> {
+                int minutes = Integer.parseInt(key);
+                if (minutes < 0) throw new IllegalArgumentException("Duration must not be negative: " + key);
+                result.put(minutes, weight);
+            });
+            return result;
+        }
+
+        private static Map<String, Integer> parseWeights(String weights) {
+            if (weights == null) throw new IllegalArgumentException();
+            Map<String, Integer> result = new LinkedHashMap<>();
+            for (String pair : weights.split(",")) {
+                String[] keyAndWeight = pair.trim().split("=");
+                if (keyAndWeight.length != 2) throw new IllegalArgumentException("Weight must be key=weight: " + pair);
+                int weight = Integer.parseInt(keyAndWeight[1].trim());
+                if (weight < 0) throw new IllegalArgumentException("Weight must not be negative: " + pair);
+                if (weight > 0) result.put(keyAndWeight[0].trim(), weight);
+            }
+            if (result.isEmpty()) throw new IllegalArgumentException("No positive weight: " + weights);
+            return result;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.diosoft.calendar.server.common;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.Set;
@@ -90,6 +91,13 @@ public class Event implements Comparable<Event>, Serializable {
         return (result != 0) ? result / Math.abs(result) : 0;
     }
 
+    /**
+     * Event is serialized in compact form of EventProxy
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        return new EventProxy(this);
+    }
+
     @Override
     public String toString() {
 
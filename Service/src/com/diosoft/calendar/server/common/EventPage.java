@@ -0,0 +1,40 @@
+package com.diosoft.calendar.server.common;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of events ordered by start date with token of the next page
+ */
+public class EventPage implements Serializable {
+    private final static long serialVersionUID = 1L;
+
+    private final List<Event> events;
+    private final String nextPageToken;
+
+    public EventPage(List<Event> events, String nextPageToken) {
+        if (events == null) throw new IllegalArgumentException();
+        this.events = events;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    /**
+     * @return token to request the next page or null if this page is the last one
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean isLast() {
+        return nextPageToken == null;
+    }
+
+    @Override
+    public String toString() {
+        return "EventPage{events=" + events + ", nextPageToken=" + nextPageToken + '}';
+    }
+}
@@ -0,0 +1,89 @@
+package com.diosoft.calendar.server.common;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Serialized form of Event: flags of present fields, id as two longs, strings, dates in epoch minutes,
+ * bitset of periods and attenders. Attenders are written as objects, so repeated person
+ * is written once per stream and then referred by handle (see PersonProxy).
+ */
+class EventProxy implements Externalizable {
+    private final static long serialVersionUID = 1L;
+    private final static int ID = 1;
+    private final static int TITLE = 1 << 1;
+    private final static int DESCRIPTION = 1 << 2;
+    private final static int START_DATE = 1 << 3;
+    private final static int END_DATE = 1 << 4;
+    private final static int ATTENDERS = 1 << 5;
+    private final static int PERIOD = 1 << 6;
+    private final static int WHOLE_MINUTES = 1 << 7;
+
+    private Event event;
+
+    public EventProxy() {
+    }
+
+    EventProxy(Event event) {
+        this.event = event;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        boolean wholeMinutes = WireCodec.isWholeMinute(event.getStartDate()) && WireCodec.isWholeMinute(event.getEndDate());
+        int flags = (event.getId() != null ? ID : 0)
+                | (event.getTitle() != null ? TITLE : 0)
+                | (event.getDescription() != null ? DESCRIPTION : 0)
+                | (event.getStartDate() != null ? START_DATE : 0)
+                | (event.getEndDate() != null ? END_DATE : 0)
+                | (event.getAttenders() != null ? ATTENDERS : 0)
+                | (event.getPeriod() != null ? PERIOD : 0)
+                | (wholeMinutes ? WHOLE_MINUTES : 0);
+        out.writeByte(flags);
+
+        if (event.getId() != null) {
+            out.writeLong(event.getId().getMostSignificantBits());
+            out.writeLong(event.getId().getLeastSignificantBits());
+        }
+        if (event.getTitle() != null) WireCodec.writeString(out, event.getTitle());
+        if (event.getDescription() != null) WireCodec.writeString(out, event.getDescription());
+        if (event.getStartDate() != null) WireCodec.writeDate(out, event.getStartDate(), wholeMinutes);
+        if (event.getEndDate() != null) WireCodec.writeDate(out, event.getEndDate(), wholeMinutes);
+        if (event.getPeriod() != null) WireCodec.writePeriods(out, event.getPeriod());
+        if (event.getAttenders() != null) {
+            WireCodec.writeVarInt(out, event.getAttenders().size());
+            for (Person attender : event.getAttenders()) out.writeObject(attender);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int flags = in.readUnsignedByte();
+        boolean wholeMinutes = (flags & WHOLE_MINUTES) != 0;
+
+        Event.EventBuilder builder = new Event.EventBuilder();
+        if ((flags & ID) != 0) builder.id(new UUID(in.readLong(), in.readLong()));
+        if ((flags & TITLE) != 0) builder.title(WireCodec.readString(in));
+        if ((flags & DESCRIPTION) != 0) builder.description(WireCodec.readString(in));
+        if ((flags & START_DATE) != 0) builder.startDate(WireCodec.readDate(in, wholeMinutes));
+        if ((flags & END_DATE) != 0) builder.endDate(WireCodec.readDate(in, wholeMinutes));
+        if ((flags & PERIOD) != 0) builder.periodSet(WireCodec.readPeriods(in));
+        if ((flags & ATTENDERS) != 0) {
+            int count = WireCodec.readVarInt(in);
+            Set<Person> attenders = new HashSet<>(count * 2);
+            for (int i = 0; i < count; i++) attenders.add((Person) in.readObject());
+            builder.attendersSet(attenders);
+        }
+        event = builder.build();
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return event;
+    }
+}
@@ -1,5 +1,6 @@
 package com.diosoft.calendar.server.common;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 
 public class Person implements Comparable<Person>,Serializable {
@@ -47,6 +48,13 @@ public class Person implements Comparable<Person>,Serializable {
         return result;
     }
 
+    /**
+     * Person is serialized in compact form of PersonProxy, stream keeps the replacement of every written person
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        return new PersonProxy(this);
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("Person { ");
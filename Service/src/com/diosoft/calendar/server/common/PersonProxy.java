@@ -0,0 +1,52 @@
+package com.diosoft.calendar.server.common;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+
+/**
+ * Serialized form of Person: flags of present fields and strings.
+ * Stream replaces person by its proxy once and writes only handle of the same proxy for the same person again,
+ * so attender shared by many events is written once per stream and reader gets one shared instance of it.
+ */
+class PersonProxy implements Externalizable {
+    private final static long serialVersionUID = 1L;
+    private final static int NAME = 1;
+    private final static int LAST_NAME = 1 << 1;
+    private final static int EMAIL = 1 << 2;
+
+    private Person person;
+
+    public PersonProxy() {
+    }
+
+    PersonProxy(Person person) {
+        this.person = person;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte((person.getName() != null ? NAME : 0)
+                | (person.getLastName() != null ? LAST_NAME : 0)
+                | (person.getEmail() != null ? EMAIL : 0));
+        if (person.getName() != null) WireCodec.writeString(out, person.getName());
+        if (person.getLastName() != null) WireCodec.writeString(out, person.getLastName());
+        if (person.getEmail() != null) WireCodec.writeString(out, person.getEmail());
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        int flags = in.readUnsignedByte();
+        Person.PersonBuilder builder = new Person.PersonBuilder();
+        if ((flags & NAME) != 0) builder.name(WireCodec.readString(in));
+        if ((flags & LAST_NAME) != 0) builder.lastName(WireCodec.readString(in));
+        if ((flags & EMAIL) != 0) builder.email(WireCodec.readString(in));
+        person = builder.build();
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return person;
+    }
+}
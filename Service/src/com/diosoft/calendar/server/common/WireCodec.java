@@ -0,0 +1,88 @@
+package com.diosoft.calendar.server.common;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Compact encoding of fields of events and persons for Java serialization (RMI).
+ * Count and length are varint (7 bits per byte), string is length of UTF-8 bytes and bytes,
+ * date is int count of minutes since epoch or, if it has seconds, long seconds and int nanos,
+ * periods are bitset of ordinals. Presence of nullable fields is written once as bitset of flags.
+ */
+final class WireCodec {
+    private final static int SECONDS_IN_MINUTE = 60;
+
+    private WireCodec() {
+    }
+
+    static boolean isWholeMinute(LocalDateTime date) {
+        if (date == null) return true;
+        long seconds = date.toEpochSecond(ZoneOffset.UTC);
+        return date.getNano() == 0 && seconds % SECONDS_IN_MINUTE == 0
+                && seconds / SECONDS_IN_MINUTE >= Integer.MIN_VALUE && seconds / SECONDS_IN_MINUTE <= Integer.MAX_VALUE;
+    }
+
+    static void writeDate(ObjectOutput out, LocalDateTime date, boolean wholeMinutes) throws IOException {
+        if (wholeMinutes) {
+            out.writeInt((int) (date.toEpochSecond(ZoneOffset.UTC) / SECONDS_IN_MINUTE));
+            return;
+        }
+        out.writeLong(date.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(date.getNano());
+    }
+
+    static LocalDateTime readDate(ObjectInput in, boolean wholeMinutes) throws IOException {
+        if (wholeMinutes) return LocalDateTime.ofEpochSecond((long) in.readInt() * SECONDS_IN_MINUTE, 0, ZoneOffset.UTC);
+        long seconds = in.readLong();
+        return LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+
+    static void writeString(ObjectOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ObjectInput in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writePeriods(ObjectOutput out, Set<PeriodOfEvent> periods) throws IOException {
+        int bits = 0;
+        for (PeriodOfEvent period : periods) bits |= 1 << period.ordinal();
+        writeVarInt(out, bits);
+    }
+
+    static Set<PeriodOfEvent> readPeriods(ObjectInput in) throws IOException {
+        int bits = readVarInt(in);
+        Set<PeriodOfEvent> periods = EnumSet.noneOf(PeriodOfEvent.class);
+        for (PeriodOfEvent period : PeriodOfEvent.values())
+            if ((bits & 1 << period.ordinal()) != 0) periods.add(period);
+        return periods;
+    }
+
+    static void writeVarInt(ObjectOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(ObjectInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+    }
+}
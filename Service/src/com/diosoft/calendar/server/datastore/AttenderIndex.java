@@ -0,0 +1,291 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.common.Person;
+import com.diosoft.calendar.server.util.PageToken;
+import com.diosoft.calendar.server.util.RecurrenceEngine;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Index of events of one attender ordered by start time.
+ * Own time of every event is kept in IntervalIndex, so search of events into period costs O(log n + k).
+ * Recurring events are kept apart in buckets by keys of their rules, like period indexes of DataStoreImpl:
+ * daily events ordered by start, weekly by day of week, monthly by days of month and yearly by days of year of own time.
+ * Search takes only buckets of days on which occurrence crossing the period may start (from start of period minus
+ * duration of the longest recurring event) and expands these candidates into occurrences inside of searched period:
+ * occurrence on day D (by rules of RecurrenceEngine) starts at start time of event and lasts as long as event.
+ * Writes of one index are not concurrent (data store orders them), reads may run concurrently with them.
+ * Event crosses period if it starts before end of period and ends after start of period,
+ * or starts or ends together with period.
+ * Ids are resolved by function of data store, unknown ids are skipped.
+ */
+public class AttenderIndex {
+    private final static int DAYS_IN_WEEK = 7;
+    private final static int MAX_DAYS_IN_MONTH = 31;
+    private final static int MAX_DAYS_IN_YEAR = 366;
+    private final static LocalDate LEAP_YEAR_START = LocalDate.of(2000, 1, 1);
+
+    private final Person attender;
+    private final IntervalIndex intervals = new IntervalIndex();
+    private final NavigableSet<Event> dailyEvents = new ConcurrentSkipListSet<>(PageToken.START_ORDER);
+    private final ConcurrentMap<DayOfWeek, Set<Event>> weeklyEvents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Set<Event>> monthlyEvents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Set<Event>> yearlyEvents = new ConcurrentHashMap<>();
+    private final AtomicInteger recurringCount = new AtomicInteger();
+    // the longest recurring event which was ever added, removal doesn't shorten it
+    private volatile Duration longestRecurring = Duration.ZERO;
+
+    /**
+     * @param attender whose events are indexed, data store shares this instance by all events of attender
+     */
+    public AttenderIndex(Person attender) {
+        if (attender == null) throw new IllegalArgumentException();
+        this.attender = attender;
+    }
+
+    public Person getAttender() {
+        return attender;
+    }
+
+    public void add(Event event) {
+        if (event == null) throw new IllegalArgumentException();
+        intervals.add(event.getId(), event.getStartDate(), event.getEndDate());
+        if (isRecurring(event)) addRecurring(event);
+    }
+
+    /**
+     * Add all events of other index, e.g. of partition built by another thread
+     */
+    public void addAll(AttenderIndex other) {
+        if (other == null) throw new IllegalArgumentException();
+        intervals.addAll(other.intervals);
+        other.forEachRecurring(this::addRecurring);
+    }
+
+    public void remove(Event event) {
+        if (event == null) throw new IllegalArgumentException();
+        intervals.remove(event.getId(), event.getStartDate());
+        if (!isRecurring(event)) return;
+        boolean[] removed = {false};
+        forEachBucket(event, new BucketAction() {
+            @Override
+            public <K> void accept(Map<K, Set<Event>> buckets, K key) {
+                Set<Event> bucket = buckets.get(key);
+                if (bucket == null || !bucket.remove(event)) return;
+                removed[0] = true;
+                if (bucket.isEmpty()) buckets.remove(key);
+            }
+        });
+        if (dailyEvents.remove(event)) removed[0] = true;
+        if (removed[0]) recurringCount.decrementAndGet();
+    }
+
+    public boolean isEmpty() {
+        return intervals.isEmpty();
+    }
+
+    /**
+     * @return count of events
+     */
+    public int size() {
+        return intervals.size();
+    }
+
+    /**
+     * @return count of recurring events, they are kept twice
+     */
+    public int recurringSize() {
+        return recurringCount.get();
+    }
+
+    /**
+     * @return ids of all events in order of start
+     */
+    public List<UUID> getAll() {
+        return intervals.search(LocalDateTime.MIN, LocalDateTime.MAX);
+    }
+
+    /**
+     * @param after position of the last event of previous page or null for the first page
+     * @param limit max count of ids
+     * @return ids of events after given position in order of start and id
+     */
+    public List<UUID> getAfter(PageToken after, int limit) {
+        return intervals.searchAfter(LocalDateTime.MIN, LocalDateTime.MAX, after, limit);
+    }
+
+    /**
+     * Search events which cross given period by own time or by occurrence
+     * @return events in order of own start, then recurring events which occur into period
+     */
+    public List<Event> search(LocalDateTime startDate, LocalDateTime endDate, Function<UUID, Event> resolver) {
+        if (startDate == null || endDate == null || resolver == null) throw new IllegalArgumentException();
+        Set<Event> events = new LinkedHashSet<>();
+        for (UUID id : intervals.search(startDate, endDate)) {
+            Event event = resolver.apply(id);
+            if (event != null && isCrossing(event.getStartDate(), event.getEndDate(), startDate, endDate)) events.add(event);
+        }
+        for (Event event : recurringCandidates(startDate, endDate))
+            if (!events.contains(event) && isOccurIntoPeriod(event, startDate, endDate) && resolver.apply(event.getId()) != null)
+                events.add(event);
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Check whether any event crosses given period, stops on the first found
+     */
+    public boolean isAnyIntoPeriod(LocalDateTime startDate, LocalDateTime endDate, Function<UUID, Event> resolver) {
+        if (startDate == null || endDate == null || resolver == null) throw new IllegalArgumentException();
+        Predicate<UUID> crossing = id -> {
+            Event event = resolver.apply(id);
+            return event != null && isCrossing(event.getStartDate(), event.getEndDate(), startDate, endDate);
+        };
+        if (intervals.anyMatch(startDate, endDate, crossing)) return true;
+        for (Event event : recurringCandidates(startDate, endDate))
+            if (isOccurIntoPeriod(event, startDate, endDate) && resolver.apply(event.getId()) != null) return true;
+        return false;
+    }
+
+    /**
+     * Recurring events of buckets of days on which their occurrence crossing the period may start
+     * @return events in order of start
+     */
+    private Collection<Event> recurringCandidates(LocalDateTime startDate, LocalDateTime endDate) {
+        if (recurringCount.get() == 0) return Collections.emptyList();
+        LocalDate startDay = startDate.minus(longestRecurring).toLocalDate();
+        LocalDate endDay = endDate.toLocalDate();
+        Set<Event> candidates = new TreeSet<>(PageToken.START_ORDER);
+        candidates.addAll(dailyEvents.headSet(lastBefore(endDate), true));
+        collectByKeys(weeklyEvents, LocalDate::getDayOfWeek, DAYS_IN_WEEK, startDay, endDay, candidates);
+        collectByKeys(monthlyEvents, LocalDate::getDayOfMonth, MAX_DAYS_IN_MONTH, startDay, endDay, candidates);
+        collectByKeys(yearlyEvents, DataStoreImpl::monthDayKey, MAX_DAYS_IN_YEAR, startDay, endDay, candidates);
+        return candidates;
+    }
+
+    private static <K> void collectByKeys(Map<K, Set<Event>> buckets, Function<LocalDate, K> key, int cycleLength,
+                                          LocalDate startDay, LocalDate endDay, Set<Event> events) {
+        if (buckets.isEmpty()) return;
+        if (ChronoUnit.DAYS.between(startDay, endDay) + 1 >= cycleLength) {
+            buckets.values().forEach(events::addAll);
+            return;
+        }
+        for (LocalDate day = startDay; !day.isAfter(endDay); day = day.plusDays(1)) {
+            Set<Event> bucket = buckets.get(key.apply(day));
+            if (bucket != null) events.addAll(bucket);
+        }
+    }
+
+    private void addRecurring(Event event) {
+        boolean[] added = {false};
+        forEachBucket(event, new BucketAction() {
+            @Override
+            public <K> void accept(Map<K, Set<Event>> buckets, K key) {
+                if (buckets.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>(PageToken.START_ORDER)).add(event)) added[0] = true;
+            }
+        });
+        if (event.getPeriod().contains(PeriodOfEvent.EVERY_DAY) && dailyEvents.add(event)) added[0] = true;
+        if (!added[0]) return;
+        recurringCount.incrementAndGet();
+        Duration duration = Duration.between(event.getStartDate(), event.getEndDate());
+        if (duration.compareTo(longestRecurring) > 0) longestRecurring = duration;
+    }
+
+    private void forEachRecurring(Consumer<Event> action) {
+        dailyEvents.forEach(action);
+        for (Set<Event> bucket : weeklyEvents.values()) bucket.forEach(action);
+        for (Set<Event> bucket : monthlyEvents.values()) bucket.forEach(action);
+        for (Set<Event> bucket : yearlyEvents.values()) bucket.forEach(action);
+    }
+
+    /**
+     * Pass buckets of weekly, monthly and yearly rules of event with its keys, days of month and year
+     * are taken from own days of event, or all of them if event is as long as the cycle (as RecurrenceEngine does)
+     */
+    private void forEachBucket(Event event, BucketAction action) {
+        for (PeriodOfEvent period : event.getPeriod())
+            switch (period) {
+                case ONCE:
+                case EVERY_DAY:
+                    break;
+                case EVERY_MONTH:
+                    forEachOwnDay(event, MAX_DAYS_IN_MONTH, day -> action.accept(monthlyEvents, day.getDayOfMonth()));
+                    break;
+                case EVERY_YEAR:
+                    forEachOwnDay(event, MAX_DAYS_IN_YEAR, day -> action.accept(yearlyEvents, DataStoreImpl.monthDayKey(day)));
+                    break;
+                default:
+                    action.accept(weeklyEvents, DayOfWeek.valueOf(period.name()));
+            }
+    }
+
+    private static void forEachOwnDay(Event event, int cycleLength, Consumer<LocalDate> action) {
+        LocalDate day = event.getStartDate().toLocalDate();
+        LocalDate endDay = event.getEndDate().toLocalDate();
+        if (ChronoUnit.DAYS.between(day, endDay) + 1 >= cycleLength) {
+//  the first days of leap year have every day of month and of year
+            day = LEAP_YEAR_START;
+            endDay = day.plusDays(cycleLength - 1);
+        }
+        for (; !day.isAfter(endDay); day = day.plusDays(1)) action.accept(day);
+    }
+
+    static boolean isCrossing(LocalDateTime start, LocalDateTime end, LocalDateTime startDate, LocalDateTime endDate) {
+        if (start.equals(startDate) || end.equals(endDate)) return true;
+        return start.isBefore(endDate) && end.isAfter(startDate);
+    }
+
+    private static boolean isOccurIntoPeriod(Event event, LocalDateTime startDate, LocalDateTime endDate) {
+        Duration duration = Duration.between(event.getStartDate(), event.getEndDate());
+        LocalDate lastDay = endDate.toLocalDate();
+        for (LocalDate day = nextRecurrence(event, startDate.minus(duration).toLocalDate()); day != null && !day.isAfter(lastDay);
+             day = nextRecurrence(event, day.plusDays(1))) {
+            LocalDateTime start = day.atTime(event.getStartDate().toLocalTime());
+            if (isCrossing(start, start.plus(duration), startDate, endDate)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * First day of occurrence by rules of recurrence, own days of event (ONCE) are indexed by IntervalIndex
+     */
+    static LocalDate nextRecurrence(Event event, LocalDate from) {
+        LocalDate next = null;
+        for (PeriodOfEvent period : event.getPeriod()) {
+            if (period == PeriodOfEvent.ONCE) continue;
+            LocalDate day = RecurrenceEngine.nextOccurrence(event, period, from);
+            if (day != null && (next == null || day.isBefore(next))) next = day;
+        }
+        return next;
+    }
+
+    static boolean isRecurring(Event event) {
+        for (PeriodOfEvent period : event.getPeriod())
+            if (period != PeriodOfEvent.ONCE) return true;
+        return false;
+    }
+
+    /**
+     * Probe of ordered set: the greatest key of events which start not later than given date
+     */
+    private static Event lastBefore(LocalDateTime date) {
+        return new Event.EventBuilder().startDate(date).id(new UUID(Long.MAX_VALUE, Long.MAX_VALUE)).build();
+    }
+
+    private interface BucketAction {
+        <K> void accept(Map<K, Set<Event>> buckets, K key);
+    }
+}
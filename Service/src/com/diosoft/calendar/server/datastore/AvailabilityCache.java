@@ -0,0 +1,197 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.Person;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Busy bitmaps of attenders for fixed horizon of days: one bit per slot of 15 minutes, 96 bits per day,
+ * days follow each other in one bitset of longs per attender, so memory is 12 bytes per attender per day.
+ * Slot is busy if own time or occurrence of event crosses it (zero-length event takes the slot of its start).
+ * Bitmaps are maintained by data store: publish sets bits of event, remove recomputes the days of removed event
+ * from remaining events of attender. Check of period costs one masked AND per 64 slots:
+ * period is surely free if all its slots are free, otherwise data store checks events.
+ * Data store calls add after event became visible and remove after it became invisible: updates of one attender
+ * are ordered by monitor of its bitmap, so recompute either sees published event or is followed by its bits.
+ * Readers never see a day half recomputed, every word of bitmap is replaced at once.
+ * Horizon starts at the day of creation and doesn't move: periods after it are "may be busy" and
+ * data store checks its events, so long running server keeps correct answers and loses only the speed up.
+ * Horizon of 0 days turns cache off.
+ */
+public class AvailabilityCache {
+    final static int SLOT_MINUTES = 15;
+    final static int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private final static int ENTRY_OVERHEAD_BYTES = 64;
+    private final static int ARRAY_HEADER_BYTES = 16;
+
+    private final LocalDateTime origin;
+    private final int horizonDays;
+    private final int slotCount;
+    private final ConcurrentMap<Person, AtomicLongArray> bitmaps = new ConcurrentHashMap<>();
+
+    /**
+     * @param horizonDays count of days from today
+     */
+    public AvailabilityCache(int horizonDays) {
+        this(LocalDate.now(), horizonDays);
+    }
+
+    /**
+     * @param firstDay the first day of horizon
+     * @param horizonDays count of days
+     */
+    public AvailabilityCache(LocalDate firstDay, int horizonDays) {
+        if (firstDay == null || horizonDays < 0) throw new IllegalArgumentException();
+        this.origin = firstDay.atStartOfDay();
+        this.horizonDays = horizonDays;
+        this.slotCount = horizonDays * SLOTS_PER_DAY;
+    }
+
+    /**
+     * Mark time of event and of its occurrences in horizon as busy for all its attenders
+     */
+    public void add(Event event) {
+        if (event == null) throw new IllegalArgumentException();
+        if (slotCount == 0) return;
+        for (Person attender : event.getAttenders()) {
+            AtomicLongArray bitmap = bitmaps.computeIfAbsent(attender, key -> new AtomicLongArray(words(slotCount)));
+            synchronized (bitmap) {
+                forEachSlotRange(event, 0, slotCount - 1, (first, last) -> setRange(bitmap, first, last));
+            }
+        }
+    }
+
+    /**
+     * Recompute days taken by removed event from remaining events of its attenders
+     * @param event removed event
+     * @param store data store without removed event
+     */
+    public void remove(Event event, DataStore store) {
+        if (event == null || store == null) throw new IllegalArgumentException();
+        if (slotCount == 0) return;
+        BitSet days = new BitSet(horizonDays);
+        forEachSlotRange(event, 0, slotCount - 1, (first, last) -> days.set(first / SLOTS_PER_DAY, last / SLOTS_PER_DAY + 1));
+
+        for (Person attender : event.getAttenders()) {
+            AtomicLongArray bitmap = bitmaps.get(attender);
+            if (bitmap == null) continue;
+            synchronized (bitmap) {
+                for (int day = days.nextSetBit(0); day >= 0; day = days.nextSetBit(day + 1))
+                    recomputeDay(attender, bitmap, day, store);
+            }
+        }
+    }
+
+    /**
+     * Check period by bitmap of attender
+     * @return true if attender is surely free, false if attender may be busy or period is out of horizon
+     */
+    public boolean isFree(Person attender, LocalDateTime startDate, LocalDateTime endDate) {
+        if (attender == null || startDate == null || endDate == null) throw new IllegalArgumentException();
+        long first = Math.floorDiv(minutes(startDate), SLOT_MINUTES);
+        long last = Math.floorDiv(minutes(endDate), SLOT_MINUTES);
+        if (first < 0 || last >= slotCount) return false;
+
+        AtomicLongArray bitmap = bitmaps.get(attender);
+        if (bitmap == null) return true;
+        for (int word = (int) first / Long.SIZE; word <= (int) last / Long.SIZE; word++)
+            if ((bitmap.get(word) & mask(word, (int) first, (int) last)) != 0) return false;
+        return true;
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    public int getAttenderCount() {
+        return bitmaps.size();
+    }
+
+    /**
+     * @return estimated bytes taken by bitmaps, at most count of attenders * (12 * horizon days + overhead)
+     */
+    public long getMemoryFootprint() {
+        return (long) bitmaps.size() * (ENTRY_OVERHEAD_BYTES + ARRAY_HEADER_BYTES + (long) words(slotCount) * Long.BYTES);
+    }
+
+    @Override
+    public String toString() {
+        return "AvailabilityCache{firstDay=" + origin.toLocalDate() + ", horizonDays=" + horizonDays +
+                ", attenders=" + getAttenderCount() + ", bytes=" + getMemoryFootprint() + '}';
+    }
+
+    /**
+     * Build words of day from remaining events of attender in local array and replace words of bitmap by one set each,
+     * bits of neighbour days which share the words are kept
+     */
+    private void recomputeDay(Person attender, AtomicLongArray bitmap, int day, DataStore store) {
+        int firstSlot = day * SLOTS_PER_DAY;
+        int lastSlot = firstSlot + SLOTS_PER_DAY - 1;
+        int firstWord = firstSlot / Long.SIZE;
+        long[] words = new long[lastSlot / Long.SIZE - firstWord + 1];
+        for (int word = 0; word < words.length; word++)
+            words[word] = bitmap.get(firstWord + word) & ~mask(firstWord + word, firstSlot, lastSlot);
+
+        LocalDateTime dayStart = origin.plusDays(day);
+        for (Event remaining : store.getEventByAttenderIntoPeriod(attender, dayStart, dayStart.plusDays(1)))
+            forEachSlotRange(remaining, firstSlot, lastSlot, (first, last) -> {
+                for (int word = first / Long.SIZE; word <= last / Long.SIZE; word++)
+                    words[word - firstWord] |= mask(word, first, last);
+            });
+        for (int word = 0; word < words.length; word++) bitmap.set(firstWord + word, words[word]);
+    }
+
+    /**
+     * Pass slot ranges taken by own time and by occurrences of event, clipped to given range of slots
+     */
+    private void forEachSlotRange(Event event, int fromSlot, int toSlot, SlotRangeConsumer consumer) {
+        long duration = Duration.between(event.getStartDate(), event.getEndDate()).toMinutes();
+        acceptRange(minutes(event.getStartDate()), duration, fromSlot, toSlot, consumer);
+        if (!AttenderIndex.isRecurring(event)) return;
+
+        LocalDate lastDay = origin.plusMinutes((long) toSlot * SLOT_MINUTES).toLocalDate();
+        LocalDate from = origin.plusMinutes((long) fromSlot * SLOT_MINUTES - Math.max(duration, 0)).toLocalDate();
+        for (LocalDate day = AttenderIndex.nextRecurrence(event, from); day != null && !day.isAfter(lastDay);
+             day = AttenderIndex.nextRecurrence(event, day.plusDays(1)))
+            acceptRange(minutes(day.atTime(event.getStartDate().toLocalTime())), duration, fromSlot, toSlot, consumer);
+    }
+
+    private static void acceptRange(long start, long duration, int fromSlot, int toSlot, SlotRangeConsumer consumer) {
+        long first = Math.floorDiv(start, SLOT_MINUTES);
+        long last = duration > 0 ? Math.floorDiv(start + duration - 1, SLOT_MINUTES) : first;
+        first = Math.max(first, fromSlot);
+        last = Math.min(last, toSlot);
+        if (first <= last) consumer.accept((int) first, (int) last);
+    }
+
+    private long minutes(LocalDateTime date) {
+        return Duration.between(origin, date).toMinutes();
+    }
+
+    private static void setRange(AtomicLongArray bitmap, int first, int last) {
+        for (int word = first / Long.SIZE; word <= last / Long.SIZE; word++)
+            bitmap.set(word, bitmap.get(word) | mask(word, first, last));
+    }
+
+    private static long mask(int word, int first, int last) {
+        long mask = -1L;
+        if (word == first / Long.SIZE) mask &= -1L << first;
+        if (word == last / Long.SIZE) mask &= -1L >>> (Long.SIZE - 1 - last % Long.SIZE);
+        return mask;
+    }
+
+    private static int words(int slotCount) {
+        return (slotCount + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private interface SlotRangeConsumer {
+        void accept(int first, int last);
+    }
+}
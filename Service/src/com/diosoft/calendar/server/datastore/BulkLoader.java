@@ -0,0 +1,183 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.exception.DateTimeFormatException;
+import com.diosoft.calendar.server.filesystem.FileSystem;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Loads all events of file system into data store by pipeline of stages connected with bounded queues:
+ * parsing (threads of file system) -> deduplication (one thread) -> indexing (one thread per partition).
+ * Every indexing thread builds its own partition of indexes, partitions are merged at the end.
+ * Bounded queues keep only small part of events in memory besides the indexes.
+ */
+public class BulkLoader {
+    private final static Logger logger = Logger.getLogger(BulkLoader.class);
+    private final static Event END_OF_EVENTS = new Event.EventBuilder().build();
+    private final static int QUEUE_CAPACITY = 1024;
+    private final static long PROGRESS_INTERVAL = 10_000;
+    private final static long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final FileSystem fileSystem;
+    private final int partitionCount;
+
+    private final AtomicLong parsed = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong indexed = new AtomicLong();
+
+    public BulkLoader(FileSystem fileSystem) {
+        this(fileSystem, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BulkLoader(FileSystem fileSystem, int partitionCount) {
+        if (fileSystem == null || partitionCount < 1) throw new IllegalArgumentException();
+        this.fileSystem = fileSystem;
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Runs the pipeline.
+     * @param partitionFactory creates partition of indexes for one indexing thread
+     * @param indexer adds event to partition, is called only by the thread of partition
+     * @param merger merges partition into data store, is called sequentially after all events are indexed
+     * @return statistics of loading
+     */
+    public <P> Statistics load(Supplier<P> partitionFactory, BiConsumer<P, Event> indexer, Consumer<P> merger)
+            throws IOException, DateTimeFormatException, ExecutionException, InterruptedException {
+        long startTime = System.nanoTime();
+        BlockingQueue<Event> parsedQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        List<BlockingQueue<Event>> partitionQueues = new ArrayList<>();
+        for (int i = 0; i < partitionCount; i++) partitionQueues.add(new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(partitionCount + 1);
+        try {
+            List<Future<P>> partitions = new ArrayList<>();
+            for (BlockingQueue<Event> partitionQueue : partitionQueues)
+                partitions.add(executorService.submit(() -> index(partitionQueue, partitionFactory.get(), indexer, startTime)));
+            Future<?> deduplication = executorService.submit(() -> deduplicate(parsedQueue, partitionQueues, partitions));
+
+            try {
+                fileSystem.readAllEvents(event -> {
+                    try {
+                        transfer(parsedQueue, event, deduplication);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    } catch (ExecutionException e) {
+                        throw new IllegalStateException(e.getCause());
+                    }
+                    parsed.incrementAndGet();
+                });
+            } finally {
+                transfer(parsedQueue, END_OF_EVENTS, deduplication);
+                deduplication.get();
+            }
+
+            for (Future<P> partition : partitions) merger.accept(partition.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        Statistics statistics = new Statistics(parsed.get(), duplicates.get(), indexed.get(), System.nanoTime() - startTime);
+        logger.info("Loading finished: " + statistics);
+        return statistics;
+    }
+
+    private <P> Void deduplicate(BlockingQueue<Event> parsedQueue, List<BlockingQueue<Event>> partitionQueues, List<Future<P>> partitions)
+            throws InterruptedException, ExecutionException {
+        Set<Event> uniqueEvents = new HashSet<>();
+        int next = 0;
+        try {
+            for (Event event = parsedQueue.take(); event != END_OF_EVENTS; event = parsedQueue.take()) {
+                if (!uniqueEvents.add(event)) {
+                    duplicates.incrementAndGet();
+                    continue;
+                }
+                transfer(partitionQueues.get(next), event, partitions.get(next));
+                next = (next + 1) % partitionQueues.size();
+            }
+        } finally {
+            for (int i = 0; i < partitionQueues.size(); i++) transfer(partitionQueues.get(i), END_OF_EVENTS, partitions.get(i));
+        }
+        return null;
+    }
+
+    private <P> P index(BlockingQueue<Event> partitionQueue, P partition, BiConsumer<P, Event> indexer, long startTime) throws InterruptedException {
+        for (Event event = partitionQueue.take(); event != END_OF_EVENTS; event = partitionQueue.take()) {
+            indexer.accept(partition, event);
+            long count = indexed.incrementAndGet();
+            if (count % PROGRESS_INTERVAL == 0)
+                logger.info("Loaded " + count + " events, " + throughput(count, System.nanoTime() - startTime) + " events/sec");
+        }
+        return partition;
+    }
+
+    /**
+     * Put event into queue of next stage, fails instead of waiting forever if next stage is stopped
+     */
+    private static void transfer(BlockingQueue<Event> queue, Event event, Future<?> receiver) throws InterruptedException, ExecutionException {
+        while (!queue.offer(event, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (receiver.isDone()) {
+                receiver.get();
+                throw new IllegalStateException("Stage of loading is stopped");
+            }
+        }
+    }
+
+    private static long throughput(long count, long nanos) {
+        return nanos == 0 ? 0 : count * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    public static class Statistics {
+        private final long parsed;
+        private final long duplicates;
+        private final long indexed;
+        private final long elapsedNanos;
+
+        public Statistics(long parsed, long duplicates, long indexed, long elapsedNanos) {
+            this.parsed = parsed;
+            this.duplicates = duplicates;
+            this.indexed = indexed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getParsed() {
+            return parsed;
+        }
+        public long getDuplicates() {
+            return duplicates;
+        }
+        public long getIndexed() {
+            return indexed;
+        }
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+        public long getThroughput() {
+            return throughput(indexed, elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder("Statistics{");
+            sb.append("parsed=").append(parsed);
+            sb.append(", duplicates=").append(duplicates);
+            sb.append(", indexed=").append(indexed);
+            sb.append(", elapsedMillis=").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            sb.append(", eventsPerSec=").append(getThroughput());
+            sb.append('}');
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,573 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.common.Person;
+import com.diosoft.calendar.server.exception.DateTimeFormatException;
+import com.diosoft.calendar.server.filesystem.FileSystem;
+import com.diosoft.calendar.server.util.EventFingerprint;
+import com.diosoft.calendar.server.util.PageToken;
+import com.diosoft.calendar.server.util.RecurrenceEngine;
+
+import javax.xml.bind.JAXBException;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Thread-safe implementation of DataStore.
+ * Reads are lock-free: all indexes are concurrent maps of concurrent id sets and every id is
+ * resolved through eventStore, which is updated last on publish and first on remove.
+ * So reader sees either fully indexed event or nothing.
+ * Writes lock only the stripes of the index keys they touch.
+ */
+public class ConcurrentDataStore implements DataStore {
+    private final static int LOCK_STRIPES = 64;
+    private final static int DAYS_IN_WEEK = 7;
+    private final static int MAX_DAYS_IN_MONTH = 31;
+    private final static int MAX_DAYS_IN_YEAR = 366;
+
+    private final ConcurrentMap<UUID, Event> eventStore = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<String, Set<UUID>> indexTitle = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, Set<UUID>> indexTitleIgnoreCase = new ConcurrentSkipListMap<>();
+    private final IntervalIndex indexDate = new IntervalIndex();
+    private final ConcurrentMap<Person, AttenderIndex> indexAttender = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<UUID>> indexContent = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Set<UUID>> indexPeriodYear = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Set<UUID>> indexPeriodMonth = new ConcurrentHashMap<>();
+    private final ConcurrentMap<DayOfWeek, Set<UUID>> indexPeriodDayOfWeek = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<LocalDate, Set<UUID>> indexPeriodDay = new ConcurrentSkipListMap<>();
+
+    // guard of index keys (add/remove id and drop of empty set)
+    private final Lock[] indexLocks = createLocks();
+    // guard of whole event (duplicate check, publish, remove) by title
+    private final Lock[] eventLocks = createLocks();
+
+    private final FileSystem fileSystem;
+    private final AvailabilityCache availabilityCache;
+
+    public ConcurrentDataStore(FileSystem fileSystem) {
+        this(fileSystem, null);
+    }
+
+    /**
+     * @param fileSystem
+     * @param availabilityCache busy bitmaps of attenders maintained by this store, or null
+     */
+    public ConcurrentDataStore(FileSystem fileSystem, AvailabilityCache availabilityCache) {
+        this.fileSystem = fileSystem;
+        this.availabilityCache = availabilityCache;
+    }
+
+    public void initDataStoreFromXMLResources() throws IOException, DateTimeFormatException, ExecutionException, InterruptedException {
+//  indexes are thread safe, so all loading threads fill this store and nothing is merged
+        new BulkLoader(fileSystem).load(() -> this, ConcurrentDataStore::publishIfAbsent, store -> { });
+    }
+
+    @Override
+    public void publish(Event event) throws IllegalArgumentException, IOException, JAXBException {
+        if (event == null) throw new IllegalArgumentException();
+        if (!publishIfAbsent(event)) return;
+//  event is acknowledged only when it is written, failed write takes it back from indexes
+        try {
+            fileSystem.write(event);
+        } catch (IOException | JAXBException | RuntimeException e) {
+            removeIfPresent(event.getId());
+            throw e;
+        }
+    }
+
+    @Override
+    public Event remove(UUID id) throws IllegalArgumentException, JAXBException, IOException {
+        if (id == null) throw new IllegalArgumentException();
+
+        Event event = removeIfPresent(id);
+        if (event == null) return null;
+        try {
+            fileSystem.delete(event.getId());
+        } catch (IOException | RuntimeException e) {
+            publishIfAbsent(event);
+            throw e;
+        }
+        return event;
+    }
+
+    @Override
+    public List<Boolean> publishAll(List<Event> events) throws IllegalArgumentException, IOException, JAXBException {
+        if (events == null || events.contains(null)) throw new IllegalArgumentException();
+
+        List<Boolean> results = new ArrayList<>(events.size());
+        List<Event> addedEvents = new ArrayList<>();
+        for (Event event : events) {
+            boolean added = publishIfAbsent(event);
+            if (added) addedEvents.add(event);
+            results.add(added);
+        }
+        if (addedEvents.isEmpty()) return results;
+        try {
+            fileSystem.writeAll(addedEvents);
+        } catch (IOException | JAXBException | RuntimeException e) {
+            for (Event event : addedEvents) removeIfPresent(event.getId());
+            throw e;
+        }
+        return results;
+    }
+
+    @Override
+    public List<Event> removeAll(List<UUID> ids) throws IllegalArgumentException, JAXBException, IOException {
+        if (ids == null || ids.contains(null)) throw new IllegalArgumentException();
+
+        List<Event> removedEvents = new ArrayList<>(ids.size());
+        List<UUID> removedIds = new ArrayList<>();
+        for (UUID id : ids) {
+            Event event = removeIfPresent(id);
+            if (event != null) removedIds.add(id);
+            removedEvents.add(event);
+        }
+        if (removedIds.isEmpty()) return removedEvents;
+        try {
+            fileSystem.deleteAll(removedIds);
+        } catch (IOException | RuntimeException e) {
+            for (Event event : removedEvents) if (event != null) publishIfAbsent(event);
+            throw e;
+        }
+        return removedEvents;
+    }
+
+    @Override
+    public Event getEventById(UUID id) throws IllegalArgumentException {
+        if (id == null) throw new IllegalArgumentException();
+        return eventStore.get(id);
+    }
+
+    @Override
+    public List<Event> getEventByTitle(String title) throws IllegalArgumentException {
+        if (title == null) throw new IllegalArgumentException();
+        return resolve(indexTitle.get(title));
+    }
+
+    @Override
+    public List<Event> getEventByDay(LocalDate day) throws IllegalArgumentException {
+        if (day == null) throw new IllegalArgumentException();
+
+        List<Event> events = new ArrayList<>();
+        events.addAll(resolve(indexDate.search(day.atStartOfDay(), day.atTime(LocalTime.MAX))));
+        events.addAll(startedNotAfter(resolve(indexPeriodDayOfWeek.get(day.getDayOfWeek())), day));
+        events.addAll(getEventByDayWithDayPeriod(day));
+        events.addAll(startedNotAfter(resolve(indexPeriodMonth.get(day.getDayOfMonth())), day));
+        events.addAll(startedNotAfter(resolve(indexPeriodYear.get(DataStoreImpl.monthDayKey(day))), day));
+        return events;
+    }
+
+    @Override
+    public List<Event> getEventIntoPeriod(LocalDate startDay, LocalDate endDay) throws IllegalArgumentException {
+        if (startDay == null || endDay == null || startDay.isAfter(endDay)) throw new IllegalArgumentException();
+
+        Set<Event> events = new LinkedHashSet<>();
+        events.addAll(resolve(indexDate.search(startDay.atStartOfDay(), endDay.atTime(LocalTime.MAX))));
+
+//  recurrent events: take candidates only by keys covered by period, then check them by rules of recurrence
+        Set<UUID> candidates = getRecurringCandidates(startDay, endDay);
+
+        events.addAll(resolve(candidates).stream()
+                .filter(event -> RecurrenceEngine.isOccurIntoPeriod(event, startDay, endDay))
+                .collect(Collectors.toList()));
+        return new ArrayList<>(events);
+    }
+
+    @Override
+    public List<Event> getEventIntoPeriod(LocalDate startDay, LocalDate endDay, PageToken after, int limit) throws IllegalArgumentException {
+        if (startDay == null || endDay == null || startDay.isAfter(endDay) || limit < 0) throw new IllegalArgumentException();
+
+//  the first 'limit' single events after position come from interval index in order of start,
+//  recurrent events after position are merged with them and the page is cut to 'limit' again
+        NavigableSet<Event> events = new TreeSet<>(PageToken.START_ORDER);
+        events.addAll(resolve(indexDate.searchAfter(startDay.atStartOfDay(), endDay.atTime(LocalTime.MAX), after, limit)));
+        resolve(getRecurringCandidates(startDay, endDay)).stream()
+                .filter(event -> (after == null || after.precedes(event)) && RecurrenceEngine.isOccurIntoPeriod(event, startDay, endDay))
+                .forEach(events::add);
+        return events.stream().limit(limit).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Event> getEventByAttender(Person attender) throws IllegalArgumentException {
+        if (attender == null) throw new IllegalArgumentException();
+        AttenderIndex index = indexAttender.get(attender);
+        return index == null ? new ArrayList<>() : resolve(index.getAll());
+    }
+
+    @Override
+    public List<Event> getEventByAttender(Person attender, PageToken after, int limit) throws IllegalArgumentException {
+        if (attender == null || limit < 0) throw new IllegalArgumentException();
+
+        AttenderIndex index = indexAttender.get(attender);
+        if (index == null) return new ArrayList<>();
+        return resolve(index.getAfter(after, limit));
+    }
+
+    @Override
+    public List<Event> getEventByAttenderIntoPeriod(Person attender, LocalDateTime startDate, LocalDateTime endDate) throws IllegalArgumentException {
+        if (attender == null || startDate == null || endDate == null || startDate.isAfter(endDate)) throw new IllegalArgumentException();
+
+        AttenderIndex index = indexAttender.get(attender);
+        return index == null ? new ArrayList<>() : index.search(startDate, endDate, eventStore::get);
+    }
+
+    @Override
+    public boolean isAttenderBusy(Person attender, LocalDateTime startDate, LocalDateTime endDate) throws IllegalArgumentException {
+        if (attender == null || startDate == null || endDate == null || startDate.isAfter(endDate)) throw new IllegalArgumentException();
+
+        if (availabilityCache != null && availabilityCache.isFree(attender, startDate, endDate)) return false;
+        AttenderIndex index = indexAttender.get(attender);
+        return index != null && index.isAnyIntoPeriod(startDate, endDate, eventStore::get);
+    }
+
+    @Override
+    public List<Event> searchEventByTitleStartWith(String prefix) throws IllegalArgumentException {
+        if (prefix == null) throw new IllegalArgumentException();
+        List<Event> presentInEventList = new ArrayList<>();
+
+        for (Set<UUID> ids : titleRange(prefix, false))
+            presentInEventList.addAll(resolve(ids));
+        return presentInEventList;
+    }
+
+    @Override
+    public List<Event> searchEventByTitleStartWith(String prefix, boolean ignoreCase, int offset, int limit) throws IllegalArgumentException {
+        if (prefix == null || offset < 0 || limit < 0) throw new IllegalArgumentException();
+        List<Event> page = new ArrayList<>();
+
+        int skipped = 0;
+        for (Set<UUID> ids : titleRange(prefix, ignoreCase))
+            for (UUID id : ids) {
+                Event event = eventStore.get(id);
+                if (event == null) continue;
+                if (skipped++ < offset) continue;
+                if (page.size() == limit) return page;
+                page.add(event);
+            }
+        return page;
+    }
+
+    @Override
+    public List<Event> searchEventByTitleStartWith(String prefix, PageToken after, int limit) throws IllegalArgumentException {
+        if (prefix == null || limit < 0) throw new IllegalArgumentException();
+        if (limit == 0) return new ArrayList<>();
+
+//  keep only 'limit' first events after position in the heap, the latest of them on top
+        PriorityQueue<Event> first = new PriorityQueue<>(limit, PageToken.START_ORDER.reversed());
+        for (Set<UUID> ids : titleRange(prefix, false))
+            for (UUID id : ids) {
+                Event event = eventStore.get(id);
+                if (event == null || (after != null && !after.precedes(event))) continue;
+                first.add(event);
+                if (first.size() > limit) first.poll();
+            }
+
+        List<Event> events = new ArrayList<>(first);
+        events.sort(PageToken.START_ORDER);
+        return events;
+    }
+
+    @Override
+    public List<Event> searchEarliestEventsByTitleStartWith(String prefix, boolean ignoreCase, int count) throws IllegalArgumentException {
+        if (prefix == null || count < 0) throw new IllegalArgumentException();
+        if (count == 0) return new ArrayList<>();
+
+//  keep only 'count' earliest events in the heap, the latest of them on top
+        PriorityQueue<Event> earliest = new PriorityQueue<>(count, Comparator.reverseOrder());
+        for (Set<UUID> ids : titleRange(prefix, ignoreCase))
+            for (UUID id : ids) {
+                Event event = eventStore.get(id);
+                if (event == null) continue;
+                earliest.add(event);
+                if (earliest.size() > count) earliest.poll();
+            }
+
+        List<Event> events = new ArrayList<>(earliest);
+        Collections.sort(events);
+        return events;
+    }
+
+    @Override
+    public List<IndexStatistics> getIndexStatistics() {
+        List<IndexStatistics> statistics = new ArrayList<>();
+        statistics.add(IndexStatistics.of("eventStore", eventStore, Footprint.HASH_MAP_ENTRY, id -> 0, event -> 1, Footprint::event));
+        statistics.add(IndexStatistics.of("indexTitle", indexTitle, Footprint.SKIP_LIST_ENTRY, title -> 0, Footprint::concurrentSet));
+        statistics.add(IndexStatistics.of("indexTitleIgnoreCase", indexTitleIgnoreCase, Footprint.SKIP_LIST_ENTRY, Footprint::string, Footprint::concurrentSet));
+        statistics.add(IndexStatistics.of("indexDate", indexDate));
+        statistics.add(IndexStatistics.of("indexAttender", indexAttender, Footprint.HASH_MAP_ENTRY, Footprint::person, AttenderIndex::size,
+                index -> Footprint.ATTENDER_INDEX + (long) index.size() * Footprint.INTERVAL_NODE + (long) index.recurringSize() * Footprint.SKIP_LIST_ENTRY));
+        statistics.add(IndexStatistics.of("indexContent", indexContent, Footprint.HASH_MAP_ENTRY, fingerprint -> Footprint.BOXED_NUMBER, Footprint::concurrentSet));
+        statistics.add(IndexStatistics.of("indexPeriodYear", indexPeriodYear, Footprint.HASH_MAP_ENTRY, day -> 0, Footprint::concurrentSet));
+        statistics.add(IndexStatistics.of("indexPeriodMonth", indexPeriodMonth, Footprint.HASH_MAP_ENTRY, day -> 0, Footprint::concurrentSet));
+        statistics.add(IndexStatistics.of("indexPeriodDayOfWeek", indexPeriodDayOfWeek, Footprint.HASH_MAP_ENTRY, day -> 0, Footprint::concurrentSet));
+        statistics.add(IndexStatistics.of("indexPeriodDay", indexPeriodDay, Footprint.SKIP_LIST_ENTRY, day -> Footprint.LOCAL_DATE, Footprint::concurrentSet));
+        return statistics;
+    }
+
+    /**
+     * @return statistics of indexes, contents of big store are not printed
+     */
+    @Override
+    public String toString() {
+        return "ConcurrentDataStore" + getIndexStatistics();
+    }
+
+    /**
+     * Indexes event and makes it visible to readers, unless equal event already exists.
+     * @return true if event was added
+     */
+    private boolean publishIfAbsent(Event event) {
+        Lock lock = lockFor(eventLocks, event.getTitle());
+        lock.lock();
+        try {
+            if (isEventDuplicate(event)) return false;
+            event = DataStoreImpl.withIndexedAttenders(event, indexAttender);
+            addToIndex(indexContent, EventFingerprint.of(event), event.getId());
+            createIndexTitle(event);
+            createIndexAttender(event);
+            createIndexPeriod(event);
+            eventStore.put(event.getId(), event);
+//  bits are set after event is visible: concurrent recompute of removal either sees the event or is followed by its bits
+            if (availabilityCache != null) availabilityCache.add(event);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes event invisible to readers and removes it from indexes
+     * @return removed event or null if there was no mapping for
+     */
+    private Event removeIfPresent(UUID id) {
+        Event event = eventStore.get(id);
+        if (event == null) return null;
+
+        Lock lock = lockFor(eventLocks, event.getTitle());
+        lock.lock();
+        try {
+            if (!eventStore.remove(id, event)) return null;
+            removeFromIndex(indexContent, EventFingerprint.of(event), event.getId());
+            removeIndexTitle(event);
+            removeIndexAttender(event);
+            removeIndexPeriod(event);
+            if (availabilityCache != null) availabilityCache.remove(event, this);
+            return event;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<Event> resolve(Collection<UUID> ids) {
+        if (ids == null) return new ArrayList<>();
+        return ids.stream()
+                .map(eventStore::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<Event> startedNotAfter(List<Event> events, LocalDate date) {
+        return events.stream()
+                .filter(event -> !event.getStartDate().toLocalDate().isAfter(date))
+                .collect(Collectors.toList());
+    }
+
+    private List<Event> getEventByDayWithDayPeriod(LocalDate date) {
+        List<Event> eventList = new ArrayList<>();
+        indexPeriodDay.headMap(date, true).values()
+                .forEach(uuids -> eventList.addAll(resolve(uuids)));
+        return eventList;
+    }
+
+    private Set<UUID> getRecurringCandidates(LocalDate startDay, LocalDate endDay) {
+        Set<UUID> candidates = new LinkedHashSet<>();
+        indexPeriodDay.headMap(endDay, true).values().forEach(candidates::addAll);
+        collectIdsByPeriodKeys(indexPeriodDayOfWeek, LocalDate::getDayOfWeek, DAYS_IN_WEEK, startDay, endDay, candidates);
+        collectIdsByPeriodKeys(indexPeriodMonth, LocalDate::getDayOfMonth, MAX_DAYS_IN_MONTH, startDay, endDay, candidates);
+        collectIdsByPeriodKeys(indexPeriodYear, DataStoreImpl::monthDayKey, MAX_DAYS_IN_YEAR, startDay, endDay, candidates);
+        return candidates;
+    }
+
+    private <K> void collectIdsByPeriodKeys(Map<K, Set<UUID>> index, Function<LocalDate, K> key, int cycleLength,
+                                            LocalDate startDay, LocalDate endDay, Set<UUID> ids) {
+        if (ChronoUnit.DAYS.between(startDay, endDay) + 1 >= cycleLength) {
+            index.values().forEach(ids::addAll);
+            return;
+        }
+        for (LocalDate day = startDay; !day.isAfter(endDay); day = day.plusDays(1)) {
+            Set<UUID> uuids = index.get(key.apply(day));
+            if (uuids != null) ids.addAll(uuids);
+        }
+    }
+
+    private Collection<Set<UUID>> titleRange(String prefix, boolean ignoreCase) {
+        ConcurrentNavigableMap<String, Set<UUID>> index = ignoreCase ? indexTitleIgnoreCase : indexTitle;
+        String from = ignoreCase ? prefix.toLowerCase(Locale.ROOT) : prefix;
+        String to = DataStoreImpl.nextPrefix(from);
+        return to == null ? index.tailMap(from, true).values() : index.subMap(from, true, to, false).values();
+    }
+
+    private void createIndexTitle(Event event) {
+        addToIndex(indexTitle, event.getTitle(), event.getId());
+        addToIndex(indexTitleIgnoreCase, event.getTitle().toLowerCase(Locale.ROOT), event.getId());
+    }
+
+    private void createIndexAttender(Event event) {
+        for (Person attender : event.getAttenders()) {
+            Lock lock = lockFor(indexLocks, attender);
+            lock.lock();
+            try {
+                indexAttender.computeIfAbsent(attender, AttenderIndex::new).add(event);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void createIndexPeriod(Event event) {
+        for (PeriodOfEvent period : event.getPeriod())
+            switch (period) {
+                case ONCE:
+                    indexDate.add(event.getId(), event.getStartDate(), event.getEndDate());
+                    break;
+                case EVERY_YEAR:
+                    forEachDay(event, day -> addToIndex(indexPeriodYear, DataStoreImpl.monthDayKey(day), event.getId()));
+                    break;
+                case EVERY_MONTH:
+                    forEachDay(event, day -> addToIndex(indexPeriodMonth, day.getDayOfMonth(), event.getId()));
+                    break;
+                case EVERY_DAY:
+                    addToIndex(indexPeriodDay, event.getStartDate().toLocalDate(), event.getId());
+                    break;
+                case MONDAY:
+                case TUESDAY:
+                case WEDNESDAY:
+                case THURSDAY:
+                case FRIDAY:
+                case SATURDAY:
+                case SUNDAY:
+                    addToIndex(indexPeriodDayOfWeek, DayOfWeek.valueOf(period.name()), event.getId());
+                    break;
+            }
+    }
+
+    private void removeIndexTitle(Event event) {
+        removeFromIndex(indexTitle, event.getTitle(), event.getId());
+        removeFromIndex(indexTitleIgnoreCase, event.getTitle().toLowerCase(Locale.ROOT), event.getId());
+    }
+
+    private void removeIndexAttender(Event event) {
+        for (Person attender : event.getAttenders()) {
+            Lock lock = lockFor(indexLocks, attender);
+            lock.lock();
+            try {
+                AttenderIndex index = indexAttender.get(attender);
+                if (index == null) continue;
+                index.remove(event);
+                if (index.isEmpty()) indexAttender.remove(attender);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void removeIndexPeriod(Event event) {
+        for (PeriodOfEvent period : event.getPeriod())
+            switch (period) {
+                case ONCE:
+                    indexDate.remove(event.getId(), event.getStartDate());
+                    break;
+                case EVERY_YEAR:
+                    forEachDay(event, day -> removeFromIndex(indexPeriodYear, DataStoreImpl.monthDayKey(day), event.getId()));
+                    break;
+                case EVERY_MONTH:
+                    forEachDay(event, day -> removeFromIndex(indexPeriodMonth, day.getDayOfMonth(), event.getId()));
+                    break;
+                case EVERY_DAY:
+                    removeFromIndex(indexPeriodDay, event.getStartDate().toLocalDate(), event.getId());
+                    break;
+                case MONDAY:
+                case TUESDAY:
+                case WEDNESDAY:
+                case THURSDAY:
+                case FRIDAY:
+                case SATURDAY:
+                case SUNDAY:
+                    removeFromIndex(indexPeriodDayOfWeek, DayOfWeek.valueOf(period.name()), event.getId());
+                    break;
+            }
+    }
+
+    private void forEachDay(Event event, Consumer<LocalDate> action) {
+        LocalDate startDay = event.getStartDate().toLocalDate();
+        LocalDate endDay = event.getEndDate().toLocalDate();
+
+        while (!startDay.isAfter(endDay)) {
+            action.accept(startDay);
+            startDay = startDay.plusDays(1);
+        }
+    }
+
+    private <K> void addToIndex(ConcurrentMap<K, Set<UUID>> index, K key, UUID id) {
+        Lock lock = lockFor(indexLocks, key);
+        lock.lock();
+        try {
+            Set<UUID> ids = index.get(key);
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+                index.put(key, ids);
+            }
+            ids.add(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <K> void removeFromIndex(ConcurrentMap<K, Set<UUID>> index, K key, UUID id) {
+        Lock lock = lockFor(indexLocks, key);
+        lock.lock();
+        try {
+            Set<UUID> ids = index.get(key);
+            if (ids == null) return;
+            ids.remove(id);
+            if (ids.isEmpty()) index.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isEventDuplicate(Event event) {
+        for (Event e : resolve(indexContent.get(EventFingerprint.of(event))))
+            if (e.equals(event))
+                return true;
+        return false;
+    }
+
+    private static Lock[] createLocks() {
+        Lock[] locks = new Lock[LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) locks[i] = new ReentrantLock();
+        return locks;
+    }
+
+    private static Lock lockFor(Lock[] locks, Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return locks[hash & (locks.length - 1)];
+    }
+}
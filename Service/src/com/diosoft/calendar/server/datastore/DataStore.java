@@ -2,10 +2,12 @@ package com.diosoft.calendar.server.datastore;
 
 import com.diosoft.calendar.server.common.Event;
 import com.diosoft.calendar.server.common.Person;
+import com.diosoft.calendar.server.util.PageToken;
 
 import javax.xml.bind.JAXBException;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,6 +28,22 @@ public interface DataStore {
      */
     Event remove(UUID id) throws IllegalArgumentException, JAXBException, IOException;
 
+    /**
+     * Adds given events to the data store, events are written to the file system as one group
+     * @param events which add
+     * @return for every event true if it was added or false if it is duplicate
+     * @throws IllegalArgumentException
+     */
+    List<Boolean> publishAll(List<Event> events) throws IllegalArgumentException, IOException, JAXBException;
+
+    /**
+     * Removes events for given ids from the data store, events are deleted from the file system as one group
+     * @param ids of events
+     * @return for every id removed event or null if there was no mapping for
+     * @throws IllegalArgumentException
+     */
+    List<Event> removeAll(List<UUID> ids) throws IllegalArgumentException, JAXBException, IOException;
+
     /**
      * Search event for given id in the data store and return it
      * @param id for search
@@ -52,6 +70,28 @@ public interface DataStore {
      */
     List<Event> getEventByDay(LocalDate day) throws IllegalArgumentException;
 
+    /**
+     * Search events which take place at least partially in given period of days.
+     * Uses interval index for single events.
+     * @param startDay first day of period
+     * @param endDay last day of period
+     * @return List of events into period without duplicates
+     * @throws IllegalArgumentException
+     */
+    List<Event> getEventIntoPeriod(LocalDate startDay, LocalDate endDay) throws IllegalArgumentException;
+
+    /**
+     * Search one page of events which take place at least partially in given period of days.
+     * Events are ordered by start date and id, the page is built without collecting all events into period.
+     * @param startDay first day of period
+     * @param endDay last day of period
+     * @param after position of the last event of previous page or null for the first page
+     * @param limit max count of events in the page
+     * @return List of events
+     * @throws IllegalArgumentException
+     */
+    List<Event> getEventIntoPeriod(LocalDate startDay, LocalDate endDay, PageToken after, int limit) throws IllegalArgumentException;
+
     /**
      * Search event for given attender in the data store and return it.
      * @param attender
@@ -60,6 +100,37 @@ public interface DataStore {
      */
     List<Event> getEventByAttender(Person attender) throws IllegalArgumentException;
 
+    /**
+     * Search one page of events for given attender ordered by start date and id.
+     * @param attender
+     * @param after position of the last event of previous page or null for the first page
+     * @param limit max count of events in the page
+     * @return List of events
+     * @throws IllegalArgumentException
+     */
+    List<Event> getEventByAttender(Person attender, PageToken after, int limit) throws IllegalArgumentException;
+
+    /**
+     * Search events of given attender which cross given period by own time or by occurrence of recurring event.
+     * Uses index of attender ordered by start time.
+     * @param attender
+     * @param startDate start of period
+     * @param endDate end of period
+     * @return List of events by attender into period
+     * @throws IllegalArgumentException
+     */
+    List<Event> getEventByAttenderIntoPeriod(Person attender, LocalDateTime startDate, LocalDateTime endDate) throws IllegalArgumentException;
+
+    /**
+     * Check whether given attender has at least one event crossing given period, stops on the first found event
+     * @param attender
+     * @param startDate start of period
+     * @param endDate end of period
+     * @return true if attender is busy
+     * @throws IllegalArgumentException
+     */
+    boolean isAttenderBusy(Person attender, LocalDateTime startDate, LocalDateTime endDate) throws IllegalArgumentException;
+
     /**
      * Search event by title that starts with the prefix
      * @param prefix
@@ -67,4 +138,42 @@ public interface DataStore {
      * @throws IllegalArgumentException
      */
     List<Event> searchEventByTitleStartWith(String prefix) throws IllegalArgumentException;
+
+    /**
+     * Search one page of events by title that starts with the prefix.
+     * Events are ordered by title, so pages are stable while data store is not changed.
+     * @param prefix
+     * @param ignoreCase compare title and prefix ignoring case
+     * @param offset count of events to skip
+     * @param limit max count of events in the page
+     * @return List of events
+     * @throws IllegalArgumentException
+     */
+    List<Event> searchEventByTitleStartWith(String prefix, boolean ignoreCase, int offset, int limit) throws IllegalArgumentException;
+
+    /**
+     * Search one page of events by title that starts with the prefix ordered by start date and id.
+     * @param prefix
+     * @param after position of the last event of previous page or null for the first page
+     * @param limit max count of events in the page
+     * @return List of events
+     * @throws IllegalArgumentException
+     */
+    List<Event> searchEventByTitleStartWith(String prefix, PageToken after, int limit) throws IllegalArgumentException;
+
+    /**
+     * Search the earliest events by title that starts with the prefix.
+     * @param prefix
+     * @param ignoreCase compare title and prefix ignoring case
+     * @param count max count of events
+     * @return List of events ordered by start date
+     * @throws IllegalArgumentException
+     */
+    List<Event> searchEarliestEventsByTitleStartWith(String prefix, boolean ignoreCase, int count) throws IllegalArgumentException;
+
+    /**
+     * Collect statistics of every index for monitoring.
+     * @return statistics in order of indexes, the first is of the store of events
+     */
+    List<IndexStatistics> getIndexStatistics();
 }
@@ -5,65 +5,181 @@ import com.diosoft.calendar.server.common.PeriodOfEvent;
 import com.diosoft.calendar.server.common.Person;
 import com.diosoft.calendar.server.exception.DateTimeFormatException;
 import com.diosoft.calendar.server.filesystem.FileSystem;
+import com.diosoft.calendar.server.util.EventFingerprint;
+import com.diosoft.calendar.server.util.PageToken;
+import com.diosoft.calendar.server.util.RecurrenceEngine;
 
 import javax.xml.bind.JAXBException;
 import java.io.IOException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class DataStoreImpl implements DataStore {
-    private final static String DAY_MONTH_PATTERN = "dd-MM";
+    private final static int DAYS_IN_WEEK = 7;
+    private final static int MAX_DAYS_IN_MONTH = 31;
+    private final static int MAX_DAYS_IN_YEAR = 366;
+    private final static Integer[] MONTH_DAY_KEYS = createMonthDayKeys();
 
     private Map<UUID, Event> eventStore = new HashMap<>();
-    private Map<String, List<UUID>> indexTitle = new HashMap<>();
-    private Map<LocalDate, List<UUID>> indexDate = new HashMap<>();
-    private Map<Person, List<UUID>> indexAttender = new HashMap<>();
-    private Map<String, List<UUID>> indexPeriodYear = new HashMap<>();
+    private NavigableMap<String, List<UUID>> indexTitle = new TreeMap<>();
+    private NavigableMap<String, List<UUID>> indexTitleIgnoreCase = new TreeMap<>();
+    private IntervalIndex indexDate = new IntervalIndex();
+    private Map<Person, AttenderIndex> indexAttender = new HashMap<>();
+    private Map<Long, List<UUID>> indexContent = new HashMap<>();
+    private Map<Integer, List<UUID>> indexPeriodYear = new HashMap<>();
     private Map<Integer, List<UUID>> indexPeriodMonth = new HashMap<>();
     private Map<DayOfWeek, List<UUID>> indexPeriodDayOfWeek = new HashMap<>();
-    private Map<LocalDate, List<UUID>> indexPeriodDay = new HashMap<>();
+    private NavigableMap<LocalDate, List<UUID>> indexPeriodDay = new TreeMap<>();
 
     private final FileSystem fileSystem;
+    private final AvailabilityCache availabilityCache;
 
     public DataStoreImpl(FileSystem fileSystem) {
+        this(fileSystem, null);
+    }
+
+    /**
+     * @param fileSystem
+     * @param availabilityCache busy bitmaps of attenders maintained by this store, or null
+     */
+    public DataStoreImpl(FileSystem fileSystem, AvailabilityCache availabilityCache) {
         this.fileSystem = fileSystem;
+        this.availabilityCache = availabilityCache;
     }
 
     public void initDataStoreFromXMLResources() throws IOException, DateTimeFormatException, ExecutionException, InterruptedException {
-        List<Event> eventList = fileSystem.readAllEvents();
-        for (Event event : eventList) {
-            if (isEventDuplicate(event)) continue;
-            eventStore.put(event.getId(), event);
-            createIndexTitle(event);
-            createIndexAttender(event);
-            createIndexPeriod(event);
-        }
+//  every loading thread fills its own DataStoreImpl without file system writes, they are merged at the end
+        new BulkLoader(fileSystem).load(() -> new DataStoreImpl(fileSystem), DataStoreImpl::index, this::merge);
+        if (availabilityCache != null) eventStore.values().forEach(availabilityCache::add);
     }
 
-    @Override
-    public void publish(Event event) throws IllegalArgumentException, IOException, JAXBException {
-        if (event == null) throw new IllegalArgumentException();
+    private void index(Event event) {
         if (isEventDuplicate(event)) return;
+        event = withIndexedAttenders(event, indexAttender);
         eventStore.put(event.getId(), event);
+        createIndexContent(event);
         createIndexTitle(event);
-        createIndexPeriod(event);
         createIndexAttender(event);
-        fileSystem.write(event);
+        createIndexPeriod(event);
+    }
+
+    private void merge(DataStoreImpl partition) {
+        eventStore.putAll(partition.eventStore);
+        mergeIndex(indexTitle, partition.indexTitle);
+        mergeIndex(indexTitleIgnoreCase, partition.indexTitleIgnoreCase);
+        partition.indexAttender.forEach((attender, index) -> indexAttender.merge(attender, index, (oldIndex, newIndex) -> {
+            oldIndex.addAll(newIndex);
+            return oldIndex;
+        }));
+        mergeIndex(indexContent, partition.indexContent);
+        mergeIndex(indexPeriodYear, partition.indexPeriodYear);
+        mergeIndex(indexPeriodMonth, partition.indexPeriodMonth);
+        mergeIndex(indexPeriodDayOfWeek, partition.indexPeriodDayOfWeek);
+        mergeIndex(indexPeriodDay, partition.indexPeriodDay);
+        indexDate.addAll(partition.indexDate);
+    }
+
+    private static <K> void mergeIndex(Map<K, List<UUID>> index, Map<K, List<UUID>> partitionIndex) {
+        partitionIndex.forEach((key, ids) -> index.merge(key, ids, (oldIds, newIds) -> {
+            oldIds.addAll(newIds);
+            return oldIds;
+        }));
+    }
+
+    @Override
+    public void publish(Event event) throws IllegalArgumentException, IOException, JAXBException {
+        if (event == null) throw new IllegalArgumentException();
+        if (!addEvent(event)) return;
+//  event is acknowledged only when it is written, failed write takes it back from indexes
+        try {
+            fileSystem.write(event);
+        } catch (IOException | JAXBException | RuntimeException e) {
+            removeEvent(event.getId());
+            throw e;
+        }
     }
 
     @Override
     public Event remove(UUID id) throws IllegalArgumentException, JAXBException, IOException {
         if (id == null) throw new IllegalArgumentException();
+        Event event = removeEvent(id);
+        if (event == null) return null;
+        try {
+            fileSystem.delete(event.getId());
+        } catch (IOException | RuntimeException e) {
+            addEvent(event);
+            throw e;
+        }
+        return event;
+    }
+
+    @Override
+    public List<Boolean> publishAll(List<Event> events) throws IllegalArgumentException, IOException, JAXBException {
+        if (events == null || events.contains(null)) throw new IllegalArgumentException();
+        List<Boolean> results = new ArrayList<>(events.size());
+        List<Event> addedEvents = new ArrayList<>();
+        for (Event event : events) {
+            boolean added = addEvent(event);
+            if (added) addedEvents.add(event);
+            results.add(added);
+        }
+        if (addedEvents.isEmpty()) return results;
+        try {
+            fileSystem.writeAll(addedEvents);
+        } catch (IOException | JAXBException | RuntimeException e) {
+            for (Event event : addedEvents) removeEvent(event.getId());
+            throw e;
+        }
+        return results;
+    }
+
+    @Override
+    public List<Event> removeAll(List<UUID> ids) throws IllegalArgumentException, JAXBException, IOException {
+        if (ids == null || ids.contains(null)) throw new IllegalArgumentException();
+        List<Event> removedEvents = new ArrayList<>(ids.size());
+        List<UUID> removedIds = new ArrayList<>();
+        for (UUID id : ids) {
+            Event event = removeEvent(id);
+            if (event != null) removedIds.add(id);
+            removedEvents.add(event);
+        }
+        if (removedIds.isEmpty()) return removedEvents;
+        try {
+            fileSystem.deleteAll(removedIds);
+        } catch (IOException | RuntimeException e) {
+            for (Event event : removedEvents) if (event != null) addEvent(event);
+            throw e;
+        }
+        return removedEvents;
+    }
+
+    private boolean addEvent(Event event) {
+        if (isEventDuplicate(event)) return false;
+        event = withIndexedAttenders(event, indexAttender);
+        eventStore.put(event.getId(), event);
+        createIndexContent(event);
+        createIndexTitle(event);
+        createIndexPeriod(event);
+        createIndexAttender(event);
+        if (availabilityCache != null) availabilityCache.add(event);
+        return true;
+    }
+
+    private Event removeEvent(UUID id) {
         Event event = eventStore.remove(id);
         if (event != null) {
+            removeIndexContent(event);
             removeIndexTitle(event);
             removeIndexAttender(event);
             removeIndexPeriod(event);
-            fileSystem.delete(event.getId());
+            if (availabilityCache != null) availabilityCache.remove(event, this);
         }
         return event;
     }
@@ -90,8 +206,8 @@ public class DataStoreImpl implements DataStore {
 
         List<Event> events = new ArrayList<>();
 
-        List<UUID> ids = indexDate.get(day);
-        if (ids != null) events.addAll(ids.stream()
+        List<UUID> ids = indexDate.search(day.atStartOfDay(), day.atTime(LocalTime.MAX));
+        events.addAll(ids.stream()
                 .map(eventStore::get)
                 .collect(Collectors.toList())
         );
@@ -111,44 +227,179 @@ public class DataStoreImpl implements DataStore {
         return events;
     }
 
+    @Override
+    public List<Event> getEventIntoPeriod(LocalDate startDay, LocalDate endDay) throws IllegalArgumentException {
+        if (startDay == null || endDay == null || startDay.isAfter(endDay)) throw new IllegalArgumentException();
+
+        Set<Event> events = new LinkedHashSet<>();
+        events.addAll(indexDate.search(startDay.atStartOfDay(), endDay.atTime(LocalTime.MAX)).stream()
+                .map(eventStore::get)
+                .collect(Collectors.toList())
+        );
+
+//  recurrent events: take candidates only by keys covered by period, then check them by rules of recurrence
+        Set<UUID> candidates = getRecurringCandidates(startDay, endDay);
+
+        events.addAll(candidates.stream()
+                .map(eventStore::get)
+                .filter(event -> RecurrenceEngine.isOccurIntoPeriod(event, startDay, endDay))
+                .collect(Collectors.toList())
+        );
+        return new ArrayList<>(events);
+    }
+
+    @Override
+    public List<Event> getEventIntoPeriod(LocalDate startDay, LocalDate endDay, PageToken after, int limit) throws IllegalArgumentException {
+        if (startDay == null || endDay == null || startDay.isAfter(endDay) || limit < 0) throw new IllegalArgumentException();
+
+//  the first 'limit' single events after position come from interval index in order of start,
+//  recurrent events after position are merged with them and the page is cut to 'limit' again
+        NavigableSet<Event> events = new TreeSet<>(PageToken.START_ORDER);
+        events.addAll(indexDate.searchAfter(startDay.atStartOfDay(), endDay.atTime(LocalTime.MAX), after, limit).stream()
+                .map(eventStore::get)
+                .collect(Collectors.toList())
+        );
+        getRecurringCandidates(startDay, endDay).stream()
+                .map(eventStore::get)
+                .filter(event -> (after == null || after.precedes(event)) && RecurrenceEngine.isOccurIntoPeriod(event, startDay, endDay))
+                .forEach(events::add);
+        return events.stream().limit(limit).collect(Collectors.toList());
+    }
+
     @Override
     public List<Event> getEventByAttender(Person attender) throws IllegalArgumentException {
         if (attender == null) throw new IllegalArgumentException();
 
-        List<UUID> ids = indexAttender.get(attender);
+        AttenderIndex index = indexAttender.get(attender);
         List<Event> events = new ArrayList<>();
-        if (ids != null) events.addAll(ids.stream().map(eventStore::get).collect(Collectors.toList()));
+        if (index != null) events.addAll(index.getAll().stream().map(eventStore::get).collect(Collectors.toList()));
         return events;
     }
 
+    @Override
+    public List<Event> getEventByAttender(Person attender, PageToken after, int limit) throws IllegalArgumentException {
+        if (attender == null || limit < 0) throw new IllegalArgumentException();
+
+        AttenderIndex index = indexAttender.get(attender);
+        if (index == null) return new ArrayList<>();
+        return index.getAfter(after, limit).stream().map(eventStore::get).collect(Collectors.toList());
+    }
+
+    @Override
+    public List<Event> getEventByAttenderIntoPeriod(Person attender, LocalDateTime startDate, LocalDateTime endDate) throws IllegalArgumentException {
+        if (attender == null || startDate == null || endDate == null || startDate.isAfter(endDate)) throw new IllegalArgumentException();
+
+        AttenderIndex index = indexAttender.get(attender);
+        if (index == null) return new ArrayList<>();
+        return index.search(startDate, endDate, eventStore::get);
+    }
+
+    @Override
+    public boolean isAttenderBusy(Person attender, LocalDateTime startDate, LocalDateTime endDate) throws IllegalArgumentException {
+        if (attender == null || startDate == null || endDate == null || startDate.isAfter(endDate)) throw new IllegalArgumentException();
+
+        if (availabilityCache != null && availabilityCache.isFree(attender, startDate, endDate)) return false;
+        AttenderIndex index = indexAttender.get(attender);
+        return index != null && index.isAnyIntoPeriod(startDate, endDate, eventStore::get);
+    }
+
     @Override
     public List<Event> searchEventByTitleStartWith(String prefix) throws IllegalArgumentException {
         if (prefix == null) throw new IllegalArgumentException();
         List<Event> presentInEventList = new ArrayList<>();
 
-        indexTitle.keySet().stream().filter(title -> title.startsWith(prefix))
-                .forEach(title -> presentInEventList.addAll(indexTitle.get(title).stream().map(eventStore::get).collect(Collectors.toList())));
+        for (List<UUID> ids : titleRange(prefix, false))
+            presentInEventList.addAll(ids.stream().map(eventStore::get).collect(Collectors.toList()));
         return presentInEventList;
     }
 
+    @Override
+    public List<Event> searchEventByTitleStartWith(String prefix, boolean ignoreCase, int offset, int limit) throws IllegalArgumentException {
+        if (prefix == null || offset < 0 || limit < 0) throw new IllegalArgumentException();
+        List<Event> page = new ArrayList<>();
+
+        int skipped = 0;
+        for (List<UUID> ids : titleRange(prefix, ignoreCase)) {
+            if (skipped + ids.size() <= offset) {
+                skipped += ids.size();
+                continue;
+            }
+            for (UUID id : ids) {
+                if (skipped++ < offset) continue;
+                if (page.size() == limit) return page;
+                page.add(eventStore.get(id));
+            }
+            if (page.size() == limit) return page;
+        }
+        return page;
+    }
+
+    @Override
+    public List<Event> searchEventByTitleStartWith(String prefix, PageToken after, int limit) throws IllegalArgumentException {
+        if (prefix == null || limit < 0) throw new IllegalArgumentException();
+        if (limit == 0) return new ArrayList<>();
+
+//  keep only 'limit' first events after position in the heap, the latest of them on top
+        PriorityQueue<Event> first = new PriorityQueue<>(limit, PageToken.START_ORDER.reversed());
+        for (List<UUID> ids : titleRange(prefix, false))
+            for (UUID id : ids) {
+                Event event = eventStore.get(id);
+                if (event == null || (after != null && !after.precedes(event))) continue;
+                first.add(event);
+                if (first.size() > limit) first.poll();
+            }
+
+        List<Event> events = new ArrayList<>(first);
+        events.sort(PageToken.START_ORDER);
+        return events;
+    }
+
+    @Override
+    public List<Event> searchEarliestEventsByTitleStartWith(String prefix, boolean ignoreCase, int count) throws IllegalArgumentException {
+        if (prefix == null || count < 0) throw new IllegalArgumentException();
+        if (count == 0) return new ArrayList<>();
+
+//  keep only 'count' earliest events in the heap, the latest of them on top
+        PriorityQueue<Event> earliest = new PriorityQueue<>(count, Comparator.reverseOrder());
+        for (List<UUID> ids : titleRange(prefix, ignoreCase))
+            for (UUID id : ids) {
+                earliest.add(eventStore.get(id));
+                if (earliest.size() > count) earliest.poll();
+            }
+
+        List<Event> events = new ArrayList<>(earliest);
+        Collections.sort(events);
+        return events;
+    }
+
+    @Override
+    public List<IndexStatistics> getIndexStatistics() {
+        List<IndexStatistics> statistics = new ArrayList<>();
+        statistics.add(IndexStatistics.of("eventStore", eventStore, Footprint.HASH_MAP_ENTRY, id -> 0, event -> 1, Footprint::event));
+        statistics.add(IndexStatistics.of("indexTitle", indexTitle, Footprint.TREE_MAP_ENTRY, title -> 0, Footprint::arrayList));
+        statistics.add(IndexStatistics.of("indexTitleIgnoreCase", indexTitleIgnoreCase, Footprint.TREE_MAP_ENTRY, Footprint::string, Footprint::arrayList));
+        statistics.add(IndexStatistics.of("indexDate", indexDate));
+        statistics.add(IndexStatistics.of("indexAttender", indexAttender, Footprint.HASH_MAP_ENTRY, Footprint::person, AttenderIndex::size,
+                index -> Footprint.ATTENDER_INDEX + (long) index.size() * Footprint.INTERVAL_NODE + (long) index.recurringSize() * Footprint.SKIP_LIST_ENTRY));
+        statistics.add(IndexStatistics.of("indexContent", indexContent, Footprint.HASH_MAP_ENTRY, fingerprint -> Footprint.BOXED_NUMBER, Footprint::arrayList));
+        statistics.add(IndexStatistics.of("indexPeriodYear", indexPeriodYear, Footprint.HASH_MAP_ENTRY, day -> 0, Footprint::arrayList));
+        statistics.add(IndexStatistics.of("indexPeriodMonth", indexPeriodMonth, Footprint.HASH_MAP_ENTRY, day -> 0, Footprint::arrayList));
+        statistics.add(IndexStatistics.of("indexPeriodDayOfWeek", indexPeriodDayOfWeek, Footprint.HASH_MAP_ENTRY, day -> 0, Footprint::arrayList));
+        statistics.add(IndexStatistics.of("indexPeriodDay", indexPeriodDay, Footprint.TREE_MAP_ENTRY, day -> Footprint.LOCAL_DATE, Footprint::arrayList));
+        return statistics;
+    }
+
+    /**
+     * @return statistics of indexes, contents of big store are not printed
+     */
     @Override
     public String toString() {
-        final StringBuilder sb = new StringBuilder("DataStoreImpl{");
-        sb.append("eventStore=").append(eventStore);
-        sb.append(", indexTitle=").append(indexTitle);
-        sb.append(", indexDate=").append(indexDate);
-        sb.append(", indexPeriodYear=").append(indexPeriodYear);
-        sb.append(", indexPeriodMonth=").append(indexPeriodMonth);
-        sb.append(", indexPeriodDayOfWeek=").append(indexPeriodDayOfWeek);
-        sb.append(", indexPeriodDay=").append(indexPeriodDay);
-        sb.append(", indexAttender=").append(indexAttender);
-        sb.append('}');
-        return sb.toString();
+        return "DataStoreImpl" + getIndexStatistics();
     }
 
     private List<Event> getEventByDayWithYearPeriod(LocalDate date) {
         List<Event> eventList = new ArrayList<>();
-        String dayAndMonth = date.format(DateTimeFormatter.ofPattern(DAY_MONTH_PATTERN));
+        Integer dayAndMonth = monthDayKey(date);
         List<UUID> uuids = indexPeriodYear.get(dayAndMonth);
         if (uuids != null) eventList.addAll(uuids.stream()
                 .filter(uuid -> eventStore.get(uuid).getStartDate().toLocalDate().isBefore(date)
@@ -182,16 +433,85 @@ public class DataStoreImpl implements DataStore {
 
     private List<Event> getEventByDayWithDayPeriod(LocalDate date) {
         List<Event> eventList = new ArrayList<>();
-        for (LocalDate eventStartDay : indexPeriodDay.keySet())
-            if (date.isEqual(eventStartDay) || date.isAfter(eventStartDay)) {
-                List<UUID> uuids = indexPeriodDay.get(eventStartDay);
-                if (uuids != null) eventList.addAll(uuids.stream()
-                        .map(eventStore::get).collect(Collectors.toList()));
-            }
+        for (List<UUID> uuids : indexPeriodDay.headMap(date, true).values())
+            eventList.addAll(uuids.stream()
+                    .map(eventStore::get).collect(Collectors.toList()));
 
         return eventList;
     }
 
+    private Set<UUID> getRecurringCandidates(LocalDate startDay, LocalDate endDay) {
+        Set<UUID> candidates = new LinkedHashSet<>();
+        indexPeriodDay.headMap(endDay, true).values().forEach(candidates::addAll);
+        collectIdsByPeriodKeys(indexPeriodDayOfWeek, LocalDate::getDayOfWeek, DAYS_IN_WEEK, startDay, endDay, candidates);
+        collectIdsByPeriodKeys(indexPeriodMonth, LocalDate::getDayOfMonth, MAX_DAYS_IN_MONTH, startDay, endDay, candidates);
+        collectIdsByPeriodKeys(indexPeriodYear, DataStoreImpl::monthDayKey, MAX_DAYS_IN_YEAR, startDay, endDay, candidates);
+        return candidates;
+    }
+
+    private <K> void collectIdsByPeriodKeys(Map<K, List<UUID>> index, Function<LocalDate, K> key, int cycleLength,
+                                            LocalDate startDay, LocalDate endDay, Set<UUID> ids) {
+        if (ChronoUnit.DAYS.between(startDay, endDay) + 1 >= cycleLength) {
+            index.values().forEach(ids::addAll);
+            return;
+        }
+        for (LocalDate day = startDay; !day.isAfter(endDay); day = day.plusDays(1)) {
+            List<UUID> uuids = index.get(key.apply(day));
+            if (uuids != null) ids.addAll(uuids);
+        }
+    }
+
+    /**
+     * Ids of events grouped by titles which start with the prefix, in order of titles.
+     * Titles are sorted, so it is a view of the range of matched titles only.
+     */
+    private Collection<List<UUID>> titleRange(String prefix, boolean ignoreCase) {
+        NavigableMap<String, List<UUID>> index = ignoreCase ? indexTitleIgnoreCase : indexTitle;
+        String from = ignoreCase ? prefix.toLowerCase(Locale.ROOT) : prefix;
+        String to = nextPrefix(from);
+        return to == null ? index.tailMap(from, true).values() : index.subMap(from, true, to, false).values();
+    }
+
+    /**
+     * @return the least string which is greater than all strings starting with the prefix, or null if there is no such
+     */
+    static String nextPrefix(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) end--;
+        if (end == 0) return null;
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+
+    /**
+     * Event with attenders replaced by instances of indexes of attenders, so equal persons of separately added events
+     * are kept in memory and written to stream of results once. Event itself is returned if nothing is replaced.
+     */
+    static Event withIndexedAttenders(Event event, Map<Person, AttenderIndex> indexAttender) {
+        Set<Person> attenders = new HashSet<>();
+        boolean replaced = false;
+        for (Person attender : event.getAttenders()) {
+            AttenderIndex index = indexAttender.get(attender);
+            Person indexed = index == null ? attender : index.getAttender();
+            replaced |= indexed != attender;
+            attenders.add(indexed);
+        }
+        return replaced ? new Event.EventBuilder(event).attendersSet(attenders).build() : event;
+    }
+
+    /**
+     * Key of index of yearly events: month and day packed into int as month * 32 + day.
+     * Keys are boxed once, so lookups and updates of index neither format nor allocate.
+     */
+    static Integer monthDayKey(LocalDate day) {
+        return MONTH_DAY_KEYS[day.getMonthValue() << 5 | day.getDayOfMonth()];
+    }
+
+    private static Integer[] createMonthDayKeys() {
+        Integer[] keys = new Integer[(12 + 1) << 5];
+        for (int key = 0; key < keys.length; key++) keys[key] = key;
+        return keys;
+    }
+
     private void createIndexTitle(Event event) {
         List<UUID> idsTitle = indexTitle.get(event.getTitle());
         if (!indexTitle.containsKey(event.getTitle())) {
@@ -199,21 +519,18 @@ public class DataStoreImpl implements DataStore {
             idsTitle.add(event.getId());
             indexTitle.put(event.getTitle(), idsTitle);
         } else idsTitle.add(event.getId());
+
+        String lowerCaseTitle = event.getTitle().toLowerCase(Locale.ROOT);
+        List<UUID> idsLowerCaseTitle = indexTitleIgnoreCase.get(lowerCaseTitle);
+        if (idsLowerCaseTitle == null) {
+            idsLowerCaseTitle = new ArrayList<>();
+            indexTitleIgnoreCase.put(lowerCaseTitle, idsLowerCaseTitle);
+        }
+        idsLowerCaseTitle.add(event.getId());
     }
 
     private void createIndexPeriodOnce(Event event) {
-        LocalDate startDay = event.getStartDate().toLocalDate();
-        LocalDate endDay = event.getEndDate().toLocalDate();
-
-        while (startDay.isBefore(endDay) || startDay.equals(endDay)) {
-            List<UUID> idsDate = indexDate.get(startDay);
-            if (!indexDate.containsKey(startDay)) {
-                idsDate = new ArrayList<>();
-                idsDate.add(event.getId());
-                indexDate.put(startDay, idsDate);
-            } else idsDate.add(event.getId());
-            startDay = startDay.plusDays(1);
-        }
+        indexDate.add(event.getId(), event.getStartDate(), event.getEndDate());
     }
 
     private void createIndexPeriod(Event event) {
@@ -282,7 +599,7 @@ public class DataStoreImpl implements DataStore {
         LocalDate endDay = event.getEndDate().toLocalDate();
 
         while (startDay.isBefore(endDay) || startDay.equals(endDay)) {
-            String dayAndMonth = startDay.format(DateTimeFormatter.ofPattern(DAY_MONTH_PATTERN));
+            Integer dayAndMonth = monthDayKey(startDay);
             List<UUID> idsDate = indexPeriodYear.get(dayAndMonth);
             if (!indexPeriodYear.containsKey(dayAndMonth)) {
                 idsDate = new ArrayList<>();
@@ -296,12 +613,12 @@ public class DataStoreImpl implements DataStore {
     private void createIndexAttender(Event event) {
         Set<Person> attenders = event.getAttenders();
         for (Person attender : attenders) {
-            List<UUID> idsAttender = indexAttender.get(attender);
-            if (!indexAttender.containsKey(attender)) {
-                idsAttender = new ArrayList<>();
-                idsAttender.add(event.getId());
-                indexAttender.put(attender, idsAttender);
-            } else idsAttender.add(event.getId());
+            AttenderIndex index = indexAttender.get(attender);
+            if (index == null) {
+                index = new AttenderIndex(attender);
+                indexAttender.put(attender, index);
+            }
+            index.add(event);
         }
     }
 
@@ -310,28 +627,23 @@ public class DataStoreImpl implements DataStore {
         if (idsTitle.size() <= 1) {
             indexTitle.remove(event.getTitle());
         } else idsTitle.remove(event.getId());
+
+        String lowerCaseTitle = event.getTitle().toLowerCase(Locale.ROOT);
+        List<UUID> idsLowerCaseTitle = indexTitleIgnoreCase.get(lowerCaseTitle);
+        idsLowerCaseTitle.remove(event.getId());
+        if (idsLowerCaseTitle.isEmpty()) indexTitleIgnoreCase.remove(lowerCaseTitle);
     }
 
     private void removeIndexPeriodOnce(Event event) {
-        LocalDate startDay = event.getStartDate().toLocalDate();
-        LocalDate endDay = event.getEndDate().toLocalDate();
-
-        while (startDay.isBefore(endDay) || startDay.equals(endDay)) {
-            List<UUID> idsDate = indexDate.get(startDay);
-            if (idsDate.size() <= 1) {
-                indexDate.remove(startDay);
-            } else idsDate.remove(event.getId());
-            startDay = startDay.plusDays(1);
-        }
+        indexDate.remove(event.getId(), event.getStartDate());
     }
 
     private void removeIndexAttender(Event event) {
         Set<Person> attenders = event.getAttenders();
         for (Person attender : attenders) {
-            List<UUID> idsAttender = indexAttender.get(attender);
-            if (idsAttender.size() <= 1) {
-                indexAttender.remove(attender);
-            } else idsAttender.remove(event.getId());
+            AttenderIndex index = indexAttender.get(attender);
+            index.remove(event);
+            if (index.isEmpty()) indexAttender.remove(attender);
         }
     }
 
@@ -395,7 +707,7 @@ public class DataStoreImpl implements DataStore {
         LocalDate endDay = event.getEndDate().toLocalDate();
 
         while (startDay.isBefore(endDay) || startDay.equals(endDay)) {
-            String dayAndMonth = startDay.format(DateTimeFormatter.ofPattern(DAY_MONTH_PATTERN));
+            Integer dayAndMonth = monthDayKey(startDay);
             List<UUID> idsDate = indexPeriodYear.get(dayAndMonth);
             if (idsDate.size() <= 1) {
                 indexPeriodYear.remove(dayAndMonth);
@@ -404,9 +716,29 @@ public class DataStoreImpl implements DataStore {
         }
     }
 
+    private void createIndexContent(Event event) {
+        long fingerprint = EventFingerprint.of(event);
+        List<UUID> idsContent = indexContent.get(fingerprint);
+        if (idsContent == null) {
+            idsContent = new ArrayList<>(1);
+            indexContent.put(fingerprint, idsContent);
+        }
+        idsContent.add(event.getId());
+    }
+
+    private void removeIndexContent(Event event) {
+        long fingerprint = EventFingerprint.of(event);
+        List<UUID> idsContent = indexContent.get(fingerprint);
+        if (idsContent == null) return;
+        idsContent.remove(event.getId());
+        if (idsContent.isEmpty()) indexContent.remove(fingerprint);
+    }
+
     private boolean isEventDuplicate(Event event) {
-        for (Event e : searchEventByTitleStartWith(event.getTitle()))
-            if (e.equals(event))
+        List<UUID> idsContent = indexContent.get(EventFingerprint.of(event));
+        if (idsContent == null) return false;
+        for (UUID id : idsContent)
+            if (event.equals(eventStore.get(id)))
                 return true;
         return false;
     }
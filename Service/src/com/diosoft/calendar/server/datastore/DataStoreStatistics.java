@@ -0,0 +1,84 @@
+package com.diosoft.calendar.server.datastore;
+
+import org.apache.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * JMX view of statistics of indexes of data store, registered as com.diosoft.calendar:type=DataStore,name=statistics.
+ * Statistics walk all indexes, so they are collected at most once per second and shared by attributes.
+ */
+public class DataStoreStatistics implements DataStoreStatisticsMXBean, Closeable {
+    private final static Logger logger = Logger.getLogger(DataStoreStatistics.class);
+    private final static String OBJECT_NAME = "com.diosoft.calendar:type=DataStore,name=statistics";
+    private final static long MAX_AGE_NANOS = 1_000_000_000L;
+
+    private final DataStore dataStore;
+    private final MBeanServer mBeanServer;
+    private List<IndexStatistics> snapshot;
+    private long snapshotTime;
+
+    /**
+     * @param mBeanServer where statistics are registered by register()
+     */
+    public DataStoreStatistics(DataStore dataStore, MBeanServer mBeanServer) {
+        if (dataStore == null || mBeanServer == null) throw new IllegalArgumentException();
+        this.dataStore = dataStore;
+        this.mBeanServer = mBeanServer;
+    }
+
+    public void register() throws JMException {
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (mBeanServer.isRegistered(name)) mBeanServer.unregisterMBean(name);
+        mBeanServer.registerMBean(this, name);
+    }
+
+    @Override
+    public void close() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(name)) mBeanServer.unregisterMBean(name);
+        } catch (JMException e) {
+            logger.warn("Statistics of data store can't be unregistered: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized List<IndexStatistics> getIndexes() {
+        long now = System.nanoTime();
+        if (snapshot == null || now - snapshotTime > MAX_AGE_NANOS) {
+            snapshot = dataStore.getIndexStatistics();
+            snapshotTime = now;
+        }
+        return snapshot;
+    }
+
+    @Override
+    public long getEventCount() {
+        return getIndexes().get(0).getKeys();
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+        long bytes = 0;
+        for (IndexStatistics statistics : getIndexes()) bytes += statistics.getEstimatedBytes();
+        return bytes;
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+        for (IndexStatistics statistics : getIndexes()) {
+            sb.append(String.format("%-22s keys=%-10d values=%-10d mean=%-8.1f p50=%-6d p99=%-6d max=%-8d bytes=%d",
+                    statistics.getName(), statistics.getKeys(), statistics.getValues(), statistics.getMeanLength(),
+                    statistics.getMedianLength(), statistics.getLength99(), statistics.getMaxLength(), statistics.getEstimatedBytes()));
+            if (!statistics.getHottestKeys().isEmpty()) sb.append(" hottest=").append(statistics.getHottestKeys());
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
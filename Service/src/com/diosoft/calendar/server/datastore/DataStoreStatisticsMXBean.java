@@ -0,0 +1,20 @@
+package com.diosoft.calendar.server.datastore;
+
+import java.util.List;
+
+/**
+ * Statistics of indexes of data store as seen by JMX
+ */
+public interface DataStoreStatisticsMXBean {
+
+    List<IndexStatistics> getIndexes();
+
+    long getEventCount();
+
+    long getEstimatedBytes();
+
+    /**
+     * @return one line per index
+     */
+    String getReport();
+}
@@ -0,0 +1,67 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.Person;
+
+/**
+ * Estimated heap sizes of structures of data stores for 64-bit JVM with compressed references
+ * (headers of 12 bytes, references of 4 bytes, alignment of 8 bytes). Tables of hash maps are counted
+ * with load factor 0.75, objects shared with events (ids, titles, dates) are counted only by events,
+ * persons are counted by index of attenders.
+ */
+final class Footprint {
+    final static int REFERENCE = 4;
+    final static int HASH_MAP_ENTRY = 32 + REFERENCE * 4 / 3;
+    final static int TREE_MAP_ENTRY = 40;
+    final static int SKIP_LIST_ENTRY = 24 + 8;
+    final static int INTERVAL_NODE = 40;
+    final static int BOXED_NUMBER = 16;
+    final static int LOCAL_DATE = 24;
+    final static int LOCAL_DATE_TIME = 24 + LOCAL_DATE + 24;
+    final static int ATTENDER_INDEX = 16 + 24 + 48;
+    private final static int ARRAY_HEADER = 16;
+    private final static int ARRAY_LIST = 24;
+    private final static int CONCURRENT_SET = 16 + 64;
+    private final static int UUID_SIZE = 32;
+    private final static int EVENT = 40;
+    private final static int HASH_SET = 16 + 48;
+    private final static int PERSON = 24;
+
+    private Footprint() {
+    }
+
+    static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    static long string(String value) {
+        return value == null ? 0 : 24 + align(ARRAY_HEADER + 2L * value.length());
+    }
+
+    /**
+     * ArrayList with capacity grown by half
+     */
+    static long arrayList(int size) {
+        return ARRAY_LIST + align(ARRAY_HEADER + (long) REFERENCE * (size + size / 4));
+    }
+
+    /**
+     * Set of ConcurrentHashMap.newKeySet()
+     */
+    static long concurrentSet(int size) {
+        return CONCURRENT_SET + align(ARRAY_HEADER) + (long) size * HASH_MAP_ENTRY;
+    }
+
+    /**
+     * Event with own id, strings, dates, sets of attenders and periods, persons are shared by events
+     */
+    static long event(Event event) {
+        return EVENT + UUID_SIZE + string(event.getTitle()) + string(event.getDescription()) + 2 * LOCAL_DATE_TIME
+                + HASH_SET + (long) event.getAttenders().size() * HASH_MAP_ENTRY
+                + HASH_SET + (long) event.getPeriod().size() * HASH_MAP_ENTRY;
+    }
+
+    static long person(Person person) {
+        return PERSON + string(person.getName()) + string(person.getLastName()) + string(person.getEmail());
+    }
+}
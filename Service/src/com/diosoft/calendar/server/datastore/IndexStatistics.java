@@ -0,0 +1,155 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.metrics.Histogram;
+
+import java.beans.ConstructorProperties;
+import java.util.*;
+import java.util.function.IntToLongFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Statistics of one index of data store: count of keys, count of values (ids) and distribution of their count
+ * per key, estimated bytes retained by index (see Footprint) and keys with the most values.
+ * Statistics of concurrent store are weakly consistent: index is walked once without locks.
+ */
+public class IndexStatistics {
+    final static int HOTTEST_KEYS = 10;
+
+    private final String name;
+    private final long keys;
+    private final long values;
+    private final double meanLength;
+    private final long medianLength;
+    private final long length99;
+    private final long maxLength;
+    private final long estimatedBytes;
+    private final List<String> hottestKeys;
+
+    @ConstructorProperties({"name", "keys", "values", "meanLength", "medianLength", "length99", "maxLength", "estimatedBytes", "hottestKeys"})
+    public IndexStatistics(String name, long keys, long values, double meanLength, long medianLength, long length99,
+                           long maxLength, long estimatedBytes, List<String> hottestKeys) {
+        this.name = name;
+        this.keys = keys;
+        this.values = values;
+        this.meanLength = meanLength;
+        this.medianLength = medianLength;
+        this.length99 = length99;
+        this.maxLength = maxLength;
+        this.estimatedBytes = estimatedBytes;
+        this.hottestKeys = Collections.unmodifiableList(new ArrayList<>(hottestKeys));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getKeys() {
+        return keys;
+    }
+
+    public long getValues() {
+        return values;
+    }
+
+    public double getMeanLength() {
+        return meanLength;
+    }
+
+    public long getMedianLength() {
+        return medianLength;
+    }
+
+    public long getLength99() {
+        return length99;
+    }
+
+    public long getMaxLength() {
+        return maxLength;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * @return up to 10 keys with the most values (more than one) as key=count, the hottest first
+     */
+    public List<String> getHottestKeys() {
+        return hottestKeys;
+    }
+
+    @Override
+    public String toString() {
+        return name + "{keys=" + keys + ", values=" + values + ", maxLength=" + maxLength + ", bytes=" + estimatedBytes + '}';
+    }
+
+    /**
+     * Statistics of map of key to collection of ids
+     * @param entryBytes bytes of one entry of map
+     * @param keyBytes bytes of key which are not shared with events
+     * @param collectionBytes bytes of collection of given size
+     */
+    static <K, C extends Collection<?>> IndexStatistics of(String name, Map<K, C> index, int entryBytes,
+                                                          ToLongFunction<K> keyBytes, IntToLongFunction collectionBytes) {
+        Builder builder = new Builder(name);
+        for (Map.Entry<K, C> entry : index.entrySet()) {
+            int size = entry.getValue().size();
+            builder.add(entry.getKey(), size, entryBytes + keyBytes.applyAsLong(entry.getKey()) + collectionBytes.applyAsLong(size));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Statistics of map of key to object which holds values, e.g. AttenderIndex of person
+     */
+    static <K, V> IndexStatistics of(String name, Map<K, V> index, int entryBytes, ToLongFunction<K> keyBytes,
+                                     ToIntFunction<V> length, ToLongFunction<V> valueBytes) {
+        Builder builder = new Builder(name);
+        for (Map.Entry<K, V> entry : index.entrySet())
+            builder.add(entry.getKey(), length.applyAsInt(entry.getValue()),
+                    entryBytes + keyBytes.applyAsLong(entry.getKey()) + valueBytes.applyAsLong(entry.getValue()));
+        return builder.build();
+    }
+
+    /**
+     * Statistics of interval tree: every id is a key with one value
+     */
+    static IndexStatistics of(String name, IntervalIndex index) {
+        long size = index.size();
+        return new IndexStatistics(name, size, size, size == 0 ? 0 : 1, size == 0 ? 0 : 1, size == 0 ? 0 : 1, size == 0 ? 0 : 1,
+                size * Footprint.INTERVAL_NODE, Collections.emptyList());
+    }
+
+    /**
+     * Collects statistics by one pass over entries of index
+     */
+    static class Builder {
+        private final String name;
+        private final Histogram lengths = new Histogram();
+        private final PriorityQueue<Map.Entry<Object, Integer>> hottest = new PriorityQueue<>(Map.Entry.comparingByValue());
+        private long estimatedBytes;
+
+        Builder(String name) {
+            this.name = name;
+        }
+
+        void add(Object key, int length, long bytes) {
+            lengths.record(length);
+            estimatedBytes += bytes;
+            if (length > 1 && (hottest.size() < HOTTEST_KEYS || hottest.peek().getValue() < length)) {
+                hottest.add(new AbstractMap.SimpleImmutableEntry<>(key, length));
+                if (hottest.size() > HOTTEST_KEYS) hottest.poll();
+            }
+        }
+
+        IndexStatistics build() {
+            List<Map.Entry<Object, Integer>> entries = new ArrayList<>(hottest);
+            entries.sort(Map.Entry.<Object, Integer>comparingByValue().reversed());
+            List<String> hottestKeys = new ArrayList<>(entries.size());
+            for (Map.Entry<Object, Integer> entry : entries) hottestKeys.add(entry.getKey().toString().trim() + "=" + entry.getValue());
+            return new IndexStatistics(name, lengths.getCount(), lengths.getSum(), lengths.getMean(), lengths.getValueAtPercentile(50),
+                    lengths.getValueAtPercentile(99), lengths.getMax(), estimatedBytes, hottestKeys);
+        }
+    }
+}
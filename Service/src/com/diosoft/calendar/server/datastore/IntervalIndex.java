@@ -0,0 +1,216 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.util.PageToken;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Index of time intervals of events. Augmented AVL tree ordered by (start, id),
+ * every node keeps the max end of its subtree, so overlap query costs O(log n + k)
+ * and memory is one node per event regardless of its duration.
+ * Tree is persistent (writers copy the path from root), so readers work on a snapshot
+ * of the root without locks, writers are serialized.
+ */
+public class IntervalIndex {
+
+    private volatile Node root;
+
+    public synchronized void add(UUID id, LocalDateTime start, LocalDateTime end) {
+        if (id == null || start == null || end == null) throw new IllegalArgumentException();
+        root = insert(root, id, start, end);
+    }
+
+    /**
+     * Add all intervals of other index, e.g. of partition built by another thread
+     */
+    public synchronized void addAll(IntervalIndex other) {
+        if (other == null) throw new IllegalArgumentException();
+        root = insertAll(root, other.root);
+    }
+
+    public synchronized void remove(UUID id, LocalDateTime start) {
+        if (id == null || start == null) throw new IllegalArgumentException();
+        root = delete(root, id, start);
+    }
+
+    /**
+     * Search intervals which have at least one common point with given closed period
+     * @param from start of period
+     * @param to end of period
+     * @return ids of events in order of start
+     */
+    public List<UUID> search(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) throw new IllegalArgumentException();
+        List<UUID> ids = new ArrayList<>();
+        search(root, from, to, ids);
+        return ids;
+    }
+
+    /**
+     * Search intervals which have at least one common point with given closed period
+     * and come after given position in order of (start, id)
+     * @param from start of period
+     * @param to end of period
+     * @param after position or null to search from the first interval
+     * @param limit max count of ids
+     * @return ids of events in order of start
+     */
+    public List<UUID> searchAfter(LocalDateTime from, LocalDateTime to, PageToken after, int limit) {
+        if (from == null || to == null || limit < 0) throw new IllegalArgumentException();
+        List<UUID> ids = new ArrayList<>();
+        searchAfter(root, from, to, after, limit, ids);
+        return ids;
+    }
+
+    /**
+     * Check intervals which have at least one common point with given closed period in order of start,
+     * stops on the first matched interval
+     * @return true if predicate is true for id of any of them
+     */
+    public boolean anyMatch(LocalDateTime from, LocalDateTime to, Predicate<UUID> predicate) {
+        if (from == null || to == null || predicate == null) throw new IllegalArgumentException();
+        return anyMatch(root, from, to, predicate);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    @Override
+    public String toString() {
+        return "IntervalIndex{size=" + size() + '}';
+    }
+
+    private static void search(Node node, LocalDateTime from, LocalDateTime to, List<UUID> ids) {
+        if (node == null || node.maxEnd.isBefore(from)) return;
+        search(node.left, from, to, ids);
+        if (node.start.isAfter(to)) return;
+        if (!node.end.isBefore(from)) ids.add(node.id);
+        search(node.right, from, to, ids);
+    }
+
+    private static void searchAfter(Node node, LocalDateTime from, LocalDateTime to, PageToken after, int limit, List<UUID> ids) {
+        if (node == null || ids.size() == limit || node.maxEnd.isBefore(from)) return;
+//  left subtree of node which is not after position is not after position too
+        boolean isAfter = after == null || compare(after.getStartDate(), after.getId(), node) < 0;
+        if (isAfter) searchAfter(node.left, from, to, after, limit, ids);
+        if (ids.size() == limit || node.start.isAfter(to)) return;
+        if (isAfter && !node.end.isBefore(from)) ids.add(node.id);
+        searchAfter(node.right, from, to, after, limit, ids);
+    }
+
+    private static boolean anyMatch(Node node, LocalDateTime from, LocalDateTime to, Predicate<UUID> predicate) {
+        if (node == null || node.maxEnd.isBefore(from)) return false;
+        if (anyMatch(node.left, from, to, predicate)) return true;
+        if (node.start.isAfter(to)) return false;
+        if (!node.end.isBefore(from) && predicate.test(node.id)) return true;
+        return anyMatch(node.right, from, to, predicate);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : size(node.left) + 1 + size(node.right);
+    }
+
+    private static int compare(LocalDateTime start, UUID id, Node node) {
+        int result = start.compareTo(node.start);
+        return result != 0 ? result : id.compareTo(node.id);
+    }
+
+    private static Node insert(Node node, UUID id, LocalDateTime start, LocalDateTime end) {
+        if (node == null) return new Node(id, start, end, null, null);
+        int cmp = compare(start, id, node);
+        if (cmp < 0) return balance(node.withChildren(insert(node.left, id, start, end), node.right));
+        if (cmp > 0) return balance(node.withChildren(node.left, insert(node.right, id, start, end)));
+        return new Node(id, start, end, node.left, node.right);
+    }
+
+    private static Node insertAll(Node node, Node other) {
+        if (other == null) return node;
+        node = insert(node, other.id, other.start, other.end);
+        return insertAll(insertAll(node, other.left), other.right);
+    }
+
+    private static Node delete(Node node, UUID id, LocalDateTime start) {
+        if (node == null) return null;
+        int cmp = compare(start, id, node);
+        if (cmp < 0) return balance(node.withChildren(delete(node.left, id, start), node.right));
+        if (cmp > 0) return balance(node.withChildren(node.left, delete(node.right, id, start)));
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+
+        Node min = node.right;
+        while (min.left != null) min = min.left;
+        return balance(new Node(min.id, min.start, min.end, node.left, deleteMin(node.right)));
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) return node.right;
+        return balance(node.withChildren(deleteMin(node.left), node.right));
+    }
+
+    private static Node balance(Node node) {
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            Node left = node.left;
+            if (height(left.left) < height(left.right)) left = rotateLeft(left);
+            return rotateRight(node.withChildren(left, node.right));
+        }
+        if (factor < -1) {
+            Node right = node.right;
+            if (height(right.right) < height(right.left)) right = rotateRight(right);
+            return rotateLeft(node.withChildren(node.left, right));
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        return left.withChildren(left.left, node.withChildren(left.right, node.right));
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        return right.withChildren(node.withChildren(node.left, right.left), right.right);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static final class Node {
+        private final UUID id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final LocalDateTime maxEnd;
+        private final Node left;
+        private final Node right;
+        private final int height;
+
+        private Node(UUID id, LocalDateTime start, LocalDateTime end, Node left, Node right) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+
+            LocalDateTime max = end;
+            if (left != null && left.maxEnd.isAfter(max)) max = left.maxEnd;
+            if (right != null && right.maxEnd.isAfter(max)) max = right.maxEnd;
+            this.maxEnd = max;
+        }
+
+        private Node withChildren(Node left, Node right) {
+            if (left == this.left && right == this.right) return this;
+            return new Node(id, start, end, left, right);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.diosoft.calendar.server.filesystem;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.common.Person;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Binary encoding of fields of events shared by binary file systems.
+ * String is int length of UTF-8 bytes (-1 for null) and bytes, date is int count of minutes since epoch,
+ * periods are bitset of ordinals, null collections are stored as -1.
+ */
+final class EventCodec {
+    final static int NULL = -1;
+    private final static int SECONDS_IN_MINUTE = 60;
+
+    private EventCodec() {
+    }
+
+    /**
+     * Write event with its attenders inline, record doesn't depend on other records
+     */
+    static void writeEvent(DataOutputStream out, Event event) throws IOException {
+        writeUUID(out, event.getId());
+        writeString(out, event.getTitle());
+        writeString(out, event.getDescription());
+        writeDate(out, event.getStartDate());
+        writeDate(out, event.getEndDate());
+        writePeriods(out, event.getPeriod());
+        if (event.getAttenders() == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        out.writeInt(event.getAttenders().size());
+        for (Person attender : event.getAttenders()) writePerson(out, attender);
+    }
+
+    static Event readEvent(DataInputStream in) throws IOException {
+        Event.EventBuilder builder = new Event.EventBuilder()
+                .id(readUUID(in))
+                .title(readString(in))
+                .description(readString(in))
+                .startDate(readDate(in))
+                .endDate(readDate(in))
+                .periodSet(readPeriods(in));
+        int count = in.readInt();
+        if (count != NULL) {
+            Set<Person> attenders = new HashSet<>();
+            for (int i = 0; i < count; i++) attenders.add(readPerson(in));
+            builder.attendersSet(attenders);
+        }
+        return builder.build();
+    }
+
+    static void writePerson(DataOutputStream out, Person person) throws IOException {
+        writeString(out, person.getName());
+        writeString(out, person.getLastName());
+        writeString(out, person.getEmail());
+    }
+
+    static Person readPerson(DataInputStream in) throws IOException {
+        return new Person.PersonBuilder()
+                .name(readString(in))
+                .lastName(readString(in))
+                .email(readString(in))
+                .build();
+    }
+
+    static void writeUUID(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    static UUID readUUID(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeDate(DataOutputStream out, LocalDateTime date) throws IOException {
+        out.writeInt(date == null ? Integer.MIN_VALUE : Math.toIntExact(date.toEpochSecond(ZoneOffset.UTC) / SECONDS_IN_MINUTE));
+    }
+
+    static LocalDateTime readDate(DataInputStream in) throws IOException {
+        int minutes = in.readInt();
+        if (minutes == Integer.MIN_VALUE) return null;
+        return LocalDateTime.ofEpochSecond((long) minutes * SECONDS_IN_MINUTE, 0, ZoneOffset.UTC);
+    }
+
+    static void writePeriods(DataOutputStream out, Set<PeriodOfEvent> periods) throws IOException {
+        int bits = 0;
+        if (periods == null) bits = NULL;
+        else for (PeriodOfEvent period : periods) bits |= 1 << period.ordinal();
+        out.writeInt(bits);
+    }
+
+    static Set<PeriodOfEvent> readPeriods(DataInputStream in) throws IOException {
+        int bits = in.readInt();
+        if (bits == NULL) return null;
+        Set<PeriodOfEvent> periods = new HashSet<>();
+        for (PeriodOfEvent period : PeriodOfEvent.values())
+            if ((bits & 1 << period.ordinal()) != 0) periods.add(period);
+        return periods;
+    }
+}
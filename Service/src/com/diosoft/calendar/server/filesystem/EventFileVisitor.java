@@ -2,38 +2,74 @@ package com.diosoft.calendar.server.filesystem;
 
 import com.diosoft.calendar.server.common.Event;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
+/**
+ * Parses event files in parallel and passes every event to consumer as soon as it is read.
+ * Number of files in progress is bounded, so walking of directory waits for slow consumer.
+ */
 public class EventFileVisitor extends SimpleFileVisitor<Path> {
     private final static String EVENT_FILE_EXTENSION_GLOB_MATCHER_PATTERN = "glob:*.xml";
-    private final List<Event> eventList = new ArrayList<>();
-    private final JAXBHelper jaxbHelper = new JAXBHelperImpl();
-    private final List<Future<Event>> futures = new ArrayList<>();
-    private final ExecutorService executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    private final static int THREADS = Runtime.getRuntime().availableProcessors();
+    private final static int MAX_FILES_IN_PROGRESS = THREADS * 4;
+
+    private final PathMatcher matcher = FileSystems.getDefault().getPathMatcher(EVENT_FILE_EXTENSION_GLOB_MATCHER_PATTERN);
+    private final JAXBHelper jaxbHelper;
+    private final Consumer<Event> consumer;
+    private final ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+    private final Semaphore filesInProgress = new Semaphore(MAX_FILES_IN_PROGRESS);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public EventFileVisitor(JAXBHelper jaxbHelper, Consumer<Event> consumer) {
+        this.jaxbHelper = jaxbHelper;
+        this.consumer = consumer;
+    }
 
     @Override
     public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
             throws IOException
     {
-        final Path fileEvent = file;
-        PathMatcher matcher = FileSystems.getDefault().getPathMatcher(EVENT_FILE_EXTENSION_GLOB_MATCHER_PATTERN);
-        if (attrs.isRegularFile() && matcher.matches(fileEvent.getFileName())) {
-           futures.add(executorService.submit(() -> jaxbHelper.read(Files.newBufferedReader(fileEvent))));
+        if (failure.get() != null) return FileVisitResult.TERMINATE;
+        if (attrs.isRegularFile() && matcher.matches(file.getFileName())) {
+            try {
+                filesInProgress.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            executorService.submit(() -> parse(file));
         }
         return FileVisitResult.CONTINUE;
     }
 
-    public List<Event> getEventList() throws ExecutionException, InterruptedException {
-        for (Future<Event> f : futures) eventList.add(f.get());
-        executorService.shutdown();
-        return eventList;
+    /**
+     * Wait until all visited files are parsed and consumed
+     * @throws ExecutionException if parsing or consuming of any file failed
+     */
+    public void awaitTermination() throws ExecutionException, InterruptedException {
+        try {
+            filesInProgress.acquire(MAX_FILES_IN_PROGRESS);
+            filesInProgress.release(MAX_FILES_IN_PROGRESS);
+        } finally {
+            executorService.shutdownNow();
+        }
+        if (failure.get() != null) throw new ExecutionException(failure.get());
+    }
+
+    private void parse(Path file) {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            consumer.accept(jaxbHelper.read(reader));
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            filesInProgress.release();
+        }
     }
-}
\ No newline at end of file
+}
@@ -6,9 +6,11 @@ import com.diosoft.calendar.server.exception.DateTimeFormatException;
 import javax.xml.bind.JAXBException;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
 public interface FileSystem {
 
@@ -20,5 +22,29 @@ public interface FileSystem {
 
     boolean delete(UUID id) throws IOException;
 
+    /**
+     * Write events as one group, by default one by one
+     */
+    default void writeAll(Collection<Event> events) throws IOException, JAXBException {
+        for (Event event : events) write(event);
+    }
+
+    /**
+     * Delete events as one group, by default one by one
+     * @return count of deleted events
+     */
+    default int deleteAll(Collection<UUID> ids) throws IOException {
+        int deleted = 0;
+        for (UUID id : ids)
+            if (delete(id)) deleted++;
+        return deleted;
+    }
+
     List<Event> readAllEvents() throws IOException, DateTimeFormatException, ExecutionException, InterruptedException;
+
+    /**
+     * Read all events one by one without collecting them in memory
+     * @param consumer receives every read event, may be called concurrently from several threads
+     */
+    void readAllEvents(Consumer<Event> consumer) throws IOException, DateTimeFormatException, ExecutionException, InterruptedException;
 }
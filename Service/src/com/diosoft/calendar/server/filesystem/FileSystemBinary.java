@@ -0,0 +1,339 @@
+package com.diosoft.calendar.server.filesystem;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.Person;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static com.diosoft.calendar.server.filesystem.EventCodec.*;
+
+/**
+ * Stores all events in one append-only file of binary records instead of one XML file per event.
+ * File starts with magic number and version of format, then records follow:
+ * int length of body, body = byte type of record and data of record:
+ * ATTENDER - index, name, last name, email (every person is stored once, events refer to its index);
+ * EVENT - id, title, description, start and end in epoch minutes, bitset of periods, indexes of attenders;
+ * DELETE - id of deleted event.
+ * String is int length of UTF-8 bytes (-1 for null) and bytes, date is int count of minutes since epoch
+ * (precision is one minute as in XML files).
+ * Offsets of actual records of events are kept in memory, so read by id costs one positional read.
+ * Incomplete record at the end of file (e.g. after crash) is cut off on opening.
+ * Records of replaced and deleted events and DELETE records are garbage: compact writes actual events into
+ * new file next to this one and replaces this file by it, it runs on opening when garbage is larger than actual records.
+ * Crash during compaction leaves this file as it was.
+ */
+public class FileSystemBinary implements FileSystem, Closeable {
+    private final static Logger logger = Logger.getLogger(FileSystemBinary.class);
+    final static int MAGIC = 0x43414C42;
+    final static short VERSION = 1;
+    private final static int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+    private final static byte ATTENDER = 1;
+    private final static byte EVENT = 2;
+    private final static byte DELETE = 3;
+    private final static String COMPACT_SUFFIX = ".compact";
+
+    private final Path file;
+    private FileChannel channel;
+    private final Map<UUID, Long> offsets = new HashMap<>();
+    private final Map<Person, Integer> attenderIndexes = new HashMap<>();
+    private final List<Person> attenders = new ArrayList<>();
+    private long size;
+    private long actualBytes;
+    private long garbageBytes;
+
+    public FileSystemBinary(String pathToFile) throws IOException {
+        file = Paths.get(pathToFile);
+        if (file.toAbsolutePath().getParent() != null) Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION);
+            header.flip();
+            writeFully(header, 0);
+            size = HEADER_SIZE;
+        } else {
+            load();
+            if (garbageBytes > actualBytes) compact();
+        }
+    }
+
+    @Override
+    public synchronized void write(Event event) throws IOException {
+        if (event == null) throw new IllegalArgumentException();
+        if (event.getAttenders() != null)
+            for (Person attender : event.getAttenders())
+                if (!attenderIndexes.containsKey(attender)) appendAttender(attender);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(EVENT);
+        writeUUID(out, event.getId());
+        writeString(out, event.getTitle());
+        writeString(out, event.getDescription());
+        writeDate(out, event.getStartDate());
+        writeDate(out, event.getEndDate());
+        writePeriods(out, event.getPeriod());
+        if (event.getAttenders() == null) {
+            out.writeInt(NULL);
+        } else {
+            out.writeInt(event.getAttenders().size());
+            for (Person attender : event.getAttenders()) out.writeInt(attenderIndexes.get(attender));
+        }
+        long offset = append(bytes.toByteArray());
+        actualBytes += size - offset;
+        Long previous = offsets.put(event.getId(), offset);
+        if (previous != null) forget(previous);
+    }
+
+    @Override
+    public synchronized Event read(UUID id) throws IOException {
+        Long offset = offsets.get(id);
+        if (offset == null) return null;
+
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(length, offset);
+        ByteBuffer body = ByteBuffer.allocate(length.getInt(0));
+        readFully(body, offset + Integer.BYTES);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body.array()));
+        in.readByte();
+        return readInternedEvent(in);
+    }
+
+    /**
+     * Read the latest actual event from other file of the same format
+     * @param pathToFile binary file of events
+     * @return Event or null if file has no actual events
+     */
+    @Override
+    public Event read(Path pathToFile) throws IOException {
+        return readLatest(pathToFile);
+    }
+
+    static Event readLatest(Path pathToFile) throws IOException {
+        if (!Files.exists(pathToFile)) throw new NoSuchFileException(pathToFile.toString());
+        List<Event> events = new ArrayList<>();
+        try (FileSystemBinary fileSystem = new FileSystemBinary(pathToFile.toString())) {
+            fileSystem.readAllEvents(events::add);
+        }
+        return events.isEmpty() ? null : events.get(events.size() - 1);
+    }
+
+    @Override
+    public synchronized boolean delete(UUID id) throws IOException {
+        Long offset = offsets.remove(id);
+        if (offset == null) return false;
+        forget(offset);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(DELETE);
+        writeUUID(out, id);
+        garbageBytes += size - append(bytes.toByteArray());
+        return true;
+    }
+
+    @Override
+    public List<Event> readAllEvents() throws IOException {
+        List<Event> events = new ArrayList<>();
+        readAllEvents(events::add);
+        return events;
+    }
+
+    /**
+     * Read actual events in order of their records by one sequential pass through the file
+     */
+    @Override
+    public synchronized void readAllEvents(Consumer<Event> consumer) throws IOException {
+        scan((type, offset, length, in) -> {
+            if (type != EVENT) return;
+            Event event = readInternedEvent(in);
+            Long actualOffset = offsets.get(event.getId());
+            if (actualOffset != null && actualOffset == offset) consumer.accept(event);
+        });
+    }
+
+    public synchronized int size() {
+        return offsets.size();
+    }
+
+    /**
+     * Write actual events into new file and replace this file by it, writes and reads wait until it is finished
+     */
+    public synchronized void compact() throws IOException {
+        long start = System.currentTimeMillis();
+        long droppedBytes = garbageBytes;
+        Path compacted = file.resolveSibling(file.getFileName() + COMPACT_SUFFIX);
+        Files.deleteIfExists(compacted);
+        try (FileSystemBinary copy = new FileSystemBinary(compacted.toString())) {
+            readAllEvents(copy::writeUnchecked);
+            copy.force();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        channel.close();
+        try {
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            offsets.clear();
+            attenders.clear();
+            attenderIndexes.clear();
+            actualBytes = 0;
+            garbageBytes = 0;
+            load();
+        }
+        logger.info("Compacted " + offsets.size() + " events, " + droppedBytes + " bytes of garbage dropped in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Force all written records to the storage device
+     */
+    public synchronized void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void load() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (channel.size() < HEADER_SIZE) throw new IOException("File of events is not in binary format");
+        readFully(header, 0);
+        if (header.getInt(0) != MAGIC) throw new IOException("File of events is not in binary format");
+        if (header.getShort(Integer.BYTES) != VERSION)
+            throw new IOException("Unsupported version of binary format: " + header.getShort(Integer.BYTES));
+
+        size = scan((type, offset, length, in) -> {
+            switch (type) {
+                case ATTENDER:
+                    int index = in.readInt();
+                    Person attender = readPerson(in);
+                    if (index != attenders.size()) throw new IOException("Corrupted table of attenders at " + offset);
+                    attenders.add(attender);
+                    attenderIndexes.put(attender, index);
+                    actualBytes += Integer.BYTES + length;
+                    break;
+                case EVENT:
+                    Long previous = offsets.put(readUUID(in), offset);
+                    if (previous != null) forget(previous);
+                    actualBytes += Integer.BYTES + length;
+                    break;
+                case DELETE:
+                    Long deleted = offsets.remove(readUUID(in));
+                    if (deleted != null) forget(deleted);
+                    garbageBytes += Integer.BYTES + length;
+                    break;
+                default:
+                    throw new IOException("Unknown type of record " + type + " at " + offset);
+            }
+        });
+        if (size < channel.size()) channel.truncate(size);
+    }
+
+    /**
+     * Pass through all complete records of file
+     * @return offset of the end of the last complete record
+     */
+    private long scan(RecordVisitor visitor) throws IOException {
+        long end = Math.max(channel.size(), HEADER_SIZE);
+        long offset = HEADER_SIZE;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(HEADER_SIZE))));
+        while (offset + Integer.BYTES <= end) {
+            int length = in.readInt();
+            if (length < 1 || offset + Integer.BYTES + length > end) break;
+            byte[] body = new byte[length];
+            in.readFully(body);
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+            visitor.visit(record.readByte(), offset, length, record);
+            offset += Integer.BYTES + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Count record of event at offset which is not actual anymore as garbage
+     */
+    private void forget(long offset) throws IOException {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        readFully(length, offset);
+        actualBytes -= Integer.BYTES + length.getInt(0);
+        garbageBytes += Integer.BYTES + length.getInt(0);
+    }
+
+    private void writeUnchecked(Event event) {
+        try {
+            write(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void appendAttender(Person attender) throws IOException {
+        int index = attenders.size();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(ATTENDER);
+        out.writeInt(index);
+        writePerson(out, attender);
+        actualBytes += size - append(bytes.toByteArray());
+        attenders.add(attender);
+        attenderIndexes.put(attender, index);
+    }
+
+    private long append(byte[] body) throws IOException {
+        long offset = size;
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + body.length).putInt(body.length).put(body);
+        record.flip();
+        writeFully(record, offset);
+        size += record.capacity();
+        return offset;
+    }
+
+    private Event readInternedEvent(DataInputStream in) throws IOException {
+        Event.EventBuilder builder = new Event.EventBuilder()
+                .id(readUUID(in))
+                .title(readString(in))
+                .description(readString(in))
+                .startDate(readDate(in))
+                .endDate(readDate(in))
+                .periodSet(readPeriods(in));
+        int count = in.readInt();
+        if (count != NULL) {
+            Set<Person> eventAttenders = new HashSet<>();
+            for (int i = 0; i < count; i++) eventAttenders.add(attenders.get(in.readInt()));
+            builder.attendersSet(eventAttenders);
+        }
+        return builder.build();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) position += channel.write(buffer, position);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) throw new EOFException();
+            position += read;
+        }
+    }
+
+    private interface RecordVisitor {
+        void visit(byte type, long offset, int length, DataInputStream in) throws IOException;
+    }
+}
@@ -0,0 +1,332 @@
+package com.diosoft.calendar.server.filesystem;
+
+import com.diosoft.calendar.server.common.Event;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Storage option which keeps events in large segment files mapped into memory, so loading and reads
+ * neither open a file per event nor copy files through streams.
+ * It does NOT make data store start serving before events are decoded and it does NOT reduce heap of data store:
+ * every index of data store needs title, dates, periods and attenders of every event, so readAllEvents decodes
+ * all actual events on start and data store keeps them on heap like with FileSystemBinary. Lazy decoding would need
+ * indexes which are persisted or built without events, both are out of scope of this class.
+ * Files in directory: segment-N.evs of fixed capacity,
+ * segment starts with magic number and version, then records follow:
+ * int length of body, body = byte type and data of record (EVENT - event with attenders inline, DELETE - id).
+ * Length of record is written after its body, so zero length marks the end of records.
+ * Segment with zero header (crash right after file was created) is taken as empty and reused.
+ * Only offset index (id of event -> segment and offset of its actual record) is kept on heap of this class,
+ * on opening it is built by reading ids of records, read(id) decodes one event from its record.
+ * Records of replaced and deleted events are garbage: compact copies actual records into new segments and
+ * deletes the old ones, it runs on opening when garbage is larger than actual records.
+ * Crash during compaction leaves old segments and copies, replay of them gives the same events.
+ */
+public class FileSystemMapped implements FileSystem, Closeable {
+    private final static Logger logger = Logger.getLogger(FileSystemMapped.class);
+    final static int MAGIC = 0x43414C4D;
+    final static short VERSION = 1;
+    private final static int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+    private final static String SEGMENT_PREFIX = "segment-";
+    private final static String SEGMENT_SUFFIX = ".evs";
+    private final static byte EVENT = 1;
+    private final static byte DELETE = 2;
+    private final static int DEFAULT_SEGMENT_CAPACITY = 64 * 1024 * 1024;
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final Map<Integer, MappedByteBuffer> segments = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> locations = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+//  state of writes, is guarded by this
+    private int segmentNumber = -1;
+    private int position;
+    private long actualBytes;
+    private long garbageBytes;
+
+    public FileSystemMapped(String pathToDirectory) throws IOException {
+        this(pathToDirectory, DEFAULT_SEGMENT_CAPACITY);
+    }
+
+    public FileSystemMapped(String pathToDirectory, int segmentCapacity) throws IOException {
+        if (pathToDirectory == null || segmentCapacity <= HEADER_SIZE) throw new IllegalArgumentException();
+        this.directory = Paths.get(pathToDirectory);
+        this.segmentCapacity = segmentCapacity;
+
+        Files.createDirectories(directory);
+        for (Map.Entry<Integer, Path> entry : numberedSegments().entrySet()) {
+            MappedByteBuffer segment = map(entry.getValue());
+            if (segment.getInt(0) == 0 && segment.getShort(Integer.BYTES) == 0) {
+                logger.warn("Segment " + entry.getKey() + " has no header, it is taken as empty");
+                segment.putInt(0, MAGIC).putShort(Integer.BYTES, VERSION);
+            }
+            if (segment.getInt(0) != MAGIC) throw new IOException("Segment " + entry.getKey() + " is not segment of events");
+            if (segment.getShort(Integer.BYTES) != VERSION)
+                throw new IOException("Unsupported version of segment format: " + segment.getShort(Integer.BYTES));
+            segments.put(entry.getKey(), segment);
+            segmentNumber = entry.getKey();
+            position = load(segmentNumber, segment);
+        }
+        if (segments.isEmpty()) addSegment();
+        if (garbageBytes > actualBytes) compact();
+    }
+
+    @Override
+    public synchronized void write(Event event) throws IOException {
+        if (event == null) throw new IllegalArgumentException();
+        checkOpen();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(EVENT);
+        EventCodec.writeEvent(out, event);
+        long location = append(bytes.toByteArray());
+        actualBytes += recordSize(location);
+        Long previous = locations.put(event.getId(), location);
+        if (previous != null) forget(previous);
+    }
+
+    @Override
+    public Event read(UUID id) throws IOException {
+        checkOpen();
+//  location may move to new segment while old one is dropped by compaction, then it is looked up again
+        while (true) {
+            Long location = locations.get(id);
+            if (location == null) return null;
+            Event event = decode(location);
+            if (event != null) return event;
+        }
+    }
+
+    /**
+     * Read the latest actual event from file in format of FileSystemBinary
+     */
+    @Override
+    public Event read(Path pathToFile) throws IOException {
+        return FileSystemBinary.readLatest(pathToFile);
+    }
+
+    @Override
+    public synchronized boolean delete(UUID id) throws IOException {
+        checkOpen();
+        Long location = locations.remove(id);
+        if (location == null) return false;
+        forget(location);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(DELETE);
+        EventCodec.writeUUID(out, id);
+        garbageBytes += recordSize(append(bytes.toByteArray()));
+        return true;
+    }
+
+    @Override
+    public List<Event> readAllEvents() throws IOException {
+        List<Event> events = new ArrayList<>();
+        readAllEvents(events::add);
+        return events;
+    }
+
+    /**
+     * Decode actual events in order of segments, directly from mapped memory
+     */
+    @Override
+    public void readAllEvents(Consumer<Event> consumer) throws IOException {
+        checkOpen();
+        List<Map.Entry<UUID, Long>> actualLocations = new ArrayList<>(locations.entrySet());
+        actualLocations.sort(Map.Entry.comparingByValue());
+        for (Map.Entry<UUID, Long> entry : actualLocations) {
+            Event event = decode(entry.getValue());
+            if (event == null) event = read(entry.getKey());
+            if (event != null) consumer.accept(event);
+        }
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    /**
+     * Copy actual records into new segments and delete old segments, writes wait until it is finished
+     */
+    public synchronized void compact() throws IOException {
+        checkOpen();
+        long start = System.currentTimeMillis();
+        Set<Integer> oldNumbers = new TreeSet<>(segments.keySet());
+        addSegment();
+
+        List<Map.Entry<UUID, Long>> actualLocations = new ArrayList<>(locations.entrySet());
+        actualLocations.sort(Map.Entry.comparingByValue());
+        for (Map.Entry<UUID, Long> entry : actualLocations) {
+            ByteBuffer record = recordBuffer(segments.get((int) (entry.getValue() >>> 32)), entry.getValue().intValue());
+            byte[] body = new byte[record.remaining()];
+            record.get(body);
+            locations.put(entry.getKey(), append(body));
+        }
+        segments.get(segmentNumber).force();
+
+        for (int number : oldNumbers) {
+            segments.remove(number);
+            Files.deleteIfExists(segmentPath(number));
+        }
+        logger.info("Compacted " + locations.size() + " events, " + garbageBytes + " bytes of garbage dropped in "
+                + (System.currentTimeMillis() - start) + " ms");
+        garbageBytes = 0;
+    }
+
+    /**
+     * Stop writes and reads, force segments to disk and drop them, mappings are released by garbage collector
+     * when the last reader leaves them
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        for (MappedByteBuffer segment : segments.values()) segment.force();
+        segments.clear();
+        locations.clear();
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) throw new IOException("File system is closed");
+    }
+
+    private int load(int number, MappedByteBuffer segment) throws IOException {
+        int offset = HEADER_SIZE;
+        while (offset + Integer.BYTES <= segment.capacity()) {
+            int length = segment.getInt(offset);
+            if (length < 1 || offset + Integer.BYTES + length > segment.capacity()) break;
+            DataInputStream in = new DataInputStream(new ByteBufferInputStream(recordBuffer(segment, offset)));
+            byte type = in.readByte();
+            UUID id = EventCodec.readUUID(in);
+            Long previous = type == EVENT ? locations.put(id, location(number, offset)) : locations.remove(id);
+            if (previous != null) forget(previous);
+            if (type == EVENT) actualBytes += Integer.BYTES + length;
+            else garbageBytes += Integer.BYTES + length;
+            offset += Integer.BYTES + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Count record of location which is not actual anymore as garbage
+     */
+    private void forget(long location) {
+        int size = recordSize(location);
+        actualBytes -= size;
+        garbageBytes += size;
+    }
+
+    private int recordSize(long location) {
+        return Integer.BYTES + segments.get((int) (location >>> 32)).getInt((int) location);
+    }
+
+    private long append(byte[] body) throws IOException {
+        if (Integer.BYTES + body.length > segmentCapacity - HEADER_SIZE)
+            throw new IOException("Event of " + body.length + " bytes doesn't fit into segment");
+        MappedByteBuffer segment = segments.get(segmentNumber);
+        if (position + Integer.BYTES + body.length > segment.capacity()) {
+            addSegment();
+            segment = segments.get(segmentNumber);
+        }
+
+        ByteBuffer buffer = segment.duplicate();
+        buffer.position(position + Integer.BYTES);
+        buffer.put(body);
+        segment.putInt(position, body.length);
+
+        long location = location(segmentNumber, position);
+        position += Integer.BYTES + body.length;
+        return location;
+    }
+
+    private void addSegment() throws IOException {
+        if (!segments.isEmpty()) segments.get(segmentNumber).force();
+        int number = segmentNumber + 1;
+        MappedByteBuffer segment = map(segmentPath(number));
+        segment.putInt(0, MAGIC).putShort(Integer.BYTES, VERSION);
+        segments.put(number, segment);
+        segmentNumber = number;
+        position = HEADER_SIZE;
+    }
+
+    /**
+     * @return event of location or null if its segment was dropped by compaction
+     */
+    private Event decode(long location) throws IOException {
+        MappedByteBuffer segment = segments.get((int) (location >>> 32));
+        if (segment == null) {
+            checkOpen();
+            return null;
+        }
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(recordBuffer(segment, (int) location)));
+        in.readByte();
+        return EventCodec.readEvent(in);
+    }
+
+    /**
+     * Map existing segment by its size (it could be created with other capacity) or new segment by capacity
+     */
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size() > 0 ? channel.size() : segmentCapacity;
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private TreeMap<Integer, Path> numberedSegments() throws IOException {
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                files.put(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), file);
+            }
+        }
+        return files;
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX);
+    }
+
+    private static long location(int segment, int offset) {
+        return (long) segment << 32 | offset;
+    }
+
+    private static ByteBuffer recordBuffer(MappedByteBuffer segment, int offset) {
+        ByteBuffer buffer = segment.duplicate();
+        buffer.position(offset + Integer.BYTES);
+        buffer.limit(offset + Integer.BYTES + segment.getInt(offset));
+        return buffer;
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.diosoft.calendar.server.filesystem;
+
+import com.diosoft.calendar.server.common.Event;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Durable storage of events as write-ahead log with snapshots. Files in directory:
+ * log-N.wal - segment of log, record is int length of body, int CRC32 of body and body:
+ * byte type and data of record (EVENT - event with attenders inline, DELETE - id of event);
+ * snapshot-N.bin - all actual events before segment N in format of FileSystemBinary.
+ * Write and delete return only after their record is written to log, records of writeAll and deleteAll
+ * are queued together and usually reach the log in one write. One thread writes all waiting
+ * records at once (group commit) and forces them to disk according to fsyncIntervalMillis:
+ * 0 - before every acknowledgement, more than 0 - not more often than once per interval
+ * (crash of process loses nothing, power failure may lose the last interval), less than 0 - never (left to OS).
+ * When log grows by snapshotThreshold records, new segment is started and snapshot is written in background,
+ * after that older segments and snapshots are deleted.
+ * On start events are recovered from the latest snapshot and segments after it, torn record at the end of
+ * segment is ignored.
+ */
+public class FileSystemWal implements FileSystem, Closeable {
+    private final static Logger logger = Logger.getLogger(FileSystemWal.class);
+    private final static String SEGMENT_PREFIX = "log-";
+    private final static String SEGMENT_SUFFIX = ".wal";
+    private final static String SNAPSHOT_PREFIX = "snapshot-";
+    private final static String SNAPSHOT_SUFFIX = ".bin";
+    private final static String TEMP_SUFFIX = ".tmp";
+    private final static byte EVENT = 1;
+    private final static byte DELETE = 2;
+    private final static int RECORD_HEADER_SIZE = Integer.BYTES * 2;
+    private final static int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private final static int MAX_BATCH_SIZE = 1024;
+    private final static long IDLE_POLL_MILLIS = 100;
+    private final static long DEFAULT_FSYNC_INTERVAL_MILLIS = 0;
+    private final static int DEFAULT_SNAPSHOT_THRESHOLD = 100_000;
+
+    private final Path directory;
+    private final long fsyncIntervalMillis;
+    private final int snapshotThreshold;
+    private final Map<UUID, Event> events = new ConcurrentHashMap<>();
+    private final BlockingQueue<PendingRecord> pendingRecords = new LinkedBlockingQueue<>();
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wal-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Thread logWriter;
+    private boolean closed;
+
+//  state of log, is used only by thread of log writer after start
+    private FileChannel segment;
+    private long segmentNumber;
+    private long segmentSize;
+    private long recordsSinceSnapshot;
+    private boolean unforcedRecords;
+    private long lastForceTime;
+    private Future<?> snapshot = CompletableFuture.completedFuture(null);
+
+    public FileSystemWal(String pathToDirectory) throws IOException {
+        this(pathToDirectory, DEFAULT_FSYNC_INTERVAL_MILLIS, DEFAULT_SNAPSHOT_THRESHOLD);
+    }
+
+    public FileSystemWal(String pathToDirectory, long fsyncIntervalMillis, int snapshotThreshold) throws IOException {
+        if (pathToDirectory == null || snapshotThreshold < 1) throw new IllegalArgumentException();
+        this.directory = Paths.get(pathToDirectory);
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.snapshotThreshold = snapshotThreshold;
+
+        recover();
+        openSegment(segmentNumber + 1);
+        logWriter = new Thread(this::writeLog, "wal-writer-" + directory.getFileName());
+        logWriter.setDaemon(true);
+        logWriter.start();
+    }
+
+    @Override
+    public void write(Event event) throws IOException {
+        if (event == null) throw new IllegalArgumentException();
+        await(append(Collections.singletonList(eventRecord(event))).get(0));
+    }
+
+    @Override
+    public void writeAll(Collection<Event> events) throws IOException {
+        if (events == null) throw new IllegalArgumentException();
+        List<PendingRecord> records = new ArrayList<>(events.size());
+        for (Event event : events) {
+            if (event == null) throw new IllegalArgumentException();
+            records.add(eventRecord(event));
+        }
+        for (PendingRecord record : append(records)) await(record);
+    }
+
+    @Override
+    public Event read(UUID id) {
+        return events.get(id);
+    }
+
+    /**
+     * Read the latest actual event from file in format of FileSystemBinary, e.g. snapshot
+     */
+    @Override
+    public Event read(Path pathToFile) throws IOException {
+        return FileSystemBinary.readLatest(pathToFile);
+    }
+
+    @Override
+    public boolean delete(UUID id) throws IOException {
+        if (id == null) throw new IllegalArgumentException();
+        return await(append(Collections.singletonList(deleteRecord(id))).get(0));
+    }
+
+    @Override
+    public int deleteAll(Collection<UUID> ids) throws IOException {
+        if (ids == null) throw new IllegalArgumentException();
+        List<PendingRecord> records = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            if (id == null) throw new IllegalArgumentException();
+            records.add(deleteRecord(id));
+        }
+        int deleted = 0;
+        for (PendingRecord record : append(records))
+            if (await(record)) deleted++;
+        return deleted;
+    }
+
+    @Override
+    public List<Event> readAllEvents() {
+        return new ArrayList<>(events.values());
+    }
+
+    @Override
+    public void readAllEvents(Consumer<Event> consumer) {
+        events.values().forEach(consumer);
+    }
+
+    /**
+     * Write all waiting records, wait for running snapshot and close files
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+        }
+        try {
+            logWriter.join();
+            snapshotExecutor.shutdown();
+            snapshotExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            segment.force(false);
+            segment.close();
+        }
+    }
+
+    private static PendingRecord eventRecord(Event event) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(EVENT);
+        EventCodec.writeEvent(out, event);
+        if (bytes.size() > MAX_RECORD_SIZE) throw new IOException("Event is larger than " + MAX_RECORD_SIZE + " bytes");
+        return new PendingRecord(event, event.getId(), bytes.toByteArray());
+    }
+
+    private static PendingRecord deleteRecord(UUID id) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(DELETE);
+        EventCodec.writeUUID(out, id);
+        return new PendingRecord(null, id, bytes.toByteArray());
+    }
+
+    private synchronized List<PendingRecord> append(List<PendingRecord> records) throws IOException {
+        if (closed) throw new IOException("File system is closed");
+        pendingRecords.addAll(records);
+        return records;
+    }
+
+    private static boolean await(PendingRecord record) throws IOException {
+        try {
+            return record.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void writeLog() {
+        List<PendingRecord> batch = new ArrayList<>();
+        while (true) {
+            PendingRecord record;
+            try {
+                record = pendingRecords.poll(fsyncIntervalMillis > 0 ? fsyncIntervalMillis : IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                record = null;
+            }
+            if (record == null) {
+                if (isClosed() && pendingRecords.isEmpty()) return;
+                forceIfDue();
+                continue;
+            }
+            batch.add(record);
+            pendingRecords.drainTo(batch, MAX_BATCH_SIZE - 1);
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private void writeBatch(List<PendingRecord> batch) {
+        int size = 0;
+        for (PendingRecord record : batch) size += RECORD_HEADER_SIZE + record.body.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (PendingRecord record : batch) {
+            crc.reset();
+            crc.update(record.body);
+            buffer.putInt(record.body.length).putInt((int) crc.getValue()).put(record.body);
+        }
+        buffer.flip();
+
+//  size is advanced only when batch is written and forced, failed batch is cut off and its records are not acknowledged
+        long previousSize = segmentSize;
+        try {
+            writeFully(buffer, previousSize);
+            unforcedRecords = true;
+            if (fsyncIntervalMillis == 0) force();
+            else forceIfDue();
+            segmentSize = previousSize + size;
+        } catch (IOException e) {
+            logger.error("Writing of log failed", e);
+            try {
+                segment.truncate(previousSize);
+            } catch (IOException truncateException) {
+                logger.error("Truncating of log failed", truncateException);
+            }
+            for (PendingRecord record : batch) record.result.completeExceptionally(e);
+            return;
+        }
+
+        for (PendingRecord record : batch) record.result.complete(apply(record.event, record.id));
+        recordsSinceSnapshot += batch.size();
+        if (recordsSinceSnapshot >= snapshotThreshold && snapshot.isDone()) startSnapshot();
+    }
+
+    private boolean apply(Event event, UUID id) {
+        if (event != null) return events.put(id, event) == null;
+        return events.remove(id) != null;
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) position += segment.write(buffer, position);
+    }
+
+    private void force() throws IOException {
+        segment.force(false);
+        unforcedRecords = false;
+        lastForceTime = System.currentTimeMillis();
+    }
+
+    private void forceIfDue() {
+        if (!unforcedRecords || fsyncIntervalMillis <= 0) return;
+        if (System.currentTimeMillis() - lastForceTime < fsyncIntervalMillis) return;
+        try {
+            force();
+        } catch (IOException e) {
+            logger.error("Forcing of log failed", e);
+        }
+    }
+
+    private void startSnapshot() {
+        long number = segmentNumber + 1;
+        try {
+            openSegment(number);
+        } catch (IOException e) {
+            logger.error("Switching of log segment failed", e);
+            return;
+        }
+        List<Event> state = new ArrayList<>(events.values());
+        recordsSinceSnapshot = 0;
+        snapshot = snapshotExecutor.submit(() -> writeSnapshot(number, state));
+    }
+
+    private void writeSnapshot(long number, List<Event> state) {
+        Path temp = directory.resolve(SNAPSHOT_PREFIX + number + SNAPSHOT_SUFFIX + TEMP_SUFFIX);
+        try {
+            long start = System.currentTimeMillis();
+            Files.deleteIfExists(temp);
+            try (FileSystemBinary snapshotFile = new FileSystemBinary(temp.toString())) {
+                for (Event event : state) snapshotFile.write(event);
+                snapshotFile.force();
+            }
+            Files.move(temp, directory.resolve(SNAPSHOT_PREFIX + number + SNAPSHOT_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            deleteFilesBefore(number);
+            logger.info("Snapshot of " + state.size() + " events written in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (IOException e) {
+            logger.error("Writing of snapshot failed", e);
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        if (segment != null) {
+            segment.force(false);
+            segment.close();
+        }
+        segment = FileChannel.open(directory.resolve(SEGMENT_PREFIX + number + SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        segmentNumber = number;
+        segmentSize = 0;
+        unforcedRecords = false;
+        lastForceTime = System.currentTimeMillis();
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        long start = System.currentTimeMillis();
+        for (Path temp : list("*" + TEMP_SUFFIX)) Files.delete(temp);
+
+        TreeMap<Long, Path> snapshots = numbered(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        long snapshotNumber = 0;
+        if (!snapshots.isEmpty()) {
+            snapshotNumber = snapshots.lastKey();
+            try (FileSystemBinary snapshotFile = new FileSystemBinary(snapshots.lastEntry().getValue().toString())) {
+                snapshotFile.readAllEvents(event -> events.put(event.getId(), event));
+            }
+        }
+        segmentNumber = snapshotNumber;
+        for (Map.Entry<Long, Path> entry : numbered(SEGMENT_PREFIX, SEGMENT_SUFFIX).tailMap(snapshotNumber).entrySet()) {
+            recordsSinceSnapshot += replay(entry.getValue());
+            segmentNumber = entry.getKey();
+        }
+        deleteFilesBefore(snapshotNumber);
+        logger.info("Recovered " + events.size() + " events (" + recordsSinceSnapshot + " records of log after snapshot) in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private long replay(Path segmentFile) throws IOException {
+        long records = 0;
+        long remaining = Files.size(segmentFile);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmentFile)))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] body;
+                int checksum;
+                try {
+                    int length = in.readInt();
+                    checksum = in.readInt();
+                    remaining -= RECORD_HEADER_SIZE;
+                    if (length < 1 || length > MAX_RECORD_SIZE || length > remaining) break;
+                    remaining -= length;
+                    body = new byte[length];
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    logger.warn("Torn record in " + segmentFile + " after " + records + " records is ignored");
+                    break;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+                if (record.readByte() == EVENT) {
+                    Event event = EventCodec.readEvent(record);
+                    apply(event, event.getId());
+                } else {
+                    apply(null, EventCodec.readUUID(record));
+                }
+                records++;
+            }
+        }
+        return records;
+    }
+
+    private void deleteFilesBefore(long number) throws IOException {
+        for (Path file : numbered(SEGMENT_PREFIX, SEGMENT_SUFFIX).headMap(number).values()) Files.delete(file);
+        for (Path file : numbered(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX).headMap(number).values()) Files.delete(file);
+    }
+
+    private TreeMap<Long, Path> numbered(String prefix, String suffix) throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        for (Path file : list(prefix + "*" + suffix)) {
+            String name = file.getFileName().toString();
+            files.put(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())), file);
+        }
+        return files;
+    }
+
+    private List<Path> list(String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) files.add(file);
+        }
+        return files;
+    }
+
+    private static final class PendingRecord {
+        private final Event event;
+        private final UUID id;
+        private final byte[] body;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private PendingRecord(Event event, UUID id, byte[] body) {
+            this.event = event;
+            this.id = id;
+            this.body = body;
+        }
+    }
+}
@@ -10,9 +10,12 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 public class FileSystemXml implements FileSystem{
 
@@ -76,8 +79,18 @@ public class FileSystemXml implements FileSystem{
 
     @Override
     public List<Event> readAllEvents() throws IOException, DateTimeFormatException, ExecutionException, InterruptedException {
-        EventFileVisitor eventFileVisitor = new EventFileVisitor();
-        Files.walkFileTree(Paths.get(pathToEvents), eventFileVisitor);
-        return eventFileVisitor.getEventList();
+        List<Event> eventList = Collections.synchronizedList(new ArrayList<>());
+        readAllEvents(eventList::add);
+        return eventList;
+    }
+
+    @Override
+    public void readAllEvents(Consumer<Event> consumer) throws IOException, DateTimeFormatException, ExecutionException, InterruptedException {
+        EventFileVisitor eventFileVisitor = new EventFileVisitor(jaxbHelper, consumer);
+        try {
+            Files.walkFileTree(Paths.get(pathToEvents), eventFileVisitor);
+        } finally {
+            eventFileVisitor.awaitTermination();
+        }
     }
 }
@@ -1,7 +1,6 @@
 package com.diosoft.calendar.server.filesystem;
 
 import com.diosoft.calendar.server.adapter.EventAdapter;
-import com.diosoft.calendar.server.adapter.EventListAdapter;
 import com.diosoft.calendar.server.adapter.PersonAdapter;
 import com.diosoft.calendar.server.common.Event;
 import com.diosoft.calendar.server.common.Person;
@@ -17,28 +16,67 @@ import java.io.BufferedWriter;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * JAXBContext is created once per adapter type and shared, it is thread safe.
+ * Marshaller and Unmarshaller are not thread safe, so every thread keeps its own pair
+ * (threads of file system and EventFileVisitor pools are long-lived).
+ */
 public class JAXBHelperImpl implements JAXBHelper {
+    private final static ConcurrentMap<Class<?>, JAXBContext> contexts = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Marshaller> marshallers = new ThreadLocal<>();
+    private final ThreadLocal<Unmarshaller> unmarshallers = new ThreadLocal<>();
 
     @Override
     public void write(Event event, BufferedWriter writer) throws IOException, JAXBException {
         EventAdapter eventAdapter = new EventAdapter(event);
-        JAXBContext context = JAXBContext.newInstance(EventAdapter.class);
-
-        Marshaller m = context.createMarshaller();
-        m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        m.marshal(eventAdapter, writer);
+        getMarshaller().marshal(eventAdapter, writer);
     }
 
     @Override
     public Event read(BufferedReader reader) throws JAXBException, DateTimeFormatException {
-        JAXBContext context = JAXBContext.newInstance(EventListAdapter.class);
-        Unmarshaller um = context.createUnmarshaller();
-        EventAdapter eventAdapter = (EventAdapter) um.unmarshal(reader);
+        EventAdapter eventAdapter = (EventAdapter) getUnmarshaller().unmarshal(reader);
 
         return eventAdapterToEvent(eventAdapter);
     }
 
+    /**
+     * Get shared context for given adapter type, context is created on first call
+     * @param adapterType class of root element, e.g. EventAdapter or EventListAdapter
+     * @return JAXBContext
+     */
+    public static JAXBContext getContext(Class<?> adapterType) throws JAXBException {
+        JAXBContext context = contexts.get(adapterType);
+        if (context == null) {
+            context = JAXBContext.newInstance(adapterType);
+            JAXBContext existingContext = contexts.putIfAbsent(adapterType, context);
+            if (existingContext != null) context = existingContext;
+        }
+        return context;
+    }
+
+    private Marshaller getMarshaller() throws JAXBException {
+        Marshaller marshaller = marshallers.get();
+        if (marshaller == null) {
+            marshaller = getContext(EventAdapter.class).createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            marshallers.set(marshaller);
+        }
+        return marshaller;
+    }
+
+    private Unmarshaller getUnmarshaller() throws JAXBException {
+        Unmarshaller unmarshaller = unmarshallers.get();
+        if (unmarshaller == null) {
+            unmarshaller = getContext(EventAdapter.class).createUnmarshaller();
+            unmarshallers.set(unmarshaller);
+        }
+        return unmarshaller;
+    }
+
     private Event eventAdapterToEvent(EventAdapter eventAdapter) throws DateTimeFormatException {
 
         Set<PersonAdapter> personAdapterList = eventAdapter.getAttenders();
@@ -0,0 +1,37 @@
+package com.diosoft.calendar.server.filesystem;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline converter of directory of XML files of events into one binary file of FileSystemBinary.
+ * Run: java XmlToBinaryConverter <directory of XML events> <binary file>
+ */
+public class XmlToBinaryConverter {
+    private final static Logger logger = Logger.getLogger(XmlToBinaryConverter.class);
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.out.println("Usage: XmlToBinaryConverter <directory of XML events> <binary file>");
+            return;
+        }
+        String pathToEvents = args[0].endsWith("/") ? args[0] : args[0] + "/";
+
+        FileSystem xmlFileSystem = new FileSystemXml(new JAXBHelperImpl(), pathToEvents);
+        AtomicLong count = new AtomicLong();
+        long start = System.currentTimeMillis();
+        try (FileSystemBinary binaryFileSystem = new FileSystemBinary(args[1])) {
+            xmlFileSystem.readAllEvents(event -> {
+                try {
+                    binaryFileSystem.write(event);
+                } catch (java.io.IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                count.incrementAndGet();
+            });
+        }
+        logger.info("Converted " + count.get() + " events from " + pathToEvents + " to " + args[1]
+                + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
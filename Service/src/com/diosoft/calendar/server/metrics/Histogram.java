@@ -0,0 +1,98 @@
+package com.diosoft.calendar.server.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values (latencies in nanoseconds, sizes of results) with relative error below 1/64:
+ * values below 64 have own buckets, greater values are grouped by power of two into 64 buckets each.
+ * Recording is lock-free and costs a few atomic increments, memory is fixed (about 30 KB).
+ */
+public class Histogram {
+    private final static int SUB_BUCKET_BITS = 6;
+    private final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private final static int BUCKETS = SUB_BUCKETS * (Long.SIZE - SUB_BUCKET_BITS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param value is counted as 0 if negative
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    /**
+     * @param percentile from 0 to 100
+     * @return the greatest value of bucket where percentile falls (not greater than max), 0 for empty histogram
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException();
+        long total = getCount();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += counts.get(index);
+            if (seen >= rank) return Math.min(highestValue(index), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * Pass not empty buckets in order of values
+     */
+    public void forEachBucket(BucketConsumer consumer) {
+        for (int index = 0; index < BUCKETS; index++) {
+            long bucketCount = counts.get(index);
+            if (bucketCount > 0) consumer.accept(highestValue(index), bucketCount);
+        }
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS * (shift + 1) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = SUB_BUCKETS + index % SUB_BUCKETS;
+        long next = (subBucket + 1) << shift;
+        return next < 0 ? Long.MAX_VALUE : next - 1;
+    }
+
+    public interface BucketConsumer {
+        /**
+         * @param highestValue the greatest value of bucket
+         * @param count of values in bucket
+         */
+        void accept(long highestValue, long count);
+    }
+}
@@ -0,0 +1,74 @@
+package com.diosoft.calendar.server.metrics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decorator of interface (CalendarService, DataStore) which records latency, errors and size of result
+ * of every call into MetricsRegistry. Metrics are named by component (simple name of interface) and method,
+ * overloaded methods are named with types of parameters, e.g. searchIntoPeriod(LocalDate,LocalDate,String,int).
+ * Exceptions of target are thrown as they are.
+ */
+public class MeteredProxy {
+
+    private MeteredProxy() {
+    }
+
+    /**
+     * @return proxy of target which implements given interface
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T wrap(Class<T> type, T target, MetricsRegistry registry) {
+        if (type == null || !type.isInterface() || target == null || registry == null) throw new IllegalArgumentException();
+        Map<Method, MethodMetrics> metrics = new HashMap<>();
+        Map<String, Integer> overloads = new HashMap<>();
+        for (Method method : type.getMethods()) overloads.merge(method.getName(), 1, Integer::sum);
+        for (Method method : type.getMethods())
+            metrics.put(method, registry.getMethodMetrics(type.getSimpleName(), metricName(method, overloads.get(method.getName()) > 1)));
+
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            MethodMetrics methodMetrics = metrics.get(method);
+            if (methodMetrics == null) return invokeObjectMethod(proxy, target, method, args);
+            long start = System.nanoTime();
+            try {
+                Object result = method.invoke(target, args);
+                methodMetrics.recordSuccess(System.nanoTime() - start, result);
+                return result;
+            } catch (InvocationTargetException e) {
+                methodMetrics.recordError(System.nanoTime() - start);
+                throw e.getCause();
+            }
+        });
+    }
+
+    private static Object invokeObjectMethod(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Metered " + target;
+            default:
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+        }
+    }
+
+    private static String metricName(Method method, boolean overloaded) {
+        if (!overloaded) return method.getName();
+        StringBuilder sb = new StringBuilder(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(parameterTypes[i].getSimpleName());
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,113 @@
+package com.diosoft.calendar.server.metrics;
+
+import com.diosoft.calendar.server.common.EventPage;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls, errors, latency and size of results of one method since start, every call is counted by histogram of latency
+ */
+public class MethodMetrics implements MethodMetricsMBean {
+    private final static double NANOS_PER_MICRO = 1_000;
+
+    private final String component;
+    private final String method;
+    private final LongAdder errors = new LongAdder();
+    private final Histogram latency = new Histogram();
+    private final Histogram resultSize = new Histogram();
+
+    MethodMetrics(String component, String method) {
+        this.component = component;
+        this.method = method;
+    }
+
+    /**
+     * @param nanos latency of call
+     * @param result of call, size is recorded for collections, maps and pages of events
+     */
+    public void recordSuccess(long nanos, Object result) {
+        latency.record(nanos);
+        long size = sizeOf(result);
+        if (size >= 0) resultSize.record(size);
+    }
+
+    public void recordError(long nanos) {
+        errors.increment();
+        latency.record(nanos);
+    }
+
+    public String getComponent() {
+        return component;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public Histogram getResultSize() {
+        return resultSize;
+    }
+
+    @Override
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getMeanLatencyMicros() {
+        return latency.getMean() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatency50Micros() {
+        return latency.getValueAtPercentile(50) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatency99Micros() {
+        return latency.getValueAtPercentile(99) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getLatency999Micros() {
+        return latency.getValueAtPercentile(99.9) / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getMaxLatencyMicros() {
+        return latency.getMax() / NANOS_PER_MICRO;
+    }
+
+    @Override
+    public double getMeanResultSize() {
+        return resultSize.getMean();
+    }
+
+    @Override
+    public long getResultSize99() {
+        return resultSize.getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getMaxResultSize() {
+        return resultSize.getMax();
+    }
+
+    private static long sizeOf(Object result) {
+        if (result instanceof Collection) return ((Collection<?>) result).size();
+        if (result instanceof Map) return ((Map<?, ?>) result).size();
+        if (result instanceof EventPage) return ((EventPage) result).getEvents().size();
+        return -1;
+    }
+}
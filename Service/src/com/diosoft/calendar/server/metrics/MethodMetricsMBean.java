@@ -0,0 +1,27 @@
+package com.diosoft.calendar.server.metrics;
+
+/**
+ * Metrics of one method as seen by JMX, latencies in microseconds
+ */
+public interface MethodMetricsMBean {
+
+    long getCalls();
+
+    long getErrors();
+
+    double getMeanLatencyMicros();
+
+    double getLatency50Micros();
+
+    double getLatency99Micros();
+
+    double getLatency999Micros();
+
+    double getMaxLatencyMicros();
+
+    double getMeanResultSize();
+
+    long getResultSize99();
+
+    long getMaxResultSize();
+}
@@ -0,0 +1,84 @@
+package com.diosoft.calendar.server.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Plain-text scrape endpoint: GET /metrics returns all metrics of registry in text format of Prometheus.
+ * Served by one thread of HTTP server of JDK, rendering costs a pass over histograms of every method.
+ * There is no authentication, so it listens on loopback unless other address is given.
+ */
+public class MetricsEndpoint implements Closeable {
+    private final static Logger logger = Logger.getLogger(MetricsEndpoint.class);
+    private final static String PATH = "/metrics";
+    private final static String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+    private final InetSocketAddress address;
+    private HttpServer server;
+
+    /**
+     * @param port to listen, 0 for any free port
+     */
+    public MetricsEndpoint(MetricsRegistry registry, int port) {
+        this(registry, null, port);
+    }
+
+    /**
+     * @param host address to listen, e.g. 0.0.0.0 for all interfaces, null for loopback
+     * @param port to listen, 0 for any free port
+     */
+    public MetricsEndpoint(MetricsRegistry registry, String host, int port) {
+        if (registry == null || port < 0) throw new IllegalArgumentException();
+        this.registry = registry;
+        this.address = host == null ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port) : new InetSocketAddress(host, port);
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) throw new IllegalStateException("Endpoint is already started");
+        server = HttpServer.create(address, 0);
+        server.createContext(PATH, exchange -> {
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                byte[] body = registry.toText().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        logger.info("Metrics are served on http://" + getAddress().getHostString() + ":" + getPort() + PATH);
+    }
+
+    /**
+     * @return port which endpoint listens
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (server == null) return;
+        server.stop(0);
+        server = null;
+    }
+}
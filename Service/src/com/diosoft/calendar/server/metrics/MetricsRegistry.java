@@ -0,0 +1,131 @@
+package com.diosoft.calendar.server.metrics;
+
+import org.apache.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Metrics of methods by component and method. Every metrics is registered in MBean server (if given)
+ * as com.diosoft.calendar:type=Metrics,component=...,method=... and can be written as plain text
+ * in format of Prometheus: calls and errors as counters, latency (seconds) and size of results as summaries.
+ */
+public class MetricsRegistry implements Closeable {
+    private final static Logger logger = Logger.getLogger(MetricsRegistry.class);
+    private final static String DOMAIN = "com.diosoft.calendar";
+    private final static double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private final static double NANOS_PER_SECOND = 1e9;
+
+    private final MBeanServer mBeanServer;
+    private final Map<String, MethodMetrics> metrics = new ConcurrentSkipListMap<>();
+    private final List<ObjectName> registeredNames = Collections.synchronizedList(new ArrayList<>());
+
+    public MetricsRegistry() {
+        this(null);
+    }
+
+    /**
+     * @param mBeanServer where metrics are registered, null to keep them only for text
+     */
+    public MetricsRegistry(MBeanServer mBeanServer) {
+        this.mBeanServer = mBeanServer;
+    }
+
+    /**
+     * @return metrics of method, created and registered on the first call
+     */
+    public MethodMetrics getMethodMetrics(String component, String method) {
+        if (component == null || method == null) throw new IllegalArgumentException();
+        return metrics.computeIfAbsent(component + '.' + method, key -> {
+            MethodMetrics methodMetrics = new MethodMetrics(component, method);
+            register(methodMetrics);
+            return methodMetrics;
+        });
+    }
+
+    public Collection<MethodMetrics> getAll() {
+        return metrics.values();
+    }
+
+    /**
+     * Write all metrics in text format of Prometheus
+     */
+    public void writeText(Appendable out) throws IOException {
+        out.append("# TYPE calendar_calls_total counter\n");
+        for (MethodMetrics methodMetrics : getAll())
+            out.append("calendar_calls_total").append(labels(methodMetrics, null)).append(' ').append(Long.toString(methodMetrics.getCalls())).append('\n');
+
+        out.append("# TYPE calendar_errors_total counter\n");
+        for (MethodMetrics methodMetrics : getAll())
+            out.append("calendar_errors_total").append(labels(methodMetrics, null)).append(' ').append(Long.toString(methodMetrics.getErrors())).append('\n');
+
+        out.append("# TYPE calendar_latency_seconds summary\n");
+        for (MethodMetrics methodMetrics : getAll())
+            writeSummary(out, "calendar_latency_seconds", methodMetrics, methodMetrics.getLatency(), NANOS_PER_SECOND);
+
+        out.append("# TYPE calendar_result_size summary\n");
+        for (MethodMetrics methodMetrics : getAll())
+            if (methodMetrics.getResultSize().getCount() > 0)
+                writeSummary(out, "calendar_result_size", methodMetrics, methodMetrics.getResultSize(), 1);
+    }
+
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeText(sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Unregister all metrics from MBean server
+     */
+    @Override
+    public void close() {
+        if (mBeanServer == null) return;
+        synchronized (registeredNames) {
+            for (ObjectName name : registeredNames) {
+                try {
+                    mBeanServer.unregisterMBean(name);
+                } catch (JMException e) {
+                    logger.warn("MBean " + name + " can't be unregistered: " + e.getMessage());
+                }
+            }
+            registeredNames.clear();
+        }
+    }
+
+    private void register(MethodMetrics methodMetrics) {
+        if (mBeanServer == null) return;
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=Metrics,component=" + ObjectName.quote(methodMetrics.getComponent())
+                    + ",method=" + ObjectName.quote(methodMetrics.getMethod()));
+            if (mBeanServer.isRegistered(name)) mBeanServer.unregisterMBean(name);
+            mBeanServer.registerMBean(methodMetrics, name);
+            registeredNames.add(name);
+        } catch (JMException e) {
+            logger.warn("Metrics of " + methodMetrics.getMethod() + " can't be registered: " + e.getMessage());
+        }
+    }
+
+    private static void writeSummary(Appendable out, String name, MethodMetrics methodMetrics, Histogram histogram, double unit) throws IOException {
+        for (double quantile : QUANTILES)
+            out.append(name).append(labels(methodMetrics, Double.toString(quantile))).append(' ')
+                    .append(Double.toString(histogram.getValueAtPercentile(quantile * 100) / unit)).append('\n');
+        out.append(name).append("_sum").append(labels(methodMetrics, null)).append(' ').append(Double.toString(histogram.getSum() / unit)).append('\n');
+        out.append(name).append("_count").append(labels(methodMetrics, null)).append(' ').append(Long.toString(histogram.getCount())).append('\n');
+        out.append(name).append("_max").append(labels(methodMetrics, null)).append(' ').append(Double.toString(histogram.getMax() / unit)).append('\n');
+    }
+
+    private static String labels(MethodMetrics methodMetrics, String quantile) {
+        return "{component=\"" + methodMetrics.getComponent() + "\",method=\"" + methodMetrics.getMethod() + '"'
+                + (quantile == null ? "" : ",quantile=\"" + quantile + '"') + '}';
+    }
+}
@@ -1,15 +1,18 @@
 package com.diosoft.calendar.server.service;
 
 import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.EventPage;
 import com.diosoft.calendar.server.common.PeriodOfEvent;
 import com.diosoft.calendar.server.common.Person;
 import com.diosoft.calendar.server.exception.OrderOfArgumentsException;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -23,6 +26,16 @@ public interface CalendarService extends Remote {
      */
     void add(Event event) throws RemoteException;
 
+    /**
+     * Provides ability to publish several events to the data store by one call.
+     * Events are validated one by one and written to the file system as one group.
+     * Uses method of dataStoreImpl: List<Boolean> publishAll(List<Event> events)
+     * @param events which add
+     * @return for every event true if it was added or false if it is duplicate
+     * @throws RemoteException
+     */
+    List<Boolean> addAll(List<Event> events) throws RemoteException;
+
     /**
      * Creates event with given array descriptions and adds it into data store.
      * @param descriptions [0]: "title", [1]: "description", [2]: "startDate" , [3]: "endDate";
@@ -54,6 +67,15 @@ public interface CalendarService extends Remote {
      */
     Event remove(UUID id) throws RemoteException;
 
+    /**
+     * Provides ability to remove several events from the data store by one call.
+     * Uses method of dataStoreImpl: List<Event> removeAll(List<UUID> ids)
+     * @param ids of events
+     * @return for every id removed event or null if there was no mapping for
+     * @throws RemoteException
+     */
+    List<Event> removeAll(List<UUID> ids) throws RemoteException;
+
     /**
      * Provides ability to edit event in the data store.
      * @param event which edits
@@ -79,6 +101,14 @@ public interface CalendarService extends Remote {
      */
     List<Event> searchByDay(LocalDate day) throws RemoteException;
 
+    /**
+     * Provides ability to search events by several days from the data store by one call.
+     * @param days for search
+     * @return map of every day to List of events by this day, in order of given days
+     * @throws RemoteException
+     */
+    Map<LocalDate, List<Event>> searchByDays(List<LocalDate> days) throws RemoteException;
+
     /**
      * Provides ability to search events by attender from the data store.
      * Uses method of dataStoreImpl: List<Event> searchByAttender(Person attender)
@@ -88,6 +118,25 @@ public interface CalendarService extends Remote {
      */
     List<Event> searchByAttender(Person attender) throws RemoteException;
 
+    /**
+     * Provides ability to search events by attender from the data store page by page in order of start date
+     * @param attender for search
+     * @param pageToken token of previous page or null for the first page
+     * @param pageSize max count of events in the page
+     * @return page of events by attender
+     * @throws RemoteException
+     */
+    EventPage searchByAttender(Person attender, String pageToken, int pageSize) throws RemoteException;
+
+    /**
+     * Open server-side iterator over events by attender in order of start date
+     * @param attender for search
+     * @param pageSize max count of events returned by one call of iterator
+     * @return handle of iterator, should be closed by client
+     * @throws RemoteException
+     */
+    EventIterator iterateByAttender(Person attender, int pageSize) throws RemoteException;
+
     /**
      * Provides ability to search events by attender from the data store in a given period
      * @param attender for search
@@ -100,6 +149,7 @@ public interface CalendarService extends Remote {
 
     /**
      * Provides ability to search events from the data store in a given period
+     * Uses method of dataStoreImpl: List<Event> getEventIntoPeriod(LocalDate startDay, LocalDate endDay)
      * @param startDate for search
      * @param endDate for search
      * @return
@@ -108,10 +158,31 @@ public interface CalendarService extends Remote {
     Set<Event> searchIntoPeriod(LocalDate startDate, LocalDate endDate) throws RemoteException, OrderOfArgumentsException;
 
     /**
-     * Provides ability to search free time from the data store in a given period
+     * Provides ability to search events from the data store in a given period page by page in order of start date
      * @param startDate for search
      * @param endDate for search
-     * @return set of events
+     * @param pageToken token of previous page or null for the first page
+     * @param pageSize max count of events in the page
+     * @return page of events into period
+     * @throws RemoteException, OrderOfArgumentsException
+     */
+    EventPage searchIntoPeriod(LocalDate startDate, LocalDate endDate, String pageToken, int pageSize) throws RemoteException, OrderOfArgumentsException;
+
+    /**
+     * Open server-side iterator over events in a given period in order of start date
+     * @param startDate for search
+     * @param endDate for search
+     * @param pageSize max count of events returned by one call of iterator
+     * @return handle of iterator, should be closed by client
+     * @throws RemoteException, OrderOfArgumentsException
+     */
+    EventIterator iterateIntoPeriod(LocalDate startDate, LocalDate endDate, int pageSize) throws RemoteException, OrderOfArgumentsException;
+
+    /**
+     * Provides ability to search free time from the data store in a given period by slots of fixed duration
+     * @param startDate for search and start of the first slot
+     * @param endDate for search
+     * @return list of free intervals aligned to slots, empty list if there is no free slot
      * @throws RemoteException, OrderOfArgumentsException
      */
     List<List<LocalDateTime>> searchFreeTime2(LocalDateTime startDate, LocalDateTime endDate) throws RemoteException, OrderOfArgumentsException;
@@ -145,6 +216,21 @@ public interface CalendarService extends Remote {
      */
     List<List<LocalDateTime>> searchFreeTimeForEventWithAttenders(Event event, LocalDateTime startDate, LocalDateTime endDate) throws RemoteException, OrderOfArgumentsException;
 
+    /**
+     * Search the first slots of given duration in a given period when all or at least given count of attenders are free
+     * Slots are aligned to the grid of free slots of searchFreeTime2 and don't overlap
+     * @param attenders
+     * @param startDate
+     * @param endDate
+     * @param duration of slot
+     * @param minFreeAttenders how many attenders should be free, count of attenders means all of them
+     * @param count maximal count of slots
+     * @return list of slots [start, end] in ascending order
+     * @throws RemoteException, OrderOfArgumentsException
+     */
+    List<List<LocalDateTime>> searchFreeSlotsForAttenders(Set<Person> attenders, LocalDateTime startDate, LocalDateTime endDate,
+                                                          Duration duration, int minFreeAttenders, int count) throws RemoteException, OrderOfArgumentsException;
+
     /**
      * Check whether a person is free to participate in events in a given period
      * @param attender for search
@@ -155,6 +241,14 @@ public interface CalendarService extends Remote {
      */
     boolean isAttenderFree(Person attender, LocalDateTime startDate, LocalDateTime endDate) throws RemoteException, OrderOfArgumentsException;
 
+    /**
+     * Check by one call whether every given person is free in own period
+     * @param periods map of attender to its period [startDate, endDate]
+     * @return map of every attender to true or false, in order of given map
+     * @throws RemoteException, OrderOfArgumentsException
+     */
+    Map<Person, Boolean> isAttendersFree(Map<Person, List<LocalDateTime>> periods) throws RemoteException, OrderOfArgumentsException;
+
     /**
      * Search event by title that starts with the prefix
      * Uses method of dataStoreImpl:searchEventByTitleStartWith(String prefix)
@@ -163,4 +257,23 @@ public interface CalendarService extends Remote {
      * @throws RemoteException
      */
     List<Event> searchEventByTitleStartWith(String prefix) throws RemoteException;
+
+    /**
+     * Search event by title that starts with the prefix page by page in order of start date
+     * @param prefix
+     * @param pageToken token of previous page or null for the first page
+     * @param pageSize max count of events in the page
+     * @return page of events
+     * @throws RemoteException
+     */
+    EventPage searchEventByTitleStartWith(String prefix, String pageToken, int pageSize) throws RemoteException;
+
+    /**
+     * Open server-side iterator over events by title that starts with the prefix in order of start date
+     * @param prefix
+     * @param pageSize max count of events returned by one call of iterator
+     * @return handle of iterator, should be closed by client
+     * @throws RemoteException
+     */
+    EventIterator iterateEventByTitleStartWith(String prefix, int pageSize) throws RemoteException;
 }
@@ -1,6 +1,7 @@
 package com.diosoft.calendar.server.service;
 
 import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.EventPage;
 import com.diosoft.calendar.server.common.PeriodOfEvent;
 import com.diosoft.calendar.server.common.Person;
 import com.diosoft.calendar.server.datastore.DataStore;
@@ -9,15 +10,21 @@ import com.diosoft.calendar.server.exception.OrderOfArgumentsException;
 import com.diosoft.calendar.server.exception.ValidationException;
 import com.diosoft.calendar.server.util.DateParser;
 import com.diosoft.calendar.server.util.EventValidator;
+import com.diosoft.calendar.server.util.FreeBusyEngine;
+import com.diosoft.calendar.server.util.FreeTimeEngine;
+import com.diosoft.calendar.server.util.PageToken;
 import org.apache.log4j.Logger;
 
 import javax.xml.bind.JAXBException;
 import java.io.IOException;
 import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class CalendarServiceImpl implements CalendarService {
 
@@ -26,9 +33,20 @@ public class CalendarServiceImpl implements CalendarService {
     final static int MINUTE_INTERVAL = 15;
     private final static int DESCRIPTION_LENGTH_ONE_DAY = 3;
     private final static int DESCRIPTION_LENGTH_SOME_DAYS = 4;
+    private final Duration slotDuration;
 
     public CalendarServiceImpl(DataStore dataStore) {
+        this(dataStore, MINUTE_INTERVAL);
+    }
+
+    /**
+     * @param dataStore
+     * @param slotMinutes granularity of free intervals of searchFreeTime2
+     */
+    public CalendarServiceImpl(DataStore dataStore, int slotMinutes) {
+        if (slotMinutes < 1) throw new IllegalArgumentException();
         this.dataStore = dataStore;
+        this.slotDuration = Duration.ofMinutes(slotMinutes);
     }
 
     @Override
@@ -46,11 +64,36 @@ public class CalendarServiceImpl implements CalendarService {
         try {
             dataStore.publish(event);
         } catch (IOException | JAXBException e) {
-            e.printStackTrace();
+            logger.error("Event with title '" + event.getTitle() + "' can't be written", e);
+            throw new RemoteException("Event can't be written", e);
         }
         logger.info("Event successfully added");
     }
 
+    @Override
+    public List<Boolean> addAll(List<Event> events) throws RemoteException {
+        if (events == null || events.contains(null)) throw new IllegalArgumentException();
+
+        logger.info("Validation of " + events.size() + " events");
+        for (Event event : events) {
+            try {
+                EventValidator.validate(event);
+            } catch (ValidationException e) {
+                e.printStackTrace();
+            }
+        }
+        logger.info("Adding " + events.size() + " events");
+        List<Boolean> results;
+        try {
+            results = dataStore.publishAll(events);
+        } catch (IOException | JAXBException e) {
+            logger.error(events.size() + " events can't be written", e);
+            throw new RemoteException("Events can't be written", e);
+        }
+        logger.info("Added " + results.stream().filter(added -> added).count() + " events");
+        return results;
+    }
+
     @Override
     public Event createEvent(String[] descriptions, Set<Person> attenders, Set<PeriodOfEvent> period) throws RemoteException {
         if (descriptions == null || attenders == null || period == null || descriptions.length != DESCRIPTION_LENGTH_SOME_DAYS) throw new IllegalArgumentException();
@@ -124,11 +167,12 @@ public class CalendarServiceImpl implements CalendarService {
         if (id == null) throw new IllegalArgumentException();
 
         logger.info("Removing event with id: '" + id + "'");
-        Event event = null;
+        Event event;
         try {
             event = dataStore.remove(id);
         } catch (JAXBException | IOException e) {
-            e.printStackTrace();
+            logger.error("Removal of event with id '" + id + "' can't be written", e);
+            throw new RemoteException("Removal of event can't be written", e);
         }
         if (event == null) {
             logger.info("There is no such Event");
@@ -138,6 +182,22 @@ public class CalendarServiceImpl implements CalendarService {
         return event;
     }
 
+    @Override
+    public List<Event> removeAll(List<UUID> ids) throws RemoteException {
+        if (ids == null || ids.contains(null)) throw new IllegalArgumentException();
+
+        logger.info("Removing " + ids.size() + " events");
+        List<Event> events;
+        try {
+            events = dataStore.removeAll(ids);
+        } catch (JAXBException | IOException e) {
+            logger.error("Removal of " + ids.size() + " events can't be written", e);
+            throw new RemoteException("Removal of events can't be written", e);
+        }
+        logger.info("Removed " + events.stream().filter(Objects::nonNull).count() + " events");
+        return events;
+    }
+
     @Override
     public void edit(Event event) throws RemoteException {
         if (event == null) throw new IllegalArgumentException();
@@ -177,6 +237,17 @@ public class CalendarServiceImpl implements CalendarService {
         return events;
     }
 
+    @Override
+    public Map<LocalDate, List<Event>> searchByDays(List<LocalDate> days) throws RemoteException {
+        if (days == null || days.contains(null)) throw new IllegalArgumentException();
+
+        logger.info("Searching by " + days.size() + " days");
+        Map<LocalDate, List<Event>> eventsByDay = new LinkedHashMap<>();
+        for (LocalDate day : days) eventsByDay.computeIfAbsent(day, dataStore::getEventByDay);
+        logger.info("Found " + eventsByDay.values().stream().mapToInt(List::size).sum() + " events");
+        return eventsByDay;
+    }
+
     @Override
     public List<Event> searchByAttender(Person attender) throws RemoteException {
         if (attender == null) throw new IllegalArgumentException();
@@ -192,6 +263,24 @@ public class CalendarServiceImpl implements CalendarService {
         return events;
     }
 
+    @Override
+    public EventPage searchByAttender(Person attender, String pageToken, int pageSize) throws RemoteException {
+        if (attender == null || pageSize < 1) throw new IllegalArgumentException();
+
+        logger.info("Searching page of " + pageSize + " events by attender '" + attender.getName() + "'");
+        EventPage page = toPage(dataStore.getEventByAttender(attender, PageToken.parse(pageToken), pageSize + 1), pageSize);
+        logger.info("Found " + page.getEvents().size() + " events");
+        return page;
+    }
+
+    @Override
+    public EventIterator iterateByAttender(Person attender, int pageSize) throws RemoteException {
+        if (attender == null || pageSize < 1) throw new IllegalArgumentException();
+
+        logger.info("Opening iterator over events by attender '" + attender.getName() + "'");
+        return openIterator(after -> toPage(dataStore.getEventByAttender(attender, after, pageSize + 1), pageSize));
+    }
+
     @Override
     public List<Event> searchByAttenderIntoPeriod(Person attender, LocalDateTime startDate, LocalDateTime endDate) throws RemoteException, OrderOfArgumentsException {
         if (attender == null || startDate == null || endDate == null) throw new IllegalArgumentException();
@@ -199,10 +288,7 @@ public class CalendarServiceImpl implements CalendarService {
 
         logger.info("Searching events by attender '" + attender.getName() + " " + attender.getLastName() + "' into period from " +
                 DateParser.dateToString(startDate) + " to " + DateParser.dateToString(endDate));
-        List<Event> eventListByAttender = searchByAttender(attender);
-        List<Event> eventListByAttenderIntoPeriod = new ArrayList<>();
-        for (Event event : eventListByAttender)
-            if (isEventAndPeriodCrossing(event, startDate, endDate)) eventListByAttenderIntoPeriod.add(event);
+        List<Event> eventListByAttenderIntoPeriod = dataStore.getEventByAttenderIntoPeriod(attender, startDate, endDate);
         if (eventListByAttenderIntoPeriod.isEmpty())
             logger.info("Events not found!");
         else
@@ -217,18 +303,33 @@ public class CalendarServiceImpl implements CalendarService {
         if (startDay.isAfter(endDay)) throw new OrderOfArgumentsException();
 
         logger.info("Searching events into period from '" + startDay + "' to" + endDay);
-        Set<Event> eventSetIntoPeriod = new HashSet<>();
 
-//  get all events from period without time (use getEventByDay method of DataStore which use index map)
-        while (startDay.isBefore(endDay) || startDay.equals(endDay)) {
-            List<Event> tempEventList = searchByDay(startDay);
-            eventSetIntoPeriod.addAll(tempEventList);
-            startDay = startDay.plusDays(1);
-        }
+//  get all events from period without time (use getEventIntoPeriod method of DataStore which use interval index)
+        Set<Event> eventSetIntoPeriod = new HashSet<>(dataStore.getEventIntoPeriod(startDay, endDay));
         logger.info("Found " + eventSetIntoPeriod.size() + " events");
         return eventSetIntoPeriod;
     }
 
+    @Override
+    public EventPage searchIntoPeriod(LocalDate startDay, LocalDate endDay, String pageToken, int pageSize) throws RemoteException, OrderOfArgumentsException {
+        if (startDay == null || endDay == null || pageSize < 1) throw new IllegalArgumentException();
+        if (startDay.isAfter(endDay)) throw new OrderOfArgumentsException();
+
+        logger.info("Searching page of " + pageSize + " events into period from '" + startDay + "' to '" + endDay + "'");
+        EventPage page = toPage(dataStore.getEventIntoPeriod(startDay, endDay, PageToken.parse(pageToken), pageSize + 1), pageSize);
+        logger.info("Found " + page.getEvents().size() + " events");
+        return page;
+    }
+
+    @Override
+    public EventIterator iterateIntoPeriod(LocalDate startDay, LocalDate endDay, int pageSize) throws RemoteException, OrderOfArgumentsException {
+        if (startDay == null || endDay == null || pageSize < 1) throw new IllegalArgumentException();
+        if (startDay.isAfter(endDay)) throw new OrderOfArgumentsException();
+
+        logger.info("Opening iterator over events into period from '" + startDay + "' to '" + endDay + "'");
+        return openIterator(after -> toPage(dataStore.getEventIntoPeriod(startDay, endDay, after, pageSize + 1), pageSize));
+    }
+
     @Override
     public List<List<LocalDateTime>> searchFreeTime(LocalDateTime startDate, LocalDateTime endDate) throws RemoteException, OrderOfArgumentsException {
         if (startDate == null || endDate == null) throw new IllegalArgumentException();
@@ -248,23 +349,11 @@ public class CalendarServiceImpl implements CalendarService {
 
         Set<Event> eventListIntoPeriod = searchIntoPeriod(startDate.toLocalDate(), endDate.toLocalDate());
 
-        List<List<LocalDateTime>> freeIntervalList = new ArrayList<>();
-        LocalDateTime tempStartDate = startDate;
         logger.info("Searching free time into period from '" +
                 DateParser.dateToString(startDate) + "' to '" + DateParser.dateToString(endDate) + "'");
-        while (tempStartDate.isBefore(endDate)) {
-            LocalDateTime tempEndDate = tempStartDate.plusMinutes(MINUTE_INTERVAL);
-            boolean isFree = true;
-            for (Event event : eventListIntoPeriod)
-                if (isEventAndPeriodCrossing(event, tempStartDate, tempEndDate)) {
-                    isFree = false;
-                    break;
-                }
-            if (isFree) freeIntervalList.add(Arrays.asList(tempStartDate, tempEndDate));
-            tempStartDate = tempStartDate.plusMinutes(MINUTE_INTERVAL);
-        }
-        logger.info("Found "  + mergeSolidInterval(freeIntervalList).size() + " free intervals");
-        return mergeSolidInterval(freeIntervalList);
+        List<List<LocalDateTime>> freeIntervalList = FreeTimeEngine.searchFreeSlots(eventListIntoPeriod, startDate, endDate, slotDuration);
+        logger.info("Found "  + freeIntervalList.size() + " free intervals");
+        return freeIntervalList;
     }
 
     @Override
@@ -288,14 +377,34 @@ public class CalendarServiceImpl implements CalendarService {
                 DateParser.dateToString(startDate) + "' to '" + DateParser.dateToString(endDate) +
                 "' with attenders: " + event.getAttenders().toString());
 
-        Set<Event> attendersEvents = new HashSet<>();
-        for (Person attender : event.getAttenders())
-            attendersEvents.addAll(searchByAttenderIntoPeriod(attender, startDate, endDate));
+//  events of attenders are collected in parallel from indexes of attenders
+        Set<Event> attendersEvents = event.getAttenders().parallelStream()
+                .flatMap(attender -> dataStore.getEventByAttenderIntoPeriod(attender, startDate, endDate).stream())
+                .collect(Collectors.toSet());
         List<List<LocalDateTime>> freeIntervalListForEvent = searchFreeIntervalsForEvent(event, startDate, endDate, searchFreeTimeBetweenEvents(attendersEvents, startDate, endDate));
         logger.info("Found "  + freeIntervalListForEvent.size() + " free intervals for event with attenders");
         return freeIntervalListForEvent;
     }
 
+    @Override
+    public List<List<LocalDateTime>> searchFreeSlotsForAttenders(Set<Person> attenders, LocalDateTime startDate, LocalDateTime endDate,
+                                                                 Duration duration, int minFreeAttenders, int count) throws RemoteException, OrderOfArgumentsException {
+        if (attenders == null || startDate == null || endDate == null || duration == null) throw new IllegalArgumentException();
+        if (attenders.isEmpty() || minFreeAttenders < 1 || minFreeAttenders > attenders.size() || count < 1) throw new IllegalArgumentException();
+        if (startDate.isAfter(endDate)) throw new OrderOfArgumentsException();
+
+        logger.info("Searching " + count + " free slots of " + duration.toMinutes() + " minutes into period from '" +
+                DateParser.dateToString(startDate) + "' to '" + DateParser.dateToString(endDate) + "' for at least " +
+                minFreeAttenders + " of " + attenders.size() + " attenders");
+        List<List<Event>> busyByAttender = attenders.parallelStream()
+                .map(attender -> dataStore.getEventByAttenderIntoPeriod(attender, startDate, endDate))
+                .collect(Collectors.toList());
+        List<List<LocalDateTime>> freeSlotList = FreeBusyEngine.searchCommonFreeSlots(busyByAttender, startDate, endDate,
+                slotDuration, duration, minFreeAttenders, count);
+        logger.info("Found " + freeSlotList.size() + " free slots");
+        return freeSlotList;
+    }
+
     @Override
     public boolean isAttenderFree(Person attender, LocalDateTime startDate, LocalDateTime endDate) throws RemoteException, OrderOfArgumentsException {
         if (attender == null || startDate == null || endDate == null) throw new IllegalArgumentException();
@@ -303,8 +412,7 @@ public class CalendarServiceImpl implements CalendarService {
 
         logger.info("Checking is attender '" + attender.getName() + " " + attender.getLastName() + "' free from '" +
                 DateParser.dateToString(startDate) + "' to '" + DateParser.dateToString(endDate) + "'");
-        List<Event> eventListByAttender = searchByAttenderIntoPeriod(attender, startDate, endDate);
-        if (eventListByAttender.isEmpty()) {
+        if (!dataStore.isAttenderBusy(attender, startDate, endDate)) {
             logger.info("Attender free");
             return true;
         }
@@ -313,6 +421,22 @@ public class CalendarServiceImpl implements CalendarService {
         return false;
     }
 
+    @Override
+    public Map<Person, Boolean> isAttendersFree(Map<Person, List<LocalDateTime>> periods) throws RemoteException, OrderOfArgumentsException {
+        if (periods == null) throw new IllegalArgumentException();
+        for (Map.Entry<Person, List<LocalDateTime>> entry : periods.entrySet()) {
+            List<LocalDateTime> period = entry.getValue();
+            if (entry.getKey() == null || period == null || period.size() != 2 || period.contains(null)) throw new IllegalArgumentException();
+            if (period.get(0).isAfter(period.get(1))) throw new OrderOfArgumentsException();
+        }
+
+        logger.info("Checking are " + periods.size() + " attenders free");
+        Map<Person, Boolean> freeByAttender = new LinkedHashMap<>();
+        periods.forEach((attender, period) -> freeByAttender.put(attender, !dataStore.isAttenderBusy(attender, period.get(0), period.get(1))));
+        logger.info(freeByAttender.values().stream().filter(free -> free).count() + " attenders free");
+        return freeByAttender;
+    }
+
     @Override
     public List<Event> searchEventByTitleStartWith(String prefix) throws RemoteException {
         if (prefix == null) throw new IllegalArgumentException();
@@ -328,60 +452,47 @@ public class CalendarServiceImpl implements CalendarService {
         return presentInEventList;
     }
 
-    private List<List<LocalDateTime>> mergeSolidInterval(List<List<LocalDateTime>> intervalList) {
+    @Override
+    public EventPage searchEventByTitleStartWith(String prefix, String pageToken, int pageSize) throws RemoteException {
+        if (prefix == null || pageSize < 1) throw new IllegalArgumentException();
 
-        List<List<LocalDateTime>> solidFreeIntervalList = new ArrayList<>();
-        LocalDateTime left  = intervalList.get(0).get(0);
-        LocalDateTime right = intervalList.get(0).get(1);
+        logger.info("Searching page of " + pageSize + " events by title start with '" + prefix + "'");
+        EventPage page = toPage(dataStore.searchEventByTitleStartWith(prefix, PageToken.parse(pageToken), pageSize + 1), pageSize);
+        logger.info("Found " + page.getEvents().size() + " events");
+        return page;
+    }
 
-        for (int i = 0; i < intervalList.size()-1; i++) {
-            List<LocalDateTime> leftInterval = intervalList.get(i);
-            List<LocalDateTime> rightInterval = intervalList.get(i+1);
-            if (leftInterval.get(1).equals(rightInterval.get(0))) right = rightInterval.get(1);
-            else {
-                solidFreeIntervalList.add(Arrays.asList(left,right));
-                left = intervalList.get(i+1).get(0);
-                right = intervalList.get(i+1).get(1);
-            }
-        }
+    @Override
+    public EventIterator iterateEventByTitleStartWith(String prefix, int pageSize) throws RemoteException {
+        if (prefix == null || pageSize < 1) throw new IllegalArgumentException();
 
-        solidFreeIntervalList.add(Arrays.asList(left,intervalList.get(intervalList.size()-1).get(1)));
-        return solidFreeIntervalList;
+        logger.info("Opening iterator over events by title start with '" + prefix + "'");
+        return openIterator(after -> toPage(dataStore.searchEventByTitleStartWith(prefix, after, pageSize + 1), pageSize));
+    }
+
+    /**
+     * @param events at most pageSize + 1 events after position, the extra event shows that there is the next page
+     */
+    private static EventPage toPage(List<Event> events, int pageSize) {
+        if (events.size() <= pageSize) return new EventPage(events, null);
+        List<Event> page = new ArrayList<>(events.subList(0, pageSize));
+        return new EventPage(page, PageToken.of(page.get(pageSize - 1)).toString());
+    }
+
+    /**
+     * Export iterator, so client gets its stub and every page is read on its call
+     */
+    private static EventIterator openIterator(Function<PageToken, EventPage> pages) throws RemoteException {
+        EventIteratorImpl iterator = new EventIteratorImpl(pages);
+        UnicastRemoteObject.exportObject(iterator, 0);
+        return iterator;
     }
 
     private List<List<LocalDateTime>> searchFreeTimeBetweenEvents(Set<Event> events, LocalDateTime startDate, LocalDateTime endDate) throws OrderOfArgumentsException {
         if (events == null || startDate == null || endDate == null) throw new IllegalArgumentException();
         if (startDate.isAfter(endDate)) throw new OrderOfArgumentsException();
 
-        List<List<LocalDateTime>> freeTimeList = new LinkedList<>();
-        freeTimeList.add(Arrays.asList(startDate, endDate));
-        for(Event event : events) {
-            ListIterator<List<LocalDateTime>> it = freeTimeList.listIterator();
-            //local code review (vtegza): make sure that you need iterator here @ 12.10.14
-            // I need iterator for add/remove operations in freeTimeList
-            while (it.hasNext()) {
-                List<LocalDateTime> freeTimeInterval = it.next();
-                //local code review (vtegza): java 8 stream api - try to use it @ 12.10.14
-                // I don't understand where is try to use stream api
-                if (isEventIncludesFreeInterval(event, freeTimeInterval))
-                    it.remove();
-                else {
-                    //local code review (vtegza): extract to separate method (all block) @ 12.10.14
-                    // why extract to separate method?  How am I going to use an iterator in this case?
-                    if (isEventAndFreeIntervalCrossingInStartOfEvent(event, freeTimeInterval))
-                        freeTimeList.get(freeTimeList.indexOf(freeTimeInterval)).set(0, event.getEndDate());
-
-                    if (isEventAndFreeIntervalCrossingInEndOfEvent(event, freeTimeInterval))
-                        freeTimeList.get(freeTimeList.indexOf(freeTimeInterval)).set(1, event.getStartDate());
-
-                    if ( isFreeIntervalIncludesEvent(event, freeTimeInterval)) {
-                        it.add(Arrays.asList(event.getEndDate(), freeTimeInterval.get(1)));
-                        freeTimeList.get(freeTimeList.indexOf(freeTimeInterval)).set(1, event.getStartDate());
-                    }
-                }
-            }
-        }
-        return freeTimeList;
+        return FreeTimeEngine.searchFreeTime(events, startDate, endDate, Duration.ofMinutes(MINUTE_INTERVAL));
     }
 
     private List<List<LocalDateTime>> searchFreeIntervalsForEvent(Event event, LocalDateTime startDate, LocalDateTime endDate, List<List<LocalDateTime>> freeIntervalList) throws OrderOfArgumentsException {
@@ -399,74 +510,4 @@ public class CalendarServiceImpl implements CalendarService {
         }
         return freeIntervalListForEvent;
     }
-
-    private boolean isEventAndPeriodCrossing(Event event, LocalDateTime startDate, LocalDateTime endDate) throws OrderOfArgumentsException {
-        if (event == null || startDate == null || endDate == null) throw new IllegalArgumentException();
-        if (startDate.isAfter(endDate)) throw new OrderOfArgumentsException();
-
-        if (event.getStartDate().equals(startDate)) return true;
-        if (event.getEndDate().equals(endDate)) return true;
-        if (isDateIntoPeriod(event.getStartDate(), startDate, endDate)) return true;
-        if (isDateIntoPeriod(event.getEndDate(), startDate, endDate)) return true;
-
-        return isPeriodIntoEvent(event, startDate, endDate);
-    }
-
-    private boolean isPeriodIntoEvent(Event event, LocalDateTime startDate, LocalDateTime endDate) throws OrderOfArgumentsException {
-        if (event == null || startDate == null || endDate == null) throw new IllegalArgumentException();
-        if (startDate.isAfter(endDate)) throw new OrderOfArgumentsException();
-
-        return event.getStartDate().isBefore(startDate) && event.getEndDate().isAfter(endDate);
-    }
-
-    private boolean isDateIntoPeriod(LocalDateTime date, LocalDateTime startDate, LocalDateTime endDate) throws OrderOfArgumentsException {
-        if (date == null || startDate == null || endDate == null) throw new IllegalArgumentException();
-        if (startDate.isAfter(endDate)) throw new OrderOfArgumentsException();
-
-        return date.isAfter(startDate) && date.isBefore(endDate);
-    }
-
-    private boolean isEventIncludesFreeInterval(Event event, List<LocalDateTime> interval) {
-        if (event == null || interval == null) throw new IllegalArgumentException();
-
-       return event.getStartDate().isBefore(interval.get(0).plusMinutes(MINUTE_INTERVAL))
-                && event.getEndDate().isAfter(interval.get(1).minusMinutes(MINUTE_INTERVAL));
-    }
-
-    private boolean isEventAndFreeIntervalCrossingInStartOfEvent(Event event, List<LocalDateTime> interval) {
-        if (event == null || interval == null) throw new IllegalArgumentException();
-
-        return event.getStartDate().isBefore(interval.get(0).plusMinutes(MINUTE_INTERVAL))
-                && event.getEndDate().isAfter(interval.get(0))
-                && isEndOfEventBeforeEndOfIntervalMinusMinuteInterval(event, interval);
-    }
-
-    private boolean isEventAndFreeIntervalCrossingInEndOfEvent(Event event, List<LocalDateTime> interval) {
-        if (event == null || interval == null) throw new IllegalArgumentException();
-
-        return isStartOfEventAfterStartOfIntervalPlusMinuteInterval(event, interval)
-                && event.getStartDate().isBefore(interval.get(1))
-                && event.getEndDate().isAfter(interval.get(1).minusMinutes(MINUTE_INTERVAL));
-    }
-
-    private boolean isFreeIntervalIncludesEvent(Event event, List<LocalDateTime> interval) {
-        if (event == null || interval == null) throw new IllegalArgumentException();
-
-        return isStartOfEventAfterStartOfIntervalPlusMinuteInterval(event, interval)
-                && isEndOfEventBeforeEndOfIntervalMinusMinuteInterval(event, interval);
-    }
-
-    private boolean isStartOfEventAfterStartOfIntervalPlusMinuteInterval(Event event, List<LocalDateTime> interval) {
-        if (event == null || interval == null) throw new IllegalArgumentException();
-
-        return event.getStartDate().isAfter(interval.get(0).plusMinutes(MINUTE_INTERVAL))
-                || event.getStartDate().isEqual(interval.get(0).plusMinutes(MINUTE_INTERVAL));
-    }
-
-    private boolean isEndOfEventBeforeEndOfIntervalMinusMinuteInterval(Event event, List<LocalDateTime> interval) {
-        if (event == null || interval == null) throw new IllegalArgumentException();
-
-        return event.getEndDate().isBefore(interval.get(1).minusMinutes(MINUTE_INTERVAL))
-                || event.getEndDate().isEqual(interval.get(1).minusMinutes(MINUTE_INTERVAL));
-    }
-}
\ No newline at end of file
+}
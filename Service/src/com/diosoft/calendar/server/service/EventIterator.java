@@ -0,0 +1,32 @@
+package com.diosoft.calendar.server.service;
+
+import com.diosoft.calendar.server.common.Event;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+/**
+ * Server-side handle of query, gives its result page by page in order of start date.
+ * Handle is released by close or when client drops its reference.
+ */
+public interface EventIterator extends Remote {
+
+    /**
+     * @return the next page of events, empty list when all events are given
+     * @throws RemoteException
+     */
+    List<Event> next() throws RemoteException;
+
+    /**
+     * @return false if all events are given
+     * @throws RemoteException
+     */
+    boolean hasNext() throws RemoteException;
+
+    /**
+     * Release the handle on the server
+     * @throws RemoteException
+     */
+    void close() throws RemoteException;
+}
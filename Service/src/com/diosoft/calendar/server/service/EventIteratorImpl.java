@@ -0,0 +1,61 @@
+package com.diosoft.calendar.server.service;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.EventPage;
+import com.diosoft.calendar.server.util.PageToken;
+import org.apache.log4j.Logger;
+
+import java.rmi.NoSuchObjectException;
+import java.rmi.server.UnicastRemoteObject;
+import java.rmi.server.Unreferenced;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Iterator over pages of query: keeps only the page token between calls, every page is read from data store on demand
+ */
+class EventIteratorImpl implements EventIterator, Unreferenced {
+    private final static Logger logger = Logger.getLogger(EventIteratorImpl.class);
+
+    private final Function<PageToken, EventPage> pages;
+    private PageToken after;
+    private boolean finished;
+
+    /**
+     * @param pages query which reads the page after given position (null for the first page)
+     */
+    EventIteratorImpl(Function<PageToken, EventPage> pages) {
+        if (pages == null) throw new IllegalArgumentException();
+        this.pages = pages;
+    }
+
+    @Override
+    public synchronized List<Event> next() {
+        if (finished) return new ArrayList<>();
+        EventPage page = pages.apply(after);
+        after = PageToken.parse(page.getNextPageToken());
+        finished = page.isLast();
+        return page.getEvents();
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return !finished;
+    }
+
+    @Override
+    public synchronized void close() {
+        finished = true;
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            logger.debug("Iterator is not exported");
+        }
+    }
+
+    @Override
+    public void unreferenced() {
+        close();
+    }
+}
@@ -0,0 +1,158 @@
+package com.diosoft.calendar.server.transport;
+
+import com.diosoft.calendar.server.service.CalendarService;
+import org.apache.log4j.Logger;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.rmi.RemoteException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client of CalendarServer: proxy of CalendarService over one connection.
+ * Calls of many threads are pipelined, every caller writes its request without waiting for responses of others
+ * and one reader thread passes responses to callers by id of request.
+ * Exceptions of service are thrown to caller with the same class and message (see BinaryCodec.readException),
+ * failure of connection fails all waiting calls by RemoteException.
+ */
+public class BinaryCalendarClient implements Closeable {
+    private final static Logger logger = Logger.getLogger(BinaryCalendarClient.class);
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    private final Socket socket;
+    private final DataOutputStream output;
+    private final DataInputStream input;
+    private final AtomicLong nextRequestId = new AtomicLong();
+    private final ConcurrentMap<Long, CompletableFuture<Response>> pendingResponses = new ConcurrentHashMap<>();
+    private final CalendarService service;
+    private volatile IOException failure;
+
+    public BinaryCalendarClient(String host, int port) throws IOException {
+        if (host == null || port <= 0) throw new IllegalArgumentException();
+        socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE));
+        input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE));
+        service = (CalendarService) Proxy.newProxyInstance(CalendarService.class.getClassLoader(),
+                new Class<?>[]{CalendarService.class}, (proxy, method, args) -> invoke(method, args));
+
+        Thread reader = new Thread(this::readResponses, "calendar-client-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * @return proxy of remote CalendarService, can be used by many threads
+     */
+    public CalendarService getService() {
+        return service;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private Object invoke(Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) return invokeObjectMethod(method, args);
+
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        long requestId = nextRequestId.incrementAndGet();
+        pendingResponses.put(requestId, future);
+        try {
+            byte[] request = BinaryProtocol.request(requestId, method, args == null ? new Object[0] : args);
+            if (request.length > Integer.BYTES + BinaryProtocol.MAX_REQUEST_SIZE)
+                throw new IOException("Request is larger than " + BinaryProtocol.MAX_REQUEST_SIZE + " bytes");
+            synchronized (output) {
+                if (failure != null) throw failure;
+                output.write(request);
+                output.flush();
+            }
+        } catch (IOException e) {
+            pendingResponses.remove(requestId);
+            throw new RemoteException("Request can't be sent", e);
+        }
+
+        Response response;
+        try {
+            response = future.get();
+        } catch (ExecutionException e) {
+            throw new RemoteException("Connection failed", e.getCause());
+        }
+        if (response.status == BinaryProtocol.OK) return response.value;
+        throw unexpectedToRemote(method, (Throwable) response.value);
+    }
+
+    /**
+     * Read responses until connection is closed, then fail all waiting calls
+     */
+    private void readResponses() {
+        try {
+            while (true) {
+                int length = input.readInt();
+                if (length < BinaryProtocol.RESPONSE_HEADER_SIZE || length > BinaryProtocol.MAX_RESPONSE_SIZE)
+                    throw new IOException("Wrong length of frame: " + length);
+                long requestId = input.readLong();
+                byte status = input.readByte();
+                byte[] payload = new byte[length - BinaryProtocol.RESPONSE_HEADER_SIZE];
+                input.readFully(payload);
+
+                CompletableFuture<Response> future = pendingResponses.remove(requestId);
+                if (future == null) continue;
+                try {
+                    ByteBuffer buffer = ByteBuffer.wrap(payload);
+                    future.complete(new Response(status, status == BinaryProtocol.OK ? BinaryCodec.read(buffer) : BinaryCodec.readException(buffer)));
+                } catch (IOException e) {
+                    future.complete(new Response(BinaryProtocol.ERROR, new RemoteException("Response can't be read", e)));
+                }
+            }
+        } catch (IOException e) {
+            if (!socket.isClosed()) logger.error("Connection to CalendarServer failed", e);
+            synchronized (output) {
+                failure = e;
+            }
+            for (Long requestId : pendingResponses.keySet()) {
+                CompletableFuture<Response> future = pendingResponses.remove(requestId);
+                if (future != null) future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private Object invokeObjectMethod(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return service == args[0];
+            case "hashCode":
+                return System.identityHashCode(service);
+            default:
+                return "BinaryCalendarClient{" + socket.getRemoteSocketAddress() + '}';
+        }
+    }
+
+    /**
+     * Exception which is not declared by method is wrapped by RemoteException, like RMI does
+     */
+    private static Throwable unexpectedToRemote(Method method, Throwable exception) {
+        if (exception instanceof RuntimeException || exception instanceof Error) return exception;
+        for (Class<?> declared : method.getExceptionTypes())
+            if (declared.isInstance(exception)) return exception;
+        return new RemoteException("Unexpected exception of service", exception);
+    }
+
+    private final static class Response {
+        private final byte status;
+        private final Object value;
+
+        private Response(byte status, Object value) {
+            this.status = status;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.diosoft.calendar.server.transport;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.EventPage;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.common.Person;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.rmi.RemoteException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Encoding of arguments and results of CalendarService for binary protocol. Only the types which
+ * CalendarService uses can be encoded, reader creates them by itself and never loads classes by name
+ * (except of exceptions on client, see readException).
+ * Value is byte tag and fields: numbers in big-endian, string is int length of UTF-8 bytes and bytes,
+ * dates are epoch day or epoch second and nanos, event and person are their fields as values,
+ * collections are int count and elements.
+ * Reader checks every count and length against bytes left in frame and depth of nesting against MAX_DEPTH,
+ * so a frame can't make it allocate much more than the size of frame.
+ */
+final class BinaryCodec {
+    final static int MAX_DEPTH = 8;
+    private final static byte NULL = 0;
+    private final static byte BOOLEAN = 1;
+    private final static byte INTEGER = 2;
+    private final static byte LONG = 3;
+    private final static byte STRING = 4;
+    private final static byte UUID_VALUE = 5;
+    private final static byte LOCAL_DATE = 6;
+    private final static byte LOCAL_DATE_TIME = 7;
+    private final static byte DURATION = 8;
+    private final static byte PERIOD_OF_EVENT = 9;
+    private final static byte PERSON = 10;
+    private final static byte EVENT = 11;
+    private final static byte EVENT_PAGE = 12;
+    private final static byte LIST = 13;
+    private final static byte SET = 14;
+    private final static byte MAP = 15;
+    private final static byte STRING_ARRAY = 16;
+    private final static int NULL_LENGTH = -1;
+
+    private BinaryCodec() {
+    }
+
+    static void writeArguments(DataOutputStream out, Object[] args) throws IOException {
+        out.writeByte(args.length);
+        for (Object arg : args) write(out, arg, 0);
+    }
+
+    /**
+     * @param parameterCount count of parameters of called method, other count of arguments is an error
+     */
+    static Object[] readArguments(ByteBuffer in, int parameterCount) throws IOException {
+        try {
+            int count = in.get();
+            if (count != parameterCount) throw new StreamCorruptedException("Wrong count of arguments: " + count);
+            Object[] args = new Object[count];
+            for (int i = 0; i < count; i++) args[i] = read(in, 0);
+            if (in.hasRemaining()) throw new StreamCorruptedException("Unexpected bytes after arguments");
+            return args;
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Frame ends inside of value");
+        }
+    }
+
+    static void write(DataOutputStream out, Object value) throws IOException {
+        write(out, value, 0);
+    }
+
+    static Object read(ByteBuffer in) throws IOException {
+        try {
+            return read(in, 0);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Frame ends inside of value");
+        }
+    }
+
+    /**
+     * Exception is written as name of its class and message
+     */
+    static void writeException(DataOutputStream out, Throwable exception) throws IOException {
+        writeString(out, exception.getClass().getName());
+        writeString(out, exception.getMessage());
+    }
+
+    /**
+     * Exception of server as exception of the same class with the same message if client has such class
+     * with constructor of message, otherwise RemoteException with name of class and message.
+     * Is used by client only, server never creates classes named by peer.
+     */
+    static Throwable readException(ByteBuffer in) throws IOException {
+        String className;
+        String message;
+        try {
+            className = readString(in);
+            message = readString(in);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException("Frame ends inside of exception");
+        }
+        try {
+            Class<?> type = Class.forName(className, false, BinaryCodec.class.getClassLoader());
+            if (Exception.class.isAssignableFrom(type))
+                return (Throwable) type.getConstructor(String.class).newInstance(message);
+        } catch (ReflectiveOperationException | LinkageError e) {
+//  class is unknown to client or can't be created by message
+        }
+        return new RemoteException(className + ": " + message);
+    }
+
+    private static void write(DataOutputStream out, Object value, int depth) throws IOException {
+        if (depth > MAX_DEPTH) throw new IOException("Value is nested deeper than " + MAX_DEPTH + " levels");
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof UUID) {
+            out.writeByte(UUID_VALUE);
+            out.writeLong(((UUID) value).getMostSignificantBits());
+            out.writeLong(((UUID) value).getLeastSignificantBits());
+        } else if (value instanceof LocalDate) {
+            out.writeByte(LOCAL_DATE);
+            out.writeLong(((LocalDate) value).toEpochDay());
+        } else if (value instanceof LocalDateTime) {
+            out.writeByte(LOCAL_DATE_TIME);
+            out.writeLong(((LocalDateTime) value).toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(((LocalDateTime) value).getNano());
+        } else if (value instanceof Duration) {
+            out.writeByte(DURATION);
+            out.writeLong(((Duration) value).getSeconds());
+            out.writeInt(((Duration) value).getNano());
+        } else if (value instanceof PeriodOfEvent) {
+            out.writeByte(PERIOD_OF_EVENT);
+            out.writeByte(((PeriodOfEvent) value).ordinal());
+        } else if (value instanceof Person) {
+            Person person = (Person) value;
+            out.writeByte(PERSON);
+            writeString(out, person.getName());
+            writeString(out, person.getLastName());
+            writeString(out, person.getEmail());
+        } else if (value instanceof Event) {
+            Event event = (Event) value;
+            out.writeByte(EVENT);
+            write(out, event.getId(), depth + 1);
+            writeString(out, event.getTitle());
+            writeString(out, event.getDescription());
+            write(out, event.getStartDate(), depth + 1);
+            write(out, event.getEndDate(), depth + 1);
+            write(out, event.getAttenders(), depth + 1);
+            write(out, event.getPeriod(), depth + 1);
+        } else if (value instanceof EventPage) {
+            out.writeByte(EVENT_PAGE);
+            write(out, ((EventPage) value).getEvents(), depth + 1);
+            writeString(out, ((EventPage) value).getNextPageToken());
+        } else if (value instanceof Collection) {
+            out.writeByte(value instanceof Set ? SET : LIST);
+            out.writeInt(((Collection<?>) value).size());
+            for (Object element : (Collection<?>) value) write(out, element, depth + 1);
+        } else if (value instanceof Map) {
+            out.writeByte(MAP);
+            out.writeInt(((Map<?, ?>) value).size());
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                write(out, entry.getKey(), depth + 1);
+                write(out, entry.getValue(), depth + 1);
+            }
+        } else if (value instanceof String[]) {
+            out.writeByte(STRING_ARRAY);
+            out.writeInt(((String[]) value).length);
+            for (String element : (String[]) value) writeString(out, element);
+        } else {
+            throw new IOException("Type is not supported by binary protocol: " + value.getClass().getName());
+        }
+    }
+
+    private static Object read(ByteBuffer in, int depth) throws IOException {
+        if (depth > MAX_DEPTH) throw new StreamCorruptedException("Value is nested deeper than " + MAX_DEPTH + " levels");
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return in.get() != 0;
+            case INTEGER:
+                return in.getInt();
+            case LONG:
+                return in.getLong();
+            case STRING:
+                return readString(in);
+            case UUID_VALUE:
+                return new UUID(in.getLong(), in.getLong());
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(in.getLong());
+            case LOCAL_DATE_TIME:
+                return LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+            case DURATION:
+                return Duration.ofSeconds(in.getLong(), in.getInt());
+            case PERIOD_OF_EVENT:
+                int ordinal = in.get();
+                if (ordinal < 0 || ordinal >= PeriodOfEvent.values().length) throw new StreamCorruptedException("Wrong period: " + ordinal);
+                return PeriodOfEvent.values()[ordinal];
+            case PERSON:
+                return new Person.PersonBuilder()
+                        .name(readString(in))
+                        .lastName(readString(in))
+                        .email(readString(in))
+                        .build();
+            case EVENT:
+                return new Event.EventBuilder()
+                        .id(read(in, depth + 1, UUID.class))
+                        .title(readString(in))
+                        .description(readString(in))
+                        .startDate(read(in, depth + 1, LocalDateTime.class))
+                        .endDate(read(in, depth + 1, LocalDateTime.class))
+                        .attendersSet(readSet(in, depth + 1, Person.class))
+                        .periodSet(readSet(in, depth + 1, PeriodOfEvent.class))
+                        .build();
+            case EVENT_PAGE:
+                List<Event> events = readList(in, depth + 1, Event.class);
+                if (events == null) throw new StreamCorruptedException("Page without events");
+                return new EventPage(events, readString(in));
+            case LIST:
+                int listSize = readCount(in);
+                List<Object> list = new ArrayList<>(listSize);
+                for (int i = 0; i < listSize; i++) list.add(read(in, depth + 1));
+                return list;
+            case SET:
+                int setSize = readCount(in);
+                Set<Object> set = new LinkedHashSet<>();
+                for (int i = 0; i < setSize; i++) set.add(read(in, depth + 1));
+                return set;
+            case MAP:
+                int mapSize = readCount(in);
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < mapSize; i++) map.put(read(in, depth + 1), read(in, depth + 1));
+                return map;
+            case STRING_ARRAY:
+                String[] strings = new String[readCount(in)];
+                for (int i = 0; i < strings.length; i++) strings[i] = readString(in);
+                return strings;
+            default:
+                throw new StreamCorruptedException("Unknown tag of value: " + tag);
+        }
+    }
+
+    private static <T> T read(ByteBuffer in, int depth, Class<T> type) throws IOException {
+        Object value = read(in, depth);
+        if (value != null && !type.isInstance(value))
+            throw new StreamCorruptedException("Expected " + type.getSimpleName() + " but was " + value.getClass().getSimpleName());
+        return type.cast(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Set<T> readSet(ByteBuffer in, int depth, Class<T> elementType) throws IOException {
+        Set<?> set = read(in, depth, Set.class);
+        if (set != null) checkElements(set, elementType);
+        return (Set<T>) set;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> readList(ByteBuffer in, int depth, Class<T> elementType) throws IOException {
+        List<?> list = read(in, depth, List.class);
+        if (list != null) checkElements(list, elementType);
+        return (List<T>) list;
+    }
+
+    private static void checkElements(Collection<?> collection, Class<?> elementType) throws IOException {
+        for (Object element : collection)
+            if (!elementType.isInstance(element)) throw new StreamCorruptedException("Expected elements of " + elementType.getSimpleName());
+    }
+
+    /**
+     * Every element takes at least one byte, so count can't exceed bytes left in frame
+     */
+    private static int readCount(ByteBuffer in) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) throw new StreamCorruptedException("Wrong count of elements: " + count);
+        return count;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        int length = in.getInt();
+        if (length == NULL_LENGTH) return null;
+        if (length < 0 || length > in.remaining()) throw new StreamCorruptedException("Wrong length of string: " + length);
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
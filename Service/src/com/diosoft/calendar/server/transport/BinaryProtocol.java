@@ -0,0 +1,128 @@
+package com.diosoft.calendar.server.transport;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.Person;
+import com.diosoft.calendar.server.service.CalendarService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Frames of binary protocol of CalendarService. Every frame is int length of the rest of frame and long id of request,
+ * request continues with short id of method of CalendarService and arguments,
+ * response continues with byte status and result (OK) or exception (ERROR), values are encoded by BinaryCodec.
+ * Ids are chosen by client, so it can send many requests without waiting (pipelining)
+ * and match responses which come in order of completion.
+ * Methods have fixed ids of the table below: new method gets the next free id and ids are never reused,
+ * so clients and servers of different versions agree on every method they both know.
+ */
+final class BinaryProtocol {
+    final static int MAX_REQUEST_SIZE = 4 * 1024 * 1024;
+    final static int MAX_RESPONSE_SIZE = 64 * 1024 * 1024;
+    final static int REQUEST_HEADER_SIZE = Long.BYTES + Short.BYTES;
+    final static int RESPONSE_HEADER_SIZE = Long.BYTES + Byte.BYTES;
+    final static byte OK = 0;
+    final static byte ERROR = 1;
+
+    private final static Map<Short, Method> METHODS = new HashMap<>();
+    private final static Map<Method, Short> METHOD_IDS = new HashMap<>();
+
+    static {
+        define(1, "add", Event.class);
+        define(2, "addAll", List.class);
+        define(3, "createEvent", String[].class, Set.class, Set.class);
+        define(4, "createEventForAllDay", String[].class, Set.class, Set.class);
+        define(5, "remove", UUID.class);
+        define(6, "removeAll", List.class);
+        define(7, "edit", Event.class);
+        define(8, "searchByTitle", String.class);
+        define(9, "searchByDay", LocalDate.class);
+        define(10, "searchByDays", List.class);
+        define(11, "searchByAttender", Person.class);
+        define(12, "searchByAttender", Person.class, String.class, int.class);
+        define(13, "iterateByAttender", Person.class, int.class);
+        define(14, "searchByAttenderIntoPeriod", Person.class, LocalDateTime.class, LocalDateTime.class);
+        define(15, "searchIntoPeriod", LocalDate.class, LocalDate.class);
+        define(16, "searchIntoPeriod", LocalDate.class, LocalDate.class, String.class, int.class);
+        define(17, "iterateIntoPeriod", LocalDate.class, LocalDate.class, int.class);
+        define(18, "searchFreeTime2", LocalDateTime.class, LocalDateTime.class);
+        define(19, "searchFreeTime", LocalDateTime.class, LocalDateTime.class);
+        define(20, "searchFreeTimeForEvent", Event.class, LocalDateTime.class, LocalDateTime.class);
+        define(21, "searchFreeTimeForEventWithAttenders", Event.class, LocalDateTime.class, LocalDateTime.class);
+        define(22, "searchFreeSlotsForAttenders", Set.class, LocalDateTime.class, LocalDateTime.class, Duration.class, int.class, int.class);
+        define(23, "isAttenderFree", Person.class, LocalDateTime.class, LocalDateTime.class);
+        define(24, "isAttendersFree", Map.class);
+        define(25, "searchEventByTitleStartWith", String.class);
+        define(26, "searchEventByTitleStartWith", String.class, String.class, int.class);
+        define(27, "iterateEventByTitleStartWith", String.class, int.class);
+    }
+
+    private BinaryProtocol() {
+    }
+
+    private static void define(int id, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = CalendarService.class.getMethod(name, parameterTypes);
+            METHODS.put((short) id, method);
+            METHOD_IDS.put(method, (short) id);
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static short idOf(Method method) {
+        Short id = METHOD_IDS.get(method);
+        if (id == null) throw new IllegalArgumentException("Method has no id in binary protocol: " + method);
+        return id;
+    }
+
+    /**
+     * @return method of given id or null if it is unknown
+     */
+    static Method methodOf(short id) {
+        return METHODS.get(id);
+    }
+
+    /**
+     * @return whole frame of request with its length
+     */
+    static byte[] request(long requestId, Method method, Object[] args) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeLong(requestId);
+        out.writeShort(idOf(method));
+        BinaryCodec.writeArguments(out, args);
+        return withLength(bytes.toByteArray());
+    }
+
+    /**
+     * @param result value of OK response or exception of ERROR response
+     * @return whole frame of response with its length
+     */
+    static byte[] response(long requestId, byte status, Object result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeLong(requestId);
+        out.writeByte(status);
+        if (status == OK) BinaryCodec.write(out, result);
+        else BinaryCodec.writeException(out, (Throwable) result);
+        return withLength(bytes.toByteArray());
+    }
+
+    private static byte[] withLength(byte[] frame) {
+        int length = frame.length - Integer.BYTES;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+}
@@ -0,0 +1,306 @@
+package com.diosoft.calendar.server.transport;
+
+import com.diosoft.calendar.server.service.CalendarService;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Endpoint of CalendarService over binary protocol (see BinaryProtocol).
+ * One selector thread accepts connections, reads frames and writes responses without blocking,
+ * so idle connections cost only their buffers and the count of clients is not limited by threads.
+ * Requests are executed by pool of worker threads, many requests of one connection are executed
+ * concurrently and their responses are sent in order of completion.
+ * Connection which has MAX_PENDING_REQUESTS requests without written response is not read until
+ * its responses are written, so client which doesn't read responses is stopped by TCP flow control.
+ * Requests beyond queue of workers are answered by RemoteException at once.
+ * Methods which return remote objects (iterators) are not supported, paged searches should be used instead.
+ */
+public class CalendarServer implements Closeable {
+    private final static Logger logger = Logger.getLogger(CalendarServer.class);
+    private final static int INITIAL_BUFFER_SIZE = 4 * 1024;
+    private final static int BACKLOG = 1024;
+    private final static int MAX_PENDING_REQUESTS = 64;
+    private final static int WORKER_QUEUE_SIZE = 1024;
+
+    private final CalendarService calendarService;
+    private final InetSocketAddress address;
+    private final ExecutorService workers;
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread selectorThread;
+    private volatile boolean closed;
+
+    /**
+     * Server which listens on loopback interface only
+     * @param calendarService which executes requests
+     * @param port to listen, 0 for any free port
+     * @param workerThreads count of threads which execute requests
+     */
+    public CalendarServer(CalendarService calendarService, int port, int workerThreads) {
+        this(calendarService, null, port, workerThreads);
+    }
+
+    /**
+     * @param host address to listen, e.g. 0.0.0.0 for all interfaces, null for loopback
+     */
+    public CalendarServer(CalendarService calendarService, String host, int port, int workerThreads) {
+        if (calendarService == null || port < 0 || workerThreads < 1) throw new IllegalArgumentException();
+        this.calendarService = calendarService;
+        this.address = host == null ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port) : new InetSocketAddress(host, port);
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(WORKER_QUEUE_SIZE), runnable -> {
+            Thread thread = new Thread(runnable, "calendar-server-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized void start() throws IOException {
+        if (selector != null) throw new IllegalStateException("Server is already started");
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.bind(address, BACKLOG);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        selectorThread = new Thread(this::serve, "calendar-server-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+        logger.info("Binary endpoint of CalendarService listens on " + serverChannel.getLocalAddress());
+    }
+
+    /**
+     * @return port which server listens
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Stop accepting and close all connections, requests being executed are dropped
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        workers.shutdownNow();
+        if (selector == null) return;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void serve() {
+        try {
+            while (!closed) {
+                selector.select();
+                for (Connection connection; (connection = pendingWrites.poll()) != null; ) connection.updateInterest();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) connection.read();
+                        if (key.isValid() && key.isWritable()) connection.write();
+                    } catch (IOException e) {
+                        logger.debug("Connection closed: " + e.getMessage());
+                        connection.close();
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            logger.error("Selector of binary endpoint failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) closeQuietly(key.channel());
+            closeQuietly(selector);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * Execute request in thread of worker and queue its response to connection
+     */
+    private void execute(Connection connection, byte[] frame) {
+        ByteBuffer request = ByteBuffer.wrap(frame);
+        long requestId = request.getLong();
+        short methodId = request.getShort();
+
+        byte status = BinaryProtocol.OK;
+        Object result;
+        try {
+            Method method = BinaryProtocol.methodOf(methodId);
+            if (method == null) throw new UnsupportedOperationException("Method is unknown to server: " + methodId);
+            if (Remote.class.isAssignableFrom(method.getReturnType()))
+                throw new UnsupportedOperationException("Remote objects are not supported by binary protocol, use paged search instead of " + method.getName());
+            Object[] args = BinaryCodec.readArguments(request, method.getParameterCount());
+            result = method.invoke(calendarService, args);
+        } catch (InvocationTargetException e) {
+            status = BinaryProtocol.ERROR;
+            result = e.getCause();
+        } catch (UnsupportedOperationException e) {
+            status = BinaryProtocol.ERROR;
+            result = e;
+        } catch (Exception e) {
+            status = BinaryProtocol.ERROR;
+            result = new RemoteException("Request can't be executed", e);
+        }
+        respond(connection, requestId, status, result);
+    }
+
+    /**
+     * Queue response to connection, result which can't be encoded is replaced by RemoteException
+     */
+    private void respond(Connection connection, long requestId, byte status, Object result) {
+        byte[] response;
+        try {
+            response = BinaryProtocol.response(requestId, status, result);
+            if (response.length > Integer.BYTES + BinaryProtocol.MAX_RESPONSE_SIZE)
+                response = BinaryProtocol.response(requestId, BinaryProtocol.ERROR,
+                        new RemoteException("Result is larger than " + BinaryProtocol.MAX_RESPONSE_SIZE + " bytes, use paged search"));
+        } catch (IOException e) {
+            try {
+                response = BinaryProtocol.response(requestId, BinaryProtocol.ERROR, new RemoteException("Result is not supported by binary protocol", e));
+            } catch (IOException encodingException) {
+                throw new IllegalStateException("Exception can't be encoded", encodingException);
+            }
+        }
+        connection.send(ByteBuffer.wrap(response));
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("Closing failed: " + e.getMessage());
+        }
+    }
+
+    private final class Connection {
+        private final SocketChannel channel;
+        private final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+        private SelectionKey key;
+        private ByteBuffer input = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        // requests passed to workers and not yet written back, is used by selector thread only
+        private int pending;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Read available bytes and dispatch complete frames, is called by selector thread
+         */
+        private void read() throws IOException {
+            if (channel.read(input) < 0) {
+                close();
+                return;
+            }
+            dispatch();
+        }
+
+        /**
+         * Pass complete frames of buffer to workers while connection has less than MAX_PENDING_REQUESTS
+         * pending requests, then set interest of selector: reading only below the limit, writing if responses wait
+         */
+        private void dispatch() throws IOException {
+            input.flip();
+            while (pending < MAX_PENDING_REQUESTS && input.remaining() >= Integer.BYTES) {
+                int length = input.getInt(input.position());
+                if (length < BinaryProtocol.REQUEST_HEADER_SIZE || length > BinaryProtocol.MAX_REQUEST_SIZE)
+                    throw new IOException("Wrong length of frame: " + length);
+                if (input.remaining() < Integer.BYTES + length) break;
+                input.getInt();
+                byte[] frame = new byte[length];
+                input.get(frame);
+                pending++;
+                submit(frame);
+            }
+            input.compact();
+
+//  buffer grows only when it is full of incomplete frame: at most twice, up to size of the frame,
+//  so it is never larger than twice of bytes really received
+            if (!input.hasRemaining() && pending < MAX_PENDING_REQUESTS) {
+                int frameSize = Integer.BYTES + input.getInt(0);
+                ByteBuffer larger = ByteBuffer.allocate(Math.min(frameSize, 2 * input.capacity()));
+                input.flip();
+                larger.put(input);
+                input = larger;
+            }
+            updateInterest();
+        }
+
+        private void submit(byte[] frame) {
+            try {
+                workers.execute(() -> execute(this, frame));
+            } catch (RejectedExecutionException e) {
+                respond(this, ByteBuffer.wrap(frame).getLong(), BinaryProtocol.ERROR, new RemoteException("Server is busy, request is rejected"));
+            }
+        }
+
+        /**
+         * Write queued responses while socket accepts them, is called by selector thread
+         */
+        private void write() throws IOException {
+            for (ByteBuffer buffer; (buffer = output.peek()) != null; output.poll()) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) break;
+                pending--;
+            }
+//  frames left in buffer while connection was at the limit are dispatched now
+            dispatch();
+        }
+
+        /**
+         * Queue response and ask selector thread to write it, is called by worker
+         */
+        private void send(ByteBuffer response) {
+            if (!channel.isOpen()) return;
+            output.add(response);
+            pendingWrites.add(this);
+            selector.wakeup();
+        }
+
+        private void updateInterest() {
+            if (!key.isValid()) return;
+            key.interestOps((pending < MAX_PENDING_REQUESTS ? SelectionKey.OP_READ : 0)
+                    | (output.isEmpty() ? 0 : SelectionKey.OP_WRITE));
+        }
+
+        private void close() {
+            key.cancel();
+            output.clear();
+            closeQuietly(channel);
+        }
+    }
+}
@@ -4,22 +4,25 @@ import com.diosoft.calendar.server.exception.DateTimeFormatException;
 import org.apache.log4j.Logger;
 import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 public class DateParser {
     private final static String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm";
+    private final static DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
 
     private static final Logger logger = Logger.getLogger(DateParser.class);
 
     public static LocalDateTime stringToDate(String stringDate) throws IllegalArgumentException, DateTimeFormatException {
 
         if (stringDate==null) throw new IllegalArgumentException();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
-        LocalDateTime dateTime;
+        LocalDateTime dateTime = parseValid(stringDate);
+        if (dateTime != null) return dateTime;
 
         try {
-            dateTime = LocalDateTime.parse(stringDate, formatter);
+            dateTime = LocalDateTime.parse(stringDate, FORMATTER);
         } catch (DateTimeParseException dtpe) {
             logger.error(dtpe.getMessage());
             throw new DateTimeFormatException("Wrong format of date/time");
@@ -31,13 +34,43 @@ public class DateParser {
     public static String dateToString(LocalDateTime dateTime) throws DateTimeException, IllegalArgumentException {
 
         if (dateTime==null) throw new IllegalArgumentException();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_TIME_PATTERN);
 
         try {
-            return dateTime.format(formatter);
+            return dateTime.format(FORMATTER);
         } catch (DateTimeException dte) {
             logger.error(dte.getMessage());
             throw new DateTimeException("Wrong value of year, month, day, hour or minute");
         }
     }
+
+    /**
+     * Parse of valid date/time of pattern in place: digits are read from string, only the result is created.
+     * @return null if string is not of pattern or has value out of range, formatter decides then
+     */
+    private static LocalDateTime parseValid(String stringDate) {
+        if (stringDate.length() != DATE_TIME_PATTERN.length()
+                || stringDate.charAt(4) != '-' || stringDate.charAt(7) != '-'
+                || stringDate.charAt(10) != ' ' || stringDate.charAt(13) != ':') return null;
+        int year = digits(stringDate, 0, 4);
+        int month = digits(stringDate, 5, 2);
+        int day = digits(stringDate, 8, 2);
+        int hour = digits(stringDate, 11, 2);
+        int minute = digits(stringDate, 14, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59) return null;
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    /**
+     * @return value of count decimal digits from given index, or -1 if there is other char
+     */
+    private static int digits(String string, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = string.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + c - '0';
+        }
+        return value;
+    }
 }
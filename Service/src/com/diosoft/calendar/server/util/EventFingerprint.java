@@ -0,0 +1,71 @@
+package com.diosoft.calendar.server.util;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.common.Person;
+
+import java.time.LocalDateTime;
+
+/**
+ * 64-bit hash of the content of event: fields compared by Event.equals (all except id).
+ * Equal events always have equal fingerprints, value doesn't depend on JVM run
+ * and on order of attenders or periods.
+ */
+public class EventFingerprint {
+    private final static long SEED = 0x9E3779B97F4A7C15L;
+
+    public static long of(Event event) throws IllegalArgumentException {
+        if (event == null) throw new IllegalArgumentException();
+
+        long hash = SEED;
+        hash = combine(hash, hashOf(event.getTitle()));
+        hash = combine(hash, hashOf(event.getDescription()));
+        hash = combine(hash, hashOf(event.getStartDate()));
+        hash = combine(hash, hashOf(event.getEndDate()));
+
+        long attendersHash = 0;
+        if (event.getAttenders() != null)
+            for (Person attender : event.getAttenders()) attendersHash += mix(hashOf(attender));
+        hash = combine(hash, attendersHash);
+
+        long periods = 0;
+        if (event.getPeriod() != null)
+            for (PeriodOfEvent period : event.getPeriod()) periods |= 1L << period.ordinal();
+        hash = combine(hash, periods);
+
+        return mix(hash);
+    }
+
+    private static long hashOf(Person person) {
+        long hash = SEED;
+        hash = combine(hash, hashOf(person.getName()));
+        hash = combine(hash, hashOf(person.getLastName()));
+        hash = combine(hash, hashOf(person.getEmail()));
+        return hash;
+    }
+
+    private static long hashOf(String value) {
+        if (value == null) return 0;
+        long hash = value.length();
+        for (int i = 0; i < value.length(); i++) hash = hash * 31 + value.charAt(i);
+        return hash;
+    }
+
+    private static long hashOf(LocalDateTime dateTime) {
+        if (dateTime == null) return 0;
+        return dateTime.toLocalDate().toEpochDay() * 86_400_000_000_000L + dateTime.toLocalTime().toNanoOfDay();
+    }
+
+    private static long combine(long hash, long value) {
+        return mix(hash ^ value) * 31 + value;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
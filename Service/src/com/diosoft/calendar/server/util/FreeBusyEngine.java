@@ -0,0 +1,149 @@
+package com.diosoft.calendar.server.util;
+
+import com.diosoft.calendar.server.common.Event;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Searches common free time of several attenders.
+ * Period is divided into slots of fixed duration, busy time of every attender is a bitmap of slots
+ * (bit is set if any event of attender crosses the slot), bitmaps are built in parallel.
+ * Bitmaps are intersected word by word in parallel: 64 slots are checked at once
+ * when all attenders should be free, otherwise busy attenders of every slot are counted.
+ * Cost is O(E + A * S / 64) where E - count of events, A - count of attenders, S - count of slots.
+ */
+public class FreeBusyEngine {
+
+    /**
+     * Search the first slots of given duration when enough attenders are free.
+     * Slots follow each other from start of period without overlapping and are aligned to slot grid.
+     * @param busyByAttender events of every attender, events out of period are ignored
+     * @param startDate start of period and of the slot grid
+     * @param endDate end of period, found slots end not later
+     * @param slotDuration granularity of slot grid
+     * @param duration duration of slot to find
+     * @param minFreeAttenders how many attenders should be free, size of busyByAttender means all
+     * @param count maximal count of slots to find
+     * @return List of slots [start, end] in ascending order
+     */
+    public static List<List<LocalDateTime>> searchCommonFreeSlots(Collection<? extends Collection<Event>> busyByAttender,
+                                                                  LocalDateTime startDate, LocalDateTime endDate,
+                                                                  Duration slotDuration, Duration duration,
+                                                                  int minFreeAttenders, int count) throws IllegalArgumentException {
+        if (busyByAttender == null || startDate == null || endDate == null || slotDuration == null || duration == null)
+            throw new IllegalArgumentException();
+        if (startDate.isAfter(endDate) || slotDuration.getSeconds() < 1 || duration.getSeconds() < 1) throw new IllegalArgumentException();
+        if (minFreeAttenders < 1 || minFreeAttenders > busyByAttender.size() || count < 1) throw new IllegalArgumentException();
+
+        long periodStart = toSeconds(startDate);
+        long periodEnd = toSeconds(endDate);
+        long slot = slotDuration.getSeconds();
+        long slotCount = ceilDiv(periodEnd - periodStart, slot);
+        if (slotCount > Integer.MAX_VALUE) throw new IllegalArgumentException();
+
+        List<long[]> bitmaps = new ArrayList<>(busyByAttender.size());
+        busyByAttender.parallelStream()
+                .map(events -> busyBitmap(events, periodStart, slot, (int) slotCount))
+                .forEachOrdered(bitmaps::add);
+        long[] freeBitmap = intersect(bitmaps, (int) slotCount, busyByAttender.size() - minFreeAttenders);
+
+//  slot of given duration fits into run of free slots of the grid
+        int slotsPerDuration = (int) Math.min(ceilDiv(duration.getSeconds(), slot), Integer.MAX_VALUE);
+        List<List<LocalDateTime>> freeSlotList = new ArrayList<>();
+        int run = 0;
+        for (int i = 0; i < slotCount && freeSlotList.size() < count; i++) {
+            if (i % Long.SIZE == 0 && freeBitmap[i / Long.SIZE] == 0) {
+                run = 0;
+                i += Long.SIZE - 1;
+                continue;
+            }
+            run = isSet(freeBitmap, i) ? run + 1 : 0;
+            if (run < slotsPerDuration) continue;
+            long start = periodStart + (long) (i - slotsPerDuration + 1) * slot;
+            if (start + duration.getSeconds() > periodEnd) break;
+            freeSlotList.add(Arrays.asList(toDate(start), toDate(start + duration.getSeconds())));
+            run = 0;
+        }
+        return freeSlotList;
+    }
+
+    /**
+     * @return bitmap of slots which are crossed by events
+     */
+    static long[] busyBitmap(Collection<Event> events, long periodStart, long slot, int slotCount) {
+        long[] bitmap = new long[words(slotCount)];
+        for (Event event : events) {
+            long start = toSeconds(event.getStartDate()) - periodStart;
+            long end = toSeconds(event.getEndDate()) - periodStart;
+            if (start >= end) continue;
+            long firstSlot = Math.max(Math.floorDiv(start, slot), 0);
+            long lastSlot = Math.min(Math.floorDiv(end - 1, slot), slotCount - 1);
+            if (firstSlot <= lastSlot) setRange(bitmap, (int) firstSlot, (int) lastSlot);
+        }
+        return bitmap;
+    }
+
+    /**
+     * @param maxBusyAttenders slot is free if not more than this count of attenders is busy
+     * @return bitmap of free slots
+     */
+    static long[] intersect(List<long[]> bitmaps, int slotCount, int maxBusyAttenders) {
+        long[] freeBitmap = new long[words(slotCount)];
+        IntStream.range(0, freeBitmap.length).parallel().forEach(word -> {
+            if (maxBusyAttenders == 0) {
+                long busy = 0;
+                for (long[] bitmap : bitmaps) busy |= bitmap[word];
+                freeBitmap[word] = ~busy;
+            } else {
+                int[] busyCount = new int[Long.SIZE];
+                for (long[] bitmap : bitmaps)
+                    for (long bits = bitmap[word]; bits != 0; bits &= bits - 1) busyCount[Long.numberOfTrailingZeros(bits)]++;
+                long free = 0;
+                for (int bit = 0; bit < Long.SIZE; bit++)
+                    if (busyCount[bit] <= maxBusyAttenders) free |= 1L << bit;
+                freeBitmap[word] = free;
+            }
+        });
+        int tail = slotCount % Long.SIZE;
+        if (tail != 0) freeBitmap[freeBitmap.length - 1] &= (1L << tail) - 1;
+        return freeBitmap;
+    }
+
+    private static void setRange(long[] bitmap, int first, int last) {
+        int firstWord = first / Long.SIZE;
+        int lastWord = last / Long.SIZE;
+        long firstMask = -1L << first;
+        long lastMask = -1L >>> (Long.SIZE - 1 - last % Long.SIZE);
+        if (firstWord == lastWord) {
+            bitmap[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        bitmap[firstWord] |= firstMask;
+        for (int word = firstWord + 1; word < lastWord; word++) bitmap[word] = -1L;
+        bitmap[lastWord] |= lastMask;
+    }
+
+    private static boolean isSet(long[] bitmap, int index) {
+        return (bitmap[index / Long.SIZE] & 1L << index) != 0;
+    }
+
+    private static int words(int slotCount) {
+        return (slotCount + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static long toSeconds(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDate(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
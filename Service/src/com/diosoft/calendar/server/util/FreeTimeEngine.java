@@ -0,0 +1,144 @@
+package com.diosoft.calendar.server.util;
+
+import com.diosoft.calendar.server.common.Event;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Searches free time of period between events, cost depends only on count of events, not on length of period.
+ * searchFreeTime makes one sweep over sorted boundaries of events, O(E log E).
+ * Free interval is a gap between busy time of events which is not shorter than minimal duration,
+ * shorter gaps are dropped. If the period itself is shorter than minimal duration, it is free
+ * only if no event comes closer than minimal duration to both its ends.
+ * Boundaries are kept as seconds since epoch in primitive arrays, dates of events have precision of minutes.
+ */
+public class FreeTimeEngine {
+
+    /**
+     * Search free intervals of period
+     * @param events events which can take time of period, other events are ignored
+     * @param startDate start of period
+     * @param endDate end of period
+     * @param minDuration minimal duration of free interval
+     * @return List of free intervals [start, end] in ascending order
+     */
+    public static List<List<LocalDateTime>> searchFreeTime(Collection<Event> events, LocalDateTime startDate, LocalDateTime endDate,
+                                                           Duration minDuration) throws IllegalArgumentException {
+        if (events == null || startDate == null || endDate == null || minDuration == null) throw new IllegalArgumentException();
+        if (startDate.isAfter(endDate)) throw new IllegalArgumentException();
+
+        long periodStart = toSeconds(startDate);
+        long periodEnd = toSeconds(endDate);
+        long minSeconds = minDuration.getSeconds();
+        List<List<LocalDateTime>> freeTimeList = new ArrayList<>();
+
+        if (periodEnd - periodStart < minSeconds) {
+            for (Event event : events)
+                if (toSeconds(event.getStartDate()) < periodStart + minSeconds
+                        && toSeconds(event.getEndDate()) > periodEnd - minSeconds) return freeTimeList;
+            freeTimeList.add(Arrays.asList(startDate, endDate));
+            return freeTimeList;
+        }
+
+        long[] starts = new long[events.size()];
+        long[] ends = new long[events.size()];
+        int count = 0;
+        for (Event event : events) {
+            long start = toSeconds(event.getStartDate());
+            long end = toSeconds(event.getEndDate());
+            if (start >= periodEnd || end <= periodStart) continue;
+            starts[count] = start;
+            ends[count] = end;
+            count++;
+        }
+        Arrays.sort(starts, 0, count);
+        Arrays.sort(ends, 0, count);
+
+//  sweep boundaries in time order (start before end at the same time), free time begins when no event is active
+        long freeStart = periodStart;
+        int active = 0;
+        for (int i = 0, j = 0; i < count || j < count; ) {
+            if (i < count && starts[i] <= ends[j]) {
+                if (active++ == 0) addFreeInterval(freeTimeList, freeStart, starts[i], minSeconds, startDate, endDate, periodStart, periodEnd);
+                i++;
+            } else {
+                if (--active == 0) freeStart = ends[j];
+                j++;
+            }
+        }
+        addFreeInterval(freeTimeList, Math.max(freeStart, periodStart), periodEnd, minSeconds, startDate, endDate, periodStart, periodEnd);
+        return freeTimeList;
+    }
+
+    /**
+     * Search free slots of period and merge adjacent free slots into intervals.
+     * Slots follow each other from start of period, the last slot may end after end of period.
+     * Slot is busy if event crosses it or touches it by zero-length event, so cost depends
+     * only on count of events: every event marks the range of slots it takes, O(E log E).
+     * @param events events which can take time of period, other events are ignored
+     * @param startDate start of period and of the first slot
+     * @param endDate end of period
+     * @param slotDuration duration of one slot
+     * @return List of free intervals [start, end] aligned to slots in ascending order, empty if no slot is free
+     */
+    public static List<List<LocalDateTime>> searchFreeSlots(Collection<Event> events, LocalDateTime startDate, LocalDateTime endDate,
+                                                            Duration slotDuration) throws IllegalArgumentException {
+        if (events == null || startDate == null || endDate == null || slotDuration == null) throw new IllegalArgumentException();
+        if (startDate.isAfter(endDate) || slotDuration.getSeconds() < 1) throw new IllegalArgumentException();
+
+        long periodStart = toSeconds(startDate);
+        long slot = slotDuration.getSeconds();
+        long slotCount = ceilDiv(toSeconds(endDate) - periodStart, slot);
+
+//  busy range of slots is packed into one long: first slot in high bits, last slot in low bits
+        long[] busySlots = new long[events.size()];
+        int count = 0;
+        for (Event event : events) {
+            long start = toSeconds(event.getStartDate()) - periodStart;
+            long end = toSeconds(event.getEndDate()) - periodStart;
+            long firstSlot = start < end ? Math.floorDiv(start, slot) : ceilDiv(start, slot) - 1;
+            long lastSlot = start < end ? Math.floorDiv(end - 1, slot) : Math.floorDiv(start, slot);
+            firstSlot = Math.max(firstSlot, 0);
+            lastSlot = Math.min(lastSlot, slotCount - 1);
+            if (firstSlot > lastSlot) continue;
+            busySlots[count++] = firstSlot << 32 | lastSlot;
+        }
+        Arrays.sort(busySlots, 0, count);
+
+        List<List<LocalDateTime>> freeTimeList = new ArrayList<>();
+        long freeSlot = 0;
+        for (int i = 0; i < count; i++) {
+            long firstSlot = busySlots[i] >>> 32;
+            long lastSlot = busySlots[i] & 0xFFFFFFFFL;
+            if (firstSlot > freeSlot)
+                freeTimeList.add(Arrays.asList(startDate.plusSeconds(freeSlot * slot), startDate.plusSeconds(firstSlot * slot)));
+            freeSlot = Math.max(freeSlot, lastSlot + 1);
+        }
+        if (freeSlot < slotCount)
+            freeTimeList.add(Arrays.asList(startDate.plusSeconds(freeSlot * slot), startDate.plusSeconds(slotCount * slot)));
+        return freeTimeList;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static void addFreeInterval(List<List<LocalDateTime>> freeTimeList, long start, long end, long minSeconds,
+                                        LocalDateTime startDate, LocalDateTime endDate, long periodStart, long periodEnd) {
+        if (start < periodStart || end - start < minSeconds) return;
+        freeTimeList.add(Arrays.asList(
+                start == periodStart ? startDate : toDate(start),
+                end == periodEnd ? endDate : toDate(end)));
+    }
+
+    private static long toSeconds(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDate(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,82 @@
+package com.diosoft.calendar.server.util;
+
+import com.diosoft.calendar.server.common.Event;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Position of cursor in results ordered by start date and id: start date and id of the last event of page.
+ * Next page starts right after this position, so pages don't repeat or skip events which stay in data store
+ * while others are added or removed. Client gets it as opaque string "startDate_id".
+ */
+public class PageToken {
+    public final static Comparator<Event> START_ORDER = Comparator.comparing(Event::getStartDate).thenComparing(Event::getId);
+    private final static char SEPARATOR = '_';
+
+    private final LocalDateTime startDate;
+    private final UUID id;
+
+    public PageToken(LocalDateTime startDate, UUID id) {
+        if (startDate == null || id == null) throw new IllegalArgumentException();
+        this.startDate = startDate;
+        this.id = id;
+    }
+
+    public static PageToken of(Event event) throws IllegalArgumentException {
+        if (event == null) throw new IllegalArgumentException();
+        return new PageToken(event.getStartDate(), event.getId());
+    }
+
+    /**
+     * @param token string made by toString
+     * @return position or null for null token (the first page)
+     * @throws IllegalArgumentException if token is malformed
+     */
+    public static PageToken parse(String token) throws IllegalArgumentException {
+        if (token == null) return null;
+        int separator = token.indexOf(SEPARATOR);
+        if (separator < 0) throw new IllegalArgumentException("Malformed page token: " + token);
+        try {
+            return new PageToken(LocalDateTime.parse(token.substring(0, separator)), UUID.fromString(token.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed page token: " + token, e);
+        }
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @return true if event comes after this position
+     */
+    public boolean precedes(Event event) {
+        int result = event.getStartDate().compareTo(startDate);
+        return result != 0 ? result > 0 : event.getId().compareTo(id) > 0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof PageToken)) return false;
+        PageToken token = (PageToken) obj;
+        return startDate.equals(token.startDate) && id.equals(token.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * startDate.hashCode() + id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return startDate.toString() + SEPARATOR + id;
+    }
+}
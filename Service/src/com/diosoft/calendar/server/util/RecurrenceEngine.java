@@ -0,0 +1,141 @@
+package com.diosoft.calendar.server.util;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes days on which event takes place by rules of PeriodOfEvent.
+ * Event takes place on day D if D is not before start day of event and:
+ * ONCE - D is not after end day of event;
+ * EVERY_DAY - always;
+ * EVERY_MONTH - day of month of D is one of days of month covered by event;
+ * EVERY_YEAR - day and month of D is one of days and months covered by event;
+ * MONDAY..SUNDAY - D is the same day of week.
+ * Next occurrence is calculated directly, so cost doesn't depend on length of the window.
+ */
+public class RecurrenceEngine {
+    private final static int MAX_DAYS_IN_MONTH = 31;
+    private final static int MAX_DAYS_IN_YEAR = 366;
+
+    /**
+     * Search first day not before given day on which event takes place by given rule
+     * @param event
+     * @param period rule of recurrence
+     * @param from first day for search
+     * @return day of occurrence or null if event will never take place since given day
+     */
+    public static LocalDate nextOccurrence(Event event, PeriodOfEvent period, LocalDate from) throws IllegalArgumentException {
+        if (event == null || period == null || from == null) throw new IllegalArgumentException();
+
+        LocalDate startDay = event.getStartDate().toLocalDate();
+        LocalDate endDay = event.getEndDate().toLocalDate();
+        LocalDate day = from.isBefore(startDay) ? startDay : from;
+
+        switch (period) {
+            case ONCE:
+                return day.isAfter(endDay) ? null : day;
+            case EVERY_DAY:
+                return day;
+            case EVERY_MONTH:
+                return nextDayOfMonth(startDay, endDay, day);
+            case EVERY_YEAR:
+                return nextDayOfYear(startDay, endDay, day);
+            default:
+                DayOfWeek dayOfWeek = DayOfWeek.valueOf(period.name());
+                return day.plusDays((dayOfWeek.getValue() - day.getDayOfWeek().getValue() + 7) % 7);
+        }
+    }
+
+    /**
+     * Search first day not before given day on which event takes place by any of its rules
+     * @param event
+     * @param from first day for search
+     * @return day of occurrence or null if event will never take place since given day
+     */
+    public static LocalDate nextOccurrence(Event event, LocalDate from) throws IllegalArgumentException {
+        if (event == null || from == null) throw new IllegalArgumentException();
+
+        LocalDate next = null;
+        for (PeriodOfEvent period : event.getPeriod()) {
+            LocalDate day = nextOccurrence(event, period, from);
+            if (day != null && (next == null || day.isBefore(next))) next = day;
+        }
+        return next;
+    }
+
+    /**
+     * Check whether event takes place at least once in given period of days
+     * @param event
+     * @param startDay first day of period
+     * @param endDay last day of period
+     * @return true or false
+     */
+    public static boolean isOccurIntoPeriod(Event event, LocalDate startDay, LocalDate endDay) throws IllegalArgumentException {
+        if (event == null || startDay == null || endDay == null) throw new IllegalArgumentException();
+
+        LocalDate next = nextOccurrence(event, startDay);
+        return next != null && !next.isAfter(endDay);
+    }
+
+    /**
+     * Search all days of given period on which event takes place
+     * @param event
+     * @param startDay first day of period
+     * @param endDay last day of period
+     * @return List of days in ascending order
+     */
+    public static List<LocalDate> occurrences(Event event, LocalDate startDay, LocalDate endDay) throws IllegalArgumentException {
+        if (event == null || startDay == null || endDay == null) throw new IllegalArgumentException();
+
+        List<LocalDate> days = new ArrayList<>();
+        LocalDate day = nextOccurrence(event, startDay);
+        while (day != null && !day.isAfter(endDay)) {
+            days.add(day);
+            day = nextOccurrence(event, day.plusDays(1));
+        }
+        return days;
+    }
+
+    private static LocalDate nextDayOfMonth(LocalDate startDay, LocalDate endDay, LocalDate from) {
+        if (ChronoUnit.DAYS.between(startDay, endDay) + 1 >= MAX_DAYS_IN_MONTH) return from;
+
+        LocalDate next = null;
+        for (LocalDate day = startDay; !day.isAfter(endDay); day = day.plusDays(1)) {
+            LocalDate candidate = nextDayOfMonth(day.getDayOfMonth(), from);
+            if (next == null || candidate.isBefore(next)) next = candidate;
+        }
+        return next;
+    }
+
+    private static LocalDate nextDayOfMonth(int dayOfMonth, LocalDate from) {
+        LocalDate month = from.withDayOfMonth(1);
+        if (dayOfMonth < from.getDayOfMonth()) month = month.plusMonths(1);
+        while (month.lengthOfMonth() < dayOfMonth) month = month.plusMonths(1);
+        return month.withDayOfMonth(dayOfMonth);
+    }
+
+    private static LocalDate nextDayOfYear(LocalDate startDay, LocalDate endDay, LocalDate from) {
+        if (ChronoUnit.DAYS.between(startDay, endDay) + 1 >= MAX_DAYS_IN_YEAR) return from;
+
+        LocalDate next = null;
+        for (LocalDate day = startDay; !day.isAfter(endDay); day = day.plusDays(1)) {
+            LocalDate candidate = nextDayOfYear(MonthDay.from(day), from);
+            if (next == null || candidate.isBefore(next)) next = candidate;
+        }
+        return next;
+    }
+
+    private static LocalDate nextDayOfYear(MonthDay monthDay, LocalDate from) {
+        int year = from.getYear();
+        if (monthDay.isBefore(MonthDay.from(from))) year++;
+        while (!monthDay.isValidYear(year)) year++;
+        return monthDay.atYear(year);
+    }
+}
@@ -0,0 +1,94 @@
+package com.diosoft.calendar.server.common;
+
+import com.diosoft.calendar.server.datastore.ConcurrentDataStore;
+import com.diosoft.calendar.server.datastore.DataStore;
+import com.diosoft.calendar.server.filesystem.FileSystem;
+import org.junit.Test;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static com.diosoft.calendar.server.common.TestEvents.TEST_PERSON;
+import static com.diosoft.calendar.server.common.TestEvents.createEvent;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class EventSerializationTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Event event = createEvent("Daily Scrum", LocalDateTime.of(2020, 1, 1, 10, 0), PeriodOfEvent.MONDAY, PeriodOfEvent.FRIDAY);
+
+        Event actualEvent = (Event) copy(event);
+
+        assertEquals(event, actualEvent);
+        assertEquals(event.getId(), actualEvent.getId());
+    }
+
+    @Test
+    public void testRoundTripWithNullFieldsAndSeconds() throws Exception {
+        Event event = new Event.EventBuilder()
+                .title("Очень важная встреча")
+                .startDate(LocalDateTime.of(1900, 1, 1, 10, 0, 30, 500))
+                .endDate(LocalDateTime.of(2400, 1, 1, 10, 0))
+                .periodSet(new HashSet<>())
+                .build();
+
+        Event actualEvent = (Event) copy(event);
+
+        assertEquals(event, actualEvent);
+        assertNull(actualEvent.getId());
+        assertNull(actualEvent.getAttenders());
+        assertEquals(new Person.PersonBuilder().name("Ivan").build(), copy(new Person.PersonBuilder().name("Ivan").build()));
+    }
+
+    @Test
+    public void testSharedPersonIsWrittenOnce() throws Exception {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            events.add(createEvent("Event " + i, LocalDateTime.of(2020, 1, 1, 10, 0).plusHours(i), PeriodOfEvent.MONDAY, PeriodOfEvent.FRIDAY));
+
+        @SuppressWarnings("unchecked")
+        List<Event> actualEvents = (List<Event>) copy(events);
+
+        assertEquals(events, actualEvents);
+        Person firstAttender = actualEvents.get(0).getAttenders().iterator().next();
+        for (Event event : actualEvents) assertSame(firstAttender, event.getAttenders().iterator().next());
+        assertTrue(serialize(events).length < 100 * 80);
+    }
+
+    @Test
+    public void testEqualPersonsAreWrittenOnce() throws Exception {
+        DataStore dataStore = new ConcurrentDataStore(mock(FileSystem.class));
+        for (int i = 0; i < 100; i++) {
+            LocalDateTime startDate = LocalDateTime.of(2020, 1, 1, 10, 0).plusHours(i);
+            dataStore.publish(createEvent("Event " + i, startDate, startDate.plusMinutes(15), new Person.PersonBuilder(TEST_PERSON).build(),
+                    PeriodOfEvent.MONDAY, PeriodOfEvent.FRIDAY));
+        }
+        List<Event> events = dataStore.getEventByAttender(TEST_PERSON);
+
+        @SuppressWarnings("unchecked")
+        List<Event> actualEvents = (List<Event>) copy(events);
+
+        assertEquals(100, actualEvents.size());
+        assertEquals(events, actualEvents);
+        Person firstAttender = actualEvents.get(0).getAttenders().iterator().next();
+        for (Event event : actualEvents) assertSame(firstAttender, event.getAttenders().iterator().next());
+        assertTrue(serialize(events).length < 100 * 80);
+    }
+
+    private static Object copy(Object object) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(object)))) {
+            return in.readObject();
+        }
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,54 @@
+package com.diosoft.calendar.server.common;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.UUID;
+
+/**
+ * Events of tests: every event has random id and description made of its title
+ */
+public final class TestEvents {
+    public final static Person TEST_PERSON = new Person.PersonBuilder()
+            .name("Denis")
+            .lastName("Milyaev")
+            .email("denis@ukr.net")
+            .build();
+    public final static LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    private TestEvents() {
+    }
+
+    /**
+     * Event of test person which happens once from 10:00 to 12:00 of the first day
+     */
+    public static Event createEvent(String title) {
+        return createEvent(title, FIRST_DAY, PeriodOfEvent.ONCE);
+    }
+
+    /**
+     * Event of test person from 10:00 to 12:00 of day
+     */
+    public static Event createEvent(String title, LocalDate day, PeriodOfEvent... period) {
+        return createEvent(title, day.atTime(10, 0), period);
+    }
+
+    /**
+     * Event of test person which lasts two hours
+     */
+    public static Event createEvent(String title, LocalDateTime startDate, PeriodOfEvent... period) {
+        return createEvent(title, startDate, startDate.plusHours(2), TEST_PERSON, period);
+    }
+
+    public static Event createEvent(String title, LocalDateTime startDate, LocalDateTime endDate, Person attender, PeriodOfEvent... period) {
+        return new Event.EventBuilder()
+                .id(UUID.randomUUID()).title(title)
+                .description("Description of " + title)
+                .startDate(startDate)
+                .endDate(endDate)
+                .attendersSet(new HashSet<>(Collections.singleton(attender)))
+                .periodSet(new HashSet<>(Arrays.asList(period))).build();
+    }
+}
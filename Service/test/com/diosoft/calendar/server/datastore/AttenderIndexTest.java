@@ -0,0 +1,141 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.common.Person;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class AttenderIndexTest {
+    private final static LocalDateTime BASE = LocalDateTime.of(2020, 10, 15, 15, 0);
+
+    private final Person testPerson = new Person.PersonBuilder()
+            .name("Denis")
+            .lastName("Milyaev")
+            .email("denis@ukr.net")
+            .build();
+
+    private final Map<UUID, Event> eventStore = new HashMap<>();
+    private final AttenderIndex index = new AttenderIndex(testPerson);
+
+    @Test
+    public void testSearch() {
+        Event birthday = add(BASE, BASE.plusHours(5), PeriodOfEvent.ONCE);
+        Event newYear = add(LocalDateTime.of(2020, 12, 31, 20, 0), LocalDateTime.of(2021, 1, 1, 12, 0), PeriodOfEvent.ONCE);
+
+        assertEquals(Collections.emptyList(), index.search(BASE.plusHours(5), newYear.getStartDate().minusMinutes(1), eventStore::get));
+        assertEquals(Arrays.asList(birthday), index.search(BASE.minusDays(25), BASE.plusMinutes(45), eventStore::get));
+        assertEquals(Arrays.asList(birthday, newYear), index.search(BASE.plusHours(3), newYear.getStartDate().plusHours(1), eventStore::get));
+        assertEquals(Arrays.asList(birthday), index.search(BASE.plusHours(1), BASE.plusHours(2), eventStore::get));
+        assertEquals(Arrays.asList(birthday, newYear), index.getAll().stream().map(eventStore::get).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testSearchRecurringEvent() {
+        Event mondayMeeting = add(LocalDateTime.of(2020, 10, 12, 10, 0), LocalDateTime.of(2020, 10, 12, 11, 0), PeriodOfEvent.MONDAY);
+        Event nightShift = add(LocalDateTime.of(2020, 10, 1, 23, 0), LocalDateTime.of(2020, 10, 2, 7, 0), PeriodOfEvent.EVERY_DAY);
+
+        assertEquals(Arrays.asList(mondayMeeting), index.search(LocalDateTime.of(2020, 11, 2, 10, 30), LocalDateTime.of(2020, 11, 2, 12, 0), eventStore::get));
+        assertEquals(Collections.emptyList(), index.search(LocalDateTime.of(2020, 11, 3, 10, 30), LocalDateTime.of(2020, 11, 3, 12, 0), eventStore::get));
+        assertEquals(Collections.emptyList(), index.search(LocalDateTime.of(2020, 10, 5, 10, 0), LocalDateTime.of(2020, 10, 5, 11, 0), eventStore::get));
+        assertEquals(Arrays.asList(nightShift), index.search(LocalDateTime.of(2020, 11, 3, 6, 0), LocalDateTime.of(2020, 11, 3, 8, 0), eventStore::get));
+        assertTrue(index.isAnyIntoPeriod(LocalDateTime.of(2020, 11, 9, 9, 0), LocalDateTime.of(2020, 11, 9, 10, 30), eventStore::get));
+        assertFalse(index.isAnyIntoPeriod(LocalDateTime.of(2020, 11, 9, 8, 0), LocalDateTime.of(2020, 11, 9, 9, 0), eventStore::get));
+    }
+
+    @Test
+    public void testRemove() {
+        Event event = add(BASE, BASE.plusHours(1), PeriodOfEvent.EVERY_DAY);
+
+        index.remove(event);
+
+        assertTrue(index.isEmpty());
+        assertFalse(index.isAnyIntoPeriod(BASE.plusDays(1), BASE.plusDays(1).plusHours(1), eventStore::get));
+    }
+
+    @Test
+    public void testSearchAgainstLinearScan() {
+        Random random = new Random(42);
+        for (int i = 0; i < 3000; i++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(200_000));
+            add(start, start.plusMinutes(random.nextInt(random.nextBoolean() ? 120 : 5000)), PeriodOfEvent.ONCE);
+        }
+        for (int i = 0; i < 20; i++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(200_000));
+            add(start, start.plusMinutes(random.nextInt(120)), PeriodOfEvent.values()[1 + random.nextInt(PeriodOfEvent.values().length - 1)]);
+        }
+
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime from = BASE.plusMinutes(random.nextInt(250_000));
+            LocalDateTime to = from.plusMinutes(random.nextInt(300));
+            Set<Event> expected = new HashSet<>();
+            for (Event event : eventStore.values())
+                if (event.getPeriod().contains(PeriodOfEvent.ONCE)
+                        && AttenderIndex.isCrossing(event.getStartDate(), event.getEndDate(), from, to)) expected.add(event);
+
+            List<Event> found = index.search(from, to, eventStore::get);
+            Set<Event> foundOnce = new HashSet<>();
+            for (Event event : found)
+                if (event.getPeriod().contains(PeriodOfEvent.ONCE)) foundOnce.add(event);
+
+            assertEquals(expected, foundOnce);
+            assertEquals(!found.isEmpty(), index.isAnyIntoPeriod(from, to, eventStore::get));
+        }
+    }
+
+    @Test
+    public void testSearchRecurringAgainstLinearScan() {
+        Random random = new Random(7);
+        List<Event> recurring = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(1_000_000));
+            int minutes = random.nextInt(10) == 0 ? random.nextInt(60 * 24 * 400) : random.nextInt(600);
+            recurring.add(add(start, start.plusMinutes(minutes), PeriodOfEvent.values()[1 + random.nextInt(PeriodOfEvent.values().length - 1)]));
+        }
+        for (int i = 0; i < 100; i++) index.remove(eventStore.remove(recurring.remove(random.nextInt(recurring.size())).getId()));
+        AttenderIndex merged = new AttenderIndex(testPerson);
+        merged.addAll(index);
+
+        assertEquals(recurring.size(), index.recurringSize());
+        assertEquals(recurring.size(), merged.recurringSize());
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime from = BASE.plusMinutes(random.nextInt(1_500_000));
+            LocalDateTime to = from.plusMinutes(random.nextInt(random.nextBoolean() ? 300 : 60 * 24 * 40));
+            Set<Event> expected = new HashSet<>();
+            for (Event event : recurring) {
+                if (AttenderIndex.isCrossing(event.getStartDate(), event.getEndDate(), from, to)) expected.add(event);
+                Duration duration = Duration.between(event.getStartDate(), event.getEndDate());
+                for (LocalDate day = AttenderIndex.nextRecurrence(event, from.minus(duration).toLocalDate()); day != null && !day.isAfter(to.toLocalDate());
+                     day = AttenderIndex.nextRecurrence(event, day.plusDays(1)))
+                    if (AttenderIndex.isCrossing(day.atTime(event.getStartDate().toLocalTime()), day.atTime(event.getStartDate().toLocalTime()).plus(duration), from, to)) {
+                        expected.add(event);
+                        break;
+                    }
+            }
+
+            assertEquals(expected, new HashSet<>(index.search(from, to, eventStore::get)));
+            assertEquals(expected, new HashSet<>(merged.search(from, to, eventStore::get)));
+            assertEquals(!expected.isEmpty(), index.isAnyIntoPeriod(from, to, eventStore::get));
+        }
+    }
+
+    private Event add(LocalDateTime startDate, LocalDateTime endDate, PeriodOfEvent period) {
+        Event event = new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Event " + startDate + " " + endDate)
+                .description("Description")
+                .startDate(startDate)
+                .endDate(endDate)
+                .attendersSet(new HashSet<>())
+                .periodSet(new HashSet<>(Collections.singleton(period))).build();
+        eventStore.put(event.getId(), event);
+        index.add(event);
+        return event;
+    }
+}
@@ -0,0 +1,145 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.filesystem.FileSystem;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static com.diosoft.calendar.server.common.TestEvents.TEST_PERSON;
+import static com.diosoft.calendar.server.common.TestEvents.createEvent;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class AvailabilityCacheTest {
+    private final static LocalDate FIRST_DAY = LocalDate.of(2020, 10, 12);
+    private final static int HORIZON_DAYS = 28;
+
+    private final AvailabilityCache cache = new AvailabilityCache(FIRST_DAY, HORIZON_DAYS);
+    private final DataStore dataStore = new DataStoreImpl(mock(FileSystem.class), cache);
+
+    @Test
+    public void testIsFree() throws Exception {
+        LocalDateTime start = FIRST_DAY.atTime(10, 0);
+        dataStore.publish(createEvent("Meeting", start, start.plusMinutes(50), TEST_PERSON, PeriodOfEvent.ONCE));
+
+        assertFalse(cache.isFree(TEST_PERSON, start.plusMinutes(45), start.plusHours(2)));
+        assertFalse(cache.isFree(TEST_PERSON, start.minusHours(1), start));
+        assertTrue(cache.isFree(TEST_PERSON, start.plusHours(1), start.plusHours(3)));
+        assertTrue(cache.isFree(TEST_PERSON, FIRST_DAY.atStartOfDay(), start.minusMinutes(15)));
+        assertFalse(cache.isFree(TEST_PERSON, start.minusDays(2), start.minusDays(1)));
+        assertFalse(cache.isFree(TEST_PERSON, FIRST_DAY.plusDays(HORIZON_DAYS).atTime(10, 0), FIRST_DAY.plusDays(HORIZON_DAYS).atTime(11, 0)));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        LocalDateTime start = FIRST_DAY.plusDays(3).atTime(10, 0);
+        Event meeting = createEvent("Meeting", start, start.plusHours(2), TEST_PERSON, PeriodOfEvent.ONCE);
+        Event call = createEvent("Call", start.plusHours(1), start.plusHours(3), TEST_PERSON, PeriodOfEvent.ONCE);
+        dataStore.publish(meeting);
+        dataStore.publish(call);
+
+        dataStore.remove(call.getId());
+
+        assertFalse(cache.isFree(TEST_PERSON, start.plusMinutes(90), start.plusMinutes(105)));
+        assertTrue(cache.isFree(TEST_PERSON, start.plusHours(2), start.plusHours(3)));
+
+        dataStore.remove(meeting.getId());
+
+        assertTrue(cache.isFree(TEST_PERSON, start, start.plusHours(3)));
+    }
+
+    @Test
+    public void testRecurringEvent() throws Exception {
+        LocalDateTime start = FIRST_DAY.atTime(9, 0);
+        Event standUp = createEvent("Stand-up", start, start.plusMinutes(15), TEST_PERSON, PeriodOfEvent.MONDAY);
+        dataStore.publish(standUp);
+
+        for (int week = 0; week < HORIZON_DAYS / 7; week++) {
+            assertFalse(cache.isFree(TEST_PERSON, start.plusWeeks(week), start.plusWeeks(week).plusMinutes(10)));
+            assertTrue(cache.isFree(TEST_PERSON, start.plusWeeks(week).plusDays(1), start.plusWeeks(week).plusDays(1).plusMinutes(10)));
+        }
+
+        dataStore.remove(standUp.getId());
+
+        assertTrue(cache.isFree(TEST_PERSON, start.plusWeeks(2), start.plusWeeks(2).plusMinutes(10)));
+    }
+
+    @Test
+    public void testIsAttenderBusyEqualsWithoutCache() throws Exception {
+        DataStore dataStoreWithoutCache = new DataStoreImpl(mock(FileSystem.class));
+        Random random = new Random(42);
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime start = FIRST_DAY.atStartOfDay().plusMinutes(5 * random.nextInt(HORIZON_DAYS * 24 * 12));
+            PeriodOfEvent period = random.nextInt(10) == 0 ? PeriodOfEvent.values()[1 + random.nextInt(PeriodOfEvent.values().length - 1)] : PeriodOfEvent.ONCE;
+            Event event = createEvent("Event " + i, start, start.plusMinutes(5 * random.nextInt(36)), TEST_PERSON, period);
+            events.add(event);
+            dataStore.publish(event);
+            dataStoreWithoutCache.publish(event);
+        }
+        for (int i = 0; i < 100; i++) {
+            Event event = events.remove(random.nextInt(events.size()));
+            dataStore.remove(event.getId());
+            dataStoreWithoutCache.remove(event.getId());
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime from = FIRST_DAY.atStartOfDay().plusMinutes(5 * random.nextInt((HORIZON_DAYS + 2) * 24 * 12));
+            LocalDateTime to = from.plusMinutes(5 * random.nextInt(48));
+            assertEquals(dataStoreWithoutCache.isAttenderBusy(TEST_PERSON, from, to), dataStore.isAttenderBusy(TEST_PERSON, from, to));
+        }
+    }
+
+    @Test
+    public void testMemoryFootprint() throws Exception {
+        assertEquals(0, cache.getMemoryFootprint());
+
+        dataStore.publish(createEvent("Meeting", FIRST_DAY.atTime(10, 0), FIRST_DAY.atTime(11, 0), TEST_PERSON, PeriodOfEvent.ONCE));
+
+        assertEquals(1, cache.getAttenderCount());
+        assertTrue(cache.getMemoryFootprint() >= HORIZON_DAYS * AvailabilityCache.SLOTS_PER_DAY / Byte.SIZE);
+    }
+
+    @Test
+    public void testHorizonDoesNotMove() throws Exception {
+        LocalDateTime afterHorizon = FIRST_DAY.plusDays(HORIZON_DAYS + 7).atTime(10, 0);
+        dataStore.publish(createEvent("Meeting", afterHorizon, afterHorizon.plusHours(1), TEST_PERSON, PeriodOfEvent.ONCE));
+
+        assertFalse(cache.isFree(TEST_PERSON, afterHorizon.plusHours(2), afterHorizon.plusHours(3)));
+        assertTrue(dataStore.isAttenderBusy(TEST_PERSON, afterHorizon, afterHorizon.plusMinutes(30)));
+        assertFalse(dataStore.isAttenderBusy(TEST_PERSON, afterHorizon.plusHours(2), afterHorizon.plusHours(3)));
+        assertTrue(cache.toString().contains("firstDay=" + FIRST_DAY));
+    }
+
+    @Test
+    public void testConcurrentPublishAndRemove() throws Exception {
+        AvailabilityCache concurrentCache = new AvailabilityCache(FIRST_DAY, HORIZON_DAYS);
+        DataStore concurrentStore = new ConcurrentDataStore(mock(FileSystem.class), concurrentCache);
+        LocalDateTime start = FIRST_DAY.plusDays(1).atTime(10, 0);
+        List<Event> kept = new ArrayList<>();
+        for (int i = 0; i < 200; i++) kept.add(createEvent("Kept " + i, start.plusMinutes(15 * (i % 32)), start.plusMinutes(15 * (i % 32) + 15), TEST_PERSON, PeriodOfEvent.ONCE));
+
+        Thread publisher = new Thread(() -> {
+            try {
+                for (Event event : kept) concurrentStore.publish(event);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        publisher.start();
+        for (int i = 0; i < 200; i++) {
+            Event temporary = createEvent("Temporary " + i, start, start.plusHours(8), TEST_PERSON, PeriodOfEvent.ONCE);
+            concurrentStore.publish(temporary);
+            concurrentStore.remove(temporary.getId());
+        }
+        publisher.join();
+
+        for (int slot = 0; slot < 32; slot++)
+            assertFalse(concurrentCache.isFree(TEST_PERSON, start.plusMinutes(15 * slot), start.plusMinutes(15 * slot + 10)));
+        assertTrue(concurrentCache.isFree(TEST_PERSON, start.plusHours(8), start.plusHours(9)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.filesystem.FileSystem;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import static com.diosoft.calendar.server.common.TestEvents.TEST_PERSON;
+import static com.diosoft.calendar.server.common.TestEvents.createEvent;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class BulkLoaderTest {
+    private final static int EVENTS = 20_000;
+    private final static LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    private FileSystem mockFileSystem;
+    private List<Event> events;
+
+    @Before
+    public void setUp() throws Exception {
+        mockFileSystem = mock(FileSystem.class);
+        events = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(createEvent("Event " + i, FIRST_DAY.plusDays(i % 100), PeriodOfEvent.ONCE));
+            if (i % 10 == 0) events.add(createEvent("Event " + i, FIRST_DAY.plusDays(i % 100), PeriodOfEvent.ONCE));
+        }
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Consumer<Event> consumer = (Consumer<Event>) invocation.getArguments()[0];
+            events.parallelStream().forEach(consumer);
+            return null;
+        }).when(mockFileSystem).readAllEvents(Matchers.<Consumer<Event>>any());
+    }
+
+    @Test
+    public void testLoadIntoPartitions() throws Exception {
+
+        DataStoreImpl dataStore = new DataStoreImpl(mockFileSystem);
+        dataStore.initDataStoreFromXMLResources();
+
+        assertEquals(EVENTS, dataStore.getEventByAttender(TEST_PERSON).size());
+        assertEquals(EVENTS, dataStore.searchEventByTitleStartWith("Event ").size());
+        assertEquals(EVENTS / 100, dataStore.getEventByDay(FIRST_DAY).size());
+        assertEquals(1, dataStore.searchEventByTitleStartWith("Event 9990").size());
+    }
+
+    @Test
+    public void testLoadIntoConcurrentDataStore() throws Exception {
+
+        ConcurrentDataStore dataStore = new ConcurrentDataStore(mockFileSystem);
+        dataStore.initDataStoreFromXMLResources();
+
+        assertEquals(EVENTS, dataStore.getEventByAttender(TEST_PERSON).size());
+        assertEquals(EVENTS / 100, dataStore.getEventByDay(FIRST_DAY).size());
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+
+        List<Event> indexed = Collections.synchronizedList(new ArrayList<>());
+        BulkLoader.Statistics statistics = new BulkLoader(mockFileSystem, 3)
+                .load(() -> indexed, List::add, partition -> { });
+
+        assertEquals(events.size(), statistics.getParsed());
+        assertEquals(events.size() - EVENTS, statistics.getDuplicates());
+        assertEquals(EVENTS, statistics.getIndexed());
+        assertEquals(EVENTS, new HashSet<>(indexed).size());
+    }
+
+    @Test(expected = ExecutionException.class)
+    public void testFailureOfIndexingStopsLoading() throws Exception {
+
+        new BulkLoader(mockFileSystem, 2).load(() -> null, (partition, event) -> {
+            throw new IllegalStateException();
+        }, partition -> { });
+    }
+}
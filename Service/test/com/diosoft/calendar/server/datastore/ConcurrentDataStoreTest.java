@@ -0,0 +1,252 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.filesystem.FileSystem;
+import com.diosoft.calendar.server.util.PageToken;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.diosoft.calendar.server.common.TestEvents.TEST_PERSON;
+import static com.diosoft.calendar.server.common.TestEvents.createEvent;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ConcurrentDataStoreTest {
+    private final static int THREADS = 32;
+    private final static int EVENTS_PER_THREAD = 200;
+    private final static LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    private DataStore dataStore;
+
+    @Before
+    public void setUp() {
+        dataStore = new ConcurrentDataStore(mock(FileSystem.class));
+    }
+
+    @Test
+    public void testConcurrentPublishAndRead() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS * 2);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < EVENTS_PER_THREAD; i++)
+                    dataStore.publish(createEvent("Event " + thread + "-" + i, FIRST_DAY.plusDays(i % 30), PeriodOfEvent.ONCE));
+                return null;
+            }));
+            readers.add(executor.submit(() -> {
+                while (writing.get())
+                    for (int day = 0; day < 30; day++) {
+                        LocalDate date = FIRST_DAY.plusDays(day);
+                        for (Event event : dataStore.getEventByDay(date)) {
+                            assertNotNull(event);
+                            assertFalse(event.getStartDate().toLocalDate().isAfter(date));
+                            assertFalse(event.getEndDate().toLocalDate().isBefore(date));
+                        }
+                    }
+                return null;
+            }));
+        }
+
+        for (Future<?> writer : writers) writer.get();
+        writing.set(false);
+        for (Future<?> reader : readers) reader.get();
+        executor.shutdown();
+
+        assertEquals(THREADS * EVENTS_PER_THREAD, dataStore.getEventByAttender(TEST_PERSON).size());
+        assertEquals(THREADS * EVENTS_PER_THREAD, dataStore.searchEventByTitleStartWith("Event ").size());
+        int expectedOnFirstDay = THREADS * ((EVENTS_PER_THREAD + 29) / 30);
+        assertEquals(expectedOnFirstDay, dataStore.getEventByDay(FIRST_DAY).size());
+    }
+
+    @Test
+    public void testConcurrentPublishAndRemove() throws Exception {
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < THREADS * EVENTS_PER_THREAD; i++)
+            events.add(createEvent("Event " + i, FIRST_DAY.plusDays(i % 10), PeriodOfEvent.ONCE, PeriodOfEvent.EVERY_MONTH));
+        for (Event event : events) dataStore.publish(event);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = thread; i < events.size(); i += THREADS) {
+                    assertEquals(events.get(i), dataStore.remove(events.get(i).getId()));
+                    dataStore.publish(createEvent("New event " + i, FIRST_DAY, PeriodOfEvent.EVERY_DAY));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        assertTrue(dataStore.searchEventByTitleStartWith("Event ").isEmpty());
+        assertEquals(events.size(), dataStore.getEventByAttender(TEST_PERSON).size());
+        assertEquals(events.size(), dataStore.getEventByDay(FIRST_DAY.plusDays(5)).size());
+    }
+
+    @Test
+    public void testConcurrentPublishOfDuplicates() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++)
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < EVENTS_PER_THREAD; i++)
+                    dataStore.publish(createEvent("Duplicate " + i, FIRST_DAY, PeriodOfEvent.ONCE));
+                return null;
+            }));
+        start.countDown();
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        assertEquals(EVENTS_PER_THREAD, dataStore.searchEventByTitleStartWith("Duplicate ").size());
+    }
+
+    @Test
+    public void testConcurrentPublishAllAndRemoveAll() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                List<Event> events = new ArrayList<>();
+                for (int i = 0; i < EVENTS_PER_THREAD; i++)
+                    events.add(createEvent("Batch " + thread + " " + i, FIRST_DAY.plusDays(i % 10), PeriodOfEvent.ONCE));
+                assertFalse(dataStore.publishAll(events).contains(false));
+
+                List<UUID> ids = new ArrayList<>();
+                for (int i = 0; i < EVENTS_PER_THREAD; i += 2) ids.add(events.get(i).getId());
+                assertFalse(dataStore.removeAll(ids).contains(null));
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        assertEquals(THREADS * EVENTS_PER_THREAD / 2, dataStore.searchEventByTitleStartWith("Batch ").size());
+        assertEquals(THREADS * EVENTS_PER_THREAD / 2, dataStore.getEventByAttender(TEST_PERSON).size());
+    }
+
+    @Test
+    public void testPagesAreStableWhileEventsChange() throws Exception {
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < EVENTS_PER_THREAD * 5; i++) events.add(createEvent("Stable " + i, FIRST_DAY.plusDays(i % 60), PeriodOfEvent.ONCE));
+        dataStore.publishAll(events);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicBoolean paging = new AtomicBoolean(true);
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; paging.get(); i++) {
+                Event event = createEvent("Changing " + i, FIRST_DAY.plusDays(i % 60), PeriodOfEvent.ONCE);
+                dataStore.publish(event);
+                if (i % 2 == 0) dataStore.remove(event.getId());
+            }
+            return null;
+        });
+
+        Set<UUID> stableIds = new HashSet<>();
+        List<Event> found = new ArrayList<>();
+        PageToken after = null;
+        for (List<Event> page; !(page = dataStore.getEventIntoPeriod(FIRST_DAY, FIRST_DAY.plusDays(60), after, 10)).isEmpty(); after = PageToken.of(page.get(page.size() - 1)))
+            found.addAll(page);
+        paging.set(false);
+        writer.get();
+        executor.shutdown();
+
+        for (int i = 1; i < found.size(); i++) assertTrue(PageToken.START_ORDER.compare(found.get(i - 1), found.get(i)) < 0);
+        for (Event event : found)
+            if (event.getTitle().startsWith("Stable ")) assertTrue(stableIds.add(event.getId()));
+        assertEquals(events.size(), stableIds.size());
+    }
+
+    @Test
+    public void testFailedWriteIsNotAcknowledged() throws Exception {
+
+        FileSystem fileSystem = mock(FileSystem.class);
+        dataStore = new ConcurrentDataStore(fileSystem);
+        Event event = createEvent("TestEvent", FIRST_DAY, PeriodOfEvent.ONCE);
+        doThrow(new IOException("Disk is full")).when(fileSystem).write(event);
+        try {
+            dataStore.publish(event);
+            fail("Event is acknowledged but not written");
+        } catch (IOException e) {
+            assertNull(dataStore.getEventById(event.getId()));
+            assertTrue(dataStore.getEventByDay(FIRST_DAY).isEmpty());
+        }
+
+        doNothing().when(fileSystem).write(event);
+        dataStore.publish(event);
+        doThrow(new IOException("Disk is full")).when(fileSystem).delete(event.getId());
+        try {
+            dataStore.remove(event.getId());
+            fail("Removal is acknowledged but not written");
+        } catch (IOException e) {
+            assertEquals(event, dataStore.getEventById(event.getId()));
+            assertEquals(Collections.singletonList(event), dataStore.getEventByAttender(TEST_PERSON));
+        }
+    }
+
+    @Test
+    public void testFailedBatchIsNotAcknowledged() throws Exception {
+
+        FileSystem fileSystem = mock(FileSystem.class);
+        dataStore = new ConcurrentDataStore(fileSystem);
+        List<Event> events = Arrays.asList(createEvent("First", FIRST_DAY, PeriodOfEvent.ONCE),
+                createEvent("Second", FIRST_DAY, PeriodOfEvent.EVERY_DAY));
+        doThrow(new IOException("Disk is full")).when(fileSystem).writeAll(events);
+        try {
+            dataStore.publishAll(events);
+            fail("Events are acknowledged but not written");
+        } catch (IOException e) {
+            assertTrue(dataStore.getEventByAttender(TEST_PERSON).isEmpty());
+            assertTrue(dataStore.getEventByDay(FIRST_DAY).isEmpty());
+        }
+
+        doNothing().when(fileSystem).writeAll(events);
+        dataStore.publishAll(events);
+        List<UUID> ids = Arrays.asList(events.get(0).getId(), events.get(1).getId());
+        doThrow(new IOException("Disk is full")).when(fileSystem).deleteAll(ids);
+        try {
+            dataStore.removeAll(ids);
+            fail("Removal is acknowledged but not written");
+        } catch (IOException e) {
+            assertEquals(new HashSet<>(events), new HashSet<>(dataStore.getEventByAttender(TEST_PERSON)));
+            assertEquals(new HashSet<>(events), new HashSet<>(dataStore.getEventByDay(FIRST_DAY)));
+        }
+    }
+
+    @Test
+    public void testSearchIgnoringCaseDoesNotDependOnDefaultLocale() throws Exception {
+
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            Event event = createEvent("TITLE", FIRST_DAY, PeriodOfEvent.ONCE);
+            dataStore.publish(event);
+
+            assertEquals(Collections.singletonList(event), dataStore.searchEventByTitleStartWith("title", true, 0, 10));
+            dataStore.remove(event.getId());
+            assertEquals(Collections.emptyList(), dataStore.searchEventByTitleStartWith("title", true, 0, 10));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
@@ -4,16 +4,23 @@ import com.diosoft.calendar.server.common.Event;
 import com.diosoft.calendar.server.common.PeriodOfEvent;
 import com.diosoft.calendar.server.common.Person;
 import com.diosoft.calendar.server.filesystem.FileSystem;
+import com.diosoft.calendar.server.util.PageToken;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Matchers;
 
 import javax.xml.bind.JAXBException;
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 public class DataStoreImplTest {
@@ -64,6 +71,45 @@ public class DataStoreImplTest {
         verify(mockFileSystem, never()).write(testEvent);
     }
 
+    @Test
+    public void testPublishDuplicate() throws IllegalArgumentException, IOException, JAXBException {
+
+        attenders.add(testPerson);
+        Event duplicateEvent = new Event.EventBuilder(testEvent).id(UUID.randomUUID()).build();
+
+        dataStore.publish(testEvent);
+        dataStore.publish(duplicateEvent);
+
+        assertNull(dataStore.getEventById(duplicateEvent.getId()));
+        verify(mockFileSystem).write(testEvent);
+
+        dataStore.remove(testEvent.getId());
+        dataStore.publish(duplicateEvent);
+        assertEquals(duplicateEvent, dataStore.getEventById(duplicateEvent.getId()));
+    }
+
+    @Test
+    public void testInitDataStoreWithDuplicates() throws Exception {
+
+        attenders.add(testPerson);
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(new Event.EventBuilder(testEvent).id(UUID.randomUUID()).build());
+            events.add(new Event.EventBuilder(testEvent).id(UUID.randomUUID()).title("TestEvent " + i).build());
+        }
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Consumer<Event> consumer = (Consumer<Event>) invocation.getArguments()[0];
+            events.parallelStream().forEach(consumer);
+            return null;
+        }).when(mockFileSystem).readAllEvents(Matchers.<Consumer<Event>>any());
+
+        DataStoreImpl dataStoreImpl = new DataStoreImpl(mockFileSystem);
+        dataStoreImpl.initDataStoreFromXMLResources();
+
+        assertEquals(101, dataStoreImpl.searchEventByTitleStartWith("TestEvent").size());
+    }
+
     @Test
     public void testRemove() throws IllegalArgumentException, IOException, JAXBException {
 
@@ -77,6 +123,72 @@ public class DataStoreImplTest {
         verify(mockFileSystem).delete(testEvent.getId());
     }
 
+    @Test
+    public void testFailedWriteIsNotAcknowledged() throws IllegalArgumentException, IOException, JAXBException {
+
+        attenders.add(testPerson);
+        doThrow(new IOException("Disk is full")).when(mockFileSystem).write(testEvent);
+        try {
+            dataStore.publish(testEvent);
+            fail("Event is acknowledged but not written");
+        } catch (IOException e) {
+            assertNull(dataStore.getEventById(testEvent.getId()));
+            assertTrue(dataStore.getEventByTitle(testEvent.getTitle()).isEmpty());
+        }
+
+        doNothing().when(mockFileSystem).write(testEvent);
+        dataStore.publish(testEvent);
+        doThrow(new IOException("Disk is full")).when(mockFileSystem).delete(testEvent.getId());
+        try {
+            dataStore.remove(testEvent.getId());
+            fail("Removal is acknowledged but not written");
+        } catch (IOException e) {
+            assertEquals(testEvent, dataStore.getEventById(testEvent.getId()));
+            assertEquals(Collections.singletonList(testEvent), dataStore.getEventByAttender(testPerson));
+        }
+    }
+
+    @Test
+    public void testFailedBatchIsNotAcknowledged() throws IllegalArgumentException, IOException, JAXBException {
+
+        attenders.add(testPerson);
+        Event otherEvent = new Event.EventBuilder(testEvent).id(UUID.randomUUID()).title("OtherEvent").build();
+        List<Event> events = Arrays.asList(testEvent, otherEvent);
+        doThrow(new IOException("Disk is full")).when(mockFileSystem).writeAll(events);
+        try {
+            dataStore.publishAll(events);
+            fail("Events are acknowledged but not written");
+        } catch (IOException e) {
+            assertTrue(dataStore.getEventByAttender(testPerson).isEmpty());
+        }
+
+        doNothing().when(mockFileSystem).writeAll(events);
+        dataStore.publishAll(events);
+        List<UUID> ids = Arrays.asList(testEvent.getId(), otherEvent.getId());
+        doThrow(new IOException("Disk is full")).when(mockFileSystem).deleteAll(ids);
+        try {
+            dataStore.removeAll(ids);
+            fail("Removal is acknowledged but not written");
+        } catch (IOException e) {
+            assertEquals(otherEvent, dataStore.getEventById(otherEvent.getId()));
+            assertEquals(2, dataStore.getEventByAttender(testPerson).size());
+        }
+    }
+
+    @Test
+    public void testEqualAttendersAreShared() throws IllegalArgumentException, IOException, JAXBException {
+
+        attenders.add(testPerson);
+        Event otherEvent = new Event.EventBuilder(testEvent).id(UUID.randomUUID()).title("OtherEvent")
+                .attendersSet(new HashSet<>(Collections.singleton(new Person.PersonBuilder(testPerson).build()))).build();
+        dataStore.publish(testEvent);
+        dataStore.publish(otherEvent);
+
+        Event actualEvent = dataStore.getEventById(otherEvent.getId());
+        assertEquals(otherEvent, actualEvent);
+        assertTrue(testPerson == actualEvent.getAttenders().iterator().next());
+    }
+
     @Test
     public void testRemoveNotExistsEvent() throws IllegalArgumentException, JAXBException, IOException {
 
@@ -92,6 +204,37 @@ public class DataStoreImplTest {
         verify(mockFileSystem, never()).delete(null);
     }
 
+    @Test
+    public void testPublishAll() throws IllegalArgumentException, IOException, JAXBException {
+
+        attenders.add(testPerson);
+        Event otherEvent = new Event.EventBuilder(testEvent).id(UUID.randomUUID()).title("OtherEvent").build();
+        Event duplicateEvent = new Event.EventBuilder(testEvent).id(UUID.randomUUID()).build();
+
+        List<Boolean> results = dataStore.publishAll(Arrays.asList(testEvent, otherEvent, duplicateEvent));
+
+        assertEquals(Arrays.asList(true, true, false), results);
+        assertEquals(otherEvent, dataStore.getEventById(otherEvent.getId()));
+        assertNull(dataStore.getEventById(duplicateEvent.getId()));
+        verify(mockFileSystem).writeAll(Arrays.asList(testEvent, otherEvent));
+        verify(mockFileSystem, never()).write(any(Event.class));
+    }
+
+    @Test
+    public void testRemoveAll() throws IllegalArgumentException, IOException, JAXBException {
+
+        attenders.add(testPerson);
+        dataStore.publish(testEvent);
+        UUID notExistsId = UUID.randomUUID();
+
+        List<Event> removedEvents = dataStore.removeAll(Arrays.asList(testEvent.getId(), notExistsId));
+
+        assertEquals(Arrays.asList(testEvent, null), removedEvents);
+        assertNull(dataStore.getEventById(testEvent.getId()));
+        verify(mockFileSystem).deleteAll(Collections.singletonList(testEvent.getId()));
+        verify(mockFileSystem, never()).delete(any(UUID.class));
+    }
+
     @Test
     public void testGetEventById() throws IllegalArgumentException, IOException, JAXBException {
 
@@ -250,6 +393,143 @@ public class DataStoreImplTest {
         dataStore.getEventByDay(null);
     }
 
+    @Test
+    public void testGetEventIntoPeriod() throws IllegalArgumentException, IOException, JAXBException {
+
+        attenders.add(testPerson);
+
+        Set<PeriodOfEvent> periodOnce = new HashSet<>();
+        periodOnce.add(PeriodOfEvent.ONCE);
+        Event eventLong = new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Vacation")
+                .description("Long vacation")
+                .startDate(LocalDateTime.of(2020, 1, 1, 8, 0))
+                .endDate(LocalDateTime.of(2020, 6, 1, 10, 0))
+                .periodSet(periodOnce)
+                .attendersSet(attenders).build();
+
+        Event eventBefore = new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Event")
+                .description("Event before period")
+                .startDate(LocalDateTime.of(2020, 2, 27, 8, 0))
+                .endDate(LocalDateTime.of(2020, 2, 28, 23, 0))
+                .periodSet(periodOnce)
+                .attendersSet(attenders).build();
+
+        Event eventInto = new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Event")
+                .description("Event into period")
+                .startDate(LocalDateTime.of(2020, 2, 29, 23, 0))
+                .endDate(LocalDateTime.of(2020, 2, 29, 23, 30))
+                .periodSet(periodOnce)
+                .attendersSet(attenders).build();
+
+        Set<PeriodOfEvent> periodMonth = new HashSet<>();
+        periodMonth.add(PeriodOfEvent.EVERY_MONTH);
+        Event eventMonth = new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Event")
+                .description("Monthly event")
+                .startDate(LocalDateTime.of(2019, 12, 2, 7, 0))
+                .endDate(LocalDateTime.of(2019, 12, 2, 9, 0))
+                .periodSet(periodMonth)
+                .attendersSet(attenders).build();
+
+        Set<Event> expectedEvents = new TreeSet<>();
+        expectedEvents.add(eventLong);
+        expectedEvents.add(eventInto);
+        expectedEvents.add(eventMonth);
+
+        dataStore.publish(eventLong);
+        dataStore.publish(eventBefore);
+        dataStore.publish(eventInto);
+        dataStore.publish(eventMonth);
+        List<Event> actualEvents = dataStore.getEventIntoPeriod(LocalDate.of(2020, 2, 29), LocalDate.of(2020, 3, 2));
+
+        assertEquals(expectedEvents.size(), actualEvents.size());
+        assertEquals(expectedEvents, new TreeSet<>(actualEvents));
+
+        dataStore.remove(eventLong.getId());
+        assertEquals(1, dataStore.getEventIntoPeriod(LocalDate.of(2020, 3, 3), LocalDate.of(2020, 4, 2)).size());
+    }
+
+    @Test
+    public void testGetEventIntoPeriodEqualsEventsByDays() throws IllegalArgumentException, IOException, JAXBException {
+
+        attenders.add(testPerson);
+        Random random = new Random(7);
+        PeriodOfEvent[] periods = PeriodOfEvent.values();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime startDate = LocalDateTime.of(2020, 1, 1, 10, 0).plusDays(random.nextInt(800));
+            PeriodOfEvent eventPeriod = periods[random.nextInt(periods.length)];
+            if (eventPeriod.ordinal() >= PeriodOfEvent.SUNDAY.ordinal() && eventPeriod.ordinal() <= PeriodOfEvent.SATURDAY.ordinal())
+                eventPeriod = PeriodOfEvent.valueOf(startDate.getDayOfWeek().name());
+            int days = eventPeriod == PeriodOfEvent.EVERY_DAY || eventPeriod.name().endsWith("DAY") ? 0 : random.nextInt(3);
+            Set<PeriodOfEvent> eventPeriods = new HashSet<>();
+            eventPeriods.add(eventPeriod);
+            dataStore.publish(new Event.EventBuilder()
+                    .id(UUID.randomUUID()).title("Event " + i)
+                    .description("Description of event " + i)
+                    .startDate(startDate)
+                    .endDate(startDate.plusDays(days).plusHours(2))
+                    .periodSet(eventPeriods)
+                    .attendersSet(attenders).build());
+        }
+
+        for (int i = 0; i < 50; i++) {
+            LocalDate startDay = LocalDate.of(2019, 12, 1).plusDays(random.nextInt(900));
+            LocalDate endDay = startDay.plusDays(random.nextInt(i % 2 == 0 ? 10 : 400));
+            Set<Event> expectedEvents = new HashSet<>();
+            for (LocalDate day = startDay; !day.isAfter(endDay); day = day.plusDays(1))
+                expectedEvents.addAll(dataStore.getEventByDay(day));
+
+            assertEquals(expectedEvents, new HashSet<>(dataStore.getEventIntoPeriod(startDay, endDay)));
+        }
+    }
+
+    @Test
+    public void testGetEventIntoPeriodByPages() throws IllegalArgumentException, IOException, JAXBException {
+
+        attenders.add(testPerson);
+        Random random = new Random(11);
+        PeriodOfEvent[] periods = {PeriodOfEvent.ONCE, PeriodOfEvent.ONCE, PeriodOfEvent.ONCE, PeriodOfEvent.EVERY_DAY,
+                PeriodOfEvent.EVERY_MONTH, PeriodOfEvent.EVERY_YEAR};
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime startDate = LocalDateTime.of(2020, 1, 1, 10, 0).plusDays(random.nextInt(400)).plusHours(random.nextInt(5));
+            dataStore.publish(new Event.EventBuilder()
+                    .id(UUID.randomUUID()).title("Event " + i)
+                    .description("Description of event " + i)
+                    .startDate(startDate)
+                    .endDate(startDate.plusHours(2))
+                    .periodSet(new HashSet<>(Collections.singleton(periods[random.nextInt(periods.length)])))
+                    .attendersSet(attenders).build());
+        }
+
+        LocalDate startDay = LocalDate.of(2020, 3, 1);
+        LocalDate endDay = LocalDate.of(2020, 6, 1);
+        List<Event> expectedEvents = dataStore.getEventIntoPeriod(startDay, endDay);
+        expectedEvents.sort(PageToken.START_ORDER);
+        List<Event> expectedByAttender = dataStore.getEventByAttender(testPerson);
+        List<Event> expectedByTitle = dataStore.searchEventByTitleStartWith("Event 1");
+        expectedByTitle.sort(PageToken.START_ORDER);
+
+        List<Event> events = new ArrayList<>();
+        List<Event> eventsByAttender = new ArrayList<>();
+        List<Event> eventsByTitle = new ArrayList<>();
+        PageToken after = null;
+        for (List<Event> page; !(page = dataStore.getEventIntoPeriod(startDay, endDay, after, 7)).isEmpty(); after = PageToken.of(page.get(page.size() - 1)))
+            events.addAll(page);
+        after = null;
+        for (List<Event> page; !(page = dataStore.getEventByAttender(testPerson, after, 7)).isEmpty(); after = PageToken.of(page.get(page.size() - 1)))
+            eventsByAttender.addAll(page);
+        after = null;
+        for (List<Event> page; !(page = dataStore.searchEventByTitleStartWith("Event 1", after, 7)).isEmpty(); after = PageToken.of(page.get(page.size() - 1)))
+            eventsByTitle.addAll(page);
+
+        assertEquals(expectedEvents, events);
+        assertEquals(expectedByAttender, eventsByAttender);
+        assertEquals(expectedByTitle, eventsByTitle);
+    }
+
     @Test
     public void testGetEventByAttender() throws IllegalArgumentException, IOException, JAXBException {
 
@@ -280,6 +560,32 @@ public class DataStoreImplTest {
         dataStore.getEventByAttender(null);
     }
 
+    @Test
+    public void testGetEventByAttenderIntoPeriod() throws IllegalArgumentException, IOException, JAXBException {
+
+        attenders.add(testPerson);
+        period.add(PeriodOfEvent.ONCE);
+        Event weeklyEvent = new Event.EventBuilder(testEvent)
+                .id(UUID.randomUUID()).title("WeeklyEvent")
+                .startDate(LocalDateTime.of(2020, 1, 6, 10, 0))
+                .endDate(LocalDateTime.of(2020, 1, 6, 11, 0))
+                .periodSet(Collections.singleton(PeriodOfEvent.MONDAY)).build();
+
+        dataStore.publish(testEvent);
+        dataStore.publish(weeklyEvent);
+
+        assertEquals(Arrays.asList(testEvent), dataStore.getEventByAttenderIntoPeriod(testPerson,
+                LocalDateTime.of(2020, 1, 1, 12, 0), LocalDateTime.of(2020, 1, 6, 9, 0)));
+        assertEquals(Arrays.asList(weeklyEvent), dataStore.getEventByAttenderIntoPeriod(testPerson,
+                LocalDateTime.of(2020, 2, 3, 10, 30), LocalDateTime.of(2020, 2, 3, 12, 0)));
+        assertTrue(dataStore.isAttenderBusy(testPerson, LocalDateTime.of(2020, 2, 10, 9, 0), LocalDateTime.of(2020, 2, 10, 10, 30)));
+        assertFalse(dataStore.isAttenderBusy(testPerson, LocalDateTime.of(2020, 2, 11, 9, 0), LocalDateTime.of(2020, 2, 11, 10, 30)));
+
+        dataStore.remove(weeklyEvent.getId());
+
+        assertFalse(dataStore.isAttenderBusy(testPerson, LocalDateTime.of(2020, 2, 10, 9, 0), LocalDateTime.of(2020, 2, 10, 10, 30)));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testSearchEventByTitleStartWithNullString() throws IllegalArgumentException  {
 
@@ -315,4 +621,77 @@ public class DataStoreImplTest {
 
         assertEquals(expectedEventList, resultEventList);
     }
+
+    @Test
+    public void testSearchEventByTitleStartWithPaged() throws IOException, JAXBException {
+
+        attenders.add(testPerson);
+        List<Event> expectedEventList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Event event = new Event.EventBuilder()
+                    .id(UUID.randomUUID()).title((i % 2 == 0 ? "Meeting " : "meeting ") + i)
+                    .description("Description of meeting " + i)
+                    .startDate(LocalDateTime.of(2020, 1, 10 - i, 10, 0))
+                    .endDate(LocalDateTime.of(2020, 1, 10 - i, 12, 0))
+                    .periodSet(period)
+                    .attendersSet(attenders).build();
+            dataStore.publish(event);
+            expectedEventList.add(event);
+        }
+        dataStore.publish(testEvent);
+
+        assertEquals(5, dataStore.searchEventByTitleStartWith("Meeting", false, 0, 100).size());
+        assertEquals(expectedEventList.subList(3, 7), dataStore.searchEventByTitleStartWith("MEETING", true, 3, 4));
+        assertEquals(expectedEventList.subList(8, 10), dataStore.searchEventByTitleStartWith("meet", true, 8, 4));
+        assertEquals(Collections.emptyList(), dataStore.searchEventByTitleStartWith("meet", true, 10, 4));
+    }
+
+    @Test
+    public void testSearchIgnoringCaseDoesNotDependOnDefaultLocale() throws IOException, JAXBException {
+
+        attenders.add(testPerson);
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            Event event = new Event.EventBuilder(testEvent).title("TITLE").build();
+            dataStore.publish(event);
+
+            assertEquals(Collections.singletonList(event), dataStore.searchEventByTitleStartWith("title", true, 0, 10));
+            assertEquals(Collections.singletonList(event), dataStore.searchEarliestEventsByTitleStartWith("Ti", true, 10));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void testSearchEarliestEventsByTitleStartWith() throws IOException, JAXBException {
+
+        attenders.add(testPerson);
+        List<Event> eventList = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Event event = new Event.EventBuilder()
+                    .id(UUID.randomUUID()).title("Meeting " + i)
+                    .description("Description of meeting " + i)
+                    .startDate(LocalDateTime.of(2020, 1, 10 - i, 10, 0))
+                    .endDate(LocalDateTime.of(2020, 1, 10 - i, 12, 0))
+                    .periodSet(period)
+                    .attendersSet(attenders).build();
+            dataStore.publish(event);
+            eventList.add(event);
+        }
+
+        List<Event> expectedEventList = Arrays.asList(eventList.get(9), eventList.get(8), eventList.get(7));
+        assertEquals(expectedEventList, dataStore.searchEarliestEventsByTitleStartWith("meeting", true, 3));
+        assertEquals(Collections.emptyList(), dataStore.searchEarliestEventsByTitleStartWith("meeting", false, 3));
+    }
+
+    @Test
+    public void testMonthDayKey() {
+        Set<Integer> keys = new HashSet<>();
+        for (LocalDate day = LocalDate.of(2020, 1, 1); day.getYear() == 2020; day = day.plusDays(1)) {
+            assertTrue(keys.add(DataStoreImpl.monthDayKey(day)));
+            assertTrue(DataStoreImpl.monthDayKey(day) == DataStoreImpl.monthDayKey(day.withYear(2000)));
+        }
+        assertEquals(366, keys.size());
+    }
 }
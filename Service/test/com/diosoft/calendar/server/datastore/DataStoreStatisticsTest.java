@@ -0,0 +1,102 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.filesystem.FileSystem;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static com.diosoft.calendar.server.common.TestEvents.createEvent;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class DataStoreStatisticsTest {
+    private final static List<String> INDEXES = Arrays.asList("eventStore", "indexTitle", "indexTitleIgnoreCase", "indexDate",
+            "indexAttender", "indexContent", "indexPeriodYear", "indexPeriodMonth", "indexPeriodDayOfWeek", "indexPeriodDay");
+
+    @Test
+    public void testIndexStatisticsOfDataStoreImpl() throws Exception {
+        checkIndexStatistics(new DataStoreImpl(mock(FileSystem.class)));
+    }
+
+    @Test
+    public void testIndexStatisticsOfConcurrentDataStore() throws Exception {
+        checkIndexStatistics(new ConcurrentDataStore(mock(FileSystem.class)));
+    }
+
+    @Test
+    public void testIndexStatisticsOfEmptyStore() throws Exception {
+        for (IndexStatistics statistics : new ConcurrentDataStore(mock(FileSystem.class)).getIndexStatistics()) {
+            assertEquals(0, statistics.getKeys());
+            assertEquals(0, statistics.getMaxLength());
+            assertEquals(0, statistics.getEstimatedBytes());
+        }
+    }
+
+    @Test
+    public void testRegisterInMBeanServer() throws Exception {
+        DataStore dataStore = new ConcurrentDataStore(mock(FileSystem.class));
+        for (int i = 0; i < 5; i++) dataStore.publish(createEvent("Meeting", LocalDateTime.of(2020, 1, 1 + i, 10, 0), PeriodOfEvent.ONCE));
+        MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+        ObjectName name = new ObjectName("com.diosoft.calendar:type=DataStore,name=statistics");
+
+        DataStoreStatistics statistics = new DataStoreStatistics(dataStore, mBeanServer);
+        statistics.register();
+
+        assertEquals(5L, mBeanServer.getAttribute(name, "EventCount"));
+        assertTrue((Long) mBeanServer.getAttribute(name, "EstimatedBytes") > 0);
+        String report = (String) mBeanServer.getAttribute(name, "Report");
+        assertEquals(INDEXES.size(), report.split("\n").length);
+        assertTrue(report.contains("hottest=[Meeting=5]"));
+
+        statistics.close();
+
+        assertFalse(mBeanServer.isRegistered(name));
+    }
+
+    private void checkIndexStatistics(DataStore dataStore) throws Exception {
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 10, 0);
+        for (int i = 0; i < 12; i++) dataStore.publish(createEvent("Meeting", start.plusDays(i), PeriodOfEvent.ONCE));
+        for (int i = 0; i < 3; i++) dataStore.publish(createEvent("Call " + i, start.plusDays(i), PeriodOfEvent.ONCE));
+        dataStore.publish(createEvent("Birthday", start, PeriodOfEvent.EVERY_YEAR));
+
+        List<IndexStatistics> statistics = dataStore.getIndexStatistics();
+        Map<String, IndexStatistics> byName = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (IndexStatistics index : statistics) {
+            names.add(index.getName());
+            byName.put(index.getName(), index);
+            assertEquals(index.getName(), index.getKeys() > 0, index.getEstimatedBytes() > 0);
+            assertTrue(index.getName(), index.getMedianLength() <= index.getLength99());
+            assertTrue(index.getName(), index.getLength99() <= index.getMaxLength());
+        }
+        assertEquals(INDEXES, names);
+
+        IndexStatistics eventStore = byName.get("eventStore");
+        assertEquals(16, eventStore.getKeys());
+        assertEquals(16, eventStore.getValues());
+
+        IndexStatistics indexTitle = byName.get("indexTitle");
+        assertEquals(5, indexTitle.getKeys());
+        assertEquals(16, indexTitle.getValues());
+        assertEquals(12, indexTitle.getMaxLength());
+        assertEquals(16.0 / 5, indexTitle.getMeanLength(), 1e-9);
+        assertEquals(Collections.singletonList("Meeting=12"), indexTitle.getHottestKeys());
+
+        IndexStatistics indexAttender = byName.get("indexAttender");
+        assertEquals(1, indexAttender.getKeys());
+        assertEquals(16, indexAttender.getValues());
+
+        assertEquals(1, byName.get("indexPeriodYear").getKeys());
+        assertEquals(0, byName.get("indexPeriodMonth").getKeys());
+
+        dataStore.remove(dataStore.getEventByTitle("Birthday").get(0).getId());
+
+        assertEquals(0, dataStore.getIndexStatistics().get(INDEXES.indexOf("indexPeriodYear")).getKeys());
+        assertEquals(15, dataStore.getIndexStatistics().get(0).getKeys());
+    }
+}
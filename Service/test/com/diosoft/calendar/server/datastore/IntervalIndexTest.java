@@ -0,0 +1,93 @@
+package com.diosoft.calendar.server.datastore;
+
+import com.diosoft.calendar.server.util.PageToken;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class IntervalIndexTest {
+    private final static LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Test
+    public void testSearch() {
+        IntervalIndex index = new IntervalIndex();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        index.add(first, BASE, BASE.plusDays(100));
+        index.add(second, BASE.plusDays(5), BASE.plusDays(5).plusHours(1));
+
+        assertEquals(Arrays.asList(first), index.search(BASE.plusDays(50), BASE.plusDays(51)));
+        assertEquals(Arrays.asList(first, second), index.search(BASE.plusDays(5).plusHours(1), BASE.plusDays(6)));
+        assertEquals(Collections.emptyList(), index.search(BASE.plusDays(101), BASE.plusDays(102)));
+
+        index.remove(first, BASE);
+        assertEquals(Collections.emptyList(), index.search(BASE.plusDays(50), BASE.plusDays(51)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testSearchAgainstLinearScan() {
+        Random random = new Random(42);
+        IntervalIndex index = new IntervalIndex();
+        Map<UUID, LocalDateTime[]> intervals = new HashMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            UUID id = UUID.randomUUID();
+            LocalDateTime start = BASE.plusMinutes(random.nextInt(500_000));
+            LocalDateTime end = start.plusMinutes(random.nextInt(random.nextBoolean() ? 120 : 50_000));
+            index.add(id, start, end);
+            intervals.put(id, new LocalDateTime[]{start, end});
+        }
+        Iterator<Map.Entry<UUID, LocalDateTime[]>> it = intervals.entrySet().iterator();
+        for (int i = 0; i < 2000; i++) {
+            Map.Entry<UUID, LocalDateTime[]> entry = it.next();
+            index.remove(entry.getKey(), entry.getValue()[0]);
+            it.remove();
+        }
+        assertEquals(intervals.size(), index.size());
+
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime from = BASE.plusMinutes(random.nextInt(550_000));
+            LocalDateTime to = from.plusMinutes(random.nextInt(5000));
+            Set<UUID> expected = new HashSet<>();
+            for (Map.Entry<UUID, LocalDateTime[]> entry : intervals.entrySet())
+                if (!entry.getValue()[0].isAfter(to) && !entry.getValue()[1].isBefore(from))
+                    expected.add(entry.getKey());
+
+            assertEquals(expected, new HashSet<>(index.search(from, to)));
+        }
+    }
+
+    @Test
+    public void testSearchAfterByPages() {
+        Random random = new Random(42);
+        IntervalIndex index = new IntervalIndex();
+        Map<UUID, LocalDateTime> starts = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            UUID id = UUID.randomUUID();
+            LocalDateTime start = BASE.plusMinutes(60 * random.nextInt(5000));
+            index.add(id, start, start.plusMinutes(random.nextInt(random.nextBoolean() ? 120 : 50_000)));
+            starts.put(id, start);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            LocalDateTime from = BASE.plusMinutes(random.nextInt(300_000));
+            LocalDateTime to = from.plusMinutes(random.nextInt(50_000));
+            int limit = 1 + random.nextInt(50);
+            List<UUID> pages = new ArrayList<>();
+            PageToken after = null;
+            while (true) {
+                List<UUID> page = index.searchAfter(from, to, after, limit);
+                pages.addAll(page);
+                if (page.size() < limit) break;
+                UUID last = page.get(page.size() - 1);
+                after = new PageToken(starts.get(last), last);
+            }
+
+            assertEquals(index.search(from, to), pages);
+        }
+    }
+}
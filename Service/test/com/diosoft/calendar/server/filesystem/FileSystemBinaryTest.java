@@ -0,0 +1,163 @@
+package com.diosoft.calendar.server.filesystem;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static com.diosoft.calendar.server.common.TestEvents.FIRST_DAY;
+import static com.diosoft.calendar.server.common.TestEvents.createEvent;
+import static org.junit.Assert.*;
+
+public class FileSystemBinaryTest {
+
+    private Path file;
+    private FileSystemBinary fileSystem;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("events", ".bin");
+        Files.delete(file);
+        fileSystem = new FileSystemBinary(file.toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        fileSystem.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+
+        Event event = createEvent("TestEvent", FIRST_DAY, PeriodOfEvent.MONDAY, PeriodOfEvent.EVERY_YEAR);
+        fileSystem.write(event);
+
+        Event actualEvent = fileSystem.read(event.getId());
+        assertEquals(event, actualEvent);
+        assertEquals(event.getId(), actualEvent.getId());
+        assertNull(fileSystem.read(UUID.randomUUID()));
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Event event = createEvent("Event " + i);
+            events.add(event);
+            fileSystem.write(event);
+        }
+        Event updatedEvent = new Event.EventBuilder(events.get(1)).title("Updated event").build();
+        fileSystem.write(updatedEvent);
+        assertTrue(fileSystem.delete(events.get(0).getId()));
+        assertFalse(fileSystem.delete(events.get(0).getId()));
+        fileSystem.close();
+
+        fileSystem = new FileSystemBinary(file.toString());
+        List<Event> actualEvents = fileSystem.readAllEvents();
+
+        assertEquals(99, fileSystem.size());
+        assertEquals(99, actualEvents.size());
+        assertFalse(actualEvents.contains(events.get(0)));
+        assertTrue(actualEvents.contains(updatedEvent));
+        assertEquals(updatedEvent, fileSystem.read(updatedEvent.getId()));
+        assertEquals(events.get(99), fileSystem.read(events.get(99).getId()));
+    }
+
+    @Test
+    public void testAttendersAreStoredOnce() throws Exception {
+
+        fileSystem.write(createEvent("Event 1"));
+        long sizeOfFirstEvent = Files.size(file);
+        fileSystem.write(createEvent("Event 2"));
+
+        assertTrue(Files.size(file) - sizeOfFirstEvent < sizeOfFirstEvent - 6);
+    }
+
+    @Test
+    public void testIncompleteRecordIsCutOff() throws Exception {
+
+        Event event = createEvent("TestEvent");
+        fileSystem.write(event);
+        long size = Files.size(file);
+        fileSystem.write(createEvent("Lost event"));
+        fileSystem.close();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size + 10);
+        }
+
+        fileSystem = new FileSystemBinary(file.toString());
+
+        assertEquals(Collections.singletonList(event), fileSystem.readAllEvents());
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+
+        Set<Event> events = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Event event = createEvent("Event " + i);
+            fileSystem.write(event);
+            if (i % 2 == 0) assertTrue(fileSystem.delete(event.getId()));
+            else events.add(event);
+        }
+        for (Event event : new ArrayList<>(events)) {
+            Event updatedEvent = new Event.EventBuilder(event).title("Updated " + event.getTitle()).build();
+            fileSystem.write(updatedEvent);
+            events.remove(event);
+            events.add(updatedEvent);
+        }
+        long size = Files.size(file);
+
+        fileSystem.compact();
+
+        assertTrue(Files.size(file) < size / 2);
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".compact")));
+        assertEquals(events, new HashSet<>(fileSystem.readAllEvents()));
+        Event event = events.iterator().next();
+        assertEquals(event, fileSystem.read(event.getId()));
+        Event newEvent = createEvent("New event");
+        fileSystem.write(newEvent);
+        events.add(newEvent);
+        fileSystem.close();
+
+        fileSystem = new FileSystemBinary(file.toString());
+        assertEquals(events, new HashSet<>(fileSystem.readAllEvents()));
+    }
+
+    @Test
+    public void testCompactOnOpeningWhenGarbageIsLarger() throws Exception {
+
+        Event event = createEvent("TestEvent");
+        for (int i = 0; i < 100; i++) fileSystem.write(new Event.EventBuilder(event).title("Event " + i).build());
+        Event deletedEvent = createEvent("Deleted event");
+        fileSystem.write(deletedEvent);
+        fileSystem.delete(deletedEvent.getId());
+        long size = Files.size(file);
+        fileSystem.close();
+
+        fileSystem = new FileSystemBinary(file.toString());
+
+        assertTrue(Files.size(file) < size / 10);
+        assertEquals("Event 99", fileSystem.read(event.getId()).getTitle());
+        assertNull(fileSystem.read(deletedEvent.getId()));
+        assertEquals(1, fileSystem.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenFileOfOtherFormat() throws Exception {
+
+        Files.write(file, "<event></event>".getBytes());
+        new FileSystemBinary(file.toString());
+    }
+}
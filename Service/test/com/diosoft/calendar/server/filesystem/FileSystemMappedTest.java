@@ -0,0 +1,179 @@
+package com.diosoft.calendar.server.filesystem;
+
+import com.diosoft.calendar.server.common.Event;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static com.diosoft.calendar.server.common.TestEvents.createEvent;
+import static org.junit.Assert.*;
+
+public class FileSystemMappedTest {
+    private final static int SEGMENT_CAPACITY = 4096;
+
+    private Path directory;
+    private FileSystemMapped fileSystem;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("segments");
+        fileSystem = new FileSystemMapped(directory.toString(), SEGMENT_CAPACITY);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        fileSystem.close();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+
+        Event event = createEvent("TestEvent");
+        fileSystem.write(event);
+
+        Event actualEvent = fileSystem.read(event.getId());
+        assertEquals(event, actualEvent);
+        assertEquals(event.getId(), actualEvent.getId());
+        assertNull(fileSystem.read(UUID.randomUUID()));
+    }
+
+    @Test
+    public void testReopenWithSeveralSegments() throws Exception {
+
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Event event = createEvent("Event " + i);
+            events.add(event);
+            fileSystem.write(event);
+        }
+        Event updatedEvent = new Event.EventBuilder(events.get(1)).title("Updated event").build();
+        fileSystem.write(updatedEvent);
+        assertTrue(fileSystem.delete(events.get(0).getId()));
+        assertFalse(fileSystem.delete(events.get(0).getId()));
+        fileSystem.close();
+
+        fileSystem = new FileSystemMapped(directory.toString(), SEGMENT_CAPACITY);
+        List<Event> actualEvents = fileSystem.readAllEvents();
+
+        assertTrue(Files.exists(directory.resolve("segment-2.evs")));
+        assertEquals(199, fileSystem.size());
+        assertEquals(199, actualEvents.size());
+        assertFalse(actualEvents.contains(events.get(0)));
+        assertTrue(actualEvents.contains(updatedEvent));
+        assertEquals(updatedEvent, fileSystem.read(updatedEvent.getId()));
+        assertEquals(events.get(199), fileSystem.read(events.get(199).getId()));
+
+        Event newEvent = createEvent("New event");
+        fileSystem.write(newEvent);
+        assertEquals(newEvent, fileSystem.read(newEvent.getId()));
+    }
+
+    @Test
+    public void testSegmentWithZeroHeaderIsEmpty() throws Exception {
+
+        Event event = createEvent("TestEvent");
+        fileSystem.write(event);
+        fileSystem.close();
+        Files.write(directory.resolve("segment-1.evs"), new byte[SEGMENT_CAPACITY]);
+
+        fileSystem = new FileSystemMapped(directory.toString(), SEGMENT_CAPACITY);
+        Event newEvent = createEvent("New event");
+        fileSystem.write(newEvent);
+        fileSystem.close();
+
+        fileSystem = new FileSystemMapped(directory.toString(), SEGMENT_CAPACITY);
+        assertEquals(new HashSet<>(Arrays.asList(event, newEvent)), new HashSet<>(fileSystem.readAllEvents()));
+        assertFalse(Files.exists(directory.resolve("segment-2.evs")));
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+
+        Set<Event> events = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            Event event = createEvent("Event " + i);
+            fileSystem.write(event);
+            if (i % 2 == 0) assertTrue(fileSystem.delete(event.getId()));
+            else events.add(event);
+        }
+        for (Event event : new ArrayList<>(events)) {
+            Event updatedEvent = new Event.EventBuilder(event).title("Updated " + event.getTitle()).build();
+            fileSystem.write(updatedEvent);
+            events.remove(event);
+            events.add(updatedEvent);
+        }
+        long segmentCount = count();
+
+        fileSystem.compact();
+
+        assertTrue(count() < segmentCount);
+        assertFalse(Files.exists(directory.resolve("segment-0.evs")));
+        assertEquals(events, new HashSet<>(fileSystem.readAllEvents()));
+        Event event = events.iterator().next();
+        assertEquals(event, fileSystem.read(event.getId()));
+        fileSystem.close();
+
+        fileSystem = new FileSystemMapped(directory.toString(), SEGMENT_CAPACITY);
+        assertEquals(events, new HashSet<>(fileSystem.readAllEvents()));
+    }
+
+    @Test
+    public void testCompactOnOpeningWhenGarbageIsLarger() throws Exception {
+
+        Event event = createEvent("TestEvent");
+        for (int i = 0; i < 100; i++) fileSystem.write(new Event.EventBuilder(event).title("Event " + i).build());
+        fileSystem.close();
+
+        fileSystem = new FileSystemMapped(directory.toString(), SEGMENT_CAPACITY);
+
+        assertEquals(1, count());
+        assertEquals("Event 99", fileSystem.read(event.getId()).getTitle());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+
+        Event event = createEvent("TestEvent");
+        fileSystem.write(event);
+        fileSystem.close();
+
+        try {
+            fileSystem.write(createEvent("New event"));
+            fail();
+        } catch (IOException e) {
+            assertEquals("File system is closed", e.getMessage());
+        }
+        try {
+            fileSystem.read(event.getId());
+            fail();
+        } catch (IOException e) {
+            assertEquals("File system is closed", e.getMessage());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testEventLargerThanSegment() throws Exception {
+
+        char[] description = new char[SEGMENT_CAPACITY];
+        Arrays.fill(description, 'a');
+        fileSystem.write(new Event.EventBuilder(createEvent("TestEvent")).description(new String(description)).build());
+    }
+
+    private long count() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "segment-*.evs")) {
+            long count = 0;
+            for (Path ignored : files) count++;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.diosoft.calendar.server.filesystem;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.datastore.ConcurrentDataStore;
+import com.diosoft.calendar.server.service.CalendarService;
+import com.diosoft.calendar.server.service.CalendarServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.rmi.RemoteException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.diosoft.calendar.server.common.TestEvents.createEvent;
+import static org.junit.Assert.*;
+
+public class FileSystemWalTest {
+    private final static int THREADS = 16;
+    private final static int EVENTS_PER_THREAD = 100;
+
+    private Path directory;
+    private FileSystemWal fileSystem;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("wal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (fileSystem != null) fileSystem.close();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testRecoveryFromLog() throws Exception {
+
+        fileSystem = new FileSystemWal(directory.toString());
+        Event event = createEvent("TestEvent");
+        Event deletedEvent = createEvent("Deleted event");
+        fileSystem.write(event);
+        fileSystem.write(deletedEvent);
+        assertTrue(fileSystem.delete(deletedEvent.getId()));
+        assertFalse(fileSystem.delete(deletedEvent.getId()));
+        assertEquals(event, fileSystem.read(event.getId()));
+        fileSystem.close();
+
+        fileSystem = new FileSystemWal(directory.toString());
+
+        assertEquals(Collections.singletonList(event), fileSystem.readAllEvents());
+        assertNull(fileSystem.read(deletedEvent.getId()));
+    }
+
+    @Test
+    public void testRecoveryFromSnapshotAndLog() throws Exception {
+
+        fileSystem = new FileSystemWal(directory.toString(), 0, 10);
+        Set<Event> events = new HashSet<>();
+        for (int i = 0; i < 35; i++) {
+            Event event = createEvent("Event " + i);
+            events.add(event);
+            fileSystem.write(event);
+        }
+        for (Thread thread : Thread.getAllStackTraces().keySet())
+            if (thread.getName().equals("wal-snapshot")) assertTrue(thread.isDaemon());
+        fileSystem.close();
+
+        assertEquals(1, count("snapshot-*.bin"));
+        assertTrue(count("log-*.wal") <= 2);
+
+        fileSystem = new FileSystemWal(directory.toString(), 0, 10);
+        assertEquals(events, new HashSet<>(fileSystem.readAllEvents()));
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws Exception {
+
+        fileSystem = new FileSystemWal(directory.toString());
+        Event event = createEvent("TestEvent");
+        fileSystem.write(event);
+        fileSystem.close();
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "log-*.wal")) {
+            for (Path segment : segments)
+                Files.write(segment, new byte[]{0, 0, 0, 100, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+        }
+
+        fileSystem = new FileSystemWal(directory.toString());
+        assertEquals(Collections.singletonList(event), fileSystem.readAllEvents());
+        Event newEvent = createEvent("New event");
+        fileSystem.write(newEvent);
+        fileSystem.close();
+
+        fileSystem = new FileSystemWal(directory.toString());
+        assertEquals(new HashSet<>(Arrays.asList(event, newEvent)), new HashSet<>(fileSystem.readAllEvents()));
+    }
+
+    @Test
+    public void testRecordLongerThanSegmentIsIgnored() throws Exception {
+
+        fileSystem = new FileSystemWal(directory.toString());
+        Event event = createEvent("TestEvent");
+        fileSystem.write(event);
+        fileSystem.close();
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "log-*.wal")) {
+            for (Path segment : segments)
+                Files.write(segment, new byte[]{0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xF0, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+        }
+
+        fileSystem = new FileSystemWal(directory.toString());
+        assertEquals(Collections.singletonList(event), fileSystem.readAllEvents());
+    }
+
+    @Test
+    public void testConcurrentWritesWithBatchedFsync() throws Exception {
+
+        fileSystem = new FileSystemWal(directory.toString(), 50, 500);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) fileSystem.write(createEvent("Event " + thread + "-" + i));
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+        fileSystem.close();
+
+        fileSystem = new FileSystemWal(directory.toString());
+        assertEquals(THREADS * EVENTS_PER_THREAD, fileSystem.readAllEvents().size());
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriteAfterClose() throws Exception {
+
+        fileSystem = new FileSystemWal(directory.toString());
+        fileSystem.close();
+        fileSystem.write(createEvent("TestEvent"));
+    }
+
+    @Test
+    public void testWriteToClosedLogIsNotAcknowledged() throws Exception {
+
+        fileSystem = new FileSystemWal(directory.toString());
+        CalendarService service = new CalendarServiceImpl(new ConcurrentDataStore(fileSystem));
+        Event event = createEvent("TestEvent");
+        fileSystem.close();
+
+        try {
+            service.add(event);
+            fail("Event is acknowledged but not written");
+        } catch (RemoteException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertTrue(service.searchByTitle("TestEvent").isEmpty());
+
+        fileSystem = new FileSystemWal(directory.toString());
+        assertTrue(fileSystem.readAllEvents().isEmpty());
+    }
+
+    private int count(String glob) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            for (Path ignored : files) count++;
+        }
+        return count;
+    }
+}
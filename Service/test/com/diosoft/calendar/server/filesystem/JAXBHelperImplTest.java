@@ -0,0 +1,60 @@
+package com.diosoft.calendar.server.filesystem;
+
+import com.diosoft.calendar.server.common.Event;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.diosoft.calendar.server.common.TestEvents.createEvent;
+import static org.junit.Assert.assertEquals;
+
+public class JAXBHelperImplTest {
+    private final static int THREADS = 8;
+    private final static int EVENTS_PER_THREAD = 200;
+
+    private JAXBHelper jaxbHelper = new JAXBHelperImpl();
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+
+        Event event = createEvent("TestEvent");
+        Event actualEvent = jaxbHelper.read(new BufferedReader(new StringReader(write(event))));
+
+        assertEquals(event, actualEvent);
+        assertEquals(event.getId(), actualEvent.getId());
+    }
+
+    @Test
+    public void testConcurrentWriteAndRead() throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    Event event = createEvent("Event " + thread + "-" + i);
+                    assertEquals(event, jaxbHelper.read(new BufferedReader(new StringReader(write(event)))));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+    }
+
+    private String write(Event event) throws Exception {
+        StringWriter stringWriter = new StringWriter();
+        BufferedWriter writer = new BufferedWriter(stringWriter);
+        jaxbHelper.write(event, writer);
+        writer.flush();
+        return stringWriter.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package com.diosoft.calendar.server.metrics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 10; value++) histogram.record(value);
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(55, histogram.getSum());
+        assertEquals(10, histogram.getMax());
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(9, histogram.getValueAtPercentile(90));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testPercentilesWithinRelativeError() {
+        Histogram histogram = new Histogram();
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9, 100}) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + expected + " vs " + actual, actual >= expected && actual <= expected + expected / 64 + 1);
+        }
+    }
+
+    @Test
+    public void testBucketsCoverAllValues() {
+        for (long value : new long[]{0, 63, 64, 65, 127, 128, 1_000_000_007L, Long.MAX_VALUE / 3, Long.MAX_VALUE}) {
+            int index = Histogram.index(value);
+            assertTrue(value + " is above its bucket", value <= Histogram.highestValue(index));
+            assertTrue(value + " is below its bucket", index == 0 || value > Histogram.highestValue(index - 1));
+        }
+    }
+
+    @Test
+    public void testEmptyAndNegative() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0.0, histogram.getMean(), 0);
+
+        histogram.record(-5);
+
+        assertEquals(0, histogram.getMax());
+        assertEquals(1, histogram.getCount());
+    }
+}
@@ -0,0 +1,132 @@
+package com.diosoft.calendar.server.metrics;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.Person;
+import com.diosoft.calendar.server.datastore.DataStore;
+import com.diosoft.calendar.server.exception.OrderOfArgumentsException;
+import com.diosoft.calendar.server.service.CalendarService;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class MeteredProxyTest {
+    private final static LocalDate DAY = LocalDate.of(2020, 10, 15);
+
+    private final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+    private final MetricsRegistry registry = new MetricsRegistry(mBeanServer);
+
+    @After
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    public void testRecordCallsAndResultSizes() throws Exception {
+        DataStore dataStore = mock(DataStore.class);
+        List<Event> events = Arrays.asList(mock(Event.class), mock(Event.class), mock(Event.class));
+        when(dataStore.getEventByDay(DAY)).thenReturn(events);
+        DataStore metered = MeteredProxy.wrap(DataStore.class, dataStore, registry);
+
+        assertEquals(3, metered.getEventByDay(DAY).size());
+        metered.getEventByDay(DAY);
+        metered.getEventById(null);
+
+        MethodMetrics byDay = registry.getMethodMetrics("DataStore", "getEventByDay");
+        assertEquals(2, byDay.getCalls());
+        assertEquals(0, byDay.getErrors());
+        assertEquals(3, byDay.getMaxResultSize());
+        assertEquals(2, byDay.getLatency().getCount());
+        assertEquals(1, registry.getMethodMetrics("DataStore", "getEventById").getCalls());
+        assertEquals(0, registry.getMethodMetrics("DataStore", "getEventById").getResultSize().getCount());
+        verify(dataStore, times(2)).getEventByDay(DAY);
+    }
+
+    @Test
+    public void testRecordErrorAndThrowExceptionOfTarget() throws Exception {
+        CalendarService calendarService = mock(CalendarService.class);
+        when(calendarService.searchByAttenderIntoPeriod(any(Person.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenThrow(new OrderOfArgumentsException());
+        CalendarService metered = MeteredProxy.wrap(CalendarService.class, calendarService, registry);
+
+        try {
+            metered.searchByAttenderIntoPeriod(mock(Person.class), DAY.atStartOfDay(), DAY.atStartOfDay());
+            fail();
+        } catch (OrderOfArgumentsException e) {
+//  expected: exception of service is thrown as it is
+        }
+
+        MethodMetrics methodMetrics = registry.getMethodMetrics("CalendarService", "searchByAttenderIntoPeriod");
+        assertEquals(1, methodMetrics.getCalls());
+        assertEquals(1, methodMetrics.getErrors());
+    }
+
+    @Test
+    public void testOverloadedMethodsHaveOwnMetrics() throws Exception {
+        CalendarService metered = MeteredProxy.wrap(CalendarService.class, mock(CalendarService.class), registry);
+
+        metered.searchIntoPeriod(DAY, DAY);
+
+        assertEquals(1, registry.getMethodMetrics("CalendarService", "searchIntoPeriod(LocalDate,LocalDate)").getCalls());
+        assertEquals(0, registry.getMethodMetrics("CalendarService", "searchIntoPeriod(LocalDate,LocalDate,String,int)").getCalls());
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        DataStore dataStore = mock(DataStore.class);
+        List<Event> events = Collections.singletonList(mock(Event.class));
+        when(dataStore.getEventByTitle("Meeting")).thenReturn(events);
+        MeteredProxy.wrap(DataStore.class, dataStore, registry).getEventByTitle("Meeting");
+
+        ObjectName name = new ObjectName("com.diosoft.calendar:type=Metrics,component=\"DataStore\",method=\"getEventByTitle\"");
+        assertEquals(1L, mBeanServer.getAttribute(name, "Calls"));
+        assertEquals(1L, mBeanServer.getAttribute(name, "MaxResultSize"));
+
+        registry.close();
+
+        assertFalse(mBeanServer.isRegistered(name));
+    }
+
+    @Test
+    public void testTextEndpoint() throws Exception {
+        DataStore dataStore = mock(DataStore.class);
+        when(dataStore.getEventByDay(DAY)).thenReturn(Collections.emptyList());
+        MeteredProxy.wrap(DataStore.class, dataStore, registry).getEventByDay(DAY);
+
+        MetricsEndpoint endpoint = new MetricsEndpoint(registry, 0);
+        endpoint.start();
+        List<String> lines;
+        try {
+            assertTrue(endpoint.getAddress().getAddress().isLoopbackAddress());
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + endpoint.getPort() + "/metrics").openConnection();
+            assertEquals(200, connection.getResponseCode());
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+                lines = reader.lines().collect(Collectors.toList());
+            }
+        } finally {
+            endpoint.close();
+        }
+
+        assertTrue(lines.contains("calendar_calls_total{component=\"DataStore\",method=\"getEventByDay\"} 1"));
+        assertTrue(lines.contains("calendar_errors_total{component=\"DataStore\",method=\"getEventByDay\"} 0"));
+        assertTrue(lines.contains("calendar_latency_seconds_count{component=\"DataStore\",method=\"getEventByDay\"} 1"));
+        assertTrue(lines.contains("calendar_result_size{component=\"DataStore\",method=\"getEventByDay\",quantile=\"0.5\"} 0.0"));
+        assertTrue(lines.contains("# TYPE calendar_latency_seconds summary"));
+    }
+}
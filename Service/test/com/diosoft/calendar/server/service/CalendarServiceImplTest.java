@@ -1,27 +1,31 @@
 package com.diosoft.calendar.server.service;
 
 import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.EventPage;
 import com.diosoft.calendar.server.common.PeriodOfEvent;
 import com.diosoft.calendar.server.common.Person;
+import com.diosoft.calendar.server.datastore.AttenderIndex;
 import com.diosoft.calendar.server.datastore.DataStore;
 import com.diosoft.calendar.server.exception.DateTimeFormatException;
 import com.diosoft.calendar.server.exception.OrderOfArgumentsException;
 import com.diosoft.calendar.server.exception.ValidationException;
 import com.diosoft.calendar.server.util.DateParser;
+import com.diosoft.calendar.server.util.PageToken;
 import junit.framework.Assert;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.Matchers;
 
 import javax.xml.bind.JAXBException;
 import java.io.IOException;
 import java.rmi.RemoteException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class CalendarServiceImplTest {
@@ -97,6 +101,64 @@ public class CalendarServiceImplTest {
         verify(mockDataStore).remove(null);
     }
 
+    @Test(expected = RemoteException.class)
+    public void testAddNotWritten() throws IOException, JAXBException {
+
+        doThrow(new IOException("Disk is full")).when(mockDataStore).publish(testEvent);
+        calendarService.add(testEvent);
+    }
+
+    @Test(expected = RemoteException.class)
+    public void testRemoveNotWritten() throws IOException, JAXBException {
+
+        doThrow(new IOException("Disk is full")).when(mockDataStore).remove(testEvent.getId());
+        calendarService.remove(testEvent.getId());
+    }
+
+    @Test(expected = RemoteException.class)
+    public void testAddAllNotWritten() throws IOException, JAXBException {
+
+        List<Event> events = Collections.singletonList(testEvent);
+        when(mockDataStore.publishAll(events)).thenThrow(new IOException("Disk is full"));
+        calendarService.addAll(events);
+    }
+
+    @Test(expected = RemoteException.class)
+    public void testRemoveAllNotWritten() throws IOException, JAXBException {
+
+        List<UUID> ids = Collections.singletonList(testEvent.getId());
+        when(mockDataStore.removeAll(ids)).thenThrow(new IOException("Disk is full"));
+        calendarService.removeAll(ids);
+    }
+
+    @Test
+    public void testAddAll() throws IOException, JAXBException {
+
+        Event otherEvent = new Event.EventBuilder(testEvent).id(UUID.randomUUID()).title("OtherEvent").build();
+        List<Event> events = Arrays.asList(testEvent, otherEvent);
+        when(mockDataStore.publishAll(events)).thenReturn(Arrays.asList(true, false));
+
+        assertEquals(Arrays.asList(true, false), calendarService.addAll(events));
+        verify(mockDataStore).publishAll(events);
+        verify(mockDataStore, never()).publish(any(Event.class));
+    }
+
+    @Test
+    public void testRemoveAll() throws IOException, JAXBException {
+
+        List<UUID> ids = Arrays.asList(testEvent.getId(), UUID.randomUUID());
+        when(mockDataStore.removeAll(ids)).thenReturn(Arrays.asList(testEvent, null));
+
+        assertEquals(Arrays.asList(testEvent, null), calendarService.removeAll(ids));
+        verify(mockDataStore).removeAll(ids);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveAllWithNullId() throws RemoteException {
+
+        calendarService.removeAll(Arrays.asList(testEvent.getId(), null));
+    }
+
     @Test
     public void testEdit() throws IOException, IllegalArgumentException, ValidationException, JAXBException, DateTimeFormatException {
         calendarService.add(testEvent);
@@ -158,6 +220,21 @@ public class CalendarServiceImplTest {
         verify(mockDataStore).getEventByDay(testEvent.getStartDate().toLocalDate());
     }
 
+    @Test
+    public void testSearchByDays() throws RemoteException {
+
+        LocalDate day = testEvent.getStartDate().toLocalDate();
+        when(mockDataStore.getEventByDay(day)).thenReturn(Collections.singletonList(testEvent));
+        when(mockDataStore.getEventByDay(day.plusDays(1))).thenReturn(Collections.emptyList());
+
+        Map<LocalDate, List<Event>> eventsByDay = calendarService.searchByDays(Arrays.asList(day.plusDays(1), day, day));
+
+        assertEquals(Arrays.asList(day.plusDays(1), day), new ArrayList<>(eventsByDay.keySet()));
+        assertEquals(Collections.singletonList(testEvent), eventsByDay.get(day));
+        assertEquals(Collections.emptyList(), eventsByDay.get(day.plusDays(1)));
+        verify(mockDataStore).getEventByDay(day);
+    }
+
     @Test
     public void testSearchByDayNotExistsEvent() throws IllegalArgumentException, RemoteException {
 
@@ -385,13 +462,13 @@ public class CalendarServiceImplTest {
         eventList.add(event1);
         eventList.add(event2);
 
-        when(mockDataStore.getEventByAttender(attender)).thenReturn(eventList);
+        stubAttenderIndex(attender, eventList);
 
         boolean isFreeResult = calendarService.isAttenderFree(attender, startDate ,endDate);
 
         Assert.assertTrue(isFreeResult);
 
-        verify(mockDataStore).getEventByAttender(attender);
+        verify(mockDataStore).isAttenderBusy(attender, startDate, endDate);
     }
 
     @Test
@@ -425,13 +502,13 @@ public class CalendarServiceImplTest {
         eventList.add(event1);
         eventList.add(event2);
 
-        when(mockDataStore.getEventByAttender(attender)).thenReturn(eventList);
+        stubAttenderIndex(attender, eventList);
 
         boolean isFreeResult = calendarService.isAttenderFree(attender, startDate ,endDate);
 
         Assert.assertFalse(isFreeResult);
 
-        verify(mockDataStore).getEventByAttender(attender);
+        verify(mockDataStore).isAttenderBusy(attender, startDate, endDate);
     }
 
     @Test
@@ -465,13 +542,13 @@ public class CalendarServiceImplTest {
         eventList.add(event1);
         eventList.add(event2);
 
-        when(mockDataStore.getEventByAttender(attender)).thenReturn(eventList);
+        stubAttenderIndex(attender, eventList);
 
         boolean isFreeResult = calendarService.isAttenderFree(attender, startDate ,endDate);
 
         Assert.assertFalse(isFreeResult);
 
-        verify(mockDataStore).getEventByAttender(attender);
+        verify(mockDataStore).isAttenderBusy(attender, startDate, endDate);
     }
 
     @Test
@@ -505,13 +582,13 @@ public class CalendarServiceImplTest {
         eventList.add(event1);
         eventList.add(event2);
 
-        when(mockDataStore.getEventByAttender(attender)).thenReturn(eventList);
+        stubAttenderIndex(attender, eventList);
 
         boolean isFreeResult = calendarService.isAttenderFree(attender, startDate ,endDate);
 
         Assert.assertFalse(isFreeResult);
 
-        verify(mockDataStore).getEventByAttender(attender);
+        verify(mockDataStore).isAttenderBusy(attender, startDate, endDate);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -534,6 +611,73 @@ public class CalendarServiceImplTest {
         calendarService.isAttenderFree(attender, startDate, endDate);
     }
 
+    @Test
+    public void testIsAttendersFree() throws RemoteException, OrderOfArgumentsException {
+
+        Person otherPerson = new Person.PersonBuilder().name("Igor").lastName("Igorov").email("igor_igor@ukr.net").build();
+        LocalDateTime startDate = LocalDateTime.of(2020, 1, 1, 10, 0);
+        LocalDateTime endDate = LocalDateTime.of(2020, 1, 1, 11, 0);
+        when(mockDataStore.isAttenderBusy(testPerson, startDate, endDate)).thenReturn(true);
+        when(mockDataStore.isAttenderBusy(otherPerson, endDate, endDate.plusHours(1))).thenReturn(false);
+        Map<Person, List<LocalDateTime>> periods = new LinkedHashMap<>();
+        periods.put(testPerson, Arrays.asList(startDate, endDate));
+        periods.put(otherPerson, Arrays.asList(endDate, endDate.plusHours(1)));
+
+        Map<Person, Boolean> expected = new LinkedHashMap<>();
+        expected.put(testPerson, false);
+        expected.put(otherPerson, true);
+        assertEquals(expected, calendarService.isAttendersFree(periods));
+    }
+
+    @Test(expected = OrderOfArgumentsException.class)
+    public void testIsAttendersFreeWithWrongOrderOfDate() throws RemoteException, OrderOfArgumentsException {
+
+        LocalDateTime startDate = LocalDateTime.of(2020, 1, 1, 10, 0);
+        calendarService.isAttendersFree(Collections.singletonMap(testPerson, Arrays.asList(startDate, startDate.minusHours(1))));
+    }
+
+    @Test
+    public void testSearchIntoPeriodByPages() throws RemoteException, OrderOfArgumentsException {
+
+        LocalDate startDay = LocalDate.of(2020, 1, 1);
+        LocalDate endDay = LocalDate.of(2020, 1, 31);
+        Event secondEvent = new Event.EventBuilder(testEvent).id(UUID.randomUUID()).startDate(testEvent.getStartDate().plusDays(1)).build();
+        Event thirdEvent = new Event.EventBuilder(testEvent).id(UUID.randomUUID()).startDate(testEvent.getStartDate().plusDays(2)).build();
+        when(mockDataStore.getEventIntoPeriod(startDay, endDay, null, 3)).thenReturn(Arrays.asList(testEvent, secondEvent, thirdEvent));
+        when(mockDataStore.getEventIntoPeriod(startDay, endDay, PageToken.of(secondEvent), 3)).thenReturn(Collections.singletonList(thirdEvent));
+
+        EventPage firstPage = calendarService.searchIntoPeriod(startDay, endDay, null, 2);
+        EventPage lastPage = calendarService.searchIntoPeriod(startDay, endDay, firstPage.getNextPageToken(), 2);
+
+        assertEquals(Arrays.asList(testEvent, secondEvent), firstPage.getEvents());
+        assertEquals(PageToken.of(secondEvent).toString(), firstPage.getNextPageToken());
+        assertEquals(Collections.singletonList(thirdEvent), lastPage.getEvents());
+        assertTrue(lastPage.isLast());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSearchByAttenderWithMalformedPageToken() throws RemoteException {
+
+        calendarService.searchByAttender(testPerson, "2020-01-01", 10);
+    }
+
+    @Test
+    public void testIterateEventByTitleStartWith() throws RemoteException {
+
+        Event secondEvent = new Event.EventBuilder(testEvent).id(UUID.randomUUID()).startDate(testEvent.getStartDate().plusDays(1)).build();
+        when(mockDataStore.searchEventByTitleStartWith("Test", null, 2)).thenReturn(Arrays.asList(testEvent, secondEvent));
+        when(mockDataStore.searchEventByTitleStartWith("Test", PageToken.of(testEvent), 2)).thenReturn(Collections.singletonList(secondEvent));
+
+        EventIterator iterator = calendarService.iterateEventByTitleStartWith("Test", 1);
+        List<Event> events = new ArrayList<>();
+        while (iterator.hasNext()) events.addAll(iterator.next());
+        iterator.close();
+
+        assertEquals(Arrays.asList(testEvent, secondEvent), events);
+        assertEquals(Collections.emptyList(), iterator.next());
+        verify(mockDataStore, times(2)).searchEventByTitleStartWith(eq("Test"), any(PageToken.class), eq(2));
+    }
+
     @Test
     public void testSearchByAttenderIntoPeriodWithoutEventIntoGivenPeriod() throws DateTimeFormatException, IOException, OrderOfArgumentsException, ValidationException, JAXBException {
         Person attender = new Person.PersonBuilder()
@@ -563,13 +707,13 @@ public class CalendarServiceImplTest {
         calendarService.add(event2);
         List<Event> expectedList = new ArrayList<>();
 
-        when(mockDataStore.getEventByAttender(attender)).thenReturn(expectedList);
+        stubAttenderIndex(attender, expectedList);
 
         List<Event> resultList = calendarService.searchByAttenderIntoPeriod(attender, startDate ,endDate);
 
         Assert.assertEquals(expectedList, resultList);
 
-        verify(mockDataStore).getEventByAttender(attender);
+        verify(mockDataStore).getEventByAttenderIntoPeriod(attender, startDate, endDate);
     }
 
     @Test
@@ -602,13 +746,13 @@ public class CalendarServiceImplTest {
         List<Event> expectedList = new ArrayList<>();
         expectedList.add(event1);
 
-        when(mockDataStore.getEventByAttender(attender)).thenReturn(expectedList);
+        stubAttenderIndex(attender, expectedList);
 
         List<Event> resultList = calendarService.searchByAttenderIntoPeriod(attender, startDate ,endDate);
 
         Assert.assertEquals(expectedList, resultList);
 
-        verify(mockDataStore).getEventByAttender(attender);
+        verify(mockDataStore).getEventByAttenderIntoPeriod(attender, startDate, endDate);
     }
 
     @Test
@@ -642,13 +786,13 @@ public class CalendarServiceImplTest {
         expectedList.add(event1);
         expectedList.add(event2);
 
-        when(mockDataStore.getEventByAttender(attender)).thenReturn(expectedList);
+        stubAttenderIndex(attender, expectedList);
 
         List<Event> resultList = calendarService.searchByAttenderIntoPeriod(attender, startDate ,endDate);
 
         Assert.assertEquals(expectedList, resultList);
 
-        verify(mockDataStore).getEventByAttender(attender);
+        verify(mockDataStore).getEventByAttenderIntoPeriod(attender, startDate, endDate);
     }
 
     @Test
@@ -681,13 +825,13 @@ public class CalendarServiceImplTest {
         List<Event> expectedList = new ArrayList<>();
         expectedList.add(event1);
 
-        when(mockDataStore.getEventByAttender(attender)).thenReturn(expectedList);
+        stubAttenderIndex(attender, expectedList);
 
         List<Event> resultList = calendarService.searchByAttenderIntoPeriod(attender, startDate ,endDate);
 
         Assert.assertEquals(expectedList, resultList);
 
-        verify(mockDataStore).getEventByAttender(attender);
+        verify(mockDataStore).getEventByAttenderIntoPeriod(attender, startDate, endDate);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -770,18 +914,11 @@ public class CalendarServiceImplTest {
         expectedList.add(timeList2);
         expectedList.add(timeList3);
 
-        List<Event> list1 = new ArrayList<>();
-        list1.add(event1);
-        when(mockDataStore.getEventByDay(DateParser.stringToDate("2020-10-31 00:00").toLocalDate())).thenReturn(list1);
-
-        List<Event> list2 = new ArrayList<Event>();
-        list2.add(event2);
-        when(mockDataStore.getEventByDay(DateParser.stringToDate("2020-11-01 00:00").toLocalDate())).thenReturn(list2);
-
-        List<Event> list3 = new ArrayList<>();
-        list3.add(event2);
-        list3.add(event3);
-        when(mockDataStore.getEventByDay(DateParser.stringToDate("2020-11-02 00:00").toLocalDate())).thenReturn(list3);
+        List<Event> eventsIntoPeriod = new ArrayList<>();
+        eventsIntoPeriod.add(event1);
+        eventsIntoPeriod.add(event2);
+        eventsIntoPeriod.add(event3);
+        when(mockDataStore.getEventIntoPeriod(startDate.toLocalDate(), endDate.toLocalDate())).thenReturn(eventsIntoPeriod);
 
         long start = System.nanoTime();
         List<List<LocalDateTime>> resultList = calendarService.searchFreeTime(startDate ,endDate);
@@ -791,7 +928,7 @@ public class CalendarServiceImplTest {
 
         Assert.assertEquals(expectedList, resultList);
 
-        verify(mockDataStore,times(3)).getEventByDay(Matchers.any(LocalDate.class));
+        verify(mockDataStore).getEventIntoPeriod(startDate.toLocalDate(), endDate.toLocalDate());
     }
 
     @Test
@@ -853,18 +990,11 @@ public class CalendarServiceImplTest {
         expectedList.add(timeList2);
         expectedList.add(timeList3);
 
-        List<Event> list1 = new ArrayList<>();
-        list1.add(event1);
-        when(mockDataStore.getEventByDay(DateParser.stringToDate("2020-10-31 00:00").toLocalDate())).thenReturn(list1);
-
-        List<Event> list2 = new ArrayList<>();
-        list2.add(event2);
-        when(mockDataStore.getEventByDay(DateParser.stringToDate("2020-11-01 00:00").toLocalDate())).thenReturn(list2);
-
-        List<Event> list3 = new ArrayList<>();
-        list3.add(event2);
-        list3.add(event3);
-        when(mockDataStore.getEventByDay(DateParser.stringToDate("2020-11-02 00:00").toLocalDate())).thenReturn(list3);
+        List<Event> eventsIntoPeriod = new ArrayList<>();
+        eventsIntoPeriod.add(event1);
+        eventsIntoPeriod.add(event2);
+        eventsIntoPeriod.add(event3);
+        when(mockDataStore.getEventIntoPeriod(startDate.toLocalDate(), endDate.toLocalDate())).thenReturn(eventsIntoPeriod);
 
         long start = System.nanoTime();
         List<List<LocalDateTime>> resultList = calendarService.searchFreeTime2(startDate, endDate);
@@ -874,7 +1004,45 @@ public class CalendarServiceImplTest {
 
         Assert.assertEquals(expectedList, resultList);
 
-        verify(mockDataStore,times(3)).getEventByDay(Matchers.any(LocalDate.class));
+        verify(mockDataStore).getEventIntoPeriod(startDate.toLocalDate(), endDate.toLocalDate());
+    }
+
+    @Test
+    public void testSearchFreeTime2WithoutFreeSlots() throws OrderOfArgumentsException, IOException, DateTimeFormatException {
+        Event event = new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Conference")
+                .description("Java conference")
+                .startDate(DateParser.stringToDate("2020-11-01 09:00"))
+                .endDate(DateParser.stringToDate("2020-11-01 18:00"))
+                .periodSet(period)
+                .attendersSet(new HashSet<>()).build();
+
+        LocalDateTime startDate = DateParser.stringToDate("2020-11-01 10:00");
+        LocalDateTime endDate = DateParser.stringToDate("2020-11-01 12:00");
+        when(mockDataStore.getEventIntoPeriod(startDate.toLocalDate(), endDate.toLocalDate())).thenReturn(Collections.singletonList(event));
+
+        Assert.assertTrue(calendarService.searchFreeTime2(startDate, endDate).isEmpty());
+    }
+
+    @Test
+    public void testSearchFreeTime2WithHourSlots() throws OrderOfArgumentsException, IOException, DateTimeFormatException {
+        Event event = new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Meeting")
+                .description("Meeting with Ivan")
+                .startDate(DateParser.stringToDate("2020-11-01 10:10"))
+                .endDate(DateParser.stringToDate("2020-11-01 10:30"))
+                .periodSet(period)
+                .attendersSet(new HashSet<>()).build();
+
+        LocalDateTime startDate = DateParser.stringToDate("2020-11-01 09:00");
+        LocalDateTime endDate = DateParser.stringToDate("2020-11-01 12:00");
+        when(mockDataStore.getEventIntoPeriod(startDate.toLocalDate(), endDate.toLocalDate())).thenReturn(Collections.singletonList(event));
+
+        List<List<LocalDateTime>> expectedList = Arrays.asList(
+                Arrays.asList(DateParser.stringToDate("2020-11-01 09:00"), DateParser.stringToDate("2020-11-01 10:00")),
+                Arrays.asList(DateParser.stringToDate("2020-11-01 11:00"), DateParser.stringToDate("2020-11-01 12:00")));
+
+        Assert.assertEquals(expectedList, new CalendarServiceImpl(mockDataStore, 60).searchFreeTime2(startDate, endDate));
     }
 
     @Test
@@ -936,21 +1104,16 @@ public class CalendarServiceImplTest {
         expectedList.add(timeList2);
         expectedList.add(timeList3);
 
-        List<Event> list1 = new ArrayList<>();
-        list1.add(event1);
-        when(mockDataStore.getEventByDay(DateParser.stringToDate("2020-10-15 00:00").toLocalDate())).thenReturn(list1);
-
-        List<Event> list2 = new ArrayList<>();
-        list2.add(event2);
-        when(mockDataStore.getEventByDay(DateParser.stringToDate("2020-10-16 00:00").toLocalDate())).thenReturn(list2);
-        when(mockDataStore.getEventByDay(DateParser.stringToDate("2020-10-17 00:00").toLocalDate())).thenReturn(new ArrayList<>());
-        when(mockDataStore.getEventByDay(DateParser.stringToDate("2020-10-18 00:00").toLocalDate())).thenReturn(new ArrayList<>());
+        List<Event> eventsIntoPeriod = new ArrayList<>();
+        eventsIntoPeriod.add(event1);
+        eventsIntoPeriod.add(event2);
+        when(mockDataStore.getEventIntoPeriod(startDate.toLocalDate(), endDate.toLocalDate())).thenReturn(eventsIntoPeriod);
 
         List<List<LocalDateTime>> resultList = calendarService.searchFreeTimeForEvent(eventForSearch, startDate ,endDate);
 
         Assert.assertEquals(expectedList, resultList);
 
-        verify(mockDataStore,times(4)).getEventByDay(Matchers.any(LocalDate.class));
+        verify(mockDataStore).getEventIntoPeriod(startDate.toLocalDate(), endDate.toLocalDate());
     }
 
     @Test
@@ -1027,14 +1190,56 @@ public class CalendarServiceImplTest {
         List<List<LocalDateTime>> expectedList = new ArrayList<>();
         expectedList.add(timeList1);
 
-        when(mockDataStore.getEventByAttender(attender2)).thenReturn(attender2Events);
-        when(mockDataStore.getEventByAttender(attender3)).thenReturn(attender3Events);
+        stubAttenderIndex(attender2, attender2Events);
+        stubAttenderIndex(attender3, attender3Events);
 
         List<List<LocalDateTime>> resultList = calendarService.searchFreeTimeForEventWithAttenders(eventForSearch, startDate, endDate);
 
         Assert.assertEquals(expectedList, resultList);
     }
 
+    @Test
+    public void testSearchFreeSlotsForAttenders() throws OrderOfArgumentsException, IOException, DateTimeFormatException {
+        Person attender1 = new Person.PersonBuilder().name("Ivan").lastName("Ivanov").email("ivan@ukr.net").build();
+        Person attender2 = new Person.PersonBuilder().name("Nik").lastName("Anderson").email("nik@ukr.net").build();
+
+        Set<Person> attenders = new HashSet<>();
+        attenders.add(attender1);
+        attenders.add(attender2);
+
+        Event meeting = new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Meeting")
+                .description("Command meeting")
+                .startDate(DateParser.stringToDate("2020-10-15 09:00"))
+                .endDate(DateParser.stringToDate("2020-10-15 12:00"))
+                .periodSet(period)
+                .attendersSet(attenders).build();
+
+        Event birthday = new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Happy Birthday")
+                .description("Happy Birthday Ivan")
+                .startDate(DateParser.stringToDate("2020-10-15 14:30"))
+                .endDate(DateParser.stringToDate("2020-10-15 18:00"))
+                .periodSet(period)
+                .attendersSet(Collections.singleton(attender1)).build();
+
+        stubAttenderIndex(attender1, Arrays.asList(meeting, birthday));
+        stubAttenderIndex(attender2, Collections.singletonList(meeting));
+
+        LocalDateTime startDate = DateParser.stringToDate("2020-10-15 08:00");
+        LocalDateTime endDate = DateParser.stringToDate("2020-10-15 20:00");
+
+        List<List<LocalDateTime>> expectedAllFree = Arrays.asList(
+                Arrays.asList(DateParser.stringToDate("2020-10-15 12:00"), DateParser.stringToDate("2020-10-15 14:00")),
+                Arrays.asList(DateParser.stringToDate("2020-10-15 18:00"), DateParser.stringToDate("2020-10-15 20:00")));
+        List<List<LocalDateTime>> expectedOneFree = Arrays.asList(
+                Arrays.asList(DateParser.stringToDate("2020-10-15 12:00"), DateParser.stringToDate("2020-10-15 14:00")),
+                Arrays.asList(DateParser.stringToDate("2020-10-15 14:00"), DateParser.stringToDate("2020-10-15 16:00")));
+
+        Assert.assertEquals(expectedAllFree, calendarService.searchFreeSlotsForAttenders(attenders, startDate, endDate, Duration.ofHours(2), 2, 5));
+        Assert.assertEquals(expectedOneFree, calendarService.searchFreeSlotsForAttenders(attenders, startDate, endDate, Duration.ofHours(2), 1, 2));
+    }
+
     @Test
     public void testSearchEventByTitleStartWith () throws IOException, JAXBException, ValidationException {
         // initialize variable inputs
@@ -1075,4 +1280,17 @@ public class CalendarServiceImplTest {
         // verify mock expectations
         verify(mockDataStore).searchEventByTitleStartWith(prefix);
     }
+
+    private void stubAttenderIndex(Person attender, List<Event> events) {
+        AttenderIndex index = new AttenderIndex(testPerson);
+        Map<UUID, Event> eventStore = new HashMap<>();
+        for (Event event : events) {
+            index.add(event);
+            eventStore.put(event.getId(), event);
+        }
+        when(mockDataStore.getEventByAttenderIntoPeriod(eq(attender), any(LocalDateTime.class), any(LocalDateTime.class))).thenAnswer(invocation ->
+                index.search((LocalDateTime) invocation.getArguments()[1], (LocalDateTime) invocation.getArguments()[2], eventStore::get));
+        when(mockDataStore.isAttenderBusy(eq(attender), any(LocalDateTime.class), any(LocalDateTime.class))).thenAnswer(invocation ->
+                index.isAnyIntoPeriod((LocalDateTime) invocation.getArguments()[1], (LocalDateTime) invocation.getArguments()[2], eventStore::get));
+    }
 }
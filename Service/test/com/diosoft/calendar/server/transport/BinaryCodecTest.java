@@ -0,0 +1,156 @@
+package com.diosoft.calendar.server.transport;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.EventPage;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.common.Person;
+import com.diosoft.calendar.server.exception.OrderOfArgumentsException;
+import com.diosoft.calendar.server.service.CalendarService;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.rmi.RemoteException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BinaryCodecTest {
+
+    private Person testPerson = new Person.PersonBuilder()
+            .name("Denis")
+            .lastName("Milyaev")
+            .email("denis@ukr.net")
+            .build();
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Event event = new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Meeting")
+                .description(null)
+                .startDate(LocalDateTime.of(2020, 10, 15, 10, 0, 30, 500))
+                .endDate(LocalDateTime.of(2020, 10, 15, 11, 0))
+                .attendersSet(new HashSet<>(Collections.singleton(testPerson)))
+                .periodSet(EnumSet.of(PeriodOfEvent.MONDAY, PeriodOfEvent.FRIDAY)).build();
+        Map<Person, List<LocalDateTime>> periods = new LinkedHashMap<>();
+        periods.put(testPerson, Arrays.asList(LocalDateTime.of(2020, 1, 1, 0, 0), null));
+
+        List<Object> values = Arrays.asList(null, true, 42, 42L, "Заголовок", event.getId(), LocalDate.of(2020, 2, 29),
+                Duration.ofMinutes(90).plusNanos(1), PeriodOfEvent.EVERY_YEAR, testPerson, event,
+                periods, Collections.singleton(event));
+        for (Object value : values) assertEquals(value, decode(encode(value)));
+
+        Event decoded = (Event) decode(encode(event));
+        assertEquals(event.getStartDate(), decoded.getStartDate());
+        assertEquals(event.getPeriod(), decoded.getPeriod());
+        assertEquals(event.getAttenders(), decoded.getAttenders());
+        assertNull(decoded.getDescription());
+        EventPage page = (EventPage) decode(encode(new EventPage(Collections.singletonList(event), "token")));
+        assertEquals(Collections.singletonList(event), page.getEvents());
+        assertEquals("token", page.getNextPageToken());
+        assertArrayEquals(new String[]{"a", null}, (String[]) decode(encode(new String[]{"a", null})));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnsupportedType() throws Exception {
+        encode(new StringBuilder("Meeting"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTooDeepValue() throws Exception {
+        Object value = "leaf";
+        for (int i = 0; i <= BinaryCodec.MAX_DEPTH; i++) value = Collections.singletonList(value);
+        encode(value);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testCountLargerThanFrame() throws Exception {
+        ByteBuffer frame = ByteBuffer.allocate(5);
+        frame.put((byte) 13).putInt(Integer.MAX_VALUE).flip();
+        BinaryCodec.read(frame);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testLengthOfStringLargerThanFrame() throws Exception {
+        ByteBuffer frame = ByteBuffer.allocate(6);
+        frame.put((byte) 4).putInt(1 << 30).put((byte) 'a').flip();
+        BinaryCodec.read(frame);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testUnknownTag() throws Exception {
+        BinaryCodec.read(ByteBuffer.wrap(new byte[]{(byte) 0xAC, (byte) 0xED, 0, 5}));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testWrongTypeOfField() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(11);
+        BinaryCodec.write(out, "not an id");
+        BinaryCodec.read(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testWrongCountOfArguments() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryCodec.writeArguments(new DataOutputStream(bytes), new Object[]{"Meeting", "extra"});
+        BinaryCodec.readArguments(ByteBuffer.wrap(bytes.toByteArray()), 1);
+    }
+
+    @Test
+    public void testException() throws Exception {
+        assertEquals(OrderOfArgumentsException.class, decodeException(new OrderOfArgumentsException("Wrong order")).getClass());
+        assertEquals("Wrong order", decodeException(new OrderOfArgumentsException("Wrong order")).getMessage());
+        assertEquals(IllegalArgumentException.class, decodeException(new IllegalArgumentException()).getClass());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (String string : new String[]{"com.example.UnknownException", "message"}) {
+            out.writeInt(string.length());
+            out.writeBytes(string);
+        }
+        Throwable unknown = BinaryCodec.readException(ByteBuffer.wrap(bytes.toByteArray()));
+        assertEquals(RemoteException.class, unknown.getClass());
+        assertEquals("com.example.UnknownException: message", unknown.getMessage());
+    }
+
+    @Test
+    public void testEveryMethodHasStableId() throws Exception {
+        Set<Short> ids = new HashSet<>();
+        for (Method method : CalendarService.class.getMethods()) {
+            short id = BinaryProtocol.idOf(method);
+            assertTrue(ids.add(id));
+            assertEquals(method, BinaryProtocol.methodOf(id));
+        }
+        assertEquals(8, BinaryProtocol.idOf(CalendarService.class.getMethod("searchByTitle", String.class)));
+        assertEquals(26, BinaryProtocol.idOf(CalendarService.class.getMethod("searchEventByTitleStartWith", String.class, String.class, int.class)));
+        assertNull(BinaryProtocol.methodOf((short) 0));
+    }
+
+    private static byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryCodec.write(new DataOutputStream(bytes), value);
+        return bytes.toByteArray();
+    }
+
+    private static Object decode(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Object value = BinaryCodec.read(buffer);
+        assertFalse(buffer.hasRemaining());
+        return value;
+    }
+
+    private static Throwable decodeException(Throwable exception) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryCodec.writeException(new DataOutputStream(bytes), exception);
+        return BinaryCodec.readException(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+}
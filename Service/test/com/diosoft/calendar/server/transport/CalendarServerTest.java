@@ -0,0 +1,166 @@
+package com.diosoft.calendar.server.transport;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import com.diosoft.calendar.server.datastore.ConcurrentDataStore;
+import com.diosoft.calendar.server.datastore.DataStore;
+import com.diosoft.calendar.server.exception.OrderOfArgumentsException;
+import com.diosoft.calendar.server.filesystem.FileSystem;
+import com.diosoft.calendar.server.service.CalendarService;
+import com.diosoft.calendar.server.service.CalendarServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.diosoft.calendar.server.common.TestEvents.TEST_PERSON;
+import static com.diosoft.calendar.server.common.TestEvents.createEvent;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class CalendarServerTest {
+    private final static LocalDateTime BASE = LocalDateTime.of(2020, 10, 15, 10, 0);
+    private final static int EVENT_COUNT = 50;
+
+    private final List<Event> events = new ArrayList<>();
+    private CalendarServer server;
+    private BinaryCalendarClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        DataStore dataStore = new ConcurrentDataStore(mock(FileSystem.class));
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Event event = createEvent("Event " + i, BASE.plusHours(i), BASE.plusHours(i).plusMinutes(30), TEST_PERSON, PeriodOfEvent.ONCE);
+            events.add(event);
+            dataStore.publish(event);
+        }
+        server = new CalendarServer(new CalendarServiceImpl(dataStore), 0, 4);
+        server.start();
+        client = new BinaryCalendarClient("localhost", server.getPort());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void testCall() throws Exception {
+        CalendarService service = client.getService();
+
+        assertEquals(Collections.singletonList(events.get(7)), service.searchByTitle("Event 7"));
+        assertEquals(events.get(3), service.remove(events.get(3).getId()));
+        assertNull(service.remove(events.get(3).getId()));
+        assertEquals(EVENT_COUNT - 1, service.searchByAttender(TEST_PERSON).size());
+    }
+
+    @Test
+    public void testPipelinedCallsOfManyThreads() throws Exception {
+        CalendarService service = client.getService();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int number = i % EVENT_COUNT;
+            results.add(executor.submit(() -> service.searchByTitle("Event " + number).equals(Collections.singletonList(events.get(number)))));
+        }
+        for (Future<Boolean> result : results) assertTrue(result.get(10, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testManyConnections() throws Exception {
+        List<BinaryCalendarClient> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < 200; i++) clients.add(new BinaryCalendarClient("localhost", server.getPort()));
+            for (int i = 0; i < clients.size(); i++)
+                assertEquals(events.get(i % EVENT_COUNT).getId(),
+                        clients.get(i).getService().searchByTitle("Event " + i % EVENT_COUNT).get(0).getId());
+        } finally {
+            for (BinaryCalendarClient other : clients) other.close();
+        }
+    }
+
+    @Test(expected = OrderOfArgumentsException.class)
+    public void testDeclaredException() throws Exception {
+        client.getService().searchByAttenderIntoPeriod(TEST_PERSON, BASE.plusDays(1), BASE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRuntimeException() throws Exception {
+        client.getService().searchByTitle(null);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRemoteResultIsNotSupported() throws Exception {
+        client.getService().iterateByAttender(TEST_PERSON, 10);
+    }
+
+    @Test
+    public void testUnknownMethod() throws Exception {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(BinaryProtocol.REQUEST_HEADER_SIZE + Integer.BYTES);
+            out.writeLong(1);
+            out.writeShort(Short.MAX_VALUE);
+            out.writeInt(0);
+            out.flush();
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            byte[] payload = new byte[in.readInt() - BinaryProtocol.RESPONSE_HEADER_SIZE];
+            assertEquals(1, in.readLong());
+            assertEquals(BinaryProtocol.ERROR, in.readByte());
+            in.readFully(payload);
+            assertEquals(UnsupportedOperationException.class, BinaryCodec.readException(ByteBuffer.wrap(payload)).getClass());
+        }
+    }
+
+    @Test
+    public void testTooLargeFrameClosesConnection() throws Exception {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            socket.setSoTimeout(10000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(BinaryProtocol.MAX_REQUEST_SIZE + 1);
+            out.writeLong(1);
+            out.flush();
+            try {
+                assertEquals(-1, socket.getInputStream().read());
+            } catch (IOException e) {
+//  connection may be reset as well as closed
+            }
+        }
+        assertEquals(events.get(1), client.getService().searchByTitle("Event 1").get(0));
+    }
+
+    @Test
+    public void testPipelinedRequestsWithoutReadingResponses() throws Exception {
+        int count = 1000;
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            socket.setSoTimeout(10000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            for (int i = 0; i < count; i++)
+                out.write(BinaryProtocol.request(i, CalendarService.class.getMethod("searchByTitle", String.class), new Object[]{"Event " + i % EVENT_COUNT}));
+            out.flush();
+
+//  server stops reading at its limit of pending requests and resumes while responses are read
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            Set<Long> requestIds = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                byte[] payload = new byte[in.readInt() - BinaryProtocol.RESPONSE_HEADER_SIZE];
+                long requestId = in.readLong();
+                assertEquals(BinaryProtocol.OK, in.readByte());
+                in.readFully(payload);
+                assertEquals(Collections.singletonList(events.get((int) requestId % EVENT_COUNT)), BinaryCodec.read(ByteBuffer.wrap(payload)));
+                assertTrue(requestIds.add(requestId));
+            }
+        }
+    }
+}
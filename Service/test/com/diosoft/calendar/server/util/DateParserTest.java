@@ -5,6 +5,9 @@ import org.junit.Test;
 
 import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
 import static org.junit.Assert.*;
 
 public class DateParserTest {
@@ -26,6 +29,28 @@ public class DateParserTest {
         DateParser.stringToDate(stringDate);
     }
 
+    @Test
+    public void testStringToDateEqualsFormatter() throws DateTimeFormatException, IllegalArgumentException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        String[] stringDates = {"2020-02-29 23:59", "2019-02-29 10:00", "2020-04-31 10:00", "0001-01-01 00:00",
+                "9999-12-31 23:59", "2020-01-01 24:00", "2020-01-01 10:60", "2020-00-01 10:00", "2020-13-01 10:00",
+                "2020-01-00 10:00", "0000-01-01 10:00", "12020-01-01 10:00", "2020-01-01T10:00", "2020-0a-01 10:00"};
+
+        for (String stringDate : stringDates) {
+            LocalDateTime expectedDateTime;
+            try {
+                expectedDateTime = LocalDateTime.parse(stringDate, formatter);
+            } catch (DateTimeParseException e) {
+                expectedDateTime = null;
+            }
+            try {
+                assertEquals(stringDate, expectedDateTime, DateParser.stringToDate(stringDate));
+            } catch (DateTimeFormatException e) {
+                assertNull(stringDate, expectedDateTime);
+            }
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testStringToDateWithNullArg() throws DateTimeFormatException, IllegalArgumentException {
 
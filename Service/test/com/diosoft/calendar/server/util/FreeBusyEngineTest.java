@@ -0,0 +1,122 @@
+package com.diosoft.calendar.server.util;
+
+import com.diosoft.calendar.server.common.Event;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class FreeBusyEngineTest {
+    private final static Duration SLOT_DURATION = Duration.ofMinutes(15);
+    private final static LocalDateTime DAY_START = LocalDateTime.of(2020, 10, 15, 8, 0);
+
+    @Test
+    public void testSearchCommonFreeSlotsOfAllAttenders() {
+
+        List<List<Event>> busyByAttender = Arrays.asList(
+                Arrays.asList(createEvent(DAY_START, DAY_START.plusHours(1))),
+                Arrays.asList(createEvent(DAY_START.plusMinutes(90), DAY_START.plusHours(2))),
+                Arrays.asList(createEvent(DAY_START.plusMinutes(130), DAY_START.plusHours(3))));
+
+        List<List<LocalDateTime>> expected = Arrays.asList(
+                Arrays.asList(DAY_START.plusHours(1), DAY_START.plusMinutes(90)),
+                Arrays.asList(DAY_START.plusHours(3), DAY_START.plusMinutes(210)));
+
+        assertEquals(expected, FreeBusyEngine.searchCommonFreeSlots(busyByAttender, DAY_START, DAY_START.plusHours(8),
+                SLOT_DURATION, Duration.ofMinutes(30), 3, 2));
+    }
+
+    @Test
+    public void testSearchCommonFreeSlotsOfSomeAttenders() {
+
+        List<List<Event>> busyByAttender = Arrays.asList(
+                Arrays.asList(createEvent(DAY_START, DAY_START.plusHours(1))),
+                Arrays.asList(createEvent(DAY_START.plusMinutes(30), DAY_START.plusHours(2))),
+                Arrays.asList(createEvent(DAY_START.plusMinutes(45), DAY_START.plusHours(3))));
+
+        List<List<LocalDateTime>> expected = Arrays.asList(
+                Arrays.asList(DAY_START, DAY_START.plusMinutes(30)),
+                Arrays.asList(DAY_START.plusHours(2), DAY_START.plusMinutes(150)),
+                Arrays.asList(DAY_START.plusMinutes(150), DAY_START.plusHours(3)));
+
+        assertEquals(expected, FreeBusyEngine.searchCommonFreeSlots(busyByAttender, DAY_START, DAY_START.plusHours(8),
+                SLOT_DURATION, Duration.ofMinutes(30), 2, 3));
+    }
+
+    @Test
+    public void testSearchCommonFreeSlotsEndNotLaterThanPeriod() {
+
+        List<List<Event>> busyByAttender = Collections.singletonList(Collections.emptyList());
+
+        assertEquals(Collections.emptyList(), FreeBusyEngine.searchCommonFreeSlots(busyByAttender, DAY_START, DAY_START.plusMinutes(50),
+                SLOT_DURATION, Duration.ofHours(1), 1, 1));
+    }
+
+    @Test
+    public void testSearchCommonFreeSlotsEqualsSearchByScanningOfSlots() {
+
+        Random random = new Random(42);
+        for (int test = 0; test < 500; test++) {
+            int attenderCount = 1 + random.nextInt(60);
+            List<List<Event>> busyByAttender = new ArrayList<>();
+            for (int attender = 0; attender < attenderCount; attender++) {
+                List<Event> events = new ArrayList<>();
+                int count = random.nextInt(8);
+                for (int i = 0; i < count; i++) {
+                    LocalDateTime start = DAY_START.plusMinutes(random.nextInt(24 * 60) - 60);
+                    events.add(createEvent(start, start.plusMinutes(random.nextInt(180))));
+                }
+                busyByAttender.add(events);
+            }
+            LocalDateTime endDate = DAY_START.plusMinutes(random.nextInt(24 * 60));
+            Duration duration = Duration.ofMinutes(1 + random.nextInt(120));
+            int minFreeAttenders = 1 + random.nextInt(attenderCount);
+            int count = 1 + random.nextInt(10);
+
+            assertEquals(searchByScanningOfSlots(busyByAttender, DAY_START, endDate, duration, minFreeAttenders, count),
+                    FreeBusyEngine.searchCommonFreeSlots(busyByAttender, DAY_START, endDate, SLOT_DURATION, duration, minFreeAttenders, count));
+        }
+    }
+
+    private static List<List<LocalDateTime>> searchByScanningOfSlots(List<List<Event>> busyByAttender, LocalDateTime startDate, LocalDateTime endDate,
+                                                                     Duration duration, int minFreeAttenders, int count) {
+        List<List<LocalDateTime>> freeSlotList = new ArrayList<>();
+        long slotsPerDuration = (duration.getSeconds() + SLOT_DURATION.getSeconds() - 1) / SLOT_DURATION.getSeconds();
+        LocalDateTime start = startDate;
+        while (freeSlotList.size() < count && !start.plus(duration).isAfter(endDate)) {
+            LocalDateTime end = start.plus(duration);
+            boolean free = true;
+            for (LocalDateTime slot = start; slot.isBefore(end) && free; slot = slot.plus(SLOT_DURATION)) {
+                int freeAttenders = 0;
+                for (List<Event> events : busyByAttender) {
+                    boolean busy = false;
+                    for (Event event : events)
+                        if (event.getStartDate().isBefore(event.getEndDate())
+                                && event.getStartDate().isBefore(slot.plus(SLOT_DURATION)) && event.getEndDate().isAfter(slot)) busy = true;
+                    if (!busy) freeAttenders++;
+                }
+                free = freeAttenders >= minFreeAttenders;
+            }
+            if (free) {
+                freeSlotList.add(Arrays.asList(start, end));
+                start = start.plus(SLOT_DURATION.multipliedBy(slotsPerDuration));
+            } else {
+                start = start.plus(SLOT_DURATION);
+            }
+        }
+        return freeSlotList;
+    }
+
+    private Event createEvent(LocalDateTime startDate, LocalDateTime endDate) {
+        return new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Event " + startDate + " " + endDate)
+                .description("Description")
+                .startDate(startDate)
+                .endDate(endDate)
+                .attendersSet(new HashSet<>())
+                .periodSet(new HashSet<>()).build();
+    }
+}
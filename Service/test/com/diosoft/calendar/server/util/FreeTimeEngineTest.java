@@ -0,0 +1,153 @@
+package com.diosoft.calendar.server.util;
+
+import com.diosoft.calendar.server.common.Event;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+public class FreeTimeEngineTest {
+    private final static int MINUTE_INTERVAL = 15;
+    private final static Duration MIN_DURATION = Duration.ofMinutes(MINUTE_INTERVAL);
+    private final static LocalDateTime DAY_START = LocalDateTime.of(2020, 10, 15, 8, 0);
+
+    @Test
+    public void testSearchFreeTime() {
+
+        Set<Event> events = new HashSet<>();
+        events.add(createEvent(DAY_START.plusHours(1), DAY_START.plusHours(2)));
+        events.add(createEvent(DAY_START.plusMinutes(90), DAY_START.plusHours(3)));
+        events.add(createEvent(DAY_START.plusMinutes(190), DAY_START.plusHours(4)));
+        events.add(createEvent(DAY_START.plusHours(9), DAY_START.plusHours(12)));
+
+        List<List<LocalDateTime>> expected = Arrays.asList(
+                Arrays.asList(DAY_START, DAY_START.plusHours(1)),
+                Arrays.asList(DAY_START.plusHours(4), DAY_START.plusHours(9)));
+
+        assertEquals(expected, FreeTimeEngine.searchFreeTime(events, DAY_START, DAY_START.plusHours(10), MIN_DURATION));
+    }
+
+    @Test
+    public void testSearchFreeTimeWithoutEvents() {
+
+        List<List<LocalDateTime>> expected = Collections.singletonList(Arrays.asList(DAY_START, DAY_START.plusHours(1)));
+
+        assertEquals(expected, FreeTimeEngine.searchFreeTime(new HashSet<>(), DAY_START, DAY_START.plusHours(1), MIN_DURATION));
+    }
+
+    @Test
+    public void testSearchFreeTimeEqualsSearchBySplittingOfIntervals() {
+
+        Random random = new Random(42);
+        for (int test = 0; test < 2_000; test++) {
+            Set<Event> events = new HashSet<>();
+            int count = random.nextInt(20);
+            for (int i = 0; i < count; i++) {
+                LocalDateTime start = DAY_START.plusMinutes(random.nextInt(12 * 60) - 60);
+                events.add(createEvent(start, start.plusMinutes(random.nextInt(180))));
+            }
+            LocalDateTime startDate = DAY_START.plusMinutes(random.nextInt(6 * 60));
+            LocalDateTime endDate = startDate.plusMinutes(random.nextInt(test % 2 == 0 ? 30 : 6 * 60));
+
+            assertEquals(searchBySplitting(events, startDate, endDate),
+                    FreeTimeEngine.searchFreeTime(events, startDate, endDate, MIN_DURATION));
+        }
+    }
+
+    @Test
+    public void testSearchFreeSlotsWithoutFreeSlots() {
+
+        Set<Event> events = new HashSet<>();
+        events.add(createEvent(DAY_START.minusHours(1), DAY_START.plusHours(3)));
+
+        assertEquals(Collections.emptyList(), FreeTimeEngine.searchFreeSlots(events, DAY_START, DAY_START.plusHours(2), MIN_DURATION));
+        assertEquals(Collections.emptyList(), FreeTimeEngine.searchFreeSlots(events, DAY_START, DAY_START, MIN_DURATION));
+    }
+
+    @Test
+    public void testSearchFreeSlotsEqualsScanningOfSlots() {
+
+        Random random = new Random(42);
+        for (int test = 0; test < 2_000; test++) {
+            Set<Event> events = new HashSet<>();
+            int count = random.nextInt(20);
+            for (int i = 0; i < count; i++) {
+                LocalDateTime start = DAY_START.plusMinutes(random.nextInt(12 * 60) - 60);
+                events.add(createEvent(start, start.plusMinutes(random.nextInt(4) == 0 ? 0 : random.nextInt(180))));
+            }
+            LocalDateTime startDate = DAY_START.plusMinutes(random.nextInt(6 * 60));
+            LocalDateTime endDate = startDate.plusMinutes(random.nextInt(6 * 60));
+            int slotMinutes = test % 2 == 0 ? MINUTE_INTERVAL : 1 + random.nextInt(60);
+
+            assertEquals(searchByScanningOfSlots(events, startDate, endDate, slotMinutes),
+                    FreeTimeEngine.searchFreeSlots(events, startDate, endDate, Duration.ofMinutes(slotMinutes)));
+        }
+    }
+
+    // previous algorithm of searchFreeTime2: every slot is checked against every event, adjacent free slots are merged
+    private static List<List<LocalDateTime>> searchByScanningOfSlots(Set<Event> events, LocalDateTime startDate, LocalDateTime endDate, int slotMinutes) {
+        List<List<LocalDateTime>> freeTimeList = new ArrayList<>();
+        for (LocalDateTime slotStart = startDate; slotStart.isBefore(endDate); slotStart = slotStart.plusMinutes(slotMinutes)) {
+            LocalDateTime slotEnd = slotStart.plusMinutes(slotMinutes);
+            boolean isFree = true;
+            for (Event event : events)
+                if (event.getStartDate().equals(slotStart) || event.getEndDate().equals(slotEnd)
+                        || event.getStartDate().isAfter(slotStart) && event.getStartDate().isBefore(slotEnd)
+                        || event.getEndDate().isAfter(slotStart) && event.getEndDate().isBefore(slotEnd)
+                        || event.getStartDate().isBefore(slotStart) && event.getEndDate().isAfter(slotEnd)) {
+                    isFree = false;
+                    break;
+                }
+            if (!isFree) continue;
+            if (!freeTimeList.isEmpty() && freeTimeList.get(freeTimeList.size() - 1).get(1).equals(slotStart))
+                freeTimeList.get(freeTimeList.size() - 1).set(1, slotEnd);
+            else
+                freeTimeList.add(Arrays.asList(slotStart, slotEnd));
+        }
+        return freeTimeList;
+    }
+
+    // previous algorithm of CalendarServiceImpl: every event cuts or splits free intervals
+    private static List<List<LocalDateTime>> searchBySplitting(Set<Event> events, LocalDateTime startDate, LocalDateTime endDate) {
+        List<List<LocalDateTime>> freeTimeList = new LinkedList<>();
+        freeTimeList.add(Arrays.asList(startDate, endDate));
+        for (Event event : events) {
+            ListIterator<List<LocalDateTime>> it = freeTimeList.listIterator();
+            while (it.hasNext()) {
+                List<LocalDateTime> interval = it.next();
+                if (event.getStartDate().isBefore(interval.get(0).plusMinutes(MINUTE_INTERVAL))
+                        && event.getEndDate().isAfter(interval.get(1).minusMinutes(MINUTE_INTERVAL))) {
+                    it.remove();
+                    continue;
+                }
+                if (event.getStartDate().isBefore(interval.get(0).plusMinutes(MINUTE_INTERVAL))
+                        && event.getEndDate().isAfter(interval.get(0))
+                        && !event.getEndDate().isAfter(interval.get(1).minusMinutes(MINUTE_INTERVAL)))
+                    interval.set(0, event.getEndDate());
+                if (!event.getStartDate().isBefore(interval.get(0).plusMinutes(MINUTE_INTERVAL))
+                        && event.getStartDate().isBefore(interval.get(1))
+                        && event.getEndDate().isAfter(interval.get(1).minusMinutes(MINUTE_INTERVAL)))
+                    interval.set(1, event.getStartDate());
+                if (!event.getStartDate().isBefore(interval.get(0).plusMinutes(MINUTE_INTERVAL))
+                        && !event.getEndDate().isAfter(interval.get(1).minusMinutes(MINUTE_INTERVAL))) {
+                    it.add(Arrays.asList(event.getEndDate(), interval.get(1)));
+                    interval.set(1, event.getStartDate());
+                }
+            }
+        }
+        return freeTimeList;
+    }
+
+    private Event createEvent(LocalDateTime startDate, LocalDateTime endDate) {
+        return new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Event " + startDate + " " + endDate)
+                .description("Description")
+                .startDate(startDate)
+                .endDate(endDate)
+                .attendersSet(new HashSet<>())
+                .periodSet(new HashSet<>()).build();
+    }
+}
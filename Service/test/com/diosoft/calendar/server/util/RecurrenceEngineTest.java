@@ -0,0 +1,71 @@
+package com.diosoft.calendar.server.util;
+
+import com.diosoft.calendar.server.common.Event;
+import com.diosoft.calendar.server.common.PeriodOfEvent;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class RecurrenceEngineTest {
+
+    @Test
+    public void testNextOccurrenceEveryMonth() {
+        Event event = createEvent(LocalDateTime.of(2020, 1, 31, 10, 0), LocalDateTime.of(2020, 1, 31, 12, 0), PeriodOfEvent.EVERY_MONTH);
+
+        assertEquals(LocalDate.of(2020, 1, 31), RecurrenceEngine.nextOccurrence(event, LocalDate.of(2019, 5, 1)));
+        assertEquals(LocalDate.of(2020, 3, 31), RecurrenceEngine.nextOccurrence(event, LocalDate.of(2020, 2, 1)));
+    }
+
+    @Test
+    public void testNextOccurrenceEveryYear() {
+        Event event = createEvent(LocalDateTime.of(2020, 2, 29, 10, 0), LocalDateTime.of(2020, 2, 29, 12, 0), PeriodOfEvent.EVERY_YEAR);
+
+        assertEquals(LocalDate.of(2024, 2, 29), RecurrenceEngine.nextOccurrence(event, LocalDate.of(2020, 3, 1)));
+    }
+
+    @Test
+    public void testNextOccurrenceDayOfWeek() {
+        Event event = createEvent(LocalDateTime.of(2020, 1, 1, 10, 0), LocalDateTime.of(2020, 1, 1, 12, 0), PeriodOfEvent.WEDNESDAY, PeriodOfEvent.FRIDAY);
+
+        assertEquals(LocalDate.of(2020, 1, 3), RecurrenceEngine.nextOccurrence(event, LocalDate.of(2020, 1, 2)));
+        assertEquals(LocalDate.of(2020, 1, 8), RecurrenceEngine.nextOccurrence(event, LocalDate.of(2020, 1, 4)));
+    }
+
+    @Test
+    public void testNextOccurrenceOnceAfterEnd() {
+        Event event = createEvent(LocalDateTime.of(2020, 1, 1, 10, 0), LocalDateTime.of(2020, 1, 3, 12, 0), PeriodOfEvent.ONCE);
+
+        assertEquals(LocalDate.of(2020, 1, 2), RecurrenceEngine.nextOccurrence(event, LocalDate.of(2020, 1, 2)));
+        assertNull(RecurrenceEngine.nextOccurrence(event, LocalDate.of(2020, 1, 4)));
+    }
+
+    @Test
+    public void testOccurrences() {
+        Event event = createEvent(LocalDateTime.of(2020, 1, 30, 10, 0), LocalDateTime.of(2020, 2, 1, 12, 0), PeriodOfEvent.EVERY_MONTH);
+
+        List<LocalDate> expectedDays = Arrays.asList(LocalDate.of(2020, 3, 1), LocalDate.of(2020, 3, 30), LocalDate.of(2020, 3, 31));
+        assertEquals(expectedDays, RecurrenceEngine.occurrences(event, LocalDate.of(2020, 2, 2), LocalDate.of(2020, 3, 31)));
+        assertTrue(RecurrenceEngine.isOccurIntoPeriod(event, LocalDate.of(2020, 2, 2), LocalDate.of(2020, 3, 1)));
+        assertFalse(RecurrenceEngine.isOccurIntoPeriod(event, LocalDate.of(2020, 2, 2), LocalDate.of(2020, 2, 29)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNextOccurrenceWithNullArg() {
+
+        RecurrenceEngine.nextOccurrence(null, LocalDate.of(2020, 1, 1));
+    }
+
+    private Event createEvent(LocalDateTime startDate, LocalDateTime endDate, PeriodOfEvent... period) {
+        return new Event.EventBuilder()
+                .id(UUID.randomUUID()).title("Event")
+                .description("Description of event")
+                .startDate(startDate)
+                .endDate(endDate)
+                .periodSet(new HashSet<>(Arrays.asList(period)))
+                .attendersSet(new HashSet<>()).build();
+    }
+}